@@ -0,0 +1,74 @@
+package paypal.payflow;
+
+/**
+ * Collects the outcome of an equivalence check. The checks under src/check are plain
+ * main classes, run by the "check" target of build.xml; a check exits with status 1
+ * when any of its cases fails.
+ */
+final class CheckReport {
+
+    /**
+     * Maximum number of failures printed; the rest are only counted.
+     */
+    private static final int MAX_PRINTED = 20;
+
+    private final String mName;
+    private int mCases;
+    private int mFailures;
+
+    /**
+     * Constructor
+     *
+     * @param name String : name of the check, used in the summary.
+     */
+    CheckReport(String name) {
+        mName = name;
+    }
+
+    /**
+     * Records a case which compares two strings.
+     *
+     * @param what     String : description of the case.
+     * @param expected String
+     * @param actual   String
+     */
+    void compare(String what, String expected, String actual) {
+        mCases++;
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            fail(what + "\n    expected : " + expected + "\n    actual   : " + actual);
+        }
+    }
+
+    /**
+     * Records a case which checks a condition.
+     *
+     * @param what      String : description of the case.
+     * @param condition boolean
+     */
+    void check(String what, boolean condition) {
+        mCases++;
+        if (!condition) {
+            fail(what);
+        }
+    }
+
+    /**
+     * Records a failed case.
+     *
+     * @param message String
+     */
+    void fail(String message) {
+        mFailures++;
+        if (mFailures <= MAX_PRINTED) {
+            System.out.println("FAILED: " + message);
+        }
+    }
+
+    /**
+     * Prints the summary and ends the check, with status 1 if any case failed.
+     */
+    void finish() {
+        System.out.println(mName + ": " + mCases + " cases, " + mFailures + " failures");
+        System.exit(mFailures == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,93 @@
+package paypal.payflow;
+
+import java.text.BreakIterator;
+import java.util.Random;
+
+/**
+ * Checks that PayflowUtility.graphemeLength(), which counts simple text without a
+ * BreakIterator, gives the same length tags as the BreakIterator count the SDK used for
+ * every value before. The values are random mixes of ASCII, CR LF, Latin text and the
+ * characters the fast path has to hand over to the BreakIterator: combining marks,
+ * surrogate pairs, joiners, variation selectors, Hangul jamo, regional indicators and
+ * Indic scripts.
+ * <p>
+ * Usage: GraphemeLengthCheck [values] [seed]
+ */
+final class GraphemeLengthCheck {
+
+    /**
+     * Pools of characters the random values are drawn from.
+     */
+    private static final String[] POOLS = {
+            "abcXYZ019 -.,&=[]",
+            "\r\n",
+            "\u00e9\u00fc\u00df\u00f1\u00c5\u00ff\u0100\u017e\u01c4\u024f\u02b0\u02ff",
+            "\u0300\u0301\u0308\u0327\u036f",
+            "\u6771\u4eac\u00a0\u2028\u3000",
+            "\ud83d\ude00\ud83d\udc4d\ud83c\udffd",
+            "\u200d\u200c\ufe0f\ufe0e",
+            "\u1100\u1161\u11a8\uac00",
+            "\ud83c\uddfa\ud83c\uddf8",
+            "\u0915\u094d\u0937\u093f",
+    };
+
+    private GraphemeLengthCheck() {
+    }
+
+    public static void main(String[] args) {
+        int values = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 20261019L;
+        Random random = new Random(seed);
+        BreakIterator it = BreakIterator.getCharacterInstance();
+        CheckReport report = new CheckReport("GraphemeLengthCheck");
+        report.compare("empty value", "0", PayflowUtility.StringValueLength(""));
+        for (int n = 0; n < values; n++) {
+            String value = randomValue(random);
+            it.setText(value);
+            int expected = 0;
+            while (it.next() != BreakIterator.DONE) {
+                expected++;
+            }
+            report.compare("length of " + escape(value), String.valueOf(expected),
+                    String.valueOf(PayflowUtility.graphemeLength(value)));
+        }
+        report.finish();
+    }
+
+    /**
+     * Builds a value from up to 24 pieces. Most values only use the simple pools, so that
+     * the fast path is exercised as much as the hand-over.
+     */
+    private static String randomValue(Random random) {
+        int pools = random.nextInt(4) == 0 ? POOLS.length : 3;
+        int pieces = random.nextInt(25);
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < pieces; i++) {
+            String pool = POOLS[random.nextInt(pools)];
+            int at = random.nextInt(pool.length());
+            char c = pool.charAt(at);
+            if (Character.isHighSurrogate(c) && at + 1 < pool.length()) {
+                value.append(c).append(pool.charAt(at + 1));
+            } else if (Character.isLowSurrogate(c) && random.nextInt(4) != 0) {
+                // mostly keep pairs whole, sometimes leave a lone surrogate
+                value.append(pool.charAt(at - 1)).append(c);
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
+    private static String escape(String value) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7e) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,121 @@
+package paypal.payflow;
+
+/**
+ * The name value pair request masking of PayflowUtility.maskNVPRequest as it was before
+ * NvpMasker was added, with the locateValueForName it called eight times, kept unchanged
+ * as the reference for NvpMaskerFuzzCheck.
+ */
+final class LegacyNvpMasker {
+
+    private LegacyNvpMasker() {
+    }
+
+    /**
+     * Masks a name value pair request the way maskNVPRequest did.
+     *
+     * @param parmList String
+     * @return maskedRequest String
+     */
+    static String mask(final String parmList) {
+        String logParmList = parmList;
+        //Mask ACCT if present
+        logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_ACCT, true);
+        //Mask EXPDATE if present
+        //CR EXPDATE is unmasked
+        //logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_EXPDATE, true);
+        //Mask SWIPE if present
+        logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_SWIPE, true);
+        //Mask MICR if present
+        logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_MICR, true);
+        //Mask CVV2 if present
+        logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_CVV2, true);
+        //Mask PWD
+        logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_PWD, true);
+        //Mask DL if present
+        logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_DL, true);
+        //Mask SS if present
+        logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_SS, true);
+        //Mask DOB if present
+        logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_DOB, true);
+        //Mask VIT_OSNAME if present
+        //logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_VIT_OSNAME, true);
+        //Mask VIT_OSARCH if present
+        //logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_VIT_OSARCH, true);
+        //Mask VIT_OSVERSION if present
+        //logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_VIT_OSVERSION, true);
+        //Mask VIT_SDKRUNTIMEVERSION if present
+        //logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_VIT_SDKRUNTIMEVERSION, true);
+        //Mask VIT_PROXY if present
+        //logParmList = locateValueForName(logParmList, PayflowConstants.PARAM_VIT_PROXY, true);
+        return logParmList;
+    }
+
+    /**
+     * Locates value from name value pair and masks or returns it.
+     *
+     * @param paramList      String
+     * @param name           String
+     * @param maskFoundValue boolean
+     * @return value String
+     */
+    static String locateValueForName(String paramList, String name, boolean maskFoundValue) {
+        String value;
+        int nameIndex;
+        int prevNameIndex;
+        if (maskFoundValue) {
+            value = paramList;
+        } else {
+            value = PayflowConstants.EMPTY_STRING;
+        }
+        if (null != paramList && paramList.length() > 0) {
+            nameIndex = paramList.indexOf(name + PayflowConstants.SEPARATOR_NVP);
+            if (nameIndex < 0) {
+                nameIndex = paramList.indexOf(name + PayflowConstants.OPENING_BRACE_NVP);
+            }
+            prevNameIndex = nameIndex;
+            if (nameIndex > 0) {
+                if (paramList.charAt(nameIndex - 1) != '&') {
+                    nameIndex = paramList.indexOf(name + PayflowConstants.SEPARATOR_NVP, prevNameIndex);
+                    if (nameIndex < 0) {
+                        nameIndex = paramList.indexOf(name + PayflowConstants.OPENING_BRACE_NVP, prevNameIndex + 1);
+                    }
+                }
+            }
+            if (!(nameIndex < 0 || prevNameIndex < 0)) {
+                int nvSeparatorIndex = paramList.indexOf("=", nameIndex);
+                if (nvSeparatorIndex > 0) {
+                    int nvDelimiterIndex = paramList.indexOf("&", nvSeparatorIndex);
+                    boolean iterate = true;
+                    while (iterate) {
+                        iterate = false;
+                        if (!(nvDelimiterIndex < 0)) {
+                            if (nvDelimiterIndex + 1 < paramList.length() && paramList.charAt(nvDelimiterIndex + 1) == '&') {
+                                nvDelimiterIndex += 2;
+                                nvDelimiterIndex = paramList.indexOf("&", nvDelimiterIndex);
+                                iterate = true;
+                            }
+                        } else {
+                            nvDelimiterIndex = paramList.length();
+                        }
+                    }
+                    if (maskFoundValue) {
+                        int maskIndex;
+                        int dontMaskIndex;
+                        char[] valueArr = value.toCharArray();
+                        for (maskIndex = nvSeparatorIndex + 1; maskIndex < nvDelimiterIndex; maskIndex++) {
+                            dontMaskIndex = maskIndex - nvSeparatorIndex;
+                            if (name.equals(PayflowConstants.PARAM_ACCT) && (dontMaskIndex < 7 || dontMaskIndex > 12)) {
+                                continue;
+                            }
+                            valueArr[maskIndex] = 'X';
+                        }
+                        value = new String(valueArr);
+                    } else {
+                        value = paramList.substring(nvSeparatorIndex + 1, nvDelimiterIndex);
+                    }
+                }
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,84 @@
+package paypal.payflow;
+
+import org.apache.xerces.dom.ChildNode;
+import org.apache.xerces.parsers.DOMParser;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.bootstrap.DOMImplementationRegistry;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSSerializer;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.StringReader;
+
+/**
+ * The DOM based XMLPay request masking of PayflowUtility.maskXMLPayRequest as it was before
+ * XmlPayMasker was added, kept unchanged apart from its logging as the reference for
+ * XmlPayMaskerCheck. Parser errors are thrown without also being printed, so that the
+ * malformed requests of the check do not flood its output.
+ */
+final class LegacyXmlPayMasker {
+
+    private LegacyXmlPayMasker() {
+    }
+
+    /**
+     * Masks an XMLPay request the way maskXMLPayRequest did.
+     *
+     * @param parmList String
+     * @return maskedRequest String
+     * @throws Exception Exception
+     */
+    static String mask(final String parmList) throws Exception {
+        DOMParser xmlParser = new DOMParser();
+        xmlParser.setErrorHandler(new DefaultHandler());
+        xmlParser.parse(new InputSource(new StringReader(parmList)));
+        Document xmlPayRequest = xmlParser.getDocument();
+        maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_ACCTNUM);
+        maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_CARDNUM);
+        maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_MAGDATA);
+        maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_MICR);
+        maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_CVNUM);
+        maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_PASSWORD);
+        maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_DL);
+        maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_SS);
+        maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_DOB);
+
+        System.setProperty(DOMImplementationRegistry.PROPERTY, "org.apache.xerces.dom.DOMImplementationSourceImpl");
+        DOMImplementationRegistry registry = DOMImplementationRegistry.newInstance();
+        DOMImplementation domImpl = registry.getDOMImplementation("LS 3.0");
+        DOMImplementationLS implLS = (DOMImplementationLS) domImpl;
+        LSSerializer dom3Writer = implLS.createLSSerializer();
+        return dom3Writer.writeToString(xmlPayRequest);
+    }
+
+    private static void maskXmlNodeValue(Document xmlPayRequest, String nodeName) {
+        String retVal;
+        String maskValue = PayflowConstants.EMPTY_STRING;
+
+        if (xmlPayRequest != null && nodeName != null && nodeName.length() > 0) {
+            NodeList nodeList = xmlPayRequest.getElementsByTagName(nodeName);
+
+            if (nodeList != null && nodeList.getLength() == 1) {
+                ChildNode nodeElement = (ChildNode) nodeList.item(0);
+
+                if (nodeElement != null) {
+                    retVal = nodeElement.getTextContent();
+
+                    if (null != retVal) {
+                        for (int i = 0; i < retVal.length(); i++) {
+                            if (((nodeName.equals(PayflowConstants.XML_PARAM_ACCTNUM)) || (nodeName.equals(PayflowConstants.XML_PARAM_CARDNUM)) && (i < 6 || i > 11))) {
+                                maskValue = maskValue + retVal.charAt(i);
+                            } else {
+                                maskValue = maskValue + "X";
+                            }
+                        }
+                    }
+                    nodeElement.setTextContent(maskValue);
+                }
+            }
+        }
+    }
+}
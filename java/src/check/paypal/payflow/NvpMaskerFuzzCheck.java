@@ -0,0 +1,83 @@
+package paypal.payflow;
+
+import java.util.Random;
+
+/**
+ * Checks that PayflowUtility.maskNVPRequest, which now masks in one pass with NvpMasker,
+ * gives the same masked request as the eight locateValueForName calls it replaced
+ * (LegacyNvpMasker).
+ * <p>
+ * The generated requests are built from the sensitive names, names that contain them
+ * (XACCT, ACCTX, SSS), other names, length tags, right and wrong, escaped and lone
+ * ampersands, and values holding '=', '[' and sensitive names. Names may be repeated,
+ * missing, or not follow an ampersand.
+ * <p>
+ * Usage: NvpMaskerFuzzCheck [requests] [seed]
+ */
+final class NvpMaskerFuzzCheck {
+
+    private static final String[] NAMES = {
+            PayflowConstants.PARAM_ACCT, PayflowConstants.PARAM_SWIPE, PayflowConstants.PARAM_MICR,
+            PayflowConstants.PARAM_CVV2, PayflowConstants.PARAM_PWD, PayflowConstants.PARAM_DL,
+            PayflowConstants.PARAM_SS, PayflowConstants.PARAM_DOB,
+            "XACCT", "ACCTX", "SSS", "D", "EXPDATE", "TRXTYPE", "AMT", "USER"};
+
+    private static final String[] VALUE_PARTS = {
+            "0", "1234", "5105105105105100", "abc", " ", "=", "&&", "&", "[", "]", "[4]",
+            "ACCT=", "PWD[", "&SS=", "\u00e9", "\u6771"};
+
+    private NvpMaskerFuzzCheck() {
+    }
+
+    public static void main(String[] args) {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 300000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 20261019L;
+        Random random = new Random(seed);
+        CheckReport report = new CheckReport("NvpMaskerFuzzCheck");
+        for (int n = 0; n < requests; n++) {
+            String request = randomRequest(random);
+            report.compare("mask of " + request, LegacyNvpMasker.mask(request), PayflowUtility.maskNVPRequest(request));
+        }
+        report.finish();
+    }
+
+    /**
+     * Builds a request of up to 10 pairs. Most pairs are joined by '&amp;'; some follow
+     * each other directly or are joined by a noise character.
+     */
+    private static String randomRequest(Random random) {
+        StringBuilder request = new StringBuilder();
+        int pairs = random.nextInt(11);
+        for (int i = 0; i < pairs; i++) {
+            if (i > 0) {
+                int join = random.nextInt(10);
+                if (join < 8) {
+                    request.append('&');
+                } else if (join == 8) {
+                    request.append(VALUE_PARTS[random.nextInt(VALUE_PARTS.length)]);
+                }
+            }
+            StringBuilder value = new StringBuilder();
+            int parts = random.nextInt(5);
+            for (int p = 0; p < parts; p++) {
+                value.append(VALUE_PARTS[random.nextInt(VALUE_PARTS.length)]);
+            }
+            request.append(NAMES[random.nextInt(NAMES.length)]);
+            switch (random.nextInt(4)) {
+                case 0:
+                    request.append('[').append(value.length()).append(']');
+                    break;
+                case 1:
+                    request.append('[').append(random.nextInt(20)).append(']');
+                    break;
+                default:
+                    break;
+            }
+            if (random.nextInt(20) != 0) {
+                request.append('=');
+            }
+            request.append(value);
+        }
+        return request.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package paypal.payflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks that ParameterListValidator.parseNVPList, which now reads well formed lists with
+ * NameValueList, gives the same table and the same context errors as the parser it
+ * replaced (LegacyNvpParser) on generated lists, well formed and malformed.
+ * <p>
+ * A list on which the old parser threw must make the new one throw the same exception.
+ * Two inputs are left out because the parsers differ there on purpose: names and values
+ * without a length tag longer than 1000 characters, which the old parser truncated, and
+ * the NUL character, on which the old parser never returned.
+ * <p>
+ * Usage: NvpParserFuzzCheck [lists] [seed]
+ */
+final class NvpParserFuzzCheck {
+
+    private static final String[] NAMES = {"RESULT", "PNREF", "RESPMSG", "AUTHCODE", "AVSADDR", "A", " B ", "X_Y"};
+
+    private static final String VALUE_CHARS = "abcXYZ019 .,-_/:;&&&=[]\t\u00e9\u6771";
+
+    private static final String NOISE_CHARS = "[]=& -5";
+
+    private NvpParserFuzzCheck() {
+    }
+
+    public static void main(String[] args) {
+        int lists = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 20261019L;
+        Random random = new Random(seed);
+        CheckReport report = new CheckReport("NvpParserFuzzCheck");
+        int wellFormed = 0;
+        for (int n = 0; n < lists; n++) {
+            String list = randomList(random);
+            Context legacyContext = new Context();
+            Context context = new Context();
+            String expected;
+            try {
+                expected = normalize(LegacyNvpParser.parse(list, legacyContext, true));
+            } catch (RuntimeException ex) {
+                expected = "threw " + ex.getClass().getName();
+            }
+            String actual;
+            try {
+                actual = normalize(ParameterListValidator.parseNVPList(list, context, true));
+            } catch (RuntimeException ex) {
+                actual = "threw " + ex.getClass().getName();
+            }
+            report.compare("table of " + list, expected, actual);
+            report.compare("errors of " + list, errors(legacyContext), errors(context));
+            if (legacyContext.getErrorCount() == 0) {
+                wellFormed++;
+            }
+        }
+        System.out.println("NvpParserFuzzCheck: " + wellFormed + " of " + lists + " lists were well formed");
+        report.finish();
+    }
+
+    /**
+     * Builds a list of up to 12 pairs. Most lists are well formed: every value has a
+     * correct length tag, or no tag and only escaped ampersands. The others mix in wrong,
+     * non-numeric and negative length tags, lone ampersands and noise characters.
+     */
+    private static String randomList(Random random) {
+        boolean wellFormed = random.nextInt(10) < 6;
+        StringBuilder list = new StringBuilder();
+        int pairs = random.nextInt(13);
+        for (int i = 0; i < pairs; i++) {
+            if (i > 0) {
+                list.append('&');
+            }
+            String name = NAMES[random.nextInt(NAMES.length)];
+            boolean tagged = random.nextBoolean();
+            StringBuilder value = new StringBuilder();
+            int length = random.nextInt(random.nextInt(8) == 0 ? 60 : 12);
+            for (int c = 0; c < length; c++) {
+                char ch = VALUE_CHARS.charAt(random.nextInt(VALUE_CHARS.length()));
+                if (ch == '&' && wellFormed && !tagged) {
+                    value.append("&&");
+                } else {
+                    value.append(ch);
+                }
+            }
+            list.append(name);
+            if (tagged) {
+                list.append('[').append(value.length()).append(']');
+            } else if (!wellFormed) {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        list.append('[').append(value.length() + random.nextInt(5) - 2).append(']');
+                        break;
+                    case 1:
+                        list.append(random.nextBoolean() ? "[x1]" : "[-" + value.length() + "]");
+                        break;
+                    default:
+                        break;
+                }
+            }
+            list.append('=').append(value);
+        }
+        if (!wellFormed && random.nextBoolean()) {
+            int noise = 1 + random.nextInt(3);
+            for (int i = 0; i < noise; i++) {
+                int at = random.nextInt(list.length() + 1);
+                list.insert(at, NOISE_CHARS.charAt(random.nextInt(NOISE_CHARS.length())));
+            }
+        }
+        return list.toString();
+    }
+
+    /**
+     * Renders a table in a fixed order. Duplicate names carry a random request id after
+     * the duplicate tag, which is dropped.
+     */
+    private static String normalize(Map<?, ?> table) {
+        List<String> entries = new ArrayList<String>();
+        for (Map.Entry<?, ?> entry : table.entrySet()) {
+            String name = String.valueOf(entry.getKey());
+            int tag = name.indexOf(PayflowConstants.TAG_DUPLICATE);
+            if (tag >= 0) {
+                name = name.substring(0, tag + PayflowConstants.TAG_DUPLICATE.length());
+            }
+            entries.add(name + "=" + entry.getValue());
+        }
+        Collections.sort(entries);
+        return entries.toString();
+    }
+
+    private static String errors(Context context) {
+        List<String> messages = new ArrayList<String>();
+        for (Object error : context.getErrors()) {
+            messages.add(String.valueOf(error));
+        }
+        return messages.toString();
+    }
+}
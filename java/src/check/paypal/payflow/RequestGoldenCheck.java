@@ -0,0 +1,223 @@
+package paypal.payflow;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares the name value pair requests built by the data object transactions with golden
+ * files. The golden requests were recorded from the SDK before the request encoder was
+ * rewritten, so any difference in names, length tags, values or delimiters shows up here.
+ * <p>
+ * The transactions follow the samples under src/paypal/payments/samples/dataobjects,
+ * with fixed values in place of the placeholders, plus values which exercise the length
+ * tags: non-ASCII text, combining marks, CR LF and an escaped ampersand.
+ * <p>
+ * Usage: RequestGoldenCheck &lt;golden file&gt; [-write]
+ */
+final class RequestGoldenCheck {
+
+    private RequestGoldenCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String goldenFile = args[0];
+        Map<String, String> requests = buildRequests();
+        if (args.length > 1 && "-write".equals(args[1])) {
+            writeGolden(goldenFile, requests);
+            System.out.println("RequestGoldenCheck: wrote " + requests.size() + " requests to " + goldenFile);
+            return;
+        }
+        Map<String, String> golden = readGolden(goldenFile);
+        CheckReport report = new CheckReport("RequestGoldenCheck");
+        report.check("golden file has " + golden.size() + " requests, built " + requests.size(),
+                golden.size() == requests.size());
+        for (Map.Entry<String, String> entry : golden.entrySet()) {
+            report.compare(entry.getKey(), entry.getValue(), requests.get(entry.getKey()));
+        }
+        report.finish();
+    }
+
+    /**
+     * Builds the request of every case, in a fixed order.
+     *
+     * @return requests Map : case name to request.
+     */
+    private static Map<String, String> buildRequests() {
+        Map<String, String> requests = new LinkedHashMap<String, String>();
+        UserInfo user = new UserInfo("user", "vendor", "partner", "p@ss&word");
+        PayflowConnectionData connection = new PayflowConnectionData();
+
+        requests.put("sale", request(new SaleTransaction(user, connection, saleInvoice(), card(), "R1")));
+        requests.put("sale-unicode", request(new SaleTransaction(user, connection, unicodeInvoice(), card(), "R2")));
+        requests.put("sale-line-items", request(new SaleTransaction(user, connection, lineItemInvoice(), card(), "R3")));
+        requests.put("sale-swipe", request(new SaleTransaction(user, connection, saleInvoice(),
+                new CardTender(new SwipeCard(";5105105105105100=15121011000012345678?")), "R4")));
+        requests.put("sale-ach", request(new SaleTransaction(user, connection, saleInvoice(),
+                new ACHTender(new BankAcct("1111111111", "111111118")), "R5")));
+        requests.put("sale-telecheck", request(new SaleTransaction(user, connection, saleInvoice(),
+                new CheckTender(new CheckPayment("1234567804390850001001")), "R6")));
+        requests.put("authorization", request(new AuthorizationTransaction(user, connection, saleInvoice(), card(), "R7")));
+        requests.put("capture", request(new CaptureTransaction("V19A2E3F4G5H", user, connection, amountInvoice("10.00"), "R8")));
+        requests.put("credit", request(new CreditTransaction("V19A2E3F4G5H", user, connection, amountInvoice("5.25"), "R9")));
+        requests.put("void", request(new VoidTransaction("V19A2E3F4G5H", user, connection, "R10")));
+        requests.put("inquiry", request(new InquiryTransaction("V19A2E3F4G5H", user, connection, "R11")));
+        requests.put("voice-auth", request(new VoiceAuthTransaction("123PNI", user, connection, saleInvoice(), card(), "R12")));
+        requests.put("reference", request(new ReferenceTransaction("S", "V19A2E3F4G5H", user, connection, saleInvoice(),
+                new BaseTender("C", null), "R13")));
+        requests.put("express-checkout-set", request(new AuthorizationTransaction(user, connection, saleInvoice(),
+                new PayPalTender(new ECSetRequest("http://www.myreturnurl.com", "http://www.mycancelurl.com")), "R14")));
+        requests.put("express-checkout-do", request(new SaleTransaction(user, connection, saleInvoice(),
+                new PayPalTender(new ECDoRequest("EC-TOKEN", "PAYER1")), "R15")));
+        requests.put("fraud-review", request(new FraudReviewTransaction("V19A2E3F4G5H", "RMS_APPROVE", user, connection, "R16")));
+        requests.put("recurring-add", request(new RecurringAddTransaction(user, connection, saleInvoice(), card(), recurringInfo(), "R17")));
+        requests.put("recurring-cancel", request(new RecurringCancelTransaction(user, connection, recurringInfo(), "R18")));
+
+        SaleTransaction extended = new SaleTransaction(user, connection, saleInvoice(), card(), "R19");
+        extended.setExtData(new ExtendData("CAPTURECOMPLETE", "NO"));
+        extended.setExtData(new ExtendData("COMMENT1", "a&&b"));
+        requests.put("sale-extend-data", request(extended));
+        return requests;
+    }
+
+    /**
+     * Builds the name value pair request of a transaction, as submitted.
+     *
+     * @param transaction BaseTransaction
+     * @return request String
+     */
+    private static String request(BaseTransaction transaction) {
+        transaction.generateRequest();
+        return transaction.getRequestBuffer().toString();
+    }
+
+    private static CardTender card() {
+        CreditCard cc = new CreditCard("5105105105105100", "0125");
+        cc.setCvv2("123");
+        return new CardTender(cc);
+    }
+
+    private static Invoice amountInvoice(String amount) {
+        Invoice inv = new Invoice();
+        inv.setAmt(new Currency(new Double(amount), "USD"));
+        return inv;
+    }
+
+    private static Invoice saleInvoice() {
+        Invoice inv = amountInvoice("25.00");
+        inv.setPoNum("PO12345");
+        inv.setInvNum("INV12345");
+        BillTo bill = new BillTo();
+        bill.setBillToFirstName("Sam");
+        bill.setBillToLastName("Smith");
+        bill.setBillToStreet("123 Main St.");
+        bill.setBillToCity("Anytown");
+        bill.setBillToState("CA");
+        bill.setBillToZip("12345");
+        bill.setBillToCountry("US");
+        inv.setBillTo(bill);
+        ShipTo ship = new ShipTo();
+        ship.setShipToFirstName("Sam");
+        ship.setShipToStreet("456 Side St.");
+        ship.setShipToZip("54321");
+        inv.setShipTo(ship);
+        CustomerInfo customer = new CustomerInfo();
+        customer.setCustCode("C-42");
+        customer.setCustIP("10.1.1.1");
+        inv.setCustomerInfo(customer);
+        return inv;
+    }
+
+    private static Invoice unicodeInvoice() {
+        Invoice inv = saleInvoice();
+        BillTo bill = new BillTo();
+        bill.setBillToFirstName("Zo\u00eb");
+        bill.setBillToLastName("Mu\u0308ller");
+        bill.setBillToStreet("1 \u6771\u4eac St.");
+        bill.setBillToCity("S\u00e3o Paulo");
+        bill.setBillToZip("\ud83d\ude00 12345");
+        inv.setBillTo(bill);
+        inv.setComment1("line one\r\nline two");
+        inv.setComment2("fish & chips");
+        return inv;
+    }
+
+    private static Invoice lineItemInvoice() {
+        Invoice inv = saleInvoice();
+        for (int i = 0; i < 12; i++) {
+            LineItem item = new LineItem();
+            item.setItemNumber("Item " + i);
+            item.setDesc(i % 2 == 0 ? "Widget" : "Gadget");
+            item.setSku("SKU-" + (i % 3));
+            item.setAmt(new Currency(new Double(1.5 + i), "USD"));
+            item.setQty(i + 1);
+            inv.addLineItem(item);
+        }
+        return inv;
+    }
+
+    private static RecurringInfo recurringInfo() {
+        RecurringInfo info = new RecurringInfo();
+        info.setProfileName("Profile 1");
+        info.setStart("01012030");
+        info.setTerm(12);
+        info.setPayPeriod("MONT");
+        info.setOrigProfileId("RP0000000001");
+        return info;
+    }
+
+    private static Map<String, String> readGolden(String file) throws IOException {
+        Map<String, String> golden = new LinkedHashMap<String, String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    golden.put(line.substring(0, tab), unescape(line.substring(tab + 1)));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return golden;
+    }
+
+    private static void writeGolden(String file, Map<String, String> requests) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            for (Map.Entry<String, String> entry : requests.entrySet()) {
+                writer.write(entry.getKey() + "\t" + escape(entry.getValue()) + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Escapes backslashes, CR and LF so that every request fits on one line.
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                out.append(next == 'r' ? '\r' : next == 'n' ? '\n' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
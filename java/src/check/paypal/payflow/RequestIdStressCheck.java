@@ -0,0 +1,79 @@
+package paypal.payflow;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates request ids from many threads at once and checks that none of them repeats,
+ * that every id is 32 upper case hex characters and that the ids of each thread are in
+ * creation time order.
+ * <p>
+ * Usage: RequestIdStressCheck [threads] [ids per thread]
+ */
+final class RequestIdStressCheck {
+
+    private RequestIdStressCheck() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        final int idsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+        CheckReport report = new CheckReport("RequestIdStressCheck");
+
+        final String[][] ids = new String[threadCount][idsPerThread];
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < threadCount; t++) {
+            final String[] mine = ids[t];
+            threads.add(new Thread() {
+                public void run() {
+                    for (int i = 0; i < idsPerThread; i++) {
+                        mine[i] = PayflowUtility.getRequestId();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<String> seen = new HashSet<String>(threadCount * idsPerThread * 2);
+        for (int t = 0; t < threadCount; t++) {
+            String previous = null;
+            for (int i = 0; i < idsPerThread; i++) {
+                String id = ids[t][i];
+                if (!isUpperHex(id)) {
+                    report.fail("malformed id " + id);
+                }
+                if (!seen.add(id)) {
+                    report.fail("duplicate id " + id);
+                }
+                // the first 12 hex characters are the creation time
+                if (previous != null && previous.substring(0, 12).compareTo(id.substring(0, 12)) > 0) {
+                    report.fail("id " + id + " is older than the previous id " + previous + " of its thread");
+                }
+                previous = id;
+            }
+        }
+        report.check(seen.size() + " distinct ids out of " + threadCount * idsPerThread,
+                seen.size() == threadCount * idsPerThread);
+        report.finish();
+    }
+
+    private static boolean isUpperHex(String id) {
+        if (id == null || id.length() != RequestIdGenerator.REQUEST_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'A' && c <= 'F')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
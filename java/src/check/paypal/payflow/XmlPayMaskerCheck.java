@@ -0,0 +1,212 @@
+package paypal.payflow;
+
+import java.util.Random;
+
+/**
+ * Checks that XmlPayMasker masks XMLPay requests exactly as the DOM based masking it
+ * replaced (LegacyXmlPayMasker), through both PayflowUtility.maskXMLPayRequest and the
+ * masked form kept by XmlPayRequestInfo. The generated requests have missing, duplicate
+ * and nested sensitive elements, namespace prefixes, comments, processing instructions,
+ * CDATA sections, empty elements, unsorted attributes and characters that need escaping.
+ * <p>
+ * For a malformed request both maskers must fail; only the parser error text differs.
+ * <p>
+ * Usage: XmlPayMaskerCheck [requests] [seed]
+ */
+final class XmlPayMaskerCheck {
+
+    private static final String[] SENSITIVE = {
+            PayflowConstants.XML_PARAM_ACCTNUM, PayflowConstants.XML_PARAM_CARDNUM, PayflowConstants.XML_PARAM_MAGDATA,
+            PayflowConstants.XML_PARAM_MICR, PayflowConstants.XML_PARAM_CVNUM, PayflowConstants.XML_PARAM_PASSWORD,
+            PayflowConstants.XML_PARAM_DL, PayflowConstants.XML_PARAM_SS, PayflowConstants.XML_PARAM_DOB};
+
+    private static final String[] PLAIN = {"ExpDate", "NameOnCard", "Street", "Zip", "Comment", "Amt"};
+
+    private static final String TEXT_CHARS = "0123456789abcXYZ -&<>\"'\u00e9\u6771";
+
+    private XmlPayMaskerCheck() {
+    }
+
+    public static void main(String[] args) {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 20261019L;
+        Random random = new Random(seed);
+        CheckReport report = new CheckReport("XmlPayMaskerCheck");
+        for (int n = 0; n < requests; n++) {
+            String request = randomRequest(random);
+            String expected;
+            try {
+                expected = LegacyXmlPayMasker.mask(request);
+            } catch (Exception ex) {
+                expected = "failed";
+            }
+            String actual;
+            try {
+                actual = PayflowUtility.maskXMLPayRequest(request);
+            } catch (Exception ex) {
+                actual = "failed";
+            }
+            report.compare("maskXMLPayRequest of " + request, expected, actual);
+
+            String analyzed;
+            try {
+                analyzed = XmlPayRequestInfo.analyze(request).getMaskedRequest();
+            } catch (Exception ex) {
+                analyzed = "failed";
+            }
+            report.compare("XmlPayRequestInfo masked form of " + request, expected, analyzed);
+        }
+        report.finish();
+    }
+
+    /**
+     * Builds an XMLPay sale request with random content. One request in twenty is cut
+     * short, so that it is not well formed, but never to nothing: an empty request is
+     * rejected before it is masked.
+     */
+    private static String randomRequest(Random random) {
+        StringBuilder xml = new StringBuilder();
+        if (random.nextBoolean()) {
+            xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        }
+        if (random.nextInt(4) == 0) {
+            xml.append("\n<!-- before the root -->\n");
+        }
+        String prefix = random.nextInt(5) == 0 ? "p:" : "";
+        xml.append('<').append(prefix).append("XMLPayRequest");
+        if (prefix.length() > 0) {
+            xml.append(" xmlns:p=\"http://www.paypal.com/XMLPay\"");
+        } else {
+            xml.append(" xmlns=\"http://www.paypal.com/XMLPay\"");
+        }
+        if (random.nextBoolean()) {
+            xml.append(" version='2.0' Timeout=\"30\"");
+        }
+        xml.append('>');
+        appendElement(xml, random, prefix, "RequestData", 3);
+        xml.append("<").append(prefix).append("RequestAuth><").append(prefix).append("UserPass>");
+        appendLeaf(xml, random, prefix, "User");
+        if (random.nextInt(4) != 0) {
+            appendLeaf(xml, random, prefix, PayflowConstants.XML_PARAM_PASSWORD);
+        }
+        xml.append("</").append(prefix).append("UserPass></").append(prefix).append("RequestAuth>");
+        xml.append("</").append(prefix).append("XMLPayRequest>");
+        if (random.nextInt(4) == 0) {
+            xml.append("\n<?trailing pi?>\n");
+        }
+        if (random.nextInt(20) == 0) {
+            xml.setLength(1 + random.nextInt(xml.length() - 1));
+        }
+        return xml.toString();
+    }
+
+    /**
+     * Appends an element holding a random mix of sensitive, plain and nested elements.
+     */
+    private static void appendElement(StringBuilder xml, Random random, String prefix, String name, int depth) {
+        xml.append('<').append(prefix).append(name);
+        if (random.nextInt(3) == 0) {
+            xml.append(" b=\"2\" a='1&amp;'");
+        }
+        xml.append('>');
+        int children = 1 + random.nextInt(5);
+        for (int i = 0; i < children; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 4) {
+                appendLeaf(xml, random, prefix, SENSITIVE[random.nextInt(SENSITIVE.length)]);
+            } else if (kind < 7) {
+                appendLeaf(xml, random, prefix, PLAIN[random.nextInt(PLAIN.length)]);
+            } else if (kind < 9 && depth > 0) {
+                String nested = random.nextInt(4) == 0 ? SENSITIVE[random.nextInt(SENSITIVE.length)] : "Group" + depth;
+                appendElement(xml, random, prefix, nested, depth - 1);
+            } else {
+                appendMisc(xml, random);
+            }
+            if (random.nextInt(3) == 0) {
+                xml.append(random.nextBoolean() ? "\n  " : " ");
+            }
+        }
+        xml.append("</").append(prefix).append(name).append('>');
+    }
+
+    /**
+     * Appends an element with text content, which may be empty, CDATA or split by a
+     * comment.
+     */
+    private static void appendLeaf(StringBuilder xml, Random random, String prefix, String name) {
+        int form = random.nextInt(8);
+        if (form == 0) {
+            xml.append('<').append(prefix).append(name).append("/>");
+            return;
+        }
+        xml.append('<').append(prefix).append(name).append('>');
+        if (form == 1) {
+            xml.append("<![CDATA[").append(randomText(random).replace("&", "&amp;")).append("]]>");
+            if (random.nextBoolean()) {
+                xml.append("<![CDATA[55]]>");
+            }
+        } else if (form == 2) {
+            appendText(xml, random);
+            xml.append("<!-- c -->");
+            appendText(xml, random);
+        } else if (form == 3) {
+            appendText(xml, random);
+            xml.append("<?pi data?>");
+        } else if (form != 4) {
+            appendText(xml, random);
+        }
+        xml.append("</").append(prefix).append(name).append('>');
+    }
+
+    private static void appendMisc(StringBuilder xml, Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                xml.append("<!-- note & -->");
+                break;
+            case 1:
+                xml.append("<?proc x=\"1\"?>");
+                break;
+            default:
+                xml.append("<Empty/>");
+                break;
+        }
+    }
+
+    private static void appendText(StringBuilder xml, Random random) {
+        String text = randomText(random);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    xml.append("&amp;");
+                    break;
+                case '<':
+                    xml.append("&lt;");
+                    break;
+                case '>':
+                    xml.append(random.nextBoolean() ? "&gt;" : ">");
+                    break;
+                case '"':
+                    xml.append(random.nextBoolean() ? "&quot;" : "\"");
+                    break;
+                case '\'':
+                    xml.append("&#39;");
+                    break;
+                default:
+                    xml.append(c);
+                    break;
+            }
+        }
+    }
+
+    private static String randomText(Random random) {
+        int length = random.nextInt(24);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(random.nextInt(3) == 0
+                    ? TEXT_CHARS.charAt(random.nextInt(TEXT_CHARS.length()))
+                    : (char) ('0' + random.nextInt(10)));
+        }
+        return text.toString();
+    }
+}
@@ -64,6 +64,15 @@ public class XMLPaySale {
 		System.out.println("Transaction Request :\n-------------------- \n" + pa.getTransactionRequest());
 		System.out.println("Transaction Response :\n-------------------- \n" + response);
 
+		// The response can also be read through the same response objects as a name value pair response.
+		Response resp = pa.getResponse();
+		if (resp != null && resp.getTransactionResponse() != null) {
+			TransactionResponse trxnResponse = resp.getTransactionResponse();
+			System.out.println("RESULT = " + trxnResponse.getResult());
+			System.out.println("PNREF = " + trxnResponse.getPnref());
+			System.out.println("RESPMSG = " + trxnResponse.getRespMsg());
+		}
+
 		// Following lines of code are optional.
 		// Begin optional code for displaying SDK errors ...
 		// It is used to read any errors that might have occured in the SDK.
@@ -1,12 +1,14 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * Abstract base Class of all request data objects.
  * This class can be used to create a new request data
  * object.
  */
 abstract class BaseRequestDataObject {
-    private StringBuffer mRequestBuffer;
+    private StringBuilder mRequestBuffer;
     private Context context;
 
     protected Context getContext() {
@@ -22,32 +24,52 @@ abstract class BaseRequestDataObject {
      * Abstract class. Instance cannot be created directly.
      */
     protected BaseRequestDataObject() {
-        mRequestBuffer = new StringBuffer();
+        mRequestBuffer = new StringBuilder();
     }
 
 
     /**
      * Gets the Requestbuffer used for creating the actual request string.
      *
-     * @return mRequestBuffer StringBuffer
+     * @return mRequestBuffer StringBuilder
      */
-    protected StringBuffer getRequestBuffer() {
+    protected StringBuilder getRequestBuffer() {
         return mRequestBuffer;
 
     }
 
     /**
-     * sets the StringBuffer to hold the request string.
+     * sets the StringBuilder to hold the request string.
      *
-     * @param value StringBuffer
+     * @param value StringBuilder
      */
-    protected void setRequestBuffer(StringBuffer value) {
+    protected void setRequestBuffer(StringBuilder value) {
         mRequestBuffer = value;
     }
 
+    /**
+     * Appends a name value pair to the request buffer. Null values are skipped.
+     *
+     * @param name  String
+     * @param value Object
+     */
+    protected void appendToRequest(String name, Object value) {
+        PayflowUtility.appendToRequest(mRequestBuffer, name, value);
+    }
+
     protected void generateRequest() {
     }
 
+    /**
+     * Writes the data object into an XMLPay request. Data objects which have no XMLPay
+     * elements write nothing.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the elements can not be written.
+     */
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+    }
+
 }
 
 
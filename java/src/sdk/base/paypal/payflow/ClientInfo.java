@@ -1,6 +1,6 @@
 package paypal.payflow;
 
-import java.util.Hashtable;
+import java.util.HashMap;
 
 
 
@@ -8,21 +8,21 @@ import java.util.Hashtable;
  * This class is used to store the Payflow Client related properties.
  */
 public final class ClientInfo extends BaseRequestDataObject {
-    private Hashtable clientInfoHash = null;
+    private HashMap<String, ClientInfoHeader> clientInfoHash = null;
 
     /**
      * Constructor
      */
     public ClientInfo() {
-        clientInfoHash = new Hashtable();
+        clientInfoHash = new HashMap<String, ClientInfoHeader>();
     }
 
     /**
      * Gets the client info hash table
      *
-     * @return clientInfoHash HashTable
+     * @return clientInfoHash HashMap
      */
-    protected Hashtable getClientInfoHash() {
+    protected HashMap<String, ClientInfoHeader> getClientInfoHash() {
         return clientInfoHash;
     }
 
@@ -211,11 +211,7 @@ public final class ClientInfo extends BaseRequestDataObject {
                     = new ClientInfoHeader(headerName, headerValue);
 
             if (clientInfoHash == null) {
-                clientInfoHash = new Hashtable();
-            }
-
-            if (clientInfoHash.containsKey(headerName)) {
-                clientInfoHash.remove(headerName);
+                clientInfoHash = new HashMap<String, ClientInfoHeader>();
             }
 
             clientInfoHash.put(headerName, currHeader);
@@ -233,7 +229,7 @@ public final class ClientInfo extends BaseRequestDataObject {
         Logger.getInstance().log("paypal.payflow.ClientInfo.getHeaderFromHash(String): Entered", PayflowConstants.SEVERITY_DEBUG);
         Object header = null;
         if (null != clientInfoHash) {
-            ClientInfoHeader currHeader = (ClientInfoHeader) clientInfoHash.get(headerName);
+            ClientInfoHeader currHeader = clientInfoHash.get(headerName);
             if (null != currHeader) {
                 header = currHeader.getHeaderValue();
             }
@@ -0,0 +1,214 @@
+package paypal.payflow;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Immutable catalog of the communication errors. It is built once, when the class is
+ * initialized, from PayflowConstants.CommErrorCodes and PayflowConstants.CommErrorMessages.
+ *  * <p>
+ * Lookups do not synchronize, the "RESULT=..&RESPMSG=.." and XMLPay forms of each error
+ * are rendered up front, and the message bodies of the communication error messages are
+ * split into templates once, so that reporting a communication failure costs little more
+ * than a successful transaction.
+ */
+final class CommErrorCatalog {
+
+    /**
+     * Message body of MSG_COMMUNICATION_ERROR.
+     */
+    protected static final String COMM_ERROR_BODY = "RESULT={0}&RESPMSG={1}";
+
+    /**
+     * Message body of MSG_COMMUNICATION_ERROR_NO_RESPONSE_ID.
+     */
+    protected static final String COMM_ERROR_BODY_NO_RESPONSE_ID = "RESULT={0}&RESPMSG={1}&REQUEST_ID={2}";
+
+    /**
+     * Message body of MSG_COMMUNICATION_ERROR_XMLPAY and MSG_COMMUNICATION_ERROR_XMLPAY_NO_RESPONSE_ID.
+     */
+    protected static final String COMM_ERROR_BODY_XMLPAY = "<XMLPayResponse xmlns='http://www.paypal.com/XMLPay'><ResponseData><TransactionResults><TransactionResult><Result>{0}</Result><Message>{1}</Message></TransactionResult></TransactionResults></ResponseData></XMLPayResponse>";
+
+    /**
+     * Error code to Entry.
+     */
+    private static final Map<String, Entry> ENTRIES;
+
+    /**
+     * Message body to its precompiled Template.
+     */
+    private static final Map<String, Template> TEMPLATES;
+
+    static {
+        HashMap<String, Template> templates = new HashMap<String, Template>();
+        templates.put(COMM_ERROR_BODY, new Template(COMM_ERROR_BODY));
+        templates.put(COMM_ERROR_BODY_NO_RESPONSE_ID, new Template(COMM_ERROR_BODY_NO_RESPONSE_ID));
+        templates.put(COMM_ERROR_BODY_XMLPAY, new Template(COMM_ERROR_BODY_XMLPAY));
+        TEMPLATES = Collections.unmodifiableMap(templates);
+
+        HashMap<String, Entry> entries = new HashMap<String, Entry>();
+        Iterator<String> codes = PayflowConstants.CommErrorCodes.keySet().iterator();
+        while (codes.hasNext()) {
+            String code = codes.next();
+            entries.put(code, new Entry(PayflowConstants.CommErrorCodes.get(code),
+                    PayflowConstants.CommErrorMessages.get(code)));
+        }
+        ENTRIES = Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Private constructor for CommErrorCatalog
+     */
+    private CommErrorCatalog() {
+    }
+
+    /**
+     * Gets the RESULT value of a communication error.
+     *
+     * @param errCode String : one of the PayflowConstants.E_* codes
+     * @return result String
+     */
+    protected static String getResultCode(String errCode) {
+        Entry entry = ENTRIES.get(errCode);
+        return entry == null ? null : entry.mResultCode;
+    }
+
+    /**
+     * Gets the RESPMSG value of a communication error.
+     *
+     * @param errCode String : one of the PayflowConstants.E_* codes
+     * @return message String
+     */
+    protected static String getMessage(String errCode) {
+        Entry entry = ENTRIES.get(errCode);
+        return entry == null ? null : entry.mMessage;
+    }
+
+    /**
+     * Gets the NVP form of a communication error: "RESULT=(code)&RESPMSG=(message)".
+     *
+     * @param errCode String : one of the PayflowConstants.E_* codes
+     * @return nvpResponse String
+     */
+    protected static String getNvpResponse(String errCode) {
+        Entry entry = ENTRIES.get(errCode);
+        return entry == null ? null : entry.mNvpResponse;
+    }
+
+    /**
+     * Gets the XMLPay form of a communication error.
+     *
+     * @param errCode String : one of the PayflowConstants.E_* codes
+     * @return xmlPayResponse String
+     */
+    protected static String getXmlPayResponse(String errCode) {
+        Entry entry = ENTRIES.get(errCode);
+        return entry == null ? null : entry.mXmlPayResponse;
+    }
+
+    /**
+     * Gets the precompiled template for a message body.
+     *
+     * @param msgBody String
+     * @return template Template, null if the body is not a communication error body
+     */
+    protected static Template getTemplate(String msgBody) {
+        return TEMPLATES.get(msgBody);
+    }
+
+    /**
+     * A communication error with its rendered forms.
+     */
+    private static final class Entry {
+        private final String mResultCode;
+        private final String mMessage;
+        private final String mNvpResponse;
+        private final String mXmlPayResponse;
+
+        private Entry(String resultCode, String message) {
+            String[] params = new String[]{resultCode, message};
+            mResultCode = resultCode;
+            mMessage = message;
+            mNvpResponse = getTemplate(COMM_ERROR_BODY).format(params);
+            mXmlPayResponse = getTemplate(COMM_ERROR_BODY_XMLPAY).format(params);
+        }
+    }
+
+    /**
+     * A message body split at its place holders. The place holders are filled in order,
+     * the same way as PayflowUtility.format does.
+     */
+    protected static final class Template {
+
+        /**
+         * Text before, between and after the place holders.
+         */
+        private final String[] mSegments;
+
+        /**
+         * The place holders, as they appear in the body.
+         */
+        private final String[] mPlaceHolders;
+
+        /**
+         * Total length of the segments.
+         */
+        private final int mFixedLength;
+
+        /**
+         * Constructor for Template
+         *
+         * @param msgBody String
+         */
+        private Template(String msgBody) {
+            int count = 0;
+            int open = msgBody.indexOf('{');
+            while (open >= 0 && msgBody.indexOf('}', open) > 0) {
+                count++;
+                open = msgBody.indexOf('{', msgBody.indexOf('}', open));
+            }
+            mSegments = new String[count + 1];
+            mPlaceHolders = new String[count];
+            int start = 0;
+            int length = 0;
+            for (int i = 0; i < count; i++) {
+                open = msgBody.indexOf('{', start);
+                int close = msgBody.indexOf('}', open);
+                mSegments[i] = msgBody.substring(start, open);
+                mPlaceHolders[i] = msgBody.substring(open, close + 1);
+                length += mSegments[i].length();
+                start = close + 1;
+            }
+            mSegments[count] = msgBody.substring(start);
+            mFixedLength = length + mSegments[count].length();
+        }
+
+        /**
+         * Fills the place holders with the message parameters. Place holders without a
+         * parameter are kept as they are.
+         *
+         * @param msgParams String[]
+         * @return message String
+         * @throws IllegalArgumentException if there are more parameters than place holders
+         */
+        protected String format(String[] msgParams) {
+            if (msgParams.length > mPlaceHolders.length) {
+                throw new IllegalArgumentException("Message has " + mPlaceHolders.length
+                        + " place holders, " + msgParams.length + " parameters passed");
+            }
+            int length = mFixedLength;
+            for (int i = 0; i < msgParams.length; i++) {
+                length += msgParams[i] == null ? 4 : msgParams[i].length();
+            }
+            StringBuilder message = new StringBuilder(length + 16);
+            for (int i = 0; i < mPlaceHolders.length; i++) {
+                message.append(mSegments[i]);
+                message.append(i < msgParams.length ? msgParams[i] : mPlaceHolders[i]);
+            }
+            message.append(mSegments[mPlaceHolders.length]);
+            return message.toString();
+        }
+    }
+}
@@ -3,19 +3,46 @@ package paypal.payflow;
 
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 
 /**
  * This class contains all error messages generated for the class containing
  * the context.This also contains the highest severity level contained by the
  * context.
+ *  * <p>
+ * The highest severity level and the duplicate checks are maintained as errors are
+ * added, so getHighestErrorLvl(), addError() and isCommunicationErrorContained() do not
+ * depend on the number of errors held.
+ *  * <p>
+ * Errors are resolved against the message catalog once, when they are added. The ordered
+ * list of errors is rebuilt only after the errors of the context have changed; getErrors()
+ * hands out copies of it.
  */
 public final class Context {
 
     /**
-     * Holds the collection of error objects for the context instance.
+     * Holds the error objects added through addError. These go in front of all other
+     * errors, so they are kept newest last and read back in reverse.
      */
-    private ArrayList mErrorObjects = new ArrayList();
+    private ArrayList<ErrorObject> mHeadErrors = new ArrayList<ErrorObject>();
+
+    /**
+     * Holds the error objects added through addErrors, in order. The errors of the
+     * context are mHeadErrors (reversed) followed by mErrorObjects.
+     */
+    private ArrayList<ErrorObject> mErrorObjects = new ArrayList<ErrorObject>();
+
+    /**
+     * Holds the contained errors which can be equal to another error, for duplicate checks.
+     */
+    private HashSet<ErrorObject> mComparableErrors = new HashSet<ErrorObject>();
+
+    /**
+     * Holds the message code and first message parameter of the contained errors, as
+     * compared by isCommunicationErrorContained.
+     */
+    private HashSet<String> mCommunicationErrorKeys = new HashSet<String>();
 
     /**
      * Indicates the highest severity level error in the array list.
@@ -27,6 +54,26 @@ public final class Context {
      */
     private boolean mLoadLoggerErrs;
 
+    /**
+     * Number of Logger errors already merged into the context.
+     */
+    private int mLoggerErrsMerged;
+
+    /**
+     * Incremented every time the errors of the context change.
+     */
+    private int mGeneration;
+
+    /**
+     * Generation of the context mErrorView was built for.
+     */
+    private int mViewGeneration = -1;
+
+    /**
+     * The errors of the context, in order. Never handed out.
+     */
+    private ArrayList<ErrorObject> mErrorView;
+
     /**
      * Constructor for Context
      */
@@ -40,17 +87,6 @@ public final class Context {
      * @return highestErrorLvl int
      */
     public int getHighestErrorLvl() {
-        int errCnt;
-        int errMaxCnt;
-        int errSeverityLevel;
-
-        errMaxCnt = mErrorObjects.size();
-        for (errCnt = 0; errCnt < errMaxCnt; errCnt++) {
-            errSeverityLevel = ((ErrorObject) mErrorObjects.get(errCnt)).getSeverityLevel();
-            if (mHighestErrorLvl < errSeverityLevel) {
-                mHighestErrorLvl = errSeverityLevel;
-            }
-        }
         return mHighestErrorLvl;
     }
 
@@ -82,11 +118,11 @@ public final class Context {
      */
     protected void addError(ErrorObject errObject) {
 
-        if (mErrorObjects == null) {
-            mErrorObjects = new ArrayList();
-        }
-        if (!mErrorObjects.contains(errObject)) {
-            mErrorObjects.add(0, errObject);
+        if (!containsError(errObject)) {
+            errObject = resolveError(errObject);
+            mHeadErrors.add(errObject);
+            trackError(errObject);
+            mGeneration++;
         }
 
     }
@@ -97,19 +133,111 @@ public final class Context {
      *
      * @param errorObjects ArrayList
      */
-    protected void addErrors(ArrayList errorObjects) {
+    protected void addErrors(ArrayList<ErrorObject> errorObjects) {
 
-        if (mErrorObjects == null) {
-            mErrorObjects = new ArrayList();
-        }
-        Iterator iter = errorObjects.iterator();
+        Iterator<ErrorObject> iter = errorObjects.iterator();
         ErrorObject err;
         while (iter.hasNext()) {
-            err = (ErrorObject) iter.next();
-            if (!mErrorObjects.contains(err)) {
+            err = iter.next();
+            if (!containsError(err)) {
+                err = resolveError(err);
                 mErrorObjects.add(err);
+                trackError(err);
+                mGeneration++;
+            }
+        }
+    }
+
+    /**
+     * Fills in the severity level and message body of an error from the message catalog.
+     *
+     * @param errObject ErrorObject
+     * @return resolved ErrorObject
+     */
+    private static ErrorObject resolveError(ErrorObject errObject) {
+        if (errObject == null || errObject.getMessageCode() == null || errObject.getMessageCode().length() == 0) {
+            return errObject;
+        }
+        return Logger.getInstance().populateErrorDetails(errObject);
+    }
+
+    /**
+     * Checks if an equal error is already contained.
+     *
+     * @param errObject ErrorObject
+     * @return contained boolean
+     */
+    private boolean containsError(ErrorObject errObject) {
+        return errObject != null && errObject.isComparable() && mComparableErrors.contains(errObject);
+    }
+
+    /**
+     * Records an added error in the duplicate checks and the highest severity level.
+     *
+     * @param errObject ErrorObject
+     */
+    private void trackError(ErrorObject errObject) {
+        if (errObject == null) {
+            return;
+        }
+        if (errObject.isComparable()) {
+            mComparableErrors.add(errObject);
+        }
+        String key = getCommunicationErrorKey(errObject);
+        if (key != null) {
+            mCommunicationErrorKeys.add(key);
+        }
+        if (mHighestErrorLvl < errObject.getSeverityLevel()) {
+            mHighestErrorLvl = errObject.getSeverityLevel();
+        }
+    }
+
+    /**
+     * Builds the key compared by isCommunicationErrorContained: message code and first
+     * message parameter.
+     *
+     * @param errObject ErrorObject
+     * @return key String, null if the error has no message parameters
+     */
+    private static String getCommunicationErrorKey(ErrorObject errObject) {
+        ArrayList<String> params = errObject.getMessageParams();
+        if (errObject.getMessageCode() == null || params == null || params.isEmpty()) {
+            return null;
+        }
+        return errObject.getMessageCode() + '\u0000' + params.get(0);
+    }
+
+    /**
+     * Gets the error at a position of the context.
+     *
+     * @param index int
+     * @return errObject ErrorObject
+     */
+    private ErrorObject errorAt(int index) {
+        int headSize = mHeadErrors.size();
+        if (index < headSize) {
+            return mHeadErrors.get(headSize - 1 - index);
+        }
+        return mErrorObjects.get(index - headSize);
+    }
+
+    /**
+     * Gives the ordered list of the errors of the context, rebuilding it only when the
+     * errors have changed since it was last built.
+     *
+     * @return mErrorView ArrayList
+     */
+    private ArrayList<ErrorObject> errorView() {
+        if (mViewGeneration != mGeneration) {
+            int errMaxCnt = getErrorCount();
+            ArrayList<ErrorObject> errors = new ArrayList<ErrorObject>(errMaxCnt);
+            for (int errCnt = 0; errCnt < errMaxCnt; errCnt++) {
+                errors.add(errorAt(errCnt));
             }
+            mErrorView = errors;
+            mViewGeneration = mGeneration;
         }
+        return mErrorView;
     }
 
     /**
@@ -122,16 +250,7 @@ public final class Context {
 
         boolean retVal;
         try {
-            int errCnt = 0;
-            Logger instance;
-            ArrayList populatedErr;
-            if (mErrorObjects != null) {
-                instance = Logger.getInstance();
-                populatedErr = instance.populateErrorDetails(mErrorObjects);
-                mErrorObjects.clear();
-                mErrorObjects.addAll(errCnt, populatedErr);
-                instance.log(mErrorObjects);
-            }
+            Logger.getInstance().log(errorView());
             retVal = true;
         } catch (Exception ex) {
             retVal = false;
@@ -146,14 +265,7 @@ public final class Context {
      * @return errorContained boolean
      */
     public boolean isErrorContained() {
-
-        boolean retVal = false;
-        if (mErrorObjects != null) {
-            if (mErrorObjects.size() > 0)
-                retVal = true;
-        }
-
-        return retVal;
+        return getErrorCount() > 0;
     }
 
     /**
@@ -165,23 +277,8 @@ public final class Context {
      */
     protected boolean isCommunicationErrorContained(ErrorObject error) {
 
-        boolean retFlag = false;
-        if (isErrorContained()) {
-            ErrorObject err;
-
-            for (int i = 0; i <= mErrorObjects.size() - 1; i++) {
-                err = (ErrorObject) mErrorObjects.get(i);
-                if (err != null && err.getMessageCode().equals(error.getMessageCode())) {
-                    if (err.getMessageParams() != null && error.getMessageParams() != null) {
-                        if (err.getMessageParams().get(0).equals(error.getMessageParams().get(0))) {
-                            retFlag = true;
-                        }
-                    }
-                    //return false;
-                }
-            }
-        }
-        return retFlag;
+        String key = getCommunicationErrorKey(error);
+        return key != null && mCommunicationErrorKeys.contains(key);
     }
 
     /**
@@ -196,8 +293,8 @@ public final class Context {
 
         ErrorObject errObject = null;
         populateErrors();
-        if (index < mErrorObjects.size()) {
-            errObject = (ErrorObject) mErrorObjects.get(index);
+        if (index < getErrorCount()) {
+            errObject = errorAt(index);
         }
 
         return errObject;
@@ -205,14 +302,15 @@ public final class Context {
 
     /**
      * This method returns the array list populated with all the error contained
-     * in the context
+     * in the context. The returned list is a copy; changing it does not change the
+     * context.
      *
-     * @return mErrorObjects ArrayList
+     * @return errors ArrayList
      */
-    public ArrayList getErrors() {
+    public ArrayList<ErrorObject> getErrors() {
 
         populateErrors();
-        return mErrorObjects;
+        return new ArrayList<ErrorObject>(errorView());
     }
 
 
@@ -224,16 +322,21 @@ public final class Context {
      * @param sevLvl int
      * @return highSevErrors ArrayList
      */
-    public ArrayList getErrors(int sevLvl) {
-        ArrayList highSevErrors = new ArrayList();
+    public ArrayList<ErrorObject> getErrors(int sevLvl) {
+        ArrayList<ErrorObject> highSevErrors = new ArrayList<ErrorObject>();
+        ArrayList<ErrorObject> errors;
         int errMaxCount;
         int errCnt;
         populateErrors();
-        errMaxCount = mErrorObjects.size();
+        if (sevLvl > mHighestErrorLvl) {
+            return highSevErrors;
+        }
+        errors = errorView();
+        errMaxCount = errors.size();
         for (errCnt = 0; errCnt < errMaxCount; errCnt++) {
-            if (((ErrorObject) mErrorObjects.get(errCnt)).getSeverityLevel() >=
+            if (errors.get(errCnt).getSeverityLevel() >=
                     sevLvl) {
-                highSevErrors.add(mErrorObjects.get(errCnt));
+                highSevErrors.add(errors.get(errCnt));
             }
         }
         return highSevErrors;
@@ -246,39 +349,28 @@ public final class Context {
      * @return errorCOunt int
      */
     public int getErrorCount() {
-        int errorCount = 0;
-        if (mErrorObjects != null) {
-            errorCount = mErrorObjects.size();
-        }
-        return errorCount;
+        return mHeadErrors.size() + mErrorObjects.size();
     }
 
     /**
-     * This method will populate all the error objects contained in the arraylist with
-     * details such as the severity level and message body.It uses 'PopulateErrorDetails'
-     * method of the Logger class.
+     * This method adds the errors generated by the Logger class to the context, if
+     * requested through setLoadLoggerErrs(). The errors of the context are resolved when
+     * they are added, so only Logger errors not merged before need to be looked at.
      */
     private void populateErrors() {
-        int errCnt = 0;
-        Logger instance;
-        ArrayList populatedErr;
-        if (mErrorObjects != null) {
-            instance = Logger.getInstance();
-            populatedErr = instance.populateErrorDetails(mErrorObjects);
-            if (getLoadLoggerErrs()) {
-                //PopulatedErr.AddRange (Instance.GetLoggerErrs);
-                //Check for duplicate Logger errors
-                ArrayList tempList = instance.getLoggerErrs();
-                if (tempList != null) {
-                    for (int i = 0; i < tempList.size(); i++) {
-                        if (!populatedErr.contains(tempList.get(i))) {
-                            populatedErr.add(tempList.get(i));
-                        }
+        if (getLoadLoggerErrs()) {
+            //Check for duplicate Logger errors
+            ArrayList<ErrorObject> tempList = Logger.getInstance().getLoggerErrs();
+            if (tempList != null) {
+                for (; mLoggerErrsMerged < tempList.size(); mLoggerErrsMerged++) {
+                    ErrorObject err = tempList.get(mLoggerErrsMerged);
+                    if (!containsError(err)) {
+                        mErrorObjects.add(err);
+                        trackError(err);
+                        mGeneration++;
                     }
                 }
             }
-            mErrorObjects.clear();
-            mErrorObjects.addAll(errCnt, populatedErr);
         }
     }
 
@@ -299,9 +391,10 @@ public final class Context {
         ErrorObject err;
 
         populateErrors();
-        errMaxCount = mErrorObjects.size();
+        ArrayList<ErrorObject> errors = errorView();
+        errMaxCount = errors.size();
         for (errCount = 0; errCount < errMaxCount; errCount++) {
-            err = (ErrorObject) mErrorObjects.get(errCount);
+            err = errors.get(errCount);
             if (null != err) {
                 if (errMaxCount > 0) {
                     retVal.append(PayflowConstants.FORMAT_MSG_SEPERATOR);
@@ -343,12 +436,12 @@ public final class Context {
         int errCount;
         int errMaxCount;
         ErrorObject err;
-        ArrayList errObjects;
+        ArrayList<ErrorObject> errObjects;
         errObjects = getErrors(severityLevel);
 
         errMaxCount = errObjects.size();
         for (errCount = 0; errCount < errMaxCount; errCount++) {
-            err = (ErrorObject) errObjects.get(errCount);
+            err = errObjects.get(errCount);
             retVal.append(err.toString());
             if (errCount < errMaxCount - 1) {
                 if (seperator != null && seperator.length() != 0) {
@@ -367,10 +460,13 @@ public final class Context {
      */
     public void clearErrors() {
 
-        if (mErrorObjects != null) {
-            mErrorObjects.clear();
-            mHighestErrorLvl = 0;
-        }
+        mHeadErrors.clear();
+        mErrorObjects.clear();
+        mComparableErrors.clear();
+        mCommunicationErrorKeys.clear();
+        mHighestErrorLvl = 0;
+        mLoggerErrsMerged = 0;
+        mGeneration++;
 
     }
 
@@ -21,7 +21,7 @@ public final class ErrorObject {
      * Holds the context parameters for the place holders.These parameters will be used
      * in conjunction with the message body to get the formatted message for the error.
      */
-    private ArrayList mMsgCodeParams;
+    private ArrayList<String> mMsgCodeParams;
 
     /**
      * Holds the Severity Level for the error. Sets this to debug by default.
@@ -39,6 +39,18 @@ public final class ErrorObject {
      */
     private String mMsgBody;
 
+    /**
+     * Holds the formatted message once it has been built. Error objects are not changed
+     * after construction, so the message is formatted at most once.
+     */
+    private String mFormattedMessage;
+
+    /**
+     * Holds the exception which caused the error, if any. Its frames are rendered only
+     * when the formatted message is asked for and SDKProperties.isStackTraceOn() is set.
+     */
+    private Throwable mException;
+
     /**
      * Return the message body for the error.
      *
@@ -66,6 +78,15 @@ public final class ErrorObject {
         return mStackTrace;
     }
 
+    /**
+     * Return the exception which caused the error.
+     *
+     * @return exception Throwable, null if the error was not caused by an exception
+     */
+    public Throwable getException() {
+        return mException;
+    }
+
     /**
      * Return the severity level for the error.
      *
@@ -81,7 +102,7 @@ public final class ErrorObject {
      *
      * @return messageParams ArrayList
      */
-    public ArrayList getMessageParams() {
+    public ArrayList<String> getMessageParams() {
         return mMsgCodeParams;
     }
 
@@ -92,11 +113,18 @@ public final class ErrorObject {
      * @return formattedMessage String
      */
     public String toString() {
-        String formattedMessage;
+        String formattedMessage = mFormattedMessage;
+        if (formattedMessage != null) {
+            return formattedMessage;
+        }
         if (mMsgCodeParams != null) {
             String[] msgParams = new String[mMsgCodeParams.size()];
             for (int i = 0; i <= mMsgCodeParams.size() - 1; i++) {
-                msgParams[i] = (String) mMsgCodeParams.get(i);
+                msgParams[i] = mMsgCodeParams.get(i);
+            }
+
+            if (mException != null && msgParams.length > 0 && SDKProperties.isStackTraceOn()) {
+                msgParams[msgParams.length - 1] += PayflowUtility.getStackFrames(mException);
             }
 
             try {
@@ -114,6 +142,7 @@ public final class ErrorObject {
         } else {
             formattedMessage = mMsgBody;
         }
+        mFormattedMessage = formattedMessage;
         return formattedMessage;
     }
 
@@ -127,7 +156,7 @@ public final class ErrorObject {
     protected ErrorObject(int severity, String msgCode, String[] msgCodeParams) {
         this.mSeverity = severity;
         this.mMsgCode = msgCode;
-        this.mMsgCodeParams = new ArrayList();
+        this.mMsgCodeParams = new ArrayList<String>();
         //need to check this code
         for (int i = 0; i <= msgCodeParams.length - 1; i++) {
             this.mMsgCodeParams.add(msgCodeParams[i]);
@@ -147,7 +176,7 @@ public final class ErrorObject {
         this.mMsgCode = msgCode;
         this.mMsgBody = msgBody;
         this.mStackTrace = PayflowConstants.EMPTY_STRING;
-        this.mMsgCodeParams = new ArrayList();
+        this.mMsgCodeParams = new ArrayList<String>();
     }
 
     /**
@@ -178,6 +207,42 @@ public final class ErrorObject {
         this.mStackTrace = stackTrace;
     }
 
+    /**
+     * Used for errors whose formatted message is already known, such as the communication
+     * errors rendered up front by CommErrorCatalog.
+     *
+     * @param severity         int
+     * @param msgCode          String
+     * @param msgBody          String
+     * @param msgCodeParams    String[]
+     * @param exception        Throwable : exception which caused the error, or null
+     * @param formattedMessage String : null to format on demand
+     */
+    protected ErrorObject(int severity, String msgCode, String msgBody, String[] msgCodeParams, Throwable exception,
+                          String formattedMessage) {
+        this(severity, msgCode, msgCodeParams);
+        this.mMsgBody = msgBody;
+        this.mException = exception;
+        this.mFormattedMessage = formattedMessage;
+    }
+
+    /**
+     * Copies this error with the given severity level, message code and message body.
+     * The message parameters, stack trace and exception are kept.
+     *
+     * @param severity int
+     * @param msgCode  String
+     * @param msgBody  String
+     * @return copy ErrorObject
+     */
+    protected ErrorObject copy(int severity, String msgCode, String msgBody) {
+        String[] msgParams = new String[mMsgCodeParams.size()];
+        mMsgCodeParams.toArray(msgParams);
+        ErrorObject copy = new ErrorObject(severity, msgCode, msgBody, msgParams, mStackTrace);
+        copy.mException = mException;
+        return copy;
+    }
+
     /**
      * Used for Exception objects without any message code.
      *
@@ -189,7 +254,7 @@ public final class ErrorObject {
         this.mMsgBody = msgBody;
         this.mStackTrace = stackTrace;
         this.mMsgCode = PayflowConstants.EMPTY_STRING;
-        this.mMsgCodeParams = new ArrayList();
+        this.mMsgCodeParams = new ArrayList<String>();
     }
 
     /**
@@ -200,7 +265,7 @@ public final class ErrorObject {
     protected ErrorObject(String msgBody) {
         this.mMsgBody = msgBody;
         this.mMsgCode = PayflowConstants.EMPTY_STRING;
-        this.mMsgCodeParams = new ArrayList();
+        this.mMsgCodeParams = new ArrayList<String>();
         this.mStackTrace = PayflowConstants.EMPTY_STRING;
         this.mSeverity = PayflowConstants.SEVERITY_FATAL;
     }
@@ -225,5 +290,28 @@ public final class ErrorObject {
         return isEqual;
     }
 
+    /**
+     * Returns a hash code consistent with equals.
+     *
+     * @return hashCode int
+     */
+    public int hashCode() {
+        int hash = mSeverity;
+        hash = 31 * hash + (mMsgCode == null ? 0 : mMsgCode.hashCode());
+        hash = 31 * hash + (mMsgBody == null ? 0 : mMsgBody.hashCode());
+        hash = 31 * hash + (mMsgCodeParams == null ? 0 : mMsgCodeParams.hashCode());
+        return hash;
+    }
+
+    /**
+     * Indicates if this error can be equal to another error. Errors without message code or
+     * body are never equal to anything, not even to themselves.
+     *
+     * @return comparable boolean
+     */
+    protected boolean isComparable() {
+        return mMsgCode != null && mMsgBody != null && mMsgCodeParams != null;
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package paypal.payflow;
+
+/**
+ * Table of the parameter names of repeated request items, such as L_AMT0, L_AMT1, ... for
+ * line items. Every item class keeps one table, shared by all its instances, so that
+ * the names are built once instead of being concatenated for every item of every request.
+ * <p>
+ * The table grows on demand, up to MAX_CACHED_SIZE indexes. It is copied on growth and
+ * published through a volatile field, so reads do not lock. The names of an index
+ * beyond the table, or of a negative index, are built for each call and not kept.
+ */
+final class IndexedKeyTable {
+
+    /**
+     * Number of indexes the table is created with.
+     */
+    private static final int INITIAL_SIZE = 16;
+
+    /**
+     * Number of indexes the table may grow to.
+     */
+    private static final int MAX_CACHED_SIZE = 256;
+
+    /**
+     * Parameter name prefixes, in field order.
+     */
+    private final String[] mPrefixes;
+
+    /**
+     * Parameter names by index, then by field.
+     */
+    private volatile String[][] mKeys;
+
+    /**
+     * Constructor for IndexedKeyTable
+     *
+     * @param prefixes String[] : parameter name prefixes, in field order
+     */
+    protected IndexedKeyTable(String[] prefixes) {
+        mPrefixes = prefixes.clone();
+        mKeys = build(new String[0][], INITIAL_SIZE);
+    }
+
+    /**
+     * Gets the parameter names for an index. The returned array must not be modified.
+     *
+     * @param index int : index appended to the prefixes
+     * @return keys String[] : prefix + index, in field order
+     */
+    protected String[] getKeys(int index) {
+        if (index < 0 || index >= MAX_CACHED_SIZE) {
+            return buildRow(index);
+        }
+        String[][] keys = mKeys;
+        if (index >= keys.length) {
+            keys = grow(index);
+        }
+        return keys[index];
+    }
+
+    /**
+     * Grows the table to hold the given index.
+     *
+     * @param index int
+     * @return keys String[][]
+     */
+    private synchronized String[][] grow(int index) {
+        String[][] keys = mKeys;
+        if (index >= keys.length) {
+            keys = build(keys, Math.min(MAX_CACHED_SIZE, Math.max(index + 1, keys.length * 2)));
+            mKeys = keys;
+        }
+        return keys;
+    }
+
+    /**
+     * Builds a table of the given size, reusing the rows of an existing table.
+     *
+     * @param existing String[][]
+     * @param size     int
+     * @return keys String[][]
+     */
+    private String[][] build(String[][] existing, int size) {
+        String[][] keys = new String[size][];
+        System.arraycopy(existing, 0, keys, 0, existing.length);
+        for (int index = existing.length; index < size; index++) {
+            keys[index] = buildRow(index);
+        }
+        return keys;
+    }
+
+    /**
+     * Builds the parameter names for an index.
+     *
+     * @param index int
+     * @return keys String[] : prefix + index, in field order
+     */
+    private String[] buildRow(int index) {
+        String indexValue = String.valueOf(index);
+        String[] row = new String[mPrefixes.length];
+        for (int field = 0; field < row.length; field++) {
+            row[field] = mPrefixes[field] + indexValue;
+        }
+        return row;
+    }
+}
@@ -15,15 +15,30 @@ abstract class InitState extends PaymentState {
      *
      * @param connection           PaymentConnection
      * @param initialParameterList String
+     * @param requestInfo          XmlPayRequestInfo
      * @param psmContext           Context
      * @throws Exception Exception
      */
-    public InitState(PaymentConnection connection, String initialParameterList, Context psmContext) throws Exception {
-        super(connection, initialParameterList, psmContext);
+    public InitState(PaymentConnection connection, String initialParameterList, XmlPayRequestInfo requestInfo,
+                     Context psmContext) throws Exception {
+        super(connection, initialParameterList, requestInfo, psmContext);
         Logger.getInstance().log("paypal.payflow.InitState.InitState(PaymentConnection, String, Context) : Entered", PayflowConstants.SEVERITY_DEBUG);
         Logger.getInstance().log("paypal.payflow.InitState.InitState(PaymentConnection, String, Context) : Exiting", PayflowConstants.SEVERITY_DEBUG);
     }
 
+    /**
+     * Constructor for InitState, for a name value pair request held as bytes.
+     *
+     * @param connection PaymentConnection
+     * @param nvpRequest byte[]
+     * @param psmContext Context
+     */
+    public InitState(PaymentConnection connection, byte[] nvpRequest, Context psmContext) {
+        super(connection, nvpRequest, psmContext);
+        Logger.getInstance().log("paypal.payflow.InitState.InitState(PaymentConnection, byte[], Context) : Entered", PayflowConstants.SEVERITY_DEBUG);
+        Logger.getInstance().log("paypal.payflow.InitState.InitState(PaymentConnection, byte[], Context) : Exiting", PayflowConstants.SEVERITY_DEBUG);
+    }
+
     /**
      * Copy Constructor for InitState.
      *
@@ -28,7 +28,7 @@ public final class Logger {
      * This SortedList holds the Message code,Body and severity level of the messages
      * mentioned in the XML file.
      */
-    private HashMap mMessages;
+    private HashMap<String, ErrorObject> mMessages;
 
     /**
      * Holds the instance of this singleton class.
@@ -38,7 +38,7 @@ public final class Logger {
     /**
      * Holds the errors generated by Logger class.
      */
-    private ArrayList mLoggerErrs = new ArrayList();
+    private ArrayList<ErrorObject> mLoggerErrs = new ArrayList<ErrorObject>();
 
     /**
      * This flag indicates, if an error occurred because of the Logger class.
@@ -78,13 +78,7 @@ public final class Logger {
         populateMessages();
         if (!(SDKProperties.getLoggingLevel() >= PayflowConstants.LOGGING_OFF)) {
             if (!SDKProperties.isLogFileNameSet()) {
-                String respMessage = PayflowConstants.PARAM_RESULT
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorCodes.get(PayflowConstants.E_INIT_ERROR)
-                        + PayflowConstants.DELIMITER_NVP
-                        + PayflowConstants.PARAM_RESPMSG
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorMessages.get(PayflowConstants.E_INIT_ERROR)
+                String respMessage = CommErrorCatalog.getNvpResponse(PayflowConstants.E_INIT_ERROR)
                         + "log file name not set. Using default values";
                 ErrorObject err =
                         new ErrorObject(PayflowConstants.SEVERITY_WARN, PayflowConstants.EMPTY_STRING,
@@ -94,13 +88,7 @@ public final class Logger {
 
             }
             if (!SDKProperties.isMaxlogFileSizeSet()) {
-                String respMessage = PayflowConstants.PARAM_RESULT
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorCodes.get(PayflowConstants.E_INIT_ERROR)
-                        + PayflowConstants.DELIMITER_NVP
-                        + PayflowConstants.PARAM_RESPMSG
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorMessages.get(PayflowConstants.E_INIT_ERROR)
+                String respMessage = CommErrorCatalog.getNvpResponse(PayflowConstants.E_INIT_ERROR)
                         + "max log file size not set. Using default values";
                 ErrorObject err =
                         new ErrorObject(PayflowConstants.SEVERITY_WARN, PayflowConstants.EMPTY_STRING,
@@ -120,13 +108,7 @@ public final class Logger {
                 logFileLength = logFile.length();
             }
             catch (IOException e) {
-                String respMessage = PayflowConstants.PARAM_RESULT
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorCodes.get(PayflowConstants.E_INIT_ERROR)
-                        + PayflowConstants.DELIMITER_NVP
-                        + PayflowConstants.PARAM_RESPMSG
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorMessages.get(PayflowConstants.E_INIT_ERROR)
+                String respMessage = CommErrorCatalog.getNvpResponse(PayflowConstants.E_INIT_ERROR)
                         + e.getMessage() + " Occurred while accessing logFile : " + SDKProperties.getLogFileName() + " - Logging has been disabled.";
                 ErrorObject err =
                         new ErrorObject(PayflowConstants.SEVERITY_WARN, PayflowConstants.EMPTY_STRING,
@@ -153,7 +135,7 @@ public final class Logger {
      *
      * @return mLoggerErrs
      */
-    public ArrayList getLoggerErrs() {
+    public ArrayList<ErrorObject> getLoggerErrs() {
         return mLoggerErrs;
     }
 
@@ -165,7 +147,7 @@ public final class Logger {
      * @param message ErrorObject
      */
     protected void log(ErrorObject message) {
-        if (message != null) {
+        if (message != null && isLoggable(message.getSeverityLevel())) {
             log(message.toString(), message.getSeverityLevel());
         }
     }
@@ -179,7 +161,7 @@ public final class Logger {
      *
      * @param messages ArrayList containing the error objects
      */
-    protected void log(ArrayList messages) {
+    protected void log(ArrayList<ErrorObject> messages) {
         int ErrCnt;
         int ErrMaxCnt;
         if (mLoggerErrs.size() != 0) {
@@ -187,10 +169,36 @@ public final class Logger {
         }
         ErrMaxCnt = messages.size();
         for (ErrCnt = 0; ErrCnt < ErrMaxCnt; ErrCnt++) {
-            log((ErrorObject) messages.get(ErrCnt));
+            log(messages.get(ErrCnt));
         }
     }
 
+    /**
+     * Indicates if a message of the given severity level would be written to the log.
+     *
+     * @param severityLvl int
+     * @return loggable boolean
+     */
+    protected boolean isLoggable(int severityLvl) {
+        return severityLvl >= SDKProperties.getLoggingLevel() && !errInLogger;
+    }
+
+    /**
+     * Logs a message followed by the stack trace of an exception. The stack trace is
+     * rendered only if the message is actually written to the log.
+     *
+     * @param message     String
+     * @param ex          Throwable
+     * @param severityLvl int
+     * @return retVal boolean
+     */
+    protected boolean log(String message, Throwable ex, int severityLvl) {
+        if (!isLoggable(severityLvl)) {
+            return true;
+        }
+        return log(message + PayflowUtility.getStackTraceAsString(ex), severityLvl);
+    }
+
     /**
      * This method logs the data to a file.Different type of severity level can be logged here.
      * The levels that can be logged are decided by the configuration settings in the
@@ -261,13 +269,7 @@ public final class Logger {
                 }
             } catch (Exception e) {
                 retVal = false;
-                String respMessage = PayflowConstants.PARAM_RESULT
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorCodes.get(PayflowConstants.E_INIT_ERROR)
-                        + PayflowConstants.DELIMITER_NVP
-                        + PayflowConstants.PARAM_RESPMSG
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorMessages.get(PayflowConstants.E_INIT_ERROR)
+                String respMessage = CommErrorCatalog.getNvpResponse(PayflowConstants.E_INIT_ERROR)
                         + e.getMessage() + " Occurred while accessing logFile : " + SDKProperties.getLogFileName() + " - Logging has been disabled.";
                 ErrorObject err =
                         new ErrorObject(PayflowConstants.SEVERITY_WARN, PayflowConstants.EMPTY_STRING,
@@ -316,61 +318,44 @@ public final class Logger {
     }
 
     /**
-     * This method populates each ErrorObject int the arraylist passed, with the
-     * details from the SortedList held by the logger class. It populates the mLoggerErrs
-     * in case the relevant message code is not found.
-     *  * <p>
-     * Populate the error object with the details
+     * Populates a single error object with the severity level and message body of its
+     * message code. Errors without a message code are returned as they are.
      *
-     * @param errObj ArrayList
-     * @return errorObject ArrayList
+     * @param errObj ErrorObject
+     * @return retErrorObj ErrorObject
      */
-    protected ArrayList populateErrorDetails(ArrayList errObj) {
+    protected ErrorObject populateErrorDetails(ErrorObject errObj) {
         ErrorObject errMesg;
-        ErrorObject retErrorObj;
-        ArrayList retErrObjs = new ArrayList(0);
-        int errCnt;
-        int errMaxCnt;
         int sevLvlAssigned;
         String[] mesgParams;
 
-        //Iterate through all the error objects in the array list
-        errMaxCnt = errObj.size();
-        for (errCnt = 0; errCnt < errMaxCnt; errCnt++) {
-            if (((ErrorObject) errObj.get(errCnt)).getMessageCode().length() != 0) {
-                errMesg = (ErrorObject) mMessages.get(((ErrorObject) errObj.get(errCnt)).getMessageCode());
-
-                if (((ErrorObject) errObj.get(errCnt)).getSeverityLevel() != 0) {
-                    sevLvlAssigned = ((ErrorObject) errObj.get(errCnt)).getSeverityLevel();
-                } else {
-                    sevLvlAssigned = errMesg.getSeverityLevel();
-                }
-                mesgParams = new String[((ErrorObject) errObj.get(errCnt)).getMessageParams().size()];
-
-                ((ErrorObject) errObj.get(errCnt)).getMessageParams().toArray(mesgParams);
+        if (errObj.getMessageCode().length() == 0) {
+            return errObj;
+        }
+        errMesg = mMessages.get(errObj.getMessageCode());
+        if (errObj.getSeverityLevel() != 0 && errObj.getMessageBody() == errMesg.getMessageBody()) {
+            // already populated
+            return errObj;
+        }
 
-                retErrorObj = new ErrorObject(sevLvlAssigned,
-                        errMesg.getMessageCode(), errMesg.getMessageBody(),
-                        mesgParams,
-                        ((ErrorObject) errObj.get(errCnt)).getErrorStackTrace());
-            } else {
-                retErrorObj = (ErrorObject) errObj.get(errCnt);
-            }
-            retErrObjs.add(retErrorObj);
+        if (errObj.getSeverityLevel() != 0) {
+            sevLvlAssigned = errObj.getSeverityLevel();
+        } else {
+            sevLvlAssigned = errMesg.getSeverityLevel();
         }
-        return retErrObjs;
+        return errObj.copy(sevLvlAssigned, errMesg.getMessageCode(), errMesg.getMessageBody());
     }
 
     private void populateMessages() {
-        mMessages = new HashMap();
+        mMessages = new HashMap<String, ErrorObject>();
         ErrorObject Err;
-        Err = new ErrorObject(PayflowConstants.SEVERITY_INFO, PayflowConstants.MSG_COMMUNICATION_ERROR, "RESULT={0}&RESPMSG={1}");
+        Err = new ErrorObject(PayflowConstants.SEVERITY_INFO, PayflowConstants.MSG_COMMUNICATION_ERROR, CommErrorCatalog.COMM_ERROR_BODY);
         mMessages.put(PayflowConstants.MSG_COMMUNICATION_ERROR, Err);
-        Err = new ErrorObject(PayflowConstants.SEVERITY_INFO, PayflowConstants.MSG_COMMUNICATION_ERROR_XMLPAY, "<XMLPayResponse xmlns='http://www.paypal.com/XMLPay'><ResponseData><TransactionResults><TransactionResult><Result>{0}</Result><Message>{1}</Message></TransactionResult></TransactionResults></ResponseData></XMLPayResponse>");
+        Err = new ErrorObject(PayflowConstants.SEVERITY_INFO, PayflowConstants.MSG_COMMUNICATION_ERROR_XMLPAY, CommErrorCatalog.COMM_ERROR_BODY_XMLPAY);
         mMessages.put(PayflowConstants.MSG_COMMUNICATION_ERROR_XMLPAY, Err);
-        Err = new ErrorObject(PayflowConstants.SEVERITY_INFO, PayflowConstants.MSG_COMMUNICATION_ERROR_NO_RESPONSE_ID, "RESULT={0}&RESPMSG={1}&REQUEST_ID={2}");
+        Err = new ErrorObject(PayflowConstants.SEVERITY_INFO, PayflowConstants.MSG_COMMUNICATION_ERROR_NO_RESPONSE_ID, CommErrorCatalog.COMM_ERROR_BODY_NO_RESPONSE_ID);
         mMessages.put(PayflowConstants.MSG_COMMUNICATION_ERROR_NO_RESPONSE_ID, Err);
-        Err = new ErrorObject(PayflowConstants.SEVERITY_INFO, PayflowConstants.MSG_COMMUNICATION_ERROR_XMLPAY_NO_RESPONSE_ID, "<XMLPayResponse xmlns='http://www.paypal.com/XMLPay'><ResponseData><TransactionResults><TransactionResult><Result>{0}</Result><Message>{1}</Message></TransactionResult></TransactionResults></ResponseData></XMLPayResponse>");
+        Err = new ErrorObject(PayflowConstants.SEVERITY_INFO, PayflowConstants.MSG_COMMUNICATION_ERROR_XMLPAY_NO_RESPONSE_ID, CommErrorCatalog.COMM_ERROR_BODY_XMLPAY);
         mMessages.put(PayflowConstants.MSG_COMMUNICATION_ERROR_XMLPAY_NO_RESPONSE_ID, Err);
     }
 
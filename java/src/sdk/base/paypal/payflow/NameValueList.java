@@ -0,0 +1,260 @@
+package paypal.payflow;
+
+/**
+ * Name value pairs of a well formed parameter list, such as a gateway response.
+ *  * <p>
+ * The list is scanned once. Only the offsets of each name and value in the original
+ * string are kept; the name and value strings are made when they are asked for.
+ * Names and values are read the same way as ParameterListValidator.parseNVPList reads them:
+ * <ul>
+ * <li>a name may carry the value length as NAME[length]=value,</li>
+ * <li>a value without a length ends at the first '&amp;' which is not next to another
+ * '&amp;', so "&amp;&amp;" is kept in the value as it is,</li>
+ * <li>names and values are trimmed.</li>
+ * </ul>
+ * Lists which parseNVPList would report as invalid are not parsed here; parse returns null
+ * for them so that the caller can fall back to parseNVPList for the error details.
+ */
+final class NameValueList {
+
+    /**
+     * Number of offsets kept per name value pair.
+     */
+    private static final int OFFSETS_PER_PAIR = 4;
+
+    /**
+     * The parameter list.
+     */
+    private final String mParamList;
+
+    /**
+     * Name start, name end, value start and value end of each pair.
+     */
+    private int[] mOffsets;
+
+    /**
+     * Number of pairs.
+     */
+    private int mSize;
+
+    /**
+     * Constructor for NameValueList
+     *
+     * @param paramList String
+     */
+    private NameValueList(String paramList) {
+        mParamList = paramList;
+        mOffsets = new int[OFFSETS_PER_PAIR * 16];
+    }
+
+    /**
+     * Parses a parameter list.
+     *
+     * @param paramList String
+     * @return list NameValueList, null if the list is not well formed.
+     */
+    protected static NameValueList parse(String paramList) {
+        NameValueList list = new NameValueList(paramList);
+        return list.scan() ? list : null;
+    }
+
+    /**
+     * Gets the number of name value pairs.
+     *
+     * @return size int
+     */
+    protected int size() {
+        return mSize;
+    }
+
+    /**
+     * Gets the name of a pair.
+     *
+     * @param index int
+     * @return name String
+     */
+    protected String getName(int index) {
+        int offset = index * OFFSETS_PER_PAIR;
+        return mParamList.substring(mOffsets[offset], mOffsets[offset + 1]);
+    }
+
+    /**
+     * Gets the value of a pair.
+     *
+     * @param index int
+     * @return value String
+     */
+    protected String getValue(int index) {
+        int offset = index * OFFSETS_PER_PAIR;
+        return mParamList.substring(mOffsets[offset + 2], mOffsets[offset + 3]);
+    }
+
+    /**
+     * Gets the value of the last pair with the given name.
+     *
+     * @param name String
+     * @return value String, null if there is no such pair.
+     */
+    protected String getValue(String name) {
+        for (int index = mSize - 1; index >= 0; index--) {
+            int offset = index * OFFSETS_PER_PAIR;
+            int start = mOffsets[offset];
+            int length = mOffsets[offset + 1] - start;
+            if (length == name.length() && mParamList.regionMatches(start, name, 0, length)) {
+                return getValue(index);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Scans the list and records the offsets of the pairs.
+     *
+     * @return true if the list is well formed.
+     */
+    private boolean scan() {
+        String paramList = mParamList;
+        int length = paramList.length();
+        int index = 0;
+        // parseNVPList does not move past a '\0', so the list is read up to the first one
+        boolean endOfList = false;
+        while (index < length && !endOfList) {
+            int nameStart = index;
+            int nameEnd = -1;
+            int lenStart = -1;
+            int lenEnd = -1;
+            char c;
+            while (index < length && (c = paramList.charAt(index)) != '=') {
+                if (c == '\0') {
+                    endOfList = true;
+                    break;
+                }
+                if (c == '&') {
+                    return false;
+                }
+                if (c == '[') {
+                    if (lenStart >= 0) {
+                        return false;
+                    }
+                    nameEnd = index;
+                    lenStart = index + 1;
+                } else if (c == ']') {
+                    // only NAME[length]= or NAME[length] at the end of the list
+                    if (lenStart < 0 || lenEnd >= 0 || index == lenStart
+                            || (index + 1 < length && paramList.charAt(index + 1) != '=')) {
+                        return false;
+                    }
+                    lenEnd = index;
+                }
+                index++;
+            }
+            if (lenStart < 0) {
+                nameEnd = index;
+            } else if (lenEnd < 0 || paramList.charAt(lenStart) == '-') {
+                return false;
+            }
+            //skip '='
+            if (index < length && !endOfList) {
+                index++;
+            }
+            int valueStart = index;
+            int valueEnd = index;
+            if (index < length && !endOfList && paramList.charAt(index) == '\0') {
+                endOfList = true;
+            } else if (index < length && !endOfList && lenStart >= 0) {
+                int valueLength = parseLength(paramList, lenStart, lenEnd);
+                if (valueLength < 0) {
+                    return false;
+                }
+                int ampIndex = index + valueLength;
+                if (ampIndex < length && paramList.charAt(ampIndex) != '&') {
+                    return false;
+                }
+                valueEnd = Math.min(ampIndex, length);
+                index = ampIndex + 1;
+            } else if (index < length && !endOfList) {
+                while (index < length) {
+                    c = paramList.charAt(index);
+                    if (c == '\0') {
+                        endOfList = true;
+                        break;
+                    }
+                    if (c == '&' && !(index + 1 < length && paramList.charAt(index + 1) == '&')
+                            && paramList.charAt(index - 1) != '&') {
+                        break;
+                    }
+                    index++;
+                }
+                valueEnd = index;
+                //skip '&'
+                index++;
+            }
+            add(nameStart, nameEnd, valueStart, valueEnd);
+        }
+        return true;
+    }
+
+    /**
+     * Parses the value length given in [].
+     *
+     * @param paramList String
+     * @param start     int
+     * @param end       int
+     * @return length int, -1 if the length is not a number of zero or more.
+     */
+    private static int parseLength(String paramList, int start, int end) {
+        while (start < end && paramList.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && paramList.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end || end - start > 9) {
+            return -1;
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = paramList.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            length = length * 10 + (c - '0');
+        }
+        return length;
+    }
+
+    /**
+     * Records a pair, trimming the name and the value.
+     *
+     * @param nameStart  int
+     * @param nameEnd    int
+     * @param valueStart int
+     * @param valueEnd   int
+     */
+    private void add(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+        if ((mSize + 1) * OFFSETS_PER_PAIR > mOffsets.length) {
+            int[] offsets = new int[mOffsets.length * 2];
+            System.arraycopy(mOffsets, 0, offsets, 0, mOffsets.length);
+            mOffsets = offsets;
+        }
+        String paramList = mParamList;
+        while (nameStart < nameEnd && paramList.charAt(nameStart) <= ' ') {
+            nameStart++;
+        }
+        while (nameEnd > nameStart && paramList.charAt(nameEnd - 1) <= ' ') {
+            nameEnd--;
+        }
+        while (valueStart < valueEnd && paramList.charAt(valueStart) <= ' ') {
+            valueStart++;
+        }
+        while (valueEnd > valueStart && paramList.charAt(valueEnd - 1) <= ' ') {
+            valueEnd--;
+        }
+        int offset = mSize * OFFSETS_PER_PAIR;
+        mOffsets[offset] = nameStart;
+        mOffsets[offset + 1] = nameEnd;
+        mOffsets[offset + 2] = valueStart;
+        mOffsets[offset + 3] = valueEnd;
+        mSize++;
+    }
+}
@@ -0,0 +1,282 @@
+package paypal.payflow;
+
+/**
+ * Masks the sensitive values of a name value pair request for logging.
+ * <p>
+ * The request is read once, noting where each sensitive name (ACCT, SWIPE, MICR, CVV2,
+ * PWD, DL, SS, DOB) is followed by '=' or by the '[' of a length tag. The names are
+ * found with a table of the names by their first character, so each character of the
+ * request is looked at once. The values are then masked into one copy of the request.
+ * <p>
+ * The values are found and masked the way locateValueForName masked them, one name
+ * after the other, each name seeing the values masked before it:
+ * <ul>
+ * <li>the first NAME= in the request is masked, wherever it is; if there is none, the
+ * first NAME[ is, or the next one when the first does not follow a '&amp;',</li>
+ * <li>the value starts after the first '=' following the name, so a length tag does
+ * not set the extent of the value,</li>
+ * <li>the value ends at the first '&amp;' which is not part of an escaped '&amp;&amp;',
+ * or at the end of the request,</li>
+ * <li>ACCT keeps its first six and all but its first twelve characters.</li>
+ * </ul>
+ */
+final class NvpMasker {
+
+    /**
+     * Names whose values are masked, in the order they are masked.
+     */
+    private static final String[] SENSITIVE_NAMES = {
+            PayflowConstants.PARAM_ACCT,
+            PayflowConstants.PARAM_SWIPE,
+            PayflowConstants.PARAM_MICR,
+            PayflowConstants.PARAM_CVV2,
+            PayflowConstants.PARAM_PWD,
+            PayflowConstants.PARAM_DL,
+            PayflowConstants.PARAM_SS,
+            PayflowConstants.PARAM_DOB
+    };
+
+    /**
+     * Indexes of the sensitive names, by the first character of the name.
+     */
+    private static final int[][] NAMES_BY_FIRST_CHAR = new int[128][];
+
+    static {
+        for (int name = 0; name < SENSITIVE_NAMES.length; name++) {
+            char first = SENSITIVE_NAMES[name].charAt(0);
+            int[] names = NAMES_BY_FIRST_CHAR[first];
+            int[] grown = new int[names == null ? 1 : names.length + 1];
+            if (names != null) {
+                System.arraycopy(names, 0, grown, 0, names.length);
+            }
+            grown[grown.length - 1] = name;
+            NAMES_BY_FIRST_CHAR[first] = grown;
+        }
+    }
+
+    /**
+     * Characters of the ACCT value, counted from 1, which are masked.
+     */
+    private static final int ACCT_MASK_START = 7;
+    private static final int ACCT_MASK_END = 12;
+
+    /**
+     * Private constructor for NvpMasker
+     */
+    private NvpMasker() {
+    }
+
+    /**
+     * Masks a name value pair request.
+     *
+     * @param parmList String
+     * @return maskedRequest String
+     */
+    protected static String mask(String parmList) {
+        if (parmList == null || parmList.length() == 0) {
+            return parmList;
+        }
+        Occurrences occurrences = findNames(parmList);
+        if (occurrences.mCount == 0) {
+            return parmList;
+        }
+        char[] masked = parmList.toCharArray();
+        for (int name = 0; name < SENSITIVE_NAMES.length; name++) {
+            maskValue(masked, name, occurrences);
+        }
+        return new String(masked);
+    }
+
+    /**
+     * Tells whether the values of a name are masked.
+     *
+     * @param name String
+     * @return true if the name is a sensitive name.
+     */
+    protected static boolean isSensitive(String name) {
+        for (int i = 0; i < SENSITIVE_NAMES.length; i++) {
+            if (SENSITIVE_NAMES[i].equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Notes, in one pass, each place a sensitive name is followed by '=' or '['.
+     *
+     * @param parmList String
+     * @return occurrences Occurrences
+     */
+    private static Occurrences findNames(String parmList) {
+        Occurrences occurrences = new Occurrences();
+        int length = parmList.length();
+        for (int index = 0; index < length; index++) {
+            char c = parmList.charAt(index);
+            int[] names = c < NAMES_BY_FIRST_CHAR.length ? NAMES_BY_FIRST_CHAR[c] : null;
+            if (names == null) {
+                continue;
+            }
+            for (int i = 0; i < names.length; i++) {
+                String name = SENSITIVE_NAMES[names[i]];
+                int end = index + name.length();
+                if (end < length && parmList.startsWith(name, index)) {
+                    char next = parmList.charAt(end);
+                    if (next == '=' || next == '[') {
+                        occurrences.add(index, names[i], next);
+                    }
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Masks the value of one sensitive name, as the request stands after the names before
+     * it were masked.
+     *
+     * @param masked      char[] : the request, masked in place.
+     * @param name        int : index of the sensitive name.
+     * @param occurrences Occurrences
+     */
+    private static void maskValue(char[] masked, int name, Occurrences occurrences) {
+        int nameIndex = occurrences.find(masked, name, '=', 0);
+        if (nameIndex < 0) {
+            nameIndex = occurrences.find(masked, name, '[', 0);
+            if (nameIndex > 0 && masked[nameIndex - 1] != '&') {
+                nameIndex = occurrences.find(masked, name, '[', nameIndex + 1);
+            }
+        }
+        if (nameIndex < 0) {
+            return;
+        }
+        int nvSeparatorIndex = indexOf(masked, '=', nameIndex);
+        if (nvSeparatorIndex < 0) {
+            return;
+        }
+        // an "&&" is an escaped '&' inside the value
+        int nvDelimiterIndex = indexOf(masked, '&', nvSeparatorIndex);
+        while (nvDelimiterIndex >= 0 && nvDelimiterIndex + 1 < masked.length && masked[nvDelimiterIndex + 1] == '&') {
+            nvDelimiterIndex = indexOf(masked, '&', nvDelimiterIndex + 2);
+        }
+        if (nvDelimiterIndex < 0) {
+            nvDelimiterIndex = masked.length;
+        }
+        boolean isAcct = name == 0;
+        for (int maskIndex = nvSeparatorIndex + 1; maskIndex < nvDelimiterIndex; maskIndex++) {
+            int position = maskIndex - nvSeparatorIndex;
+            if (isAcct && (position < ACCT_MASK_START || position > ACCT_MASK_END)) {
+                continue;
+            }
+            masked[maskIndex] = 'X';
+        }
+    }
+
+    /**
+     * Finds a character in the request.
+     *
+     * @param masked char[]
+     * @param c      char
+     * @param from   int
+     * @return index int, -1 if the character is not found.
+     */
+    private static int indexOf(char[] masked, char c, int from) {
+        for (int index = from; index < masked.length; index++) {
+            if (masked[index] == c) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The places sensitive names are found at, in request order.
+     */
+    private static final class Occurrences {
+
+        /**
+         * Index of each name in the request.
+         */
+        private int[] mIndexes = new int[8];
+
+        /**
+         * Sensitive name found at each index.
+         */
+        private int[] mNames = new int[8];
+
+        /**
+         * Character following each name, '=' or '['.
+         */
+        private char[] mNext = new char[8];
+
+        /**
+         * Number of places found.
+         */
+        private int mCount;
+
+        /**
+         * Notes a place a name is found at.
+         *
+         * @param index int
+         * @param name  int
+         * @param next  char
+         */
+        private void add(int index, int name, char next) {
+            if (mCount == mIndexes.length) {
+                int[] indexes = new int[mCount * 2];
+                int[] names = new int[mCount * 2];
+                char[] nexts = new char[mCount * 2];
+                System.arraycopy(mIndexes, 0, indexes, 0, mCount);
+                System.arraycopy(mNames, 0, names, 0, mCount);
+                System.arraycopy(mNext, 0, nexts, 0, mCount);
+                mIndexes = indexes;
+                mNames = names;
+                mNext = nexts;
+            }
+            mIndexes[mCount] = index;
+            mNames[mCount] = name;
+            mNext[mCount] = next;
+            mCount++;
+        }
+
+        /**
+         * Finds the first place, at or after an index, of a name followed by a character,
+         * which has not been masked away by the names masked before it.
+         *
+         * @param masked char[]
+         * @param name   int
+         * @param next   char
+         * @param from   int
+         * @return index int, -1 if there is no such place.
+         */
+        private int find(char[] masked, int name, char next, int from) {
+            String nameString = SENSITIVE_NAMES[name];
+            int nameLength = nameString.length();
+            for (int i = 0; i < mCount; i++) {
+                int index = mIndexes[i];
+                if (index >= from && mNames[i] == name && mNext[i] == next
+                        && masked[index + nameLength] == next && isUnmasked(masked, index, nameString)) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Checks that a name found in the request is still there.
+         *
+         * @param masked char[]
+         * @param index  int
+         * @param name   String
+         * @return true if no character of the name has been masked.
+         */
+        private static boolean isUnmasked(char[] masked, int index, String name) {
+            for (int i = 0; i < name.length(); i++) {
+                if (masked[index + i] != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
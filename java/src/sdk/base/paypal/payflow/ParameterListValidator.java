@@ -2,7 +2,10 @@ package paypal.payflow;
 
 
 
-import java.util.Hashtable;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import java.util.HashMap;
 
 /**
  * Parameter List Validator Class.
@@ -27,7 +30,29 @@ final class ParameterListValidator {
         Logger.getInstance().log("paypal.payflow.ParameterListValidator.Validate(String,boolean,Context): Entered", PayflowConstants.SEVERITY_DEBUG);
         try {
             if (isXmlPayReq) {
-                new IPXmlReader(paramList);
+                String schemaFile = SDKProperties.getXmlPaySchemaFile();
+                boolean validated = false;
+                if (schemaFile != null) {
+                    try {
+                        validated = XmlPaySchema.validate(paramList, schemaFile);
+                    } catch (SAXException Ex) {
+                        // the request was checked, and does not match the schema
+                        validated = true;
+                        String addlMessage = Ex.getMessage();
+                        if (Ex instanceof SAXParseException) {
+                            SAXParseException ParseEx = (SAXParseException) Ex;
+                            addlMessage = "XMLPay request does not match the schema at line " + ParseEx.getLineNumber()
+                                    + ", column " + ParseEx.getColumnNumber() + ": " + ParseEx.getMessage();
+                        }
+                        ErrorObject Err = PayflowUtility.populateCommError(PayflowConstants.E_INVALID_NVP, null, PayflowConstants.SEVERITY_FATAL, true, addlMessage);
+                        if (!currentContext.isCommunicationErrorContained(Err)) {
+                            currentContext.addError(Err);
+                        }
+                    }
+                }
+                if (!validated) {
+                    new IPXmlReader(paramList);
+                }
             } else {
                 if (paramList != null && paramList.length() > 0) {
                     parseNVPList(paramList, currentContext, false);
@@ -49,9 +74,9 @@ final class ParameterListValidator {
      * @param paramList                 String
      * @param currentContext            Context
      * @param populateResponseHashTable boolean
-     * @return table HashTable
+     * @return table HashMap
      */
-    public static Hashtable parseNVPList(String paramList, Context currentContext, boolean populateResponseHashTable) {
+    public static HashMap<String, String> parseNVPList(String paramList, Context currentContext, boolean populateResponseHashTable) {
         Logger.getInstance().log("paypal.payflow.ParameterListValidator.ParseNVPList(String, context, boolean): Entered", PayflowConstants.SEVERITY_DEBUG);
         long paramListLen = paramList.length();
         int index = 0;
@@ -59,11 +84,31 @@ final class ParameterListValidator {
         boolean closeBracket = false;
         String addlMessage;
         ErrorObject err;
-        Hashtable paramListHashTable = new Hashtable();
+        HashMap<String, String> paramListHashTable = new HashMap<String, String>();
         if (paramList == null || paramList.length() <= 0) {
             err = PayflowUtility.populateCommError(PayflowConstants.E_EMPTY_PARAM_LIST, null, PayflowConstants.SEVERITY_FATAL, false, null);
             currentContext.addError(err);
         }
+        // Well formed lists are read in a single pass; the scan below is kept for the
+        // lists which are not, as it reports what is wrong with them.
+        if (paramListLen > 0 && currentContext.getHighestErrorLvl() < PayflowConstants.SEVERITY_FATAL) {
+            NameValueList nameValueList = NameValueList.parse(paramList);
+            if (nameValueList != null) {
+                if (populateResponseHashTable) {
+                    // sized for the pairs and the full response, which Response adds
+                    paramListHashTable = new HashMap<String, String>((nameValueList.size() + 1) * 4 / 3 + 1);
+                    for (int pair = 0; pair < nameValueList.size(); pair++) {
+                        String Name = nameValueList.getName(pair);
+                        if (paramListHashTable.containsKey(Name)) {
+                            Name = Name + PayflowConstants.TAG_DUPLICATE + PayflowUtility.getRequestId();
+                        }
+                        paramListHashTable.put(Name, nameValueList.getValue(pair));
+                    }
+                }
+                Logger.getInstance().log("paypal.payflow.ParameterListValidator.ParseNVPList(String,context,bool): Exiting", PayflowConstants.SEVERITY_DEBUG);
+                return paramListHashTable;
+            }
+        }
         while (index < paramListLen && currentContext.getHighestErrorLvl() < PayflowConstants.SEVERITY_FATAL) {
             int NameBuffSize = 1000;
             int ValBuffSize = 1000;
@@ -252,7 +297,7 @@ final class ParameterListValidator {
             if (populateResponseHashTable) {
                 String Name = new String(NameBuffer).trim();
                 String Value = new String(ValueBuffer).trim();
-                if (paramListHashTable.contains(Name)) {
+                if (paramListHashTable.containsKey(Name)) {
                     Name = Name + PayflowConstants.TAG_DUPLICATE + PayflowUtility.getRequestId();
                 }
                 paramListHashTable.put(Name, Value);
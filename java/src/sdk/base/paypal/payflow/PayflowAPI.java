@@ -4,8 +4,13 @@ package paypal.payflow;
 
 import org.xml.sax.SAXException;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * PayflowAPI is used to submit a Name-value pair or XMLPay request to
@@ -41,6 +46,20 @@ import java.util.ArrayList;
  */
 public class PayflowAPI {
 
+    /**
+     * TRXTYPE of the XMLPay operations, by element name, for the transaction journal.
+     */
+    private static final HashMap<String, String> XMLPAY_TRXTYPES = new HashMap<String, String>();
+
+    static {
+        XMLPAY_TRXTYPES.put(PayflowConstants.XML_PARAM_SALE, PayflowConstants.TRXTYPE_SALE);
+        XMLPAY_TRXTYPES.put(PayflowConstants.XML_PARAM_AUTHORIZATION, PayflowConstants.TRXTYPE_AUTH);
+        XMLPAY_TRXTYPES.put(PayflowConstants.XML_PARAM_CREDIT, PayflowConstants.TRXTYPE_CREDIT);
+        XMLPAY_TRXTYPES.put(PayflowConstants.XML_PARAM_CAPTURE, PayflowConstants.TRXTYPE_CAPTURE);
+        XMLPAY_TRXTYPES.put(PayflowConstants.XML_PARAM_VOID, PayflowConstants.TRXTYPE_VOID);
+        XMLPAY_TRXTYPES.put(PayflowConstants.XML_PARAM_GETSTATUS, PayflowConstants.TRXTYPE_INQUIRY);
+    }
+
     /**
      * Host Address
      */
@@ -87,7 +106,7 @@ public class PayflowAPI {
     private Context mTransactionContext;
 
     /**
-     * Transaction Request
+     * Transaction Request, masked once the transaction has been sent.
      */
     private String mTransactionRequest;
 
@@ -102,6 +121,16 @@ public class PayflowAPI {
      */
     private boolean mIsXmlPayRequest = false;
 
+    /**
+     * Analysis of the XMLPay request being submitted, null for a name value pair request.
+     */
+    private XmlPayRequestInfo mXmlPayRequestInfo;
+
+    /**
+     * Response data objects of the last transaction, built when first asked for.
+     */
+    private Response mResponse;
+
     /**
      * Client information.
      */
@@ -220,6 +249,27 @@ public class PayflowAPI {
         return mTransactionRequest;
     }
 
+    /**
+     * Returns the response of the last Transaction as response data objects.
+     * An XMLPay response fills the same TransactionResponse and FraudResponse objects
+     * as a name value pair response, so it need not be parsed again by the caller.
+     *
+     * @return response Response, null if no transaction has been submitted.
+     */
+    public Response getResponse() {
+        if (mResponse == null && mTransactionResponse != null) {
+            Response response = new Response(mRequestId, mTransactionContext);
+            response.setRequestString(mTransactionRequest);
+            if (mTransactionResponse.indexOf(PayflowConstants.XML_RESP_ID) >= 0) {
+                response.setXmlPayParams(mTransactionResponse);
+            } else {
+                response.setParams(mTransactionResponse);
+            }
+            mResponse = response;
+        }
+        return mResponse;
+    }
+
 
     /**
      * Returns the version for the client.
@@ -312,32 +362,66 @@ public class PayflowAPI {
      * @return response String
      */
     public String submitTransaction(String paramList, String requestId) {
+        return submitRequest(paramList, null, requestId);
+    }
+
+    /**
+     * Submits a name value pair request built by the data objects, as the bytes to be
+     * sent, so that the request is not also kept as a String.
+     *
+     * @param nvpRequest byte[]
+     * @param requestId  String
+     * @return response String
+     */
+    String submitNvpTransaction(byte[] nvpRequest, String requestId) {
+        return submitRequest(null, nvpRequest, requestId);
+    }
+
+    /**
+     * Submits a transaction given either as a param list or as name value pair request bytes.
+     *
+     * @param paramList  String : the request, null when it is given as bytes.
+     * @param nvpRequest byte[] : the name value pair request, null when it is given as a param list.
+     * @param requestId  String
+     * @return response String
+     */
+    private String submitRequest(String paramList, byte[] nvpRequest, String requestId) {
         if (!isStrongAssemblyTransaction) {
             Logger.getInstance().log("########### BEGIN TRANSACTION request id : " + requestId + " ###########", PayflowConstants.SEVERITY_INFO);
         }
         Logger.getInstance().log("paypal.payflow.PayflowAPI.submitTransaction(String,String): Entered", PayflowConstants.SEVERITY_DEBUG);
 
+        long startTimeMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        long prepareNanos = 0;
+        long exchangeNanos = 0;
         String retVal = null;
         mRequestId = requestId;
-        //masked Transaction Requests will be used for logging
-        mTransactionRequest = PayflowUtility.maskSensitiveFields(paramList);
+        mResponse = null;
+        // an XMLPay request is read once, for its attributes and its masked form
+        mXmlPayRequestInfo = null;
+        if (paramList != null && paramList.indexOf(PayflowConstants.XML_ID) >= 0) {
+            mXmlPayRequestInfo = XmlPayRequestInfo.analyze(paramList);
+        }
+        mTransactionRequest = null;
         Logger.getInstance().log("paypal.payflow.PayflowAPI.submitTransaction(String,String): Host " + mHostAddress, PayflowConstants.SEVERITY_DEBUG);
         try {
-            checkTransactionArgs(paramList, requestId);
+            checkTransactionArgs(paramList, nvpRequest, requestId);
             //Logger.getInstance().log("paypal.payflow.PayflowAPI.submitTransaction(String,String): parmList " + paramList, PayflowConstants.SEVERITY_DEBUG);
             mTransactionContext.setLoadLoggerErrs(true);
-            ArrayList errors = PayflowUtility.alignContext(mTransactionContext, getIsXmlPayRequest());
+            ArrayList<ErrorObject> errors = PayflowUtility.alignContext(mTransactionContext, getIsXmlPayRequest());
             mTransactionContext.setLoadLoggerErrs(false);
             mTransactionContext.clearErrors();
             mTransactionContext.addErrors(errors);
             //Logger.getInstance().log("submitTransaction()START", PayflowConstants.SEVERITY_DEBUG);
             if (mTransactionContext.getHighestErrorLvl() == PayflowConstants.SEVERITY_FATAL) {
-                ArrayList errorList = mTransactionContext.getErrors(PayflowConstants.SEVERITY_FATAL);
-                ErrorObject firstFatalError = (ErrorObject) errorList.get(0);
+                ArrayList<ErrorObject> errorList = mTransactionContext.getErrors(PayflowConstants.SEVERITY_FATAL);
+                ErrorObject firstFatalError = errorList.get(0);
                 retVal = firstFatalError.toString();
                 //mTransactionRequest = PayflowUtility.maskSensitiveFields(ParamList);
                 mTransactionResponse = retVal;
             } else {
+                prepareNanos = System.nanoTime() - startNanos;
                 PaymentStateMachine mPaymentStateMachine = PaymentStateMachine.getInstance();
                 if (mClientInfo == null) {
                     mClientInfo = new ClientInfo();
@@ -352,7 +436,11 @@ public class PayflowAPI {
                 mPaymentStateMachine.initializeContext(mHostAddress, mHostPort, mTimeout, mProxyAddress, mProxyPort, mProxyLogon, mProxyPassword, mClientInfo);
 
                 //Initialize transaction
-                mPaymentStateMachine.initTrans(paramList, requestId);
+                if (nvpRequest != null) {
+                    mPaymentStateMachine.initTrans(nvpRequest, requestId);
+                } else {
+                    mPaymentStateMachine.initTrans(paramList, requestId, mXmlPayRequestInfo);
+                }
                 if (PayflowUtility.isTimedOut(mPaymentStateMachine.getTimeout(), mPaymentStateMachine.getStartTime())) {
                     String addlMessage = "Input timeout in millsec = " + mPaymentStateMachine.getTimeout();
                     ErrorObject err = PayflowUtility.populateCommError(PayflowConstants.E_TIMEOUT_WAIT_RESP, null, PayflowConstants.SEVERITY_FATAL,
@@ -368,13 +456,14 @@ public class PayflowAPI {
                     mPaymentStateMachine.execute();
                 }
                 //End Toggle through states
+                exchangeNanos = System.nanoTime() - startNanos - prepareNanos;
 
                 mTransactionResponse = mPaymentStateMachine.getResponse();
                 retVal = mTransactionResponse;
                 mClientInfo = mPaymentStateMachine.getClientInfo();
                 mRequestId = mPaymentStateMachine.getRequestId();
                 mTransactionContext.addErrors(mPaymentStateMachine.getPsmContext().getErrors());
-                ArrayList errList = PayflowUtility.alignContext(mTransactionContext, getIsXmlPayRequest());
+                ArrayList<ErrorObject> errList = PayflowUtility.alignContext(mTransactionContext, getIsXmlPayRequest());
                 mTransactionContext.setLoadLoggerErrs(false);
                 mTransactionContext.clearErrors();
                 mTransactionContext.addErrors(errList);
@@ -387,6 +476,12 @@ public class PayflowAPI {
         if (!isStrongAssemblyTransaction) {
             Logger.getInstance().log("########### END TRANSACTION request id : " + requestId + "###########", PayflowConstants.SEVERITY_INFO);
         }
+        //masked Transaction Requests will be used for logging; only the masked form is kept
+        // once the request has been sent
+        mTransactionRequest = PayflowUtility.maskSensitiveFields(nvpRequest != null ? new String(nvpRequest) : paramList,
+                mXmlPayRequestInfo);
+        mXmlPayRequestInfo = null;
+        journalTransaction(retVal, startTimeMillis, prepareNanos, exchangeNanos, System.nanoTime() - startNanos);
 
         // added debug logging statements for SDK errors, ie negative errors.
         // 08/23/07 tsieber
@@ -402,6 +497,108 @@ public class PayflowAPI {
         return retVal;
     }
 
+    /**
+     * Records the transaction in the binary transaction journal, if journaling is switched on.
+     *
+     * @param response        String
+     * @param startTimeMillis long
+     * @param prepareNanos    long
+     * @param exchangeNanos   long
+     * @param totalNanos      long
+     */
+    private void journalTransaction(String response, long startTimeMillis,
+                                    long prepareNanos, long exchangeNanos, long totalNanos) {
+        TransactionJournal journal = TransactionJournal.getInstance();
+        if (journal == null) {
+            return;
+        }
+        String trxType = PayflowConstants.EMPTY_STRING;
+        String result = PayflowConstants.EMPTY_STRING;
+        String pnref = PayflowConstants.EMPTY_STRING;
+        if (!getIsXmlPayRequest()) {
+            trxType = PayflowUtility.locateValueForName(mTransactionRequest, PayflowConstants.PARAM_TRXTYPE, false);
+        } else {
+            try {
+                trxType = getXmlPayTrxTypes(mTransactionRequest);
+            } catch (XMLStreamException ex) {
+                Logger.getInstance().log("paypal.payflow.PayflowAPI.journalTransaction: " + ex.getMessage(), PayflowConstants.SEVERITY_DEBUG);
+            }
+        }
+        if (response != null && response.indexOf(PayflowConstants.XML_RESP_ID) >= 0) {
+            try {
+                ArrayList<HashMap<String, String>> results = XmlPayResponseDecoder.decode(response);
+                result = joinValues(results, PayflowConstants.PARAM_RESULT);
+                pnref = joinValues(results, PayflowConstants.PARAM_PNREF);
+            } catch (XMLStreamException ex) {
+                Logger.getInstance().log("paypal.payflow.PayflowAPI.journalTransaction: " + ex.getMessage(), PayflowConstants.SEVERITY_DEBUG);
+            }
+        } else {
+            result = PayflowUtility.locateValueForName(response, PayflowConstants.PARAM_RESULT, false);
+            pnref = PayflowUtility.locateValueForName(response, PayflowConstants.PARAM_PNREF, false);
+        }
+        journal.append(mRequestId, startTimeMillis, System.currentTimeMillis(), prepareNanos, exchangeNanos, totalNanos,
+                trxType, result, pnref, mTransactionRequest, PayflowUtility.maskSensitiveFields(response));
+    }
+
+    /**
+     * Gets the transaction types of an XMLPay request: the TRXTYPE of each Transaction
+     * element, in document order and separated by commas. An operation which has no
+     * TRXTYPE is given by its element name.
+     *
+     * @param request String
+     * @return trxTypes String
+     * @throws XMLStreamException if the request is not well formed.
+     */
+    private static String getXmlPayTrxTypes(String request) throws XMLStreamException {
+        StringBuilder trxTypes = new StringBuilder();
+        XMLStreamReader reader = XmlStreams.createReader(request);
+        try {
+            // true right after the start of a Transaction element
+            boolean inTransaction = false;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String name = reader.getLocalName();
+                if (PayflowConstants.XML_PARAM_TRANSACTION.equals(name)) {
+                    inTransaction = true;
+                } else if (inTransaction && !PayflowConstants.XML_PARAM_VERBOSITY.equals(name)) {
+                    String trxType = XMLPAY_TRXTYPES.get(name);
+                    if (trxTypes.length() > 0) {
+                        trxTypes.append(',');
+                    }
+                    trxTypes.append(trxType != null ? trxType : name);
+                    inTransaction = false;
+                }
+            }
+        } finally {
+            XmlStreams.close(reader);
+        }
+        return trxTypes.toString();
+    }
+
+    /**
+     * Joins the values of a parameter of the transaction results of an XMLPay response,
+     * in document order and separated by commas.
+     *
+     * @param results ArrayList
+     * @param name    String
+     * @return values String
+     */
+    private static String joinValues(ArrayList<HashMap<String, String>> results, String name) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                values.append(',');
+            }
+            String value = results.get(i).get(name);
+            if (value != null) {
+                values.append(value);
+            }
+        }
+        return values.toString();
+    }
+
     /**
      * For any value not passed in the constructor the values being set in the properties will
      * be used.
@@ -419,13 +616,7 @@ public class PayflowAPI {
         if (null == mHostAddress || mHostAddress.trim().length() == 0) {
             mHostAddress = SDKProperties.getHostAddress();
             if (null == mHostAddress || mHostAddress.trim().length() == 0) {
-                String RespMessage = PayflowConstants.PARAM_RESULT
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorCodes.get(PayflowConstants.E_INIT_ERROR)
-                        + PayflowConstants.DELIMITER_NVP
-                        + PayflowConstants.PARAM_RESPMSG
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorMessages.get(PayflowConstants.E_INIT_ERROR)
+                String RespMessage = CommErrorCatalog.getNvpResponse(PayflowConstants.E_INIT_ERROR)
                         + "host Address has not been initialised. Please make sure it is being set.";
 
                 ErrorObject error = new ErrorObject(PayflowConstants.SEVERITY_FATAL, PayflowConstants.EMPTY_STRING, RespMessage);
@@ -462,24 +653,25 @@ public class PayflowAPI {
      * for null or empty and populates context
      * accordingly.
      *
-     * @param paramList String
-     * @param requestId String
+     * @param paramList  String : the request, null when it is given as bytes.
+     * @param nvpRequest byte[] : the name value pair request, null when it is given as a param list.
+     * @param requestId  String
      */
-    private void checkTransactionArgs(String paramList, String requestId) {
+    private void checkTransactionArgs(String paramList, byte[] nvpRequest, String requestId) {
         Logger.getInstance().log("paypal.payflow.PayflowAPI.CheckTransactionArgs(String, String): Entered", PayflowConstants.SEVERITY_DEBUG);
         try {
-            Context tempContext = null;
-            if (paramList == null || paramList.trim().length() == 0) {
+            if (nvpRequest != null) {
+                // a request built by the data objects is a name value pair request
+                if (nvpRequest.length == 0) {
+                    String respMessage = CommErrorCatalog.getNvpResponse(PayflowConstants.E_EMPTY_PARAM_LIST);
+                    ErrorObject error = new ErrorObject(PayflowConstants.SEVERITY_FATAL, PayflowConstants.EMPTY_STRING, respMessage);
+                    mTransactionContext.addError(error);
+                }
+            } else if (paramList == null || paramList.trim().length() == 0) {
                 //Logger.getInstance().log("paypal.payflow.PayflowAPI.CheckTransactionArgs(String, String): 1.", PayflowConstants.SEVERITY_DEBUG);
-                String respMessage = PayflowConstants.PARAM_RESULT
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorCodes.get(PayflowConstants.E_EMPTY_PARAM_LIST)
-                        + PayflowConstants.DELIMITER_NVP
-                        + PayflowConstants.PARAM_RESPMSG
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorMessages.get(PayflowConstants.E_EMPTY_PARAM_LIST);
+                String respMessage = CommErrorCatalog.getNvpResponse(PayflowConstants.E_EMPTY_PARAM_LIST);
                 ErrorObject error = new ErrorObject(PayflowConstants.SEVERITY_FATAL, PayflowConstants.EMPTY_STRING, respMessage);
-                tempContext.addError(error);
+                mTransactionContext.addError(error);
             } else {
                 //Logger.getInstance().log("paypal.payflow.PayflowAPI.CheckTransactionArgs(String, String): 2.", PayflowConstants.SEVERITY_DEBUG);
                 //Check for XmlPay 1.0
@@ -487,17 +679,21 @@ public class PayflowAPI {
                 int index = paramList.trim().indexOf(PayflowConstants.XML_ID);
                 if (index >= 0) {
                     String version;
-                    version = PayflowUtility.getXmlAttribute(paramList, PayflowConstants.XML_PARAM_VERSION);
+                    version = mXmlPayRequestInfo.getVersion();
 
                     if (version != null && version.trim().length() > 0) {
                         mIsXmlPayRequest = true;
                         if ("1.0".equals(version)) {
                             String addlMessage = ", Input XMLPay Request Version = " + version;
-                            String[] errParams = new String[]{(String) PayflowConstants.CommErrorCodes.get("E_VERSION_NOT_SUPPORTED"), PayflowConstants.CommErrorMessages.get("E_VERSION_NOT_SUPPORTED") + addlMessage};
+                            String[] errParams = new String[]{CommErrorCatalog.getResultCode("E_VERSION_NOT_SUPPORTED"), CommErrorCatalog.getMessage("E_VERSION_NOT_SUPPORTED") + addlMessage};
                             ErrorObject error = new ErrorObject(PayflowConstants.SEVERITY_FATAL, PayflowConstants.MSG_COMMUNICATION_ERROR_XMLPAY_NO_RESPONSE_ID, errParams);
-                            tempContext.addError(error);
+                            mTransactionContext.addError(error);
                         }
                     }
+                    // reject a request the gateway would reject, when a schema is set
+                    if (SDKProperties.getXmlPaySchemaFile() != null) {
+                        ParameterListValidator.validate(paramList, true, mTransactionContext);
+                    }
                 } else {
                     if (!isStrongAssemblyTransaction) {
                         ParameterListValidator.validate(paramList, false, mTransactionContext);
@@ -505,16 +701,10 @@ public class PayflowAPI {
                 }
             }
             if (requestId == null || requestId.trim().length() == 0) {
-                String respMessage = PayflowConstants.PARAM_RESULT
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorCodes.get(PayflowConstants.E_MISSING_REQUEST_ID)
-                        + PayflowConstants.DELIMITER_NVP
-                        + PayflowConstants.PARAM_RESPMSG
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorMessages.get(PayflowConstants.E_MISSING_REQUEST_ID);
+                String respMessage = CommErrorCatalog.getNvpResponse(PayflowConstants.E_MISSING_REQUEST_ID);
 
                 ErrorObject error = new ErrorObject(PayflowConstants.SEVERITY_FATAL, PayflowConstants.EMPTY_STRING, respMessage);
-                tempContext.addError(error);
+                mTransactionContext.addError(error);
             }
         } catch (SAXException exp) {
             String addlMessage;
@@ -1,6 +1,6 @@
 package paypal.payflow;
 
-import java.util.Hashtable;
+import java.util.HashMap;
 
 /**
  * PayflowConstants class contains all the global constants used throughout the SDK.
@@ -102,6 +102,14 @@ public final class PayflowConstants {
      * XML Pay request tag (XMLPayRequest)
      */
     protected static final String XMLPAY_REQUEST_TAG = "XMLPayRequest";
+    /**
+     * XML Pay version written by the SDK (2.0)
+     */
+    protected static final String XMLPAY_VERSION = "2.0";
+    /**
+     * Default number of transactions sent in one XML Pay batch request (10)
+     */
+    protected static final int XMLPAY_BATCH_SIZE = 10;
     /**
      * Default Logger file Name
      */
@@ -186,19 +194,19 @@ public final class PayflowConstants {
     /**
      * Communication Error Codes
      */
-    protected static Hashtable CommErrorCodes = PopulateErrorCodes();
+    protected static HashMap<String, String> CommErrorCodes = PopulateErrorCodes();
     /**
      * Communication Error Messages
      */
-    protected static Hashtable CommErrorMessages = PopulateErrorMessages();
+    protected static HashMap<String, String> CommErrorMessages = PopulateErrorMessages();
 
     /**
      * Populates Error code hash table
      *
      * @return ErrorCodeTable
      */
-    private static Hashtable PopulateErrorCodes() {
-        Hashtable ErrorCodeTable = new Hashtable();
+    private static HashMap<String, String> PopulateErrorCodes() {
+        HashMap<String, String> ErrorCodeTable = new HashMap<String, String>(32);
         ErrorCodeTable.put(E_SOK_CONN_FAILED, "-1");
         ErrorCodeTable.put(E_PARM_NAME, "-6");
         ErrorCodeTable.put(E_PARM_NAME_LEN, "-7");
@@ -226,8 +234,8 @@ public final class PayflowConstants {
      *
      * @return ErrorMessageTable
      */
-    protected static Hashtable PopulateErrorMessages() {
-        Hashtable ErrorMessageTable = new Hashtable();
+    protected static HashMap<String, String> PopulateErrorMessages() {
+        HashMap<String, String> ErrorMessageTable = new HashMap<String, String>(32);
         ErrorMessageTable.put(E_SOK_CONN_FAILED, "Failed to connect to host");
         ErrorMessageTable.put(E_PARM_NAME, "Parameter list format error: & in name");
         ErrorMessageTable.put(E_PARM_NAME_LEN, "Parameter list format error: invalid [] name length clause");
@@ -278,6 +286,11 @@ public final class PayflowConstants {
      */
     protected static final boolean TRACE_DEFAULT = false;
 
+    /**
+     * Default number of stack frames rendered per exception; 0 renders all frames.
+     */
+    protected static final int DEFAULT_STACK_TRACE_DEPTH = 0;
+
     /**
      * Severity for a FATAL level message.
      */
@@ -588,6 +601,310 @@ public final class PayflowConstants {
      * XML Pay Start tag
      */
     protected static final String XML_PARAM_START_TAG = "<?xml version='1.0' encoding='UTF-8'?><XMLPayRequest version ='";
+    /**
+     * Xml Pay Param TransactionResult
+     */
+    protected static final String XML_PARAM_TRANSACTIONRESULT = "TransactionResult";
+    /**
+     * Xml Pay Param PNRef
+     */
+    protected static final String XML_PARAM_PNREF = "PNRef";
+    /**
+     * Xml Pay Param AuthCode
+     */
+    protected static final String XML_PARAM_AUTHCODE = "AuthCode";
+    /**
+     * Xml Pay Param HostCode
+     */
+    protected static final String XML_PARAM_HOSTCODE = "HostCode";
+    /**
+     * Xml Pay Param OrigResult
+     */
+    protected static final String XML_PARAM_ORIGRESULT = "OrigResult";
+    /**
+     * Xml Pay Param IAVSResult
+     */
+    protected static final String XML_PARAM_IAVSRESULT = "IAVSResult";
+    /**
+     * Xml Pay Param CVResult
+     */
+    protected static final String XML_PARAM_CVRESULT = "CVResult";
+    /**
+     * Xml Pay Param AVSResult
+     */
+    protected static final String XML_PARAM_AVSRESULT = "AVSResult";
+    /**
+     * Xml Pay Param StreetMatch
+     */
+    protected static final String XML_PARAM_STREETMATCH = "StreetMatch";
+    /**
+     * Xml Pay Param ZipMatch
+     */
+    protected static final String XML_PARAM_ZIPMATCH = "ZipMatch";
+    /**
+     * Xml Pay Param ProcessorResult
+     */
+    protected static final String XML_PARAM_PROCESSORRESULT = "ProcessorResult";
+    /**
+     * Xml Pay Param FraudPreprocessResult
+     */
+    protected static final String XML_PARAM_FRAUDPREPROCESSRESULT = "FraudPreprocessResult";
+    /**
+     * Xml Pay Param FraudPostprocessResult
+     */
+    protected static final String XML_PARAM_FRAUDPOSTPROCESSRESULT = "FraudPostprocessResult";
+    /**
+     * Xml Pay Param XMLData
+     */
+    protected static final String XML_PARAM_XMLDATA = "XMLData";
+    /**
+     * Xml Pay Param ExtData
+     */
+    protected static final String XML_PARAM_EXTDATA = "ExtData";
+    /**
+     * Xml Pay ExtData attribute Name
+     */
+    protected static final String XML_PARAM_EXTDATA_NAME = "Name";
+    /**
+     * Xml Pay ExtData attribute Value
+     */
+    protected static final String XML_PARAM_EXTDATA_VALUE = "Value";
+    /**
+     * Xml Pay match result Match
+     */
+    protected static final String XML_PARAM_MATCH = "Match";
+    /**
+     * Xml Pay match result No Match
+     */
+    protected static final String XML_PARAM_NO_MATCH = "No Match";
+    /**
+     * Xml Pay Param RequestData
+     */
+    protected static final String XML_PARAM_REQUESTDATA = "RequestData";
+    /**
+     * Xml Pay Param Transactions
+     */
+    protected static final String XML_PARAM_TRANSACTIONS = "Transactions";
+    /**
+     * Xml Pay Param Transaction
+     */
+    protected static final String XML_PARAM_TRANSACTION = "Transaction";
+    /**
+     * Xml Pay Param Id, the Id attribute of a Transaction and its TransactionResult
+     */
+    protected static final String XML_PARAM_ID = "Id";
+    /**
+     * Xml Pay Param Verbosity
+     */
+    protected static final String XML_PARAM_VERBOSITY = "Verbosity";
+    /**
+     * Xml Pay Param Sale
+     */
+    protected static final String XML_PARAM_SALE = "Sale";
+    /**
+     * Xml Pay Param Authorization
+     */
+    protected static final String XML_PARAM_AUTHORIZATION = "Authorization";
+    /**
+     * Xml Pay Param Credit
+     */
+    protected static final String XML_PARAM_CREDIT = "Credit";
+    /**
+     * Xml Pay Param Capture
+     */
+    protected static final String XML_PARAM_CAPTURE = "Capture";
+    /**
+     * Xml Pay Param Void
+     */
+    protected static final String XML_PARAM_VOID = "Void";
+    /**
+     * Xml Pay Param GetStatus
+     */
+    protected static final String XML_PARAM_GETSTATUS = "GetStatus";
+    /**
+     * Xml Pay Param PayData
+     */
+    protected static final String XML_PARAM_PAYDATA = "PayData";
+    /**
+     * Xml Pay Param Invoice
+     */
+    protected static final String XML_PARAM_INVOICE = "Invoice";
+    /**
+     * Xml Pay Param InvNum
+     */
+    protected static final String XML_PARAM_INVNUM = "InvNum";
+    /**
+     * Xml Pay Param Date
+     */
+    protected static final String XML_PARAM_DATE = "Date";
+    /**
+     * Xml Pay Param BillTo
+     */
+    protected static final String XML_PARAM_BILLTO = "BillTo";
+    /**
+     * Xml Pay Param ShipTo
+     */
+    protected static final String XML_PARAM_SHIPTO = "ShipTo";
+    /**
+     * Xml Pay Param Name of a BillTo or ShipTo
+     */
+    protected static final String XML_PARAM_CONTACTNAME = "Name";
+    /**
+     * Xml Pay Param EMail
+     */
+    protected static final String XML_PARAM_EMAIL = "EMail";
+    /**
+     * Xml Pay Param Phone
+     */
+    protected static final String XML_PARAM_PHONE = "Phone";
+    /**
+     * Xml Pay Param Fax
+     */
+    protected static final String XML_PARAM_FAX = "Fax";
+    /**
+     * Xml Pay Param Address
+     */
+    protected static final String XML_PARAM_ADDRESS = "Address";
+    /**
+     * Xml Pay Param Street
+     */
+    protected static final String XML_PARAM_STREET = "Street";
+    /**
+     * Xml Pay Param City
+     */
+    protected static final String XML_PARAM_CITY = "City";
+    /**
+     * Xml Pay Param State
+     */
+    protected static final String XML_PARAM_STATE = "State";
+    /**
+     * Xml Pay Param Zip
+     */
+    protected static final String XML_PARAM_ZIP = "Zip";
+    /**
+     * Xml Pay Param Country
+     */
+    protected static final String XML_PARAM_COUNTRY = "Country";
+    /**
+     * Xml Pay Param PONum
+     */
+    protected static final String XML_PARAM_PONUM = "PONum";
+    /**
+     * Xml Pay Param Description
+     */
+    protected static final String XML_PARAM_DESCRIPTION = "Description";
+    /**
+     * Xml Pay Param DiscountAmt
+     */
+    protected static final String XML_PARAM_DISCOUNTAMT = "DiscountAmt";
+    /**
+     * Xml Pay Param ShippingAmt
+     */
+    protected static final String XML_PARAM_SHIPPINGAMT = "ShippingAmt";
+    /**
+     * Xml Pay Param DutyAmt
+     */
+    protected static final String XML_PARAM_DUTYAMT = "DutyAmt";
+    /**
+     * Xml Pay Param TaxAmt
+     */
+    protected static final String XML_PARAM_TAXAMT = "TaxAmt";
+    /**
+     * Xml Pay Param TotalAmt
+     */
+    protected static final String XML_PARAM_TOTALAMT = "TotalAmt";
+    /**
+     * Xml Pay attribute Currency
+     */
+    protected static final String XML_PARAM_CURRENCY = "Currency";
+    /**
+     * Xml Pay Param Comment
+     */
+    protected static final String XML_PARAM_COMMENT = "Comment";
+    /**
+     * Xml Pay Param Tender
+     */
+    protected static final String XML_PARAM_TENDER = "Tender";
+    /**
+     * Xml Pay Param Card
+     */
+    protected static final String XML_PARAM_CARD = "Card";
+    /**
+     * Xml Pay Param NameOnCard
+     */
+    protected static final String XML_PARAM_NAMEONCARD = "NameOnCard";
+    /**
+     * Xml Pay Param ACH
+     */
+    protected static final String XML_PARAM_ACH = "ACH";
+    /**
+     * Xml Pay Param AcctType
+     */
+    protected static final String XML_PARAM_ACCTTYPE = "AcctType";
+    /**
+     * Xml Pay Param ABA
+     */
+    protected static final String XML_PARAM_ABA = "ABA";
+    /**
+     * Xml Pay Param Check
+     */
+    protected static final String XML_PARAM_CHECK = "Check";
+    /**
+     * Xml Pay Param CheckNum
+     */
+    protected static final String XML_PARAM_CHECKNUM = "CheckNum";
+    /**
+     * Xml Pay Param CheckType
+     */
+    protected static final String XML_PARAM_CHECKTYPE = "CheckType";
+    /**
+     * Xml Pay Param AuthType
+     */
+    protected static final String XML_PARAM_AUTHTYPE = "AuthType";
+    /**
+     * Xml Pay Param RequestAuth
+     */
+    protected static final String XML_PARAM_REQUESTAUTH = "RequestAuth";
+    /**
+     * Xml Pay Param UserPass
+     */
+    protected static final String XML_PARAM_USERPASS = "UserPass";
+    /**
+     * Xml Pay Param ReferenceTransaction
+     */
+    protected static final String XML_PARAM_REFERENCETRANSACTION = "ReferenceTransaction";
+    /**
+     * Xml Pay Param PPRef
+     */
+    protected static final String XML_PARAM_PPREF = "PPRef";
+    /**
+     * Xml Pay Param TenderType
+     */
+    protected static final String XML_PARAM_TENDERTYPE = "TenderType";
+    /**
+     * Xml Pay Param PartialAuth
+     */
+    protected static final String XML_PARAM_PARTIALAUTH = "PartialAuth";
+    /**
+     * Xml Pay Param CustIP
+     */
+    protected static final String XML_PARAM_CUSTIP = "CustIP";
+    /**
+     * Xml Pay Param FreightAmt
+     */
+    protected static final String XML_PARAM_FREIGHTAMT = "FreightAmt";
+    /**
+     * Xml Pay Param HandlingAmt
+     */
+    protected static final String XML_PARAM_HANDLINGAMT = "HandlingAmt";
+    /**
+     * Xml Pay Param ItemAmt
+     */
+    protected static final String XML_PARAM_ITEMAMT = "ItemAmt";
+    /**
+     * Xml Pay Param OrderDesc
+     */
+    protected static final String XML_PARAM_ORDERDESC = "OrderDesc";
     /**
      * Payflow Param AUTHTYPE
      */
@@ -1882,6 +2199,10 @@ public final class PayflowConstants {
      * max LogFile Size in Bytes; beyond this size the log file will be archived
      */
     protected static final int DEFAULT_MAX_LOG_FILE_SIZE = 10000000;
+    /**
+     * journal segment size in Bytes; a new segment file is started beyond this size
+     */
+    protected static final int DEFAULT_JOURNAL_SEGMENT_SIZE = 16 * 1024 * 1024;
 
 
     protected static final String PARAM_POSTALCODE = "POSTALCODE";
@@ -3,28 +3,21 @@ package paypal.payflow;
 
 
 import java.io.ByteArrayOutputStream;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-import java.rmi.server.UID;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Random;
 import java.text.BreakIterator;
 
 import org.apache.xerces.dom.AttrImpl;
 import org.apache.xerces.dom.ChildNode;
 import org.w3c.dom.*;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 // This class is deprecated in Xerces 2.9.0 
 //import org.apache.xml.serialize.XMLSerializer;
 
-// Used for DOM Level 3 LSSerializer in maskXMLPayRequest function.
-// See comments in that function.
-import org.w3c.dom.ls.*;
-import org.w3c.dom.bootstrap.DOMImplementationRegistry;
-
 /**
  * This class contains all the utility function's which may be required during a transaction.
  */
@@ -36,74 +29,41 @@ public final class PayflowUtility {
      */
     private static boolean mTraceInitialized = false;
 
+    /**
+     * Maximum number of chained causes rendered for an exception.
+     */
+    private static final int MAX_CAUSE_DEPTH = 16;
+
+    /**
+     * Line separator used when rendering stack traces.
+     */
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    /**
+     * Characters below this limit (ASCII, Latin-1 and the Latin extended blocks) are each a
+     * user perceived character of their own, except for the CR LF pair. The combining
+     * diacritical marks start at this limit.
+     */
+    private static final char SIMPLE_GRAPHEME_LIMIT = '\u0300';
+
+    /**
+     * Per-thread character BreakIterator; BreakIterator is not thread safe and expensive
+     * to create.
+     */
+    private static final ThreadLocal<BreakIterator> CHARACTER_ITERATOR = new ThreadLocal<BreakIterator>() {
+        protected BreakIterator initialValue() {
+            return BreakIterator.getCharacterInstance();
+        }
+    };
+
     /**
      * Generates Request Id. This can be used to generate a random request id.
+     * The id is 32 hex characters, time ordered and unique; see RequestIdGenerator.
      *
      * @return strRet
      */
     public static String getRequestId() {
-        // get the current time.
-        long aTime = new Date().getTime();
-        // add a random number to it.
-        long rand = new Random().nextLong();
-
-        String myRandString = Long.toString(aTime + Math.abs(rand));
-        //Logger.getInstance().log("paypal.payflow.PayflowUtility.getRequestId(String) : myRandString = " + myRandString, PayflowConstants.SEVERITY_DEBUG);
-        // get an Internet Address if it is available.
-        String myIPString;
-        // String mySocketString;
-        String toBeHashed;
-        // get a new MD5 message digest (outputs a 128 bit hash based on an input).
-        //String outputString;
-
-        String strRet;
-        // get a Java Unique ID.
-        UID uid = new UID();
-        //Logger.getInstance().log("paypal.payflow.PayflowUtility.getRequestId(String) : UID = " + uid.toString(), PayflowConstants.SEVERITY_DEBUG);
-
-        try {
-            myIPString = InetAddress.getLocalHost().getHostAddress();
-        } catch (UnknownHostException e) {
-            // myIPString = PayflowConstants.EMPTY_STRING;   Original entry
-            myIPString = ""; // Above entry seemed to cause some systems to hang, re (03/16/07)
-        }
-        //Logger.getInstance().log("paypal.payflow.PayflowUtility.getRequestId(String) : myIPString = " + myIPString, PayflowConstants.SEVERITY_DEBUG);
-        //try {
-        //    Socket httpSocket = new Socket(InetAddress.getLocalHost(), 80);
-        //mySocketString = httpSocket.toString();
-        //} catch (UnknownHostException uhe) {
-        //    mySocketString = PayflowConstants.EMPTY_STRING;
-        //} catch (IOException e) {
-        //    mySocketString = PayflowConstants.EMPTY_STRING;
-        //}
-
-        //  convert it all to a string.
-        // toBeHashed = myRandString + myIPString + mySocketString + uid.toString();
-        toBeHashed = myRandString + myIPString + uid.toString();
-        // Logger.getInstance().log("paypal.payflow.PayflowUtility.getRequestId(String) : toBeHashed = " + toBeHashed, PayflowConstants.SEVERITY_DEBUG);
-
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            // Modified to work with IBM JDK, 07/03/07 tsieber
-            // update the message digest
-            md.update(toBeHashed.getBytes());
-            // format the input array.
-            byte[] in = toBeHashed.getBytes();
-
-            // use the digest to hash the input array to the output array.
-            byte[] out = md.digest(in);
-
-            // create the outputString.
-            // outputString = new String(out);
-            strRet = getStringValue(out, out.length);
-        } catch (NoSuchAlgorithmException e) {
-            // can't use the MD5, will resort to truncating the toBeHashed String.
-            // outputString = toBeHashed.substring(0, 16);
-            strRet = toBeHashed.substring(0, 16);
-        }
-        // strRet = getStringValue(outputString.getBytes(), outputString.getBytes().length);
-        // Logger.getInstance().log("paypal.payflow.PayflowUtility.getRequestId(String) : strRet = " + strRet, PayflowConstants.SEVERITY_DEBUG);
-        return strRet;
+        return RequestIdGenerator.nextId();
     }
 
     /**
@@ -116,12 +76,12 @@ public final class PayflowUtility {
     protected static String getStringValue(byte[] byteArray, int length) {
         // Modified to work with IBM JDK, 07/03/07 tsieber
         String hexString = "0123456789ABCDEF";
-        String strRet = "";
+        char[] strRet = new char[length * 2];
         for (int i = 0; i < length; i++) {
-            strRet = strRet + hexString.charAt(byteArray[i] & 0xF);
-            strRet = strRet + hexString.charAt((byteArray[i] >> 4) & 0xF);
+            strRet[2 * i] = hexString.charAt(byteArray[i] & 0xF);
+            strRet[2 * i + 1] = hexString.charAt((byteArray[i] >> 4) & 0xF);
         }
-        return strRet;
+        return new String(strRet);
     }
 
     /**
@@ -147,44 +107,77 @@ public final class PayflowUtility {
     }
 
     /**
-     * Appends a name value pair to request
+     * Appends a name value pair, in the form name[length]=value, straight to the
+     * request being built. The &amp; delimiter is written before the pair unless the
+     * request is still empty, so the request never ends with a delimiter. Nothing is
+     * appended, and nothing is allocated, when the name or the value is null.
      *
-     * @param name  String
-     * @param value Object
-     * @return RetVal String
+     * @param request StringBuilder
+     * @param name    String
+     * @param value   Object
      */
-    protected static String appendToRequest(String name, Object value) {
-        String retVal;
-        StringBuffer nvPair = new StringBuffer();
-
+    protected static void appendToRequest(StringBuilder request, String name, Object value) {
         if (null == name || null == value) {
-            retVal = PayflowConstants.EMPTY_STRING;
-        } else {
-            String StringValue = value.toString();
-            nvPair.append(name);
-            nvPair.append(PayflowConstants.OPENING_BRACE_NVP);
-            // nvPair.append(StringValue.length());
-            nvPair.append(StringValueLength(StringValue));
-            nvPair.append(PayflowConstants.CLOSING_BRACE_NVP);
-            nvPair.append(PayflowConstants.SEPARATOR_NVP);
-            nvPair.append(StringValue);
-            nvPair.append(PayflowConstants.DELIMITER_NVP);
-
-            retVal = nvPair.toString();
+            return;
         }
-        return retVal;
+        String stringValue = value instanceof String ? (String) value : value.toString();
+        if (request.length() > 0) {
+            request.append(PayflowConstants.DELIMITER_NVP);
+        }
+        request.append(name)
+                .append(PayflowConstants.OPENING_BRACE_NVP)
+                .append(graphemeLength(stringValue))
+                .append(PayflowConstants.CLOSING_BRACE_NVP)
+                .append(PayflowConstants.SEPARATOR_NVP)
+                .append(stringValue);
+    }
 
+    /**
+     * Gets the length of a value in user perceived characters, as sent in the [length]
+     * clause of a name value pair.
+     *
+     * @param value String
+     * @return count int
+     */
+    protected static int graphemeLength(String value) {
+        int length = value.length();
+        int count = length;
+        char previous = 0;
+        for (int i = 0; i < length; i++) {
+            char current = value.charAt(i);
+            if (current >= SIMPLE_GRAPHEME_LIMIT) {
+                return complexGraphemeLength(value);
+            }
+            // CR LF is the only pair below the limit that forms a single character
+            if (current == '\n' && previous == '\r') {
+                count--;
+            }
+            previous = current;
+        }
+        return count;
     }
 
-    public static String StringValueLength(String StringValue) {
-        BreakIterator it = BreakIterator.getCharacterInstance();
-        it.setText(StringValue);
+    /**
+     * Counts user perceived characters with a character BreakIterator, for values which
+     * contain combining marks, surrogate pairs, joiners or other complex scripts.
+     *
+     * @param value String
+     * @return count int
+     */
+    private static int complexGraphemeLength(String value) {
+        BreakIterator it = CHARACTER_ITERATOR.get();
+        it.setText(value);
         int count = 0;
         while (it.next() != BreakIterator.DONE) {
             count++;
         }
-        // System.out.println("Grapheme length: " + count+ " " + StringValue);
-        return String.valueOf(count);
+        // do not keep a reference to the value
+        it.setText(PayflowConstants.EMPTY_STRING);
+        return count;
+    }
+
+    public static String StringValueLength(String StringValue) {
+        return String.valueOf(graphemeLength(StringValue));
     }
 
     /**
@@ -348,9 +341,17 @@ public final class PayflowUtility {
      */
     protected static String getXmlNameSpace(String request) throws Exception {
 
+        return getXmlNameSpaceForVersion(getXmlVersion(request));
+    }
+
+    /**
+     * Gets the Xml Namespace for an XmlPay version.
+     *
+     * @param xmlPayVersion String
+     * @return xmlNameSpace String
+     */
+    protected static String getXmlNameSpaceForVersion(String xmlPayVersion) {
         String xmlNameSpace = PayflowConstants.EMPTY_STRING;
-        String xmlPayVersion;
-        xmlPayVersion = getXmlVersion(request);
         if (!("1.0".equals(xmlPayVersion))) {
             xmlNameSpace = PayflowConstants.XMLPAY_NAMESPACE;
 
@@ -414,7 +415,6 @@ public final class PayflowUtility {
         Logger.getInstance().log("paypal.payflow.PayflowUtility.populateCommError(String,Exception,int,boolean,String) : Entered", PayflowConstants.SEVERITY_DEBUG);
         String message;
         String messageCode;
-        String trace = PayflowConstants.EMPTY_STRING;
 
         //initStackTraceOn();
 
@@ -426,35 +426,93 @@ public final class PayflowUtility {
             addMessage = " " + addMessage;
         }
 
-        if (ex != null && SDKProperties.isStackTraceOn()) {
-            trace = " ";
-            StackTraceElement[] stackTrace = ex.getStackTrace();
-            int size = stackTrace.length;
-            for (int i = 0; i < size; i++) {
-                trace += "\n" + stackTrace[i].toString();
-            }
-        }
-
-        message = PayflowConstants.CommErrorMessages.get(commMessageCode)
-                + addMessage + trace;
+        // The stack trace is not rendered here; the ErrorObject keeps the exception and
+        // appends its frames to the message only when the message is asked for.
+        message = CommErrorCatalog.getMessage(commMessageCode)
+                + addMessage;
+        // errors without additional message or trace have a pre-rendered form in the catalog
+        boolean preRendered = addMessage.length() == 0 && (ex == null || !SDKProperties.isStackTraceOn());
 
+        String msgBody;
+        String formattedMessage;
         if (isXmlPayReq) {
             messageCode = PayflowConstants.MSG_COMMUNICATION_ERROR_XMLPAY;
+            msgBody = CommErrorCatalog.COMM_ERROR_BODY_XMLPAY;
             msgParams = new String[]
-                    {(String) PayflowConstants.CommErrorCodes.get(commMessageCode), message};
-
+                    {CommErrorCatalog.getResultCode(commMessageCode), message};
+            formattedMessage = preRendered ? CommErrorCatalog.getXmlPayResponse(commMessageCode) : null;
         } else {
             messageCode = PayflowConstants.MSG_COMMUNICATION_ERROR;
+            msgBody = CommErrorCatalog.COMM_ERROR_BODY;
             msgParams = new String[]
-                    {(String) PayflowConstants.CommErrorCodes.get(commMessageCode), message};
-
+                    {CommErrorCatalog.getResultCode(commMessageCode), message};
+            formattedMessage = preRendered ? CommErrorCatalog.getNvpResponse(commMessageCode) : null;
         }
 
-        ErrorObject InitError = new ErrorObject(severityLevel, messageCode, msgParams);
+        // The error is built already resolved against the message catalog, so that the
+        // Logger and Context keep this instance and its rendered message.
+        ErrorObject InitError = new ErrorObject(severityLevel, messageCode, msgBody, msgParams, ex, formattedMessage);
         Logger.getInstance().log("paypal.payflow.PayflowUtility.populateCommError(String,Exception,int,boolean,String) : Exiting", PayflowConstants.SEVERITY_DEBUG);
         return InitError;
     }
 
+    /**
+     * Renders the frames of an exception as appended to communication error messages: a
+     * space followed by one line per frame. The number of frames is capped by
+     * SDKProperties.getStackTraceDepth().
+     *
+     * @param ex Throwable
+     * @return frames String
+     */
+    protected static String getStackFrames(Throwable ex) {
+        StackTraceElement[] stackTrace = ex.getStackTrace();
+        int size = getRenderedDepth(stackTrace.length);
+        StringBuilder trace = new StringBuilder(size * 64 + 1);
+        trace.append(' ');
+        for (int i = 0; i < size; i++) {
+            trace.append('\n').append(stackTrace[i].toString());
+        }
+        return trace.toString();
+    }
+
+    /**
+     * Renders an exception the way Throwable.printStackTrace() does, including its causes.
+     * The number of frames per exception is capped by SDKProperties.getStackTraceDepth().
+     *
+     * @param ex Throwable
+     * @return stackTrace String
+     */
+    protected static String getStackTraceAsString(Throwable ex) {
+        StringBuilder trace = new StringBuilder(1024);
+        String linePrefix = PayflowConstants.EMPTY_STRING;
+        int depth = 0;
+        while (ex != null && depth++ < MAX_CAUSE_DEPTH) {
+            StackTraceElement[] stackTrace = ex.getStackTrace();
+            int size = getRenderedDepth(stackTrace.length);
+            trace.append(linePrefix).append(ex.toString()).append(LINE_SEPARATOR);
+            for (int i = 0; i < size; i++) {
+                trace.append("\tat ").append(stackTrace[i].toString()).append(LINE_SEPARATOR);
+            }
+            if (size < stackTrace.length) {
+                trace.append("\t... ").append(stackTrace.length - size).append(" more").append(LINE_SEPARATOR);
+            }
+            linePrefix = "Caused by: ";
+            ex = ex.getCause() == ex ? null : ex.getCause();
+        }
+        return trace.toString();
+    }
+
+    /**
+     * Gets the number of frames to render out of the available frames.
+     *
+     * @param available int
+     * @return depth int
+     */
+    private static int getRenderedDepth(int available) {
+        int maxDepth = SDKProperties.getStackTraceDepth();
+        return maxDepth > 0 && maxDepth < available ? maxDepth : available;
+    }
+
     /**
      * Masks the sensitive fields in the param list which will be used for logging purpose.
      *
@@ -462,12 +520,28 @@ public final class PayflowUtility {
      * @return retVal String
      */
     protected static String maskSensitiveFields(String parmList) {
+        return maskSensitiveFields(parmList, null);
+    }
+
+    /**
+     * Masks the sensitive fields in the param list which will be used for logging purpose.
+     * The masked form of an XMLPay request is taken from its analysis when there is one.
+     *
+     * @param parmList    String
+     * @param requestInfo XmlPayRequestInfo : analysis of the param list, may be null.
+     * @return retVal String
+     */
+    protected static String maskSensitiveFields(String parmList, XmlPayRequestInfo requestInfo) {
         Logger.getInstance().log("paypal.payflow.PayflowUtility.maskSensitiveFields(String) : Entered", PayflowConstants.SEVERITY_DEBUG);
         String retVal;
         try {
             if (parmList != null && parmList.length() > 0) {
                 if (parmList.indexOf(PayflowConstants.XML_ID) >= 0) {
-                    retVal = maskXMLPayRequest(parmList);
+                    if (requestInfo != null && requestInfo.isFor(parmList)) {
+                        retVal = requestInfo.getMaskedRequest();
+                    } else {
+                        retVal = maskXMLPayRequest(parmList);
+                    }
                 } else {
                     retVal = maskNVPRequest(parmList);
                 }
@@ -491,45 +565,7 @@ public final class PayflowUtility {
      * @throws Exception Exception
      */
     protected static String maskXMLPayRequest(final String parmList) throws Exception {
-        String retVal;
-
-        IPXmlReader xmlReader = new IPXmlReader(parmList);
-        Document xmlPayRequest = xmlReader.getXmlDocumentElement();
-        //Mask ACCT if present : Corresponding XmlPay element -- AcctNum or CardNum
-        PayflowUtility.maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_ACCTNUM);
-        PayflowUtility.maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_CARDNUM);
-        //Mask EXPDATE if present : Corresponding XmlPay element -- ExpDate
-        //PayflowUtility.maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_EXPDATE);
-        //Mask SWIPE if present : Corresponding XmlPay element -- MagData
-        PayflowUtility.maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_MAGDATA);
-        //Mask MICR if present : Corresponding XmlPay element -- MICR or MagData
-        PayflowUtility.maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_MICR);
-        //Mask CVV2 if present : Corresponding XmlPay element -- CVNum
-        PayflowUtility.maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_CVNUM);
-        //Mask PWD if present : Corresponding XmlPay element -- Password
-        PayflowUtility.maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_PASSWORD);
-        //Mask DL if present : Corresponding XmlPay element -- DL
-        PayflowUtility.maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_DL);
-        //Mask SS if present : Corresponding XmlPay element -- CVNum
-        PayflowUtility.maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_SS);
-        //Mask DOB if present : Corresponding XmlPay element -- DOB
-        PayflowUtility.maskXmlNodeValue(xmlPayRequest, PayflowConstants.XML_PARAM_DOB);
-
-        // This class was deprecated in Xerces 2.9.0.  Replaced with DOM Level 3 LSSerializer.
-        // 08/21/07 tsieber
-        //XMLSerializer ss = new XMLSerializer();
-        //ByteArrayOutputStream xmlOutputStream = new ByteArrayOutputStream();
-        //ss.setOutputByteStream(xmlOutputStream);
-        //ss.serialize(xmlPayRequest);
-        //retVal = xmlOutputStream.toString();
-
-        System.setProperty(DOMImplementationRegistry.PROPERTY, "org.apache.xerces.dom.DOMImplementationSourceImpl");
-        DOMImplementationRegistry registry = DOMImplementationRegistry.newInstance();
-        DOMImplementation domImpl = registry.getDOMImplementation("LS 3.0");
-        DOMImplementationLS implLS = (DOMImplementationLS) domImpl;
-        LSSerializer dom3Writer = implLS.createLSSerializer();
-        retVal = dom3Writer.writeToString(xmlPayRequest);
-        return retVal;
+        return XmlPayMasker.mask(parmList);
     }
 
     /**
@@ -539,93 +575,116 @@ public final class PayflowUtility {
      * @return maskedRequest String
      */
     protected static String maskNVPRequest(final String parmList) {
-        String logParmList = parmList;
-        //Mask ACCT if present
-        logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_ACCT, true);
-        //Mask EXPDATE if present
+        // ACCT, SWIPE, MICR, CVV2, PWD, DL, SS and DOB are masked in one pass.
         //CR EXPDATE is unmasked
-        //logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_EXPDATE, true);
-        //Mask SWIPE if present
-        logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_SWIPE, true);
-        //Mask MICR if present
-        logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_MICR, true);
-        //Mask CVV2 if present
-        logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_CVV2, true);
-        //Mask PWD
-        logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_PWD, true);
-        //Mask DL if present
-        logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_DL, true);
-        //Mask SS if present
-        logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_SS, true);
-        //Mask DOB if present
-        logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_DOB, true);
-        //Mask VIT_OSNAME if present
-        //logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_VIT_OSNAME, true);
-        //Mask VIT_OSARCH if present
-        //logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_VIT_OSARCH, true);
-        //Mask VIT_OSVERSION if present
-        //logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_VIT_OSVERSION, true);
-        //Mask VIT_SDKRUNTIMEVERSION if present
-        //logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_VIT_SDKRUNTIMEVERSION, true);
-        //Mask VIT_PROXY if present
-        //logParmList = PayflowUtility.locateValueForName(logParmList, PayflowConstants.PARAM_VIT_PROXY, true);
-        return logParmList;
-    }
-
-    /**
-     * masks an xmlNodeValue
+        //VIT_OSNAME, VIT_OSARCH, VIT_OSVERSION, VIT_SDKRUNTIMEVERSION and VIT_PROXY are unmasked
+        return NvpMasker.mask(parmList);
+    }
+
+    /**
+     * Gets the inner text of a node from an XMLPay request
      *
-     * @param xmlPayRequest Document
+     * @param xmlPayRequest String
      * @param nodeName      String
+     * @return retVal String
      */
-    protected static void maskXmlNodeValue(Document xmlPayRequest, String nodeName) {
-        String retVal;
-        String maskValue = PayflowConstants.EMPTY_STRING;
-
-        if (xmlPayRequest != null && nodeName != null && nodeName.length() > 0) {
-            NodeList nodeList = xmlPayRequest.getElementsByTagName(nodeName);
-
-            if (nodeList != null && nodeList.getLength() == 1) {
-                ChildNode nodeElement = (ChildNode) nodeList.item(0);
-
-                if (nodeElement != null) {
-                    retVal = nodeElement.getTextContent();
+    protected static String getXmlPayNodeValue(String xmlPayRequest, String nodeName) {
+        return getXmlPayNodeValues(xmlPayRequest, new String[]{nodeName})[0];
+    }
 
-                    if (null != retVal) {
-                        for (int i = 0; i < retVal.length(); i++) {
-                            if (((nodeName.equals(PayflowConstants.XML_PARAM_ACCTNUM)) || (nodeName.equals(PayflowConstants.XML_PARAM_CARDNUM)) && (i < 6 || i > 11))) {
-                                maskValue = maskValue + retVal.charAt(i);
-                            } else {
-                                maskValue = maskValue + "X";
-                            }
-                        }
-                    }
-                    nodeElement.setTextContent(maskValue);
+    /**
+     * Gets the inner text of several nodes from an XMLPay document in one streaming pass.
+     * As with getXmlPayNodeValue, the text of a node is only given when the document has
+     * exactly one node of its name. Documents with a DTD, or which can not be read as a
+     * stream, are parsed as a DOM as before.
+     *
+     * @param xmlPayDocument String
+     * @param nodeNames      String[]
+     * @return values String[] : the text of each node, empty if the node is missing or
+     *         repeated; null entries if the document can not be parsed.
+     */
+    protected static String[] getXmlPayNodeValues(String xmlPayDocument, String[] nodeNames) {
+        Logger.getInstance().log("paypal.payflow.PayflowUtility.getXmlPayNodeValues(String,String[]) : Entered", PayflowConstants.SEVERITY_DEBUG);
+        String[] values = null;
+        if (xmlPayDocument != null) {
+            try {
+                values = readXmlPayNodeValues(xmlPayDocument, nodeNames);
+            } catch (XMLStreamException ex) {
+                Logger.getInstance().log("paypal.payflow.PayflowUtility.getXmlPayNodeValues(String,String[]) : " + ex.getMessage(), PayflowConstants.SEVERITY_DEBUG);
+            }
+        }
+        if (values == null) {
+            values = new String[nodeNames.length];
+            try {
+                IPXmlReader xmlReader = new IPXmlReader(xmlPayDocument);
+                Document XmlPayDoc = xmlReader.getXmlDocumentElement();
+                for (int i = 0; i < nodeNames.length; i++) {
+                    values[i] = getXmlNodeValue(XmlPayDoc, nodeNames[i]);
                 }
+            } catch (Exception ex) {
+                Logger.getInstance().log(ex.toString(), PayflowConstants.SEVERITY_WARN);
             }
         }
+        Logger.getInstance().log("paypal.payflow.PayflowUtility.getXmlPayNodeValues(String,String[]) : Exiting", PayflowConstants.SEVERITY_DEBUG);
+        return values;
     }
 
     /**
-     * Gets the inner text of a node from an XMLPay request
+     * Reads the inner text of nodes from an XMLPay document as a stream.
      *
-     * @param xmlPayRequest String
-     * @param nodeName      String
-     * @return retVal String
+     * @param xmlPayDocument String
+     * @param nodeNames      String[]
+     * @return values String[], null if the document has a DTD.
+     * @throws XMLStreamException if the document is not well formed.
      */
-    protected static String getXmlPayNodeValue(String xmlPayRequest, String nodeName) {
-        Logger.getInstance().log("paypal.payflow.PayflowUtility.getXmlPayNodeValue(String,String) : Entered", PayflowConstants.SEVERITY_DEBUG);
-        String retVal = null;
+    private static String[] readXmlPayNodeValues(String xmlPayDocument, String[] nodeNames) throws XMLStreamException {
+        int count = nodeNames.length;
+        int[] occurrences = new int[count];
+        // depth of the first node of each name while it is open, 0 otherwise
+        int[] openDepths = new int[count];
+        StringBuilder[] texts = new StringBuilder[count];
+        int depth = 0;
+        XMLStreamReader reader = XmlStreams.createReader(xmlPayDocument);
         try {
-            IPXmlReader xmlReader = new IPXmlReader(xmlPayRequest);
-            Document XmlPayDoc = xmlReader.getXmlDocumentElement();
-            retVal = getXmlNodeValue(XmlPayDoc, nodeName);
-        } catch (Exception ex) {
-            Logger.getInstance().log(ex.toString(), PayflowConstants.SEVERITY_WARN);
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String prefix = reader.getPrefix();
+                    String name = prefix == null || prefix.length() == 0 ? reader.getLocalName()
+                            : prefix + ":" + reader.getLocalName();
+                    for (int i = 0; i < count; i++) {
+                        if (name.equals(nodeNames[i]) && occurrences[i]++ == 0) {
+                            openDepths[i] = depth;
+                            texts[i] = new StringBuilder();
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    for (int i = 0; i < count; i++) {
+                        if (openDepths[i] == depth) {
+                            openDepths[i] = 0;
+                        }
+                    }
+                    depth--;
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE) {
+                    for (int i = 0; i < count; i++) {
+                        if (openDepths[i] > 0) {
+                            texts[i].append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                    }
+                } else if (event == XMLStreamConstants.DTD) {
+                    return null;
+                }
+            }
+        } finally {
+            XmlStreams.close(reader);
         }
-        Logger.getInstance().log("paypal.payflow.PayflowUtility.getXmlPayNodeValue(String,String) : Exiting", PayflowConstants.SEVERITY_DEBUG);
-        return retVal;
-
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = occurrences[i] == 1 ? texts[i].toString() : PayflowConstants.EMPTY_STRING;
+        }
+        return values;
     }
 
     /**
@@ -676,14 +735,14 @@ public final class PayflowUtility {
      * @param isXmlPayRequest boolean
      * @return errors Arraylist
      */
-    protected static ArrayList alignContext(Context context, boolean isXmlPayRequest) {
+    protected static ArrayList<ErrorObject> alignContext(Context context, boolean isXmlPayRequest) {
         Logger.getInstance().log("paypal.payflow.PayflowUtility.alignContext(Context, boolean) : Entered", PayflowConstants.SEVERITY_DEBUG);
-        ArrayList errors = context.getErrors();
-        ArrayList retVal = new ArrayList();
+        ArrayList<ErrorObject> errors = context.getErrors();
+        ArrayList<ErrorObject> retVal = new ArrayList<ErrorObject>();
         int errorCount = errors.size();
         int index;
         for (index = 0; index < errorCount; index++) {
-            ErrorObject error = (ErrorObject) errors.get(index);
+            ErrorObject error = errors.get(index);
             String messageCode = error.getMessageCode();
             Logger.getInstance().log("paypal.payflow.PayflowUtility.alignContext(Context,boolean) : messageCode = " + messageCode, PayflowConstants.SEVERITY_DEBUG);
             if (error != null) {
@@ -712,14 +771,14 @@ public final class PayflowUtility {
                             ErrorObject newError;
                             //Logger.getInstance().log("Step 4." + messageCode, PayflowConstants.SEVERITY_DEBUG);
                             if (msg1012) {
-                                ArrayList msgParams = error.getMessageParams();
-                                String[] newMsgParams = new String[]{(String) msgParams.get(0),
-                                        (String) msgParams.get(1)};
+                                ArrayList<String> msgParams = error.getMessageParams();
+                                String[] newMsgParams = new String[]{msgParams.get(0),
+                                        msgParams.get(1)};
                                 newError = new ErrorObject(error.getSeverityLevel(), "MSG_1013", newMsgParams, error.getErrorStackTrace());
                             } else if (msg1015) {
-                                ArrayList msgParams = error.getMessageParams();
-                                String[] newMsgParams = new String[]{(String) msgParams.get(0),
-                                        (String) msgParams.get(1)};
+                                ArrayList<String> msgParams = error.getMessageParams();
+                                String[] newMsgParams = new String[]{msgParams.get(0),
+                                        msgParams.get(1)};
                                 newError = new ErrorObject(error.getSeverityLevel(), "MSG_1016", newMsgParams, error.getErrorStackTrace());
                             } else {
                                 //Logger.getInstance().log("Step 5." + messageCode, PayflowConstants.SEVERITY_DEBUG);
@@ -737,16 +796,16 @@ public final class PayflowUtility {
                         } else {
                             ErrorObject newError;
                             if (msg1013) {
-                                ArrayList msgParams = error.getMessageParams();
-                                String[] newMsgParams = new String[]{(String) msgParams.get(0),
-                                        (String) msgParams.get(1)};
+                                ArrayList<String> msgParams = error.getMessageParams();
+                                String[] newMsgParams = new String[]{msgParams.get(0),
+                                        msgParams.get(1)};
                                 newError = new ErrorObject(error.getSeverityLevel(), "MSG_1012", newMsgParams, error.getErrorStackTrace());
                                 //Logger.getInstance().log("Step 9" + messageCode, PayflowConstants.SEVERITY_DEBUG);
                             } else if (msg1016) {
                                //Logger.getInstance().log("Step 7." + messageCode, PayflowConstants.SEVERITY_DEBUG);
-                                ArrayList msgParams = error.getMessageParams();
-                                String[] newMsgParams = new String[]{(String) msgParams.get(1),
-                                        (String) msgParams.get(2)};
+                                ArrayList<String> msgParams = error.getMessageParams();
+                                String[] newMsgParams = new String[]{msgParams.get(1),
+                                        msgParams.get(2)};
                                 newError = new ErrorObject(error.getSeverityLevel(), "MSG_1015", newMsgParams, error.getErrorStackTrace());
 
                             } else {
@@ -777,8 +836,10 @@ public final class PayflowUtility {
                             //Try to get values in nodes Result, RespMsg
                             try {
                                 //Logger.getInstance().log("Step 13." + errMessage, PayflowConstants.SEVERITY_DEBUG);
-                                result = PayflowUtility.getXmlPayNodeValue(errMessage, PayflowConstants.XML_PARAM_RESULT);
-                                respMsg = PayflowUtility.getXmlPayNodeValue(errMessage, PayflowConstants.XML_PARAM_MESSAGE);
+                                String[] values = PayflowUtility.getXmlPayNodeValues(errMessage,
+                                        new String[]{PayflowConstants.XML_PARAM_RESULT, PayflowConstants.XML_PARAM_MESSAGE});
+                                result = values[0];
+                                respMsg = values[1];
                             } catch (Exception ex) {
                                 Logger.getInstance().log(ex.toString(), PayflowConstants.SEVERITY_DEBUG);
                             }
@@ -817,31 +878,17 @@ public final class PayflowUtility {
                                 newError = new ErrorObject(error.getSeverityLevel(), PayflowConstants.EMPTY_STRING, errMessage);
                             }
                         } else {
-                            StringBuffer NewErrMessage;
+                            String[] newMsgParams = new String[]{CommErrorCatalog.getResultCode(PayflowConstants.E_UNKNOWN_STATE),
+                                    CommErrorCatalog.getMessage(PayflowConstants.E_UNKNOWN_STATE) + " " + errMessage};
+                            String NewErrMessage;
                             if (isXmlPayRequest) {
                                 //Logger.getInstance().log("Step 19.", PayflowConstants.SEVERITY_DEBUG);
-                                NewErrMessage = new StringBuffer("<XMLPayResponse xmlns='http://www.paypal.com/XMLPay'");
-
-                                NewErrMessage.append("><ResponseData><TransactionResults><TransactionResult><Result>");
-                                NewErrMessage.append((String) PayflowConstants.CommErrorCodes.get(PayflowConstants.E_UNKNOWN_STATE));
-                                NewErrMessage.append("</Result><Message>");
-                                NewErrMessage.append(PayflowConstants.CommErrorMessages.get(PayflowConstants.E_UNKNOWN_STATE));
-                                NewErrMessage.append(" ");
-                                NewErrMessage.append(errMessage);
-                                NewErrMessage.append("</Message></TransactionResult></TransactionResults></ResponseData></XMLPayResponse>");
+                                NewErrMessage = CommErrorCatalog.getTemplate(CommErrorCatalog.COMM_ERROR_BODY_XMLPAY).format(newMsgParams);
                             } else {
-                                NewErrMessage = new StringBuffer(PayflowConstants.PARAM_RESULT);
-                                NewErrMessage.append(PayflowConstants.SEPARATOR_NVP);
-                                NewErrMessage.append(PayflowConstants.CommErrorCodes.get(PayflowConstants.E_UNKNOWN_STATE));
-                                NewErrMessage.append(PayflowConstants.DELIMITER_NVP);
-                                NewErrMessage.append(PayflowConstants.PARAM_RESPMSG);
-                                NewErrMessage.append(PayflowConstants.SEPARATOR_NVP);
-                                NewErrMessage.append(PayflowConstants.CommErrorMessages.get(PayflowConstants.E_UNKNOWN_STATE));
-                                NewErrMessage.append(" ");
-                                NewErrMessage.append(errMessage);
+                                NewErrMessage = CommErrorCatalog.getTemplate(CommErrorCatalog.COMM_ERROR_BODY).format(newMsgParams);
                             }
                             //Logger.getInstance().log("Step 21." + errMessage, PayflowConstants.SEVERITY_DEBUG);
-                            newError = new ErrorObject(error.getSeverityLevel(), PayflowConstants.EMPTY_STRING, NewErrMessage.toString());
+                            newError = new ErrorObject(error.getSeverityLevel(), PayflowConstants.EMPTY_STRING, NewErrMessage);
                         }
                     }
                     if (newError != null) {
@@ -864,6 +911,10 @@ public final class PayflowUtility {
      */
     protected static String format(String msgBody, String[] msgParams) {
 
+        CommErrorCatalog.Template template = CommErrorCatalog.getTemplate(msgBody);
+        if (template != null) {
+            return template.format(msgParams);
+        }
         if (msgBody != null && msgBody.length() != 0) {
             //split the string by {} and replace the parameter recursively
             for (int i = 0; i <= msgParams.length - 1; i++) {
@@ -102,7 +102,7 @@ final class PaymentConnection {
 
 //	private URL uri = null;
 
-    private HashMap mHeaders = new HashMap();
+    private HashMap<String, String> mHeaders = new HashMap<String, String>();
 
     /**
      * Gets whether transaction
@@ -223,18 +223,6 @@ final class PaymentConnection {
         mStartTime = new Date().getTime();
     }
 
-    /**
-     * Returns a string representation of stacktrace
-     *
-     * @param e Exception
-     * @return ostr.toString
-     */
-    private String getStackTraceAsString(Exception e) {
-        java.io.ByteArrayOutputStream ostr = new java.io.ByteArrayOutputStream();
-        e.printStackTrace(new java.io.PrintStream(ostr));
-        return (ostr.toString());
-    }
-
     /**
      * -
      * initialises the host
@@ -327,7 +315,7 @@ final class PaymentConnection {
                 mServerUri = new URL(null, "https://" + HostAddress + ":" + mHostPort);
             }
         } catch (Exception ex) {
-            Logger.getInstance().log("paypal.payflow.PaymentConnection.InitServerUri(String): Caught Exception: " + getStackTraceAsString(ex),
+            Logger.getInstance().log("paypal.payflow.PaymentConnection.InitServerUri(String): Caught Exception: ", ex,
                     PayflowConstants.SEVERITY_FATAL);
         }
     }
@@ -344,7 +332,7 @@ final class PaymentConnection {
                 String auth = "Basic" + " " + Base64.getEncoder().encodeToString(pStr.getBytes());
                 mServerConnection.setRequestProperty("Proxy-Authorization", auth);
             } catch (Exception ex) {
-                Logger.getInstance().log("paypal.payflow.PaymentConnection.InitProxyInfo(): Caught Exception: " + getStackTraceAsString(ex), PayflowConstants.SEVERITY_FATAL);
+                Logger.getInstance().log("paypal.payflow.PaymentConnection.InitProxyInfo(): Caught Exception: ", ex, PayflowConstants.SEVERITY_FATAL);
                 String addlMessage = "";
                 ErrorObject initError = PayflowUtility.populateCommError(PayflowConstants.E_SOK_CONN_FAILED, ex,
                         PayflowConstants.SEVERITY_ERROR, getIsXmlPayRequest(),
@@ -424,37 +412,34 @@ final class PaymentConnection {
             //Add VIT Headers
             if (mClientInfo != null) {
                 //Get the Hash map.
-                Hashtable clientInfoHash = mClientInfo.getClientInfoHash();
+                HashMap<String, ClientInfoHeader> clientInfoHash = mClientInfo.getClientInfoHash();
                 if (clientInfoHash != null && clientInfoHash.size() > 0) {
                     //Iterate through the hash map to add the appropriate headers.
-                    for (int i = 0; i < clientInfoHash.size(); i++) {
-                        Collection headerKeyValue = clientInfoHash.values();
-                        Object valueObj[] = headerKeyValue.toArray();
-                        if (valueObj != null) {
-                            ClientInfoHeader currHeader = (ClientInfoHeader) valueObj[i];
-                            String hdrName = currHeader.getHeaderName();
-                            Object hdrValueObj = currHeader.getHeaderValue();
-                            String hdrValueStr = null;
-                            //Check if Header name is non-null, non-empty string.
-                            boolean validHeaderName = (hdrName != null && hdrName.length() > 0);
-                            boolean validHeaderValue = (hdrValueObj != null);
-                            //Check if Header value object is non-null, object.
-                            if (validHeaderValue) {
-                                hdrValueStr = currHeader.getHeaderValue().toString();
-                                //Check if the header value is non-null, non-empty.
-                                validHeaderValue = (hdrValueStr != null && hdrValueStr.length() > 0);
-                            }
-                            //Valid header is Valid Header Name and Valid header value.
-                            if (validHeaderName && validHeaderValue) {
-                                mServerConnection.setRequestProperty(hdrName, hdrValueStr);
-                                mHeaders.put(hdrName, hdrValueStr);
-                            }
+                    Iterator<ClientInfoHeader> headers = clientInfoHash.values().iterator();
+                    while (headers.hasNext()) {
+                        ClientInfoHeader currHeader = headers.next();
+                        String hdrName = currHeader.getHeaderName();
+                        Object hdrValueObj = currHeader.getHeaderValue();
+                        String hdrValueStr = null;
+                        //Check if Header name is non-null, non-empty string.
+                        boolean validHeaderName = (hdrName != null && hdrName.length() > 0);
+                        boolean validHeaderValue = (hdrValueObj != null);
+                        //Check if Header value object is non-null, object.
+                        if (validHeaderValue) {
+                            hdrValueStr = currHeader.getHeaderValue().toString();
+                            //Check if the header value is non-null, non-empty.
+                            validHeaderValue = (hdrValueStr != null && hdrValueStr.length() > 0);
+                        }
+                        //Valid header is Valid Header Name and Valid header value.
+                        if (validHeaderName && validHeaderValue) {
+                            mServerConnection.setRequestProperty(hdrName, hdrValueStr);
+                            mHeaders.put(hdrName, hdrValueStr);
                         }
                     }
                 }
             }
         } catch (Exception ex) {
-            Logger.getInstance().log("paypal.payflow.PaymentConnection.CreateConnection(): Caught Exception creating connection: " + getStackTraceAsString(ex),
+            Logger.getInstance().log("paypal.payflow.PaymentConnection.CreateConnection(): Caught Exception creating connection: ", ex,
                     PayflowConstants.SEVERITY_FATAL);
             String addlMessage = "Input Server Uri= " + mServerUri.getProtocol() + "://" + mServerUri.getHost() + ":" + mServerUri.getPort();
             ErrorObject initError = PayflowUtility.populateCommError(PayflowConstants.E_SOK_CONN_FAILED, ex,
@@ -507,7 +492,7 @@ final class PaymentConnection {
                         PayflowConstants.SEVERITY_INFO);
             }
         } catch (Exception ex) {
-            Logger.getInstance().log("paypal.payflow.PaymentConnection.ConnectToServer(String): Caught Exception: " + getStackTraceAsString(ex), PayflowConstants.SEVERITY_FATAL);
+            Logger.getInstance().log("paypal.payflow.PaymentConnection.ConnectToServer(String): Caught Exception: ", ex, PayflowConstants.SEVERITY_FATAL);
             String addlMessage = "Input Server Uri = " + mServerUri.getProtocol() + "://" + mServerUri.getHost() + ":" + mServerUri.getPort();
             ErrorObject initError = PayflowUtility.populateCommError(PayflowConstants.E_SOK_CONN_FAILED, ex,
                     PayflowConstants.SEVERITY_ERROR, getIsXmlPayRequest(),
@@ -529,28 +514,42 @@ final class PaymentConnection {
      * @return true if success false otherwise
      */
     public boolean sendToServer(String request) {
-        Logger.getInstance().log("paypal.payflow.PaymentConnection.SendToServer(String): Entered",
+        return sendToServer(request == null ? null : request.getBytes());
+    }
+
+    /**
+     * Sends the request, already encoded, to the server. The request is written straight
+     * to the socket with a fixed Content-Length, instead of being buffered again by the
+     * connection to work out its length.
+     *
+     * @param request byte[]
+     * @return true if success false otherwise
+     */
+    protected boolean sendToServer(byte[] request) {
+        Logger.getInstance().log("paypal.payflow.PaymentConnection.SendToServer(byte[]): Entered",
                 PayflowConstants.SEVERITY_DEBUG);
 
         boolean retVal = false;
 
         try {
+            if (request != null) {
+                mServerConnection.setFixedLengthStreamingMode(request.length);
+            }
             mServerConnection.connect();
             if (request != null) {
-                byte[] paramListBytes = request.getBytes();
                 OutputStream reqStram = mServerConnection.getOutputStream();
-                Map loggableHeaders = new HashMap();
-                reqStram.write(paramListBytes);
+                Map<String, String> loggableHeaders = new HashMap<String, String>();
+                reqStram.write(request);
                 reqStram.close();
                 loggableHeaders.putAll(mHeaders);
-                Iterator iter = loggableHeaders.keySet().iterator();
+                Iterator<String> iter = loggableHeaders.keySet().iterator();
                 String key;
                 //Dump the headers to the log file
                 Logger.getInstance().log("paypal.payflow.PaymentConnection.sendToServer(String request): Headers ",
                         PayflowConstants.SEVERITY_DEBUG);
                 while (iter.hasNext()) {
                     StringBuffer headerLog = new StringBuffer();
-                    key = iter.next().toString();
+                    key = iter.next();
                     headerLog.append("HTTP Header : Name = ")
                             .append(key)
                             .append(" | value = ")
@@ -569,7 +568,7 @@ final class PaymentConnection {
                 }
             }
         } catch (Exception ex) {
-            Logger.getInstance().log("paypal.payflow.PaymentConnection.SendToServer(String): Caught Exception: " + getStackTraceAsString(ex), PayflowConstants.SEVERITY_FATAL);
+            Logger.getInstance().log("paypal.payflow.PaymentConnection.SendToServer(byte[]): Caught Exception: ", ex, PayflowConstants.SEVERITY_FATAL);
             String addlMessage = "Input Server Uri = " + mServerUri.getProtocol() + "://" + mServerUri.getHost() + ":" + mServerUri.getPort();
             ErrorObject initError = PayflowUtility.populateCommError(PayflowConstants.E_SOK_CONN_FAILED,
                     ex,
@@ -579,7 +578,7 @@ final class PaymentConnection {
                 getConnContext().addError(initError);
             }
         } finally {
-            Logger.getInstance().log("paypal.payflow.PaymentConnection.SendToServer(String): Exiting",
+            Logger.getInstance().log("paypal.payflow.PaymentConnection.SendToServer(byte[]): Exiting",
                     PayflowConstants.SEVERITY_DEBUG);
         }
         return retVal;
@@ -605,15 +604,15 @@ final class PaymentConnection {
             disconnect();
 
         } catch (SocketException ex) {
-            Logger.getInstance().log("paypal.payflow.PaymentConnection.ReceiveResponse(): Caught SocketException: " + getStackTraceAsString(ex), PayflowConstants.SEVERITY_ERROR);
+            Logger.getInstance().log("paypal.payflow.PaymentConnection.ReceiveResponse(): Caught SocketException: ", ex, PayflowConstants.SEVERITY_ERROR);
             //Need to put a blank handler for this since there is a problem since the
             //httpurlconnection keeps giving "unexpected end of file" exception intermittently
         } catch (IOException ex) {
-            Logger.getInstance().log("paypal.payflow.PaymentConnection.ReceiveResponse(): Caught IOException: " + getStackTraceAsString(ex), PayflowConstants.SEVERITY_ERROR);
+            Logger.getInstance().log("paypal.payflow.PaymentConnection.ReceiveResponse(): Caught IOException: ", ex, PayflowConstants.SEVERITY_ERROR);
             //Need to put a blank handler for this since there is a problem since the
             //httpurlconnection keeps giving "unexpected end of file" exception intermittently
         } catch (Exception ex) {
-            Logger.getInstance().log("paypal.payflow.PaymentConnection.ReceiveResponse(): Caught Exception: " + getStackTraceAsString(ex), PayflowConstants.SEVERITY_ERROR);
+            Logger.getInstance().log("paypal.payflow.PaymentConnection.ReceiveResponse(): Caught Exception: ", ex, PayflowConstants.SEVERITY_ERROR);
 
             String addlMessage = "Input Server Uri = " + mServerUri.getProtocol() + "://" + mServerUri.getHost() + ":" + mServerUri.getPort();
 
@@ -640,7 +639,7 @@ final class PaymentConnection {
                 mServerConnection = null;
                 }
         } catch (Exception ex) {
-            Logger.getInstance().log("paypal.payflow.PaymentConnection.Disconnect(): Caught Exception: " + getStackTraceAsString(ex),
+            Logger.getInstance().log("paypal.payflow.PaymentConnection.Disconnect(): Caught Exception: ", ex,
                     PayflowConstants.SEVERITY_FATAL);
         }
         Logger.getInstance().log("paypal.payflow.PaymentConnection.Disconnect(): Exiting",
@@ -27,10 +27,21 @@ abstract class PaymentState {
     protected String mParameterList;
 
     /**
-     * Transaction Request.
+     * Transaction Request, null when the request was given as bytes.
      */
     private String mTransactionRequest;
 
+    /**
+     * Transaction Request as sent on the wire, encoded once and reused on every attempt.
+     * A name value pair request built by the data objects is only held here.
+     */
+    private byte[] mTransactionRequestBytes;
+
+    /**
+     * Analysis of the XMLPay request, null for a name value pair request.
+     */
+    private XmlPayRequestInfo mXmlPayRequestInfo;
+
     /**
      * Transaction Response.
      */
@@ -87,14 +98,41 @@ abstract class PaymentState {
      * @return transactionRequest String
      */
     public String getTransactionRequest() {
+        if (this.mTransactionRequest == null && this.mTransactionRequestBytes != null) {
+            // decoded on demand, so that the request is not kept twice
+            return new String(this.mTransactionRequestBytes);
+        }
         return this.mTransactionRequest;
     }
 
+    /**
+     * Gets the analysis of the XMLPay request.
+     *
+     * @return requestInfo XmlPayRequestInfo, null for a name value pair request.
+     */
+    protected XmlPayRequestInfo getXmlPayRequestInfo() {
+        return this.mXmlPayRequestInfo;
+    }
+
     /**
      * @param value String
      */
     public void setTransactionRequest(String value) {
         mTransactionRequest = value;
+        mTransactionRequestBytes = null;
+    }
+
+    /**
+     * Gets the transaction request as sent on the wire. The request is encoded on the
+     * first call and the same bytes are kept for the retry attempts.
+     *
+     * @return transactionRequestBytes byte[], null if there is no request.
+     */
+    protected byte[] getTransactionRequestBytes() {
+        if (mTransactionRequestBytes == null && mTransactionRequest != null) {
+            mTransactionRequestBytes = mTransactionRequest.getBytes();
+        }
+        return mTransactionRequestBytes;
     }
 
     /**
@@ -227,16 +265,18 @@ abstract class PaymentState {
 
     /**
      * @param connection PaymentConnection
-     * @param paramList  String
-     * @param psmContext Context
+     * @param paramList   String
+     * @param requestInfo XmlPayRequestInfo : analysis of an XMLPay param list, null otherwise.
+     * @param psmContext  Context
      * @throws Exception Exception
      */
-    public PaymentState(PaymentConnection connection, String paramList, Context psmContext) throws Exception {
+    public PaymentState(PaymentConnection connection, String paramList, XmlPayRequestInfo requestInfo, Context psmContext) throws Exception {
         this();
         Logger.getInstance().log("paypal.payflow.PaymentState.PaymentState(PaymentConnection,String,Context): Entered", PayflowConstants.SEVERITY_DEBUG);
 
         mContext = psmContext;
         mConnection = connection;
+        mXmlPayRequestInfo = requestInfo;
 
         initializeContentType(paramList);
 
@@ -253,6 +293,35 @@ abstract class PaymentState {
         Logger.getInstance().log("paypal.payflow.PaymentState.PaymentState(PaymentConnection,String,Context): Exiting", PayflowConstants.SEVERITY_DEBUG);
     }
 
+    /**
+     * @param connection PaymentConnection
+     * @param nvpRequest byte[] : name value pair request built by the data objects, as sent on the wire.
+     * @param psmContext Context
+     */
+    public PaymentState(PaymentConnection connection, byte[] nvpRequest, Context psmContext) {
+        this();
+        Logger.getInstance().log("paypal.payflow.PaymentState.PaymentState(PaymentConnection,byte[],Context): Entered", PayflowConstants.SEVERITY_DEBUG);
+
+        mContext = psmContext;
+        mConnection = connection;
+        mConnection.setIsXmlPayRequest(false);
+        mContentType = PayflowConstants.NV_CONTENT_TYPE;
+        Logger.getInstance().log("paypal.payflow.PaymentState.PaymentState(PaymentConnection,byte[],Context): ContentType = " + mContentType,
+                PayflowConstants.SEVERITY_INFO);
+
+        if (mContext.getHighestErrorLvl() < PayflowConstants.SEVERITY_FATAL) {
+            mConnection.setContentType(mContentType);
+
+            if (nvpRequest == null || nvpRequest.length == 0) {
+                ErrorObject Err = PayflowUtility.populateCommError(PayflowConstants.E_EMPTY_PARAM_LIST, null, PayflowConstants.SEVERITY_FATAL,
+                        false, null);
+                mContext.addError(Err);
+            }
+            this.mTransactionRequestBytes = nvpRequest;
+        }
+        Logger.getInstance().log("paypal.payflow.PaymentState.PaymentState(PaymentConnection,byte[],Context): Exiting", PayflowConstants.SEVERITY_DEBUG);
+    }
+
     /**
      * Copy Constructor
      *
@@ -264,7 +333,9 @@ abstract class PaymentState {
         mDefaultXmlNameSpace = PayflowConstants.XMLPAY_NAMESPACE;
         this.mConnection = currentPmtState.getConnection();
         this.mParameterList = currentPmtState.getParameterList();
-        this.mTransactionRequest = currentPmtState.getTransactionRequest();
+        this.mTransactionRequest = currentPmtState.mTransactionRequest;
+        this.mXmlPayRequestInfo = currentPmtState.getXmlPayRequestInfo();
+        this.mTransactionRequestBytes = currentPmtState.mTransactionRequestBytes;
         this.mTransactionResponse = currentPmtState.getTransactionResponse();
         this.mConnection.setRequestId(currentPmtState.mConnection.getRequestId());
         this.mConnection.setIsXmlPayRequest(currentPmtState.mConnection.getIsXmlPayRequest());
@@ -301,7 +372,10 @@ abstract class PaymentState {
             if (index >= 0) {
                 mConnection.setIsXmlPayRequest(true);
                 mContentType = PayflowConstants.XML_CONTENT_TYPE;
-                mPayflowXmlNameSpace = PayflowUtility.getXmlNameSpace(initialParamList);
+                if (mXmlPayRequestInfo == null || !mXmlPayRequestInfo.isFor(initialParamList)) {
+                    mXmlPayRequestInfo = XmlPayRequestInfo.analyze(initialParamList);
+                }
+                mPayflowXmlNameSpace = mXmlPayRequestInfo.getNameSpace();
             } else {
                 mConnection.setIsXmlPayRequest(false);
                 mContentType = PayflowConstants.NV_CONTENT_TYPE;
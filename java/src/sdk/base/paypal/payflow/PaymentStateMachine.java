@@ -275,15 +275,16 @@ final class PaymentStateMachine {
     /**
      * Initialized Transaction.
      *
-     * @param paramList String
-     * @param requestId String
+     * @param paramList   String
+     * @param requestId   String
+     * @param requestInfo XmlPayRequestInfo : analysis of an XMLPay param list, null otherwise.
      */
-    public void initTrans(String paramList, String requestId) {
+    public void initTrans(String paramList, String requestId, XmlPayRequestInfo requestInfo) {
         Logger.getInstance().log("paypal.payflow.PaymentStateMachine.InitTrans(String,String): Entered",
                 PayflowConstants.SEVERITY_DEBUG);
         try {
             this.mConnection.setRequestId(requestId);
-            this.mPaymentState = new SendInitState(this.mConnection, paramList, psmContext);
+            this.mPaymentState = new SendInitState(this.mConnection, paramList, requestInfo, psmContext);
         } catch (Exception ex) {
             ErrorObject err = PayflowUtility.populateCommError(PayflowConstants.E_CONTXT_INIT_FAILED, ex,
                     PayflowConstants.SEVERITY_ERROR, mPaymentState.getIsXmlPayRequest(),
@@ -298,6 +299,31 @@ final class PaymentStateMachine {
     }
 
 
+    /**
+     * Initializes the transaction with a name value pair request built by the data objects,
+     * held as the bytes to be sent.
+     *
+     * @param nvpRequest byte[]
+     * @param requestId  String
+     */
+    public void initTrans(byte[] nvpRequest, String requestId) {
+        Logger.getInstance().log("paypal.payflow.PaymentStateMachine.InitTrans(byte[],String): Entered",
+                PayflowConstants.SEVERITY_DEBUG);
+        try {
+            this.mConnection.setRequestId(requestId);
+            this.mPaymentState = new SendInitState(this.mConnection, nvpRequest, psmContext);
+        } catch (Exception ex) {
+            ErrorObject err = PayflowUtility.populateCommError(PayflowConstants.E_CONTXT_INIT_FAILED, ex,
+                    PayflowConstants.SEVERITY_ERROR, false, null);
+            if (!getPsmContext().isCommunicationErrorContained(err)) {
+                getPsmContext().addError(err);
+            }
+        } finally {
+            Logger.getInstance().log("paypal.payflow.PaymentStateMachine.InitTrans(byte[],String): Exiting",
+                    PayflowConstants.SEVERITY_DEBUG);
+        }
+    }
+
     /**
      * Executes the transaction.
      *
@@ -313,8 +339,8 @@ final class PaymentStateMachine {
                 if (trxResponse != null && trxResponse.length() > 0) {
                     message = trxResponse;
                 } else {
-                    ArrayList errorList = psmContext.getErrors(PayflowConstants.SEVERITY_FATAL);
-                    ErrorObject firstFatalError = (ErrorObject) errorList.get(0);
+                    ArrayList<ErrorObject> errorList = psmContext.getErrors(PayflowConstants.SEVERITY_FATAL);
+                    ErrorObject firstFatalError = errorList.get(0);
                     message = firstFatalError.toString();
                 }
                 mPaymentState.setTransactionFail(message);
@@ -380,20 +406,20 @@ final class PaymentStateMachine {
                         getPsmContext().addError(Err);
                     }
                 } else {
-                    ArrayList ErrList = new ArrayList();
+                    ArrayList<ErrorObject> ErrList = new ArrayList<ErrorObject>();
                     ErrList.addAll(getPsmContext().getErrors());
                     int HighestSevLevel = getPsmContext().getHighestErrorLvl();
 
                     int ErrorListIndex;
                     int ErrorListSize = ErrList.size();
                     for (ErrorListIndex = 0; ErrorListIndex < ErrorListSize; ErrorListIndex++) {
-                        ErrorObject Err = (ErrorObject) ErrList.get(ErrorListIndex);
+                        ErrorObject Err = ErrList.get(ErrorListIndex);
                         if (Err.getSeverityLevel() == HighestSevLevel) {
                             int index;
                             int size = Err.getMessageParams().size();
                             String[] MsgCodeParams = new String[size];
                             for (index = 0; index < size; index++) {
-                                MsgCodeParams[index] = (String) Err.getMessageParams().get(index);
+                                MsgCodeParams[index] = Err.getMessageParams().get(index);
                             }
 
                             ErrorObject Error = new ErrorObject(PayflowConstants.SEVERITY_FATAL, Err.getMessageCode(), MsgCodeParams);
@@ -0,0 +1,69 @@
+package paypal.payflow;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates the request ids returned by PayflowUtility.getRequestId().
+ * <p>
+ * A request id is 128 bits written as 32 upper case hex characters, the same format as
+ * the MD5 based ids generated before:
+ * <ul>
+ * <li>48 bits : current time in milliseconds, so ids sort by creation time</li>
+ * <li>16 bits : node id, chosen at random once per class loader</li>
+ * <li>64 bits : random value from ThreadLocalRandom</li>
+ * </ul>
+ * Generating an id does not block, does not synchronize between threads and allocates
+ * nothing but the returned string and the buffer it is rendered into.
+ */
+final class RequestIdGenerator {
+
+    /**
+     * Number of hex characters in a request id.
+     */
+    protected static final int REQUEST_ID_LENGTH = 32;
+
+    /**
+     * Upper case hex digits.
+     */
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Node id, 16 bits. Keeps ids of processes started in the same millisecond apart.
+     */
+    private static final long NODE_ID = (ThreadLocalRandom.current().nextLong()
+            ^ System.nanoTime() ^ System.identityHashCode(RequestIdGenerator.class)) & 0xFFFFL;
+
+    /**
+     * Private constructor for RequestIdGenerator
+     */
+    private RequestIdGenerator() {
+    }
+
+    /**
+     * Generates a new request id.
+     *
+     * @return requestId String
+     */
+    protected static String nextId() {
+        long high = (System.currentTimeMillis() << 16) | NODE_ID;
+        long low = ThreadLocalRandom.current().nextLong();
+        char[] buffer = new char[REQUEST_ID_LENGTH];
+        writeHex(high, buffer, 0);
+        writeHex(low, buffer, 16);
+        return new String(buffer);
+    }
+
+    /**
+     * Writes a long as 16 hex characters.
+     *
+     * @param value  long
+     * @param buffer char[]
+     * @param offset int
+     */
+    private static void writeHex(long value, char[] buffer, int offset) {
+        for (int i = offset + 15; i >= offset; i--) {
+            buffer[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.io.File;
 public class SDKProperties {
 
     private static boolean stackTraceOn = PayflowConstants.TRACE_DEFAULT;
+    private static int stackTraceDepth = PayflowConstants.DEFAULT_STACK_TRACE_DEPTH;
     private static int loggingLevel = PayflowConstants.LOGGING_OFF;
     private static String hostAddress = null;
     private static int timeOut = PayflowConstants.DEFAULT_TIMEOUT;
@@ -20,6 +21,9 @@ public class SDKProperties {
     private static String proxyPassword = null;
     private static int maxLogFileSize = PayflowConstants.DEFAULT_MAX_LOG_FILE_SIZE;
     private static boolean maxlogFileSizeSet = false;
+    private static String journalDirectory = null;
+    private static int journalSegmentSize = PayflowConstants.DEFAULT_JOURNAL_SEGMENT_SIZE;
+    private static String xmlPaySchemaFile = null;
 
     /**
      * Modified 09/20/06: To retrieve application server specific URLStreamHandler class name using
@@ -104,6 +108,25 @@ public class SDKProperties {
         SDKProperties.stackTraceOn = stackTraceOn;
     }
 
+    /**
+     * @return Returns the maximum number of stack frames rendered per exception, 0 for all.
+     */
+    public static int getStackTraceDepth() {
+        return stackTraceDepth;
+    }
+
+    /**
+     * Caps the number of stack frames rendered for an exception in the log and in the
+     * error messages.
+     *
+     * @param stackTraceDepth The stackTraceDepth to set, 0 renders all frames.
+     */
+    public static void setStackTraceDepth(int stackTraceDepth) {
+        if (stackTraceDepth >= 0) {
+            SDKProperties.stackTraceDepth = stackTraceDepth;
+        }
+    }
+
     /**
      * @return Returns the timeOut in seconds.
      */
@@ -209,6 +232,67 @@ public class SDKProperties {
         SDKProperties.proxyAddress = proxyAddress;
     }
 
+    /**
+     * @return Returns the transaction journal directory, null if journaling is off.
+     */
+    public static String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    /**
+     * Switches on the binary transaction journal. Every transaction is recorded with its
+     * masked request and response to segment files in this directory. Segments can be
+     * converted to text or CSV with TransactionJournalReader.
+     *
+     * @param journalDirectory The journal directory to set, null switches journaling off.
+     */
+    public static void setJournalDirectory(String journalDirectory) {
+        if (journalDirectory != null && journalDirectory.length() == 0) {
+            journalDirectory = null;
+        }
+        SDKProperties.journalDirectory = journalDirectory;
+    }
+
+    /**
+     * @return Returns the journal segment size in Bytes.
+     */
+    public static int getJournalSegmentSize() {
+        return journalSegmentSize;
+    }
+
+    /**
+     * the size of each journal segment file in Bytes
+     *
+     * @param journalSegmentSize The journalSegmentSize to set.
+     */
+    public static void setJournalSegmentSize(int journalSegmentSize) {
+        if (journalSegmentSize > 0) {
+            SDKProperties.journalSegmentSize = journalSegmentSize;
+        }
+    }
+
+    /**
+     * @return Returns the XMLPay schema file, null if XMLPay requests are not validated.
+     */
+    public static String getXmlPaySchemaFile() {
+        return xmlPaySchemaFile;
+    }
+
+    /**
+     * Switches on the validation of XMLPay requests against the XMLPay schema. Requests
+     * which are not valid are rejected with an error before they are sent. The schema is
+     * compiled once, on first use. If it can not be read, a warning is logged and the
+     * requests are not validated against it.
+     *
+     * @param xmlPaySchemaFile Path of the XMLPay schema (.xsd) file, null switches validation off.
+     */
+    public static void setXmlPaySchemaFile(String xmlPaySchemaFile) {
+        if (xmlPaySchemaFile != null && xmlPaySchemaFile.length() == 0) {
+            xmlPaySchemaFile = null;
+        }
+        SDKProperties.xmlPaySchemaFile = xmlPaySchemaFile;
+    }
+
     protected static boolean isLogFileNameSet() {
         return logFileNameSet;
     }
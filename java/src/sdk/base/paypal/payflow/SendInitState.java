@@ -22,15 +22,30 @@ class SendInitState extends InitState {
      *
      * @param connection           PaymentConnection
      * @param initialParameterList String
+     * @param requestInfo          XmlPayRequestInfo
      * @param psmContext           Context
      * @throws Exception Exception
      */
-    public SendInitState(PaymentConnection connection, String initialParameterList, Context psmContext) throws Exception {
-        super(connection, initialParameterList, psmContext);
+    public SendInitState(PaymentConnection connection, String initialParameterList, XmlPayRequestInfo requestInfo,
+                     Context psmContext) throws Exception {
+        super(connection, initialParameterList, requestInfo, psmContext);
         Logger.getInstance().log("paypal.payflow.SendInitState.SendInitState(PaymentConnection,String,Context) : Entered", PayflowConstants.SEVERITY_DEBUG);
         Logger.getInstance().log("paypal.payflow.SendInitState.SendInitState(PaymentConnection,String,Context) : Exiting", PayflowConstants.SEVERITY_DEBUG);
     }
 
+    /**
+     * Constructor for SendInitState Object, for a name value pair request held as bytes.
+     *
+     * @param connection PaymentConnection
+     * @param nvpRequest byte[]
+     * @param psmContext Context
+     */
+    public SendInitState(PaymentConnection connection, byte[] nvpRequest, Context psmContext) {
+        super(connection, nvpRequest, psmContext);
+        Logger.getInstance().log("paypal.payflow.SendInitState.SendInitState(PaymentConnection,byte[],Context) : Entered", PayflowConstants.SEVERITY_DEBUG);
+        Logger.getInstance().log("paypal.payflow.SendInitState.SendInitState(PaymentConnection,byte[],Context) : Exiting", PayflowConstants.SEVERITY_DEBUG);
+    }
+
     /**
      * Copy Constructor for SendInitState
      *
@@ -29,6 +29,16 @@ abstract class SendState extends PaymentState {
 
     public abstract String getSendRequest();
 
+    /**
+     * Gets the request to be sent, encoded as sent on the wire.
+     *
+     * @return sendRequest byte[]
+     */
+    protected byte[] getSendRequestBytes() {
+        String request = getSendRequest();
+        return request == null ? null : request.getBytes();
+    }
+
     /**
      * Execute function
      */
@@ -47,7 +57,7 @@ abstract class SendState extends PaymentState {
                     }
                 }
                 //End Payflow Timeout Check Point 3
-                isSendSuccess = mConnection.sendToServer(getSendRequest());
+                isSendSuccess = mConnection.sendToServer(getSendRequestBytes());
             } catch (Exception ex) {
                 Logger.getInstance().log("paypal.payflowCommunication.SendState.Execute(): Following Error occurred While Initializing Connection.", PayflowConstants.SEVERITY_ERROR);
                 Logger.getInstance().log("paypal.payflowCommunication.SendState.Execute(): Exception " + ex.toString(), PayflowConstants.SEVERITY_ERROR);
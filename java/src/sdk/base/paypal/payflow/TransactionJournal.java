@@ -0,0 +1,348 @@
+package paypal.payflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Binary transaction journal. Every transaction submitted through PayflowAPI is appended
+ * as one compact record to a memory-mapped segment file in the directory set through
+ * SDKProperties.setJournalDirectory(). Journaling is OFF unless a directory is set.
+ *  * <p>
+ * Writers never block each other: each record reserves its slice of the current segment
+ * with a single atomic add and is then copied into the mapping. Only the rare roll-over
+ * to a new segment is serialized. A record's length word is written as soon as its slice
+ * is reserved and its checksum word last, as the commit: the reader steps over a slice
+ * whose checksum does not match, so a writer which died or is still copying hides only
+ * its own record.
+ *  * <p>
+ * Segments can be converted to text or CSV offline with {@link TransactionJournalReader}.
+ */
+final class TransactionJournal {
+
+    /**
+     * Magic number at the start of every segment file ("PFJ2").
+     */
+    protected static final int SEGMENT_MAGIC = 0x50464A32;
+
+    /**
+     * Size of the segment header: magic number and segment creation time.
+     */
+    protected static final int SEGMENT_HEADER_SIZE = 12;
+
+    /**
+     * Size of the record header: length word and checksum word.
+     */
+    protected static final int RECORD_HEADER_SIZE = 4 + 4;
+
+    /**
+     * Size of the fixed part of a record: header, two timestamps and three latencies.
+     */
+    protected static final int RECORD_FIXED_SIZE = RECORD_HEADER_SIZE + 8 + 8 + 8 + 8 + 8;
+
+    /**
+     * Number of variable length string fields in a record.
+     */
+    protected static final int RECORD_STRING_FIELDS = 6;
+
+    /**
+     * File name extension for segment files.
+     */
+    protected static final String SEGMENT_EXTENSION = ".pfj";
+
+    /**
+     * Charset used for the string fields.
+     */
+    protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Holds the instance of this singleton class. Read without locking on every
+     * transaction; replaced under the class lock only when the directory changes.
+     */
+    private static volatile TransactionJournal mInstance;
+
+    /**
+     * Directory the segments are written to.
+     */
+    private final String mDirectory;
+
+    /**
+     * Capacity of each segment in bytes.
+     */
+    private final int mSegmentSize;
+
+    /**
+     * Segment currently being appended to.
+     */
+    private volatile Segment mCurrent;
+
+    /**
+     * Sequence number used to build unique segment file names. Names that are already
+     * taken are skipped, so segments are never reopened.
+     */
+    private int mSegmentSeq;
+
+    /**
+     * Set once an I/O error has occurred; the journal is disabled afterwards.
+     */
+    private volatile boolean mFailed;
+
+    /**
+     * Held shared by the writers while they append and exclusively by close(), so that the
+     * segment is forced only once every record appended to it is complete.
+     */
+    private final ReadWriteLock mCloseLock = new ReentrantReadWriteLock();
+
+    /**
+     * Set once the journal is closed; records appended afterwards are dropped.
+     */
+    private boolean mClosed;
+
+    /**
+     * Constructor for TransactionJournal
+     *
+     * @param directory   String
+     * @param segmentSize int
+     */
+    private TransactionJournal(String directory, int segmentSize) {
+        mDirectory = directory;
+        mSegmentSize = segmentSize;
+    }
+
+    /**
+     * Gives the journal instance, or null when journaling is switched off.
+     *
+     * @return mInstance TransactionJournal
+     */
+    protected static TransactionJournal getInstance() {
+        String directory = SDKProperties.getJournalDirectory();
+        if (directory == null) {
+            return null;
+        }
+        TransactionJournal journal = mInstance;
+        if (journal != null && journal.mDirectory.equals(directory)) {
+            return journal;
+        }
+        synchronized (TransactionJournal.class) {
+            journal = mInstance;
+            if (journal == null || !journal.mDirectory.equals(directory)) {
+                if (journal != null) {
+                    journal.close();
+                }
+                journal = new TransactionJournal(directory, SDKProperties.getJournalSegmentSize());
+                mInstance = journal;
+            }
+            return journal;
+        }
+    }
+
+    /**
+     * Appends a transaction record to the journal. Failures are logged and disable the
+     * journal; they never surface to the transaction.
+     *
+     * @param requestId       String
+     * @param startTimeMillis long
+     * @param endTimeMillis   long
+     * @param prepareNanos    long : time spent masking and validating the request
+     * @param exchangeNanos   long : time spent in the payment state machine
+     * @param totalNanos      long
+     * @param trxType         String
+     * @param result          String
+     * @param pnref           String
+     * @param maskedRequest   String
+     * @param maskedResponse  String
+     */
+    protected void append(String requestId, long startTimeMillis, long endTimeMillis,
+                          long prepareNanos, long exchangeNanos, long totalNanos,
+                          String trxType, String result, String pnref,
+                          String maskedRequest, String maskedResponse) {
+        if (mFailed) {
+            return;
+        }
+        byte[][] fields = new byte[][]{toBytes(requestId), toBytes(trxType), toBytes(result),
+                toBytes(pnref), toBytes(maskedRequest), toBytes(maskedResponse)};
+        int length = RECORD_FIXED_SIZE;
+        for (int i = 0; i < fields.length; i++) {
+            length += 4 + fields[i].length;
+        }
+        if (length > mSegmentSize - SEGMENT_HEADER_SIZE) {
+            Logger.getInstance().log("paypal.payflow.TransactionJournal.append: record of " + length
+                    + " bytes does not fit a journal segment, request id : " + requestId, PayflowConstants.SEVERITY_WARN);
+            return;
+        }
+        byte[] record = new byte[length];
+        ByteBuffer body = ByteBuffer.wrap(record);
+        body.position(RECORD_HEADER_SIZE);
+        body.putLong(startTimeMillis);
+        body.putLong(endTimeMillis);
+        body.putLong(prepareNanos);
+        body.putLong(exchangeNanos);
+        body.putLong(totalNanos);
+        for (int i = 0; i < fields.length; i++) {
+            body.putInt(fields[i].length);
+            body.put(fields[i]);
+        }
+        int checksum = checksum(record, length);
+        mCloseLock.readLock().lock();
+        try {
+            if (mClosed) {
+                return;
+            }
+            Segment segment;
+            int offset;
+            while (true) {
+                segment = currentSegment();
+                offset = segment.mPosition.getAndAdd(length);
+                if (offset + length <= mSegmentSize) {
+                    break;
+                }
+                rollSegment(segment);
+            }
+            ByteBuffer slice = segment.mBuffer.duplicate();
+            slice.putInt(offset, length);
+            slice.position(offset + RECORD_HEADER_SIZE);
+            slice.put(record, RECORD_HEADER_SIZE, length - RECORD_HEADER_SIZE);
+            // commit the record
+            slice.putInt(offset + 4, checksum);
+        } catch (IOException ex) {
+            mFailed = true;
+            Logger.getInstance().log("paypal.payflow.TransactionJournal.append: " + ex.getMessage()
+                    + " Occurred while accessing journal directory : " + mDirectory + " - Journaling has been disabled.", PayflowConstants.SEVERITY_WARN);
+        } finally {
+            mCloseLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for the records being appended, then forces the current segment to disk and
+     * releases it. Records appended afterwards are dropped.
+     */
+    protected void close() {
+        mCloseLock.writeLock().lock();
+        try {
+            mClosed = true;
+            synchronized (this) {
+                if (mCurrent != null) {
+                    mCurrent.mBuffer.force();
+                    mCurrent = null;
+                }
+            }
+        } finally {
+            mCloseLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the segment being appended to, creating the first one on demand.
+     *
+     * @return segment Segment
+     * @throws IOException IOException
+     */
+    private Segment currentSegment() throws IOException {
+        Segment segment = mCurrent;
+        if (segment == null) {
+            synchronized (this) {
+                if (mCurrent == null) {
+                    mCurrent = openSegment();
+                }
+                segment = mCurrent;
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Replaces a full segment with a new one. Only the first writer to see the segment
+     * overflow performs the roll; the others pick up the new segment.
+     *
+     * @param full Segment
+     * @throws IOException IOException
+     */
+    private synchronized void rollSegment(Segment full) throws IOException {
+        if (mCurrent == full) {
+            full.mBuffer.force();
+            mCurrent = openSegment();
+        }
+    }
+
+    /**
+     * Creates and maps a new segment file. The file is created exclusively so that an
+     * existing segment, whether written by this JVM or another one sharing the
+     * directory, is never reopened and overwritten.
+     *
+     * @return segment Segment
+     * @throws IOException IOException
+     */
+    private Segment openSegment() throws IOException {
+        File dir = new File(mDirectory);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        long now = System.currentTimeMillis();
+        String stamp = new SimpleDateFormat("yyyyMMddHHmmss").format(new Date(now));
+        File file;
+        do {
+            file = new File(dir, "payflow_journal_" + stamp + "_" + String.format("%06d", mSegmentSeq++) + SEGMENT_EXTENSION);
+        } while (!file.createNewFile());
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(mSegmentSize);
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, mSegmentSize);
+            buffer.putInt(0, SEGMENT_MAGIC);
+            buffer.putLong(4, now);
+            Logger.getInstance().log("paypal.payflow.TransactionJournal.openSegment: " + file.getPath(), PayflowConstants.SEVERITY_INFO);
+            return new Segment(buffer);
+        } finally {
+            // the mapping stays valid after the channel is closed.
+            raf.close();
+        }
+    }
+
+    /**
+     * Computes the checksum word of a record: the CRC32 of the record after its header.
+     *
+     * @param record byte[]
+     * @param length int : length of the record
+     * @return checksum int
+     */
+    protected static int checksum(byte[] record, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(record, RECORD_HEADER_SIZE, length - RECORD_HEADER_SIZE);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Encodes a string field.
+     *
+     * @param value String
+     * @return bytes byte[]
+     */
+    private static byte[] toBytes(String value) {
+        if (value == null || value.length() == 0) {
+            return new byte[0];
+        }
+        return value.getBytes(UTF8);
+    }
+
+    /**
+     * A mapped segment file and its next free offset.
+     */
+    private static final class Segment {
+        private final MappedByteBuffer mBuffer;
+        private final AtomicInteger mPosition = new AtomicInteger(SEGMENT_HEADER_SIZE);
+
+        private Segment(MappedByteBuffer buffer) {
+            mBuffer = buffer;
+        }
+    }
+}
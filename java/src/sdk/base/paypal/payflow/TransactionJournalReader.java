@@ -0,0 +1,193 @@
+package paypal.payflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Offline decoder for the segment files written by the transaction journal.
+ *  * <p>
+ * Usage:
+ * <pre>
+ * java -cp payflow.jar paypal.payflow.TransactionJournalReader [-csv] segment_or_directory ...
+ * </pre>
+ * Text output prints one block per record; CSV output prints one line per record with a
+ * header line. Directories are expanded to the segment files they contain, oldest first.
+ */
+public final class TransactionJournalReader {
+
+    /**
+     * CSV column names, in record order.
+     */
+    private static final String CSV_HEADER = "REQUEST_ID,START_TIME,END_TIME,PREPARE_MS,EXCHANGE_MS,TOTAL_MS,TRXTYPE,RESULT,PNREF,REQUEST,RESPONSE";
+
+    private final boolean mCsv;
+    private final PrintStream mOut;
+    private final SimpleDateFormat mDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS z");
+
+    /**
+     * Constructor for TransactionJournalReader
+     *
+     * @param csv boolean : true for CSV output, false for text
+     * @param out PrintStream
+     */
+    public TransactionJournalReader(boolean csv, PrintStream out) {
+        mCsv = csv;
+        mOut = out;
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args String[]
+     */
+    public static void main(String[] args) {
+        boolean csv = false;
+        int first = 0;
+        if (args.length > 0 && "-csv".equals(args[0])) {
+            csv = true;
+            first = 1;
+        }
+        if (args.length == first) {
+            System.err.println("Usage: TransactionJournalReader [-csv] segment_or_directory ...");
+            System.exit(1);
+        }
+        TransactionJournalReader reader = new TransactionJournalReader(csv, System.out);
+        if (csv) {
+            System.out.println(CSV_HEADER);
+        }
+        for (int i = first; i < args.length; i++) {
+            File file = new File(args[i]);
+            File[] segments;
+            if (file.isDirectory()) {
+                segments = file.listFiles();
+                if (segments == null) {
+                    segments = new File[0];
+                }
+                Arrays.sort(segments);
+            } else {
+                segments = new File[]{file};
+            }
+            for (int j = 0; j < segments.length; j++) {
+                if (file.isDirectory() && !segments[j].getName().endsWith(TransactionJournal.SEGMENT_EXTENSION)) {
+                    continue;
+                }
+                try {
+                    reader.decode(segments[j]);
+                } catch (IOException ex) {
+                    System.err.println(segments[j].getPath() + ": " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes all committed records of one segment file, stepping over the records which
+     * were reserved but never committed.
+     *
+     * @param segment File
+     * @return records int : number of records decoded
+     * @throws IOException IOException
+     */
+    public int decode(File segment) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(segment, "r");
+        MappedByteBuffer buffer;
+        try {
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        } finally {
+            raf.close();
+        }
+        if (buffer.limit() < TransactionJournal.SEGMENT_HEADER_SIZE || buffer.getInt(0) != TransactionJournal.SEGMENT_MAGIC) {
+            throw new IOException("not a Payflow journal segment");
+        }
+        int records = 0;
+        int offset = TransactionJournal.SEGMENT_HEADER_SIZE;
+        while (offset + TransactionJournal.RECORD_FIXED_SIZE <= buffer.limit()) {
+            int length = buffer.getInt(offset);
+            if (length < TransactionJournal.RECORD_FIXED_SIZE || offset + length > buffer.limit()) {
+                // zero marks the end of the reserved records.
+                break;
+            }
+            byte[] record = new byte[length];
+            buffer.position(offset);
+            buffer.get(record);
+            offset += length;
+            ByteBuffer body = ByteBuffer.wrap(record);
+            if (body.getInt(4) != TransactionJournal.checksum(record, length)) {
+                // never committed: the writer died or is still copying the record.
+                continue;
+            }
+            body.position(TransactionJournal.RECORD_HEADER_SIZE);
+            long startTime = body.getLong();
+            long endTime = body.getLong();
+            long prepareNanos = body.getLong();
+            long exchangeNanos = body.getLong();
+            long totalNanos = body.getLong();
+            String[] fields = new String[TransactionJournal.RECORD_STRING_FIELDS];
+            for (int i = 0; i < fields.length; i++) {
+                byte[] value = new byte[body.getInt()];
+                body.get(value);
+                fields[i] = new String(value, TransactionJournal.UTF8);
+            }
+            if (mCsv) {
+                printCsv(startTime, endTime, prepareNanos, exchangeNanos, totalNanos, fields);
+            } else {
+                printText(startTime, endTime, prepareNanos, exchangeNanos, totalNanos, fields);
+            }
+            records++;
+        }
+        return records;
+    }
+
+    private void printText(long startTime, long endTime, long prepareNanos, long exchangeNanos, long totalNanos, String[] fields) {
+        mOut.println("REQUEST_ID = " + fields[0]);
+        mOut.println("  START    = " + mDateFormat.format(new Date(startTime)));
+        mOut.println("  END      = " + mDateFormat.format(new Date(endTime)));
+        mOut.println("  LATENCY  = prepare " + toMillis(prepareNanos) + " ms, exchange "
+                + toMillis(exchangeNanos) + " ms, total " + toMillis(totalNanos) + " ms");
+        mOut.println("  TRXTYPE  = " + fields[1]);
+        mOut.println("  RESULT   = " + fields[2]);
+        mOut.println("  PNREF    = " + fields[3]);
+        mOut.println("  REQUEST  = " + fields[4]);
+        mOut.println("  RESPONSE = " + fields[5]);
+    }
+
+    private void printCsv(long startTime, long endTime, long prepareNanos, long exchangeNanos, long totalNanos, String[] fields) {
+        StringBuilder line = new StringBuilder(256);
+        line.append(csvValue(fields[0])).append(',')
+                .append(csvValue(mDateFormat.format(new Date(startTime)))).append(',')
+                .append(csvValue(mDateFormat.format(new Date(endTime)))).append(',')
+                .append(toMillis(prepareNanos)).append(',')
+                .append(toMillis(exchangeNanos)).append(',')
+                .append(toMillis(totalNanos));
+        for (int i = 1; i < fields.length; i++) {
+            line.append(',').append(csvValue(fields[i]));
+        }
+        mOut.println(line);
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.US, "%.3f", nanos / 1000000.0);
+    }
+
+    /**
+     * Quotes a CSV value when it contains a separator, quote or line break.
+     *
+     * @param value String
+     * @return value String
+     */
+    private static String csvValue(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
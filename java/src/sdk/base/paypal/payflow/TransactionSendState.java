@@ -23,14 +23,31 @@ class TransactionSendState extends SendState {
      */
     public String getSendRequest() {
         Logger.getInstance().log("paypal.payflow.TransactionSendState.GetSendRequest(): Entered", PayflowConstants.SEVERITY_DEBUG);
-        String logRequest = super.getTransactionRequest();
-        logRequest = PayflowUtility.maskSensitiveFields(logRequest);
-
-
-        Logger.getInstance().log("paypal.payflow.TransactionSendState.GetSendRequest(): TransactionRequest = " + logRequest, PayflowConstants.SEVERITY_INFO);
+        logSendRequest();
         Logger.getInstance().log("paypal.payflow.TransactionSendState.GetSendRequest(): Exiting", PayflowConstants.SEVERITY_DEBUG);
         return super.getTransactionRequest();
 
     }
 
+    /**
+     * Gets the request to be sent, encoded once for all the attempts.
+     *
+     * @return sendRequest byte[]
+     */
+    protected byte[] getSendRequestBytes() {
+        logSendRequest();
+        return super.getTransactionRequestBytes();
+    }
+
+    /**
+     * Logs the masked request. A copy of the request is only masked when it is going to
+     * be logged.
+     */
+    private void logSendRequest() {
+        if (Logger.getInstance().isLoggable(PayflowConstants.SEVERITY_INFO)) {
+            String logRequest = PayflowUtility.maskSensitiveFields(super.getTransactionRequest(), getXmlPayRequestInfo());
+            Logger.getInstance().log("paypal.payflow.TransactionSendState.GetSendRequest(): TransactionRequest = " + logRequest, PayflowConstants.SEVERITY_INFO);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,455 @@
+package paypal.payflow;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Masks the sensitive values of an XMLPay request for logging.
+ * <p>
+ * The request is read as a stream and written out as it is read, in the form the DOM
+ * (LSSerializer) based masking wrote it: an XML declaration for UTF-16, attributes sorted
+ * by name and in double quotes, empty elements as &lt;Name/&gt;. The positions of the
+ * sensitive elements (CardNum, CVNum, Password, ...) are noted as they are written, and
+ * their content is replaced once the whole request has been read.
+ * <p>
+ * The elements are masked the way the DOM based masking masked them: one name after the
+ * other, an element being masked only when it is the one element of its name left in
+ * the request. Masking an element replaces all its content, including any elements in
+ * it, with the masked text.
+ */
+final class XmlPayMasker {
+
+    /**
+     * XML declaration written in front of the masked request.
+     */
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-16\"?>\n";
+
+    /**
+     * Names of the elements whose text is masked.
+     */
+    private static final String[] SENSITIVE_ELEMENTS = {
+            //Mask ACCT if present : Corresponding XmlPay element -- AcctNum or CardNum
+            PayflowConstants.XML_PARAM_ACCTNUM,
+            PayflowConstants.XML_PARAM_CARDNUM,
+            //Mask SWIPE if present : Corresponding XmlPay element -- MagData
+            PayflowConstants.XML_PARAM_MAGDATA,
+            //Mask MICR if present : Corresponding XmlPay element -- MICR or MagData
+            PayflowConstants.XML_PARAM_MICR,
+            //Mask CVV2 if present : Corresponding XmlPay element -- CVNum
+            PayflowConstants.XML_PARAM_CVNUM,
+            //Mask PWD if present : Corresponding XmlPay element -- Password
+            PayflowConstants.XML_PARAM_PASSWORD,
+            //Mask DL if present : Corresponding XmlPay element -- DL
+            PayflowConstants.XML_PARAM_DL,
+            //Mask SS if present : Corresponding XmlPay element -- SS
+            PayflowConstants.XML_PARAM_SS,
+            //Mask DOB if present : Corresponding XmlPay element -- DOB
+            PayflowConstants.XML_PARAM_DOB
+    };
+
+    /**
+     * Sensitive element names, for lookup.
+     */
+    private static final HashMap<String, String> SENSITIVE_ELEMENT_NAMES = new HashMap<String, String>();
+
+    static {
+        for (int i = 0; i < SENSITIVE_ELEMENTS.length; i++) {
+            SENSITIVE_ELEMENT_NAMES.put(SENSITIVE_ELEMENTS[i], SENSITIVE_ELEMENTS[i]);
+        }
+    }
+
+    /**
+     * Private constructor for XmlPayMasker
+     */
+    private XmlPayMasker() {
+    }
+
+    /**
+     * Masks an XMLPay request.
+     *
+     * @param xmlPayRequest String
+     * @return maskedRequest String
+     * @throws XMLStreamException if the request is not well formed.
+     */
+    protected static String mask(String xmlPayRequest) throws XMLStreamException {
+        return mask(xmlPayRequest, null);
+    }
+
+    /**
+     * Masks an XMLPay request, handing the root element to the request info as it is read.
+     *
+     * @param xmlPayRequest String
+     * @param requestInfo   XmlPayRequestInfo : null if only the masked request is wanted.
+     * @return maskedRequest String
+     * @throws XMLStreamException if the request is not well formed.
+     */
+    protected static String mask(String xmlPayRequest, XmlPayRequestInfo requestInfo) throws XMLStreamException {
+        StringBuilder out = new StringBuilder(xmlPayRequest.length() + XML_DECLARATION.length());
+        out.append(XML_DECLARATION);
+        // sensitive elements in document order, and the ones still open
+        ArrayList<SensitiveElement> sensitive = new ArrayList<SensitiveElement>(4);
+        ArrayList<SensitiveElement> open = new ArrayList<SensitiveElement>(2);
+        // text of the elements, in document order
+        StringBuilder text = new StringBuilder();
+        // an element start tag is closed when its first content is written
+        boolean startTagOpen = false;
+        // CDATA sections next to each other are written as one, as the DOM holds them
+        boolean lastCdata = false;
+        int depth = 0;
+        XMLStreamReader reader = XmlStreams.createCopyReader(xmlPayRequest);
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.CDATA && reader.getTextLength() == 0) {
+                    // the DOM holds no node for an empty CDATA section
+                    continue;
+                }
+                if (startTagOpen && event != XMLStreamConstants.END_ELEMENT) {
+                    out.append('>');
+                    startTagOpen = false;
+                }
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (depth == 0 && requestInfo != null) {
+                            requestInfo.readRootElement(reader);
+                        }
+                        String name = getQualifiedName(reader.getPrefix(), reader.getLocalName());
+                        out.append('<').append(name);
+                        writeAttributes(reader, out);
+                        startTagOpen = true;
+                        depth++;
+                        if (SENSITIVE_ELEMENT_NAMES.containsKey(name)) {
+                            SensitiveElement element = new SensitiveElement(name, depth, out.length(), text.length());
+                            sensitive.add(element);
+                            open.add(element);
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (startTagOpen) {
+                            out.append("/>");
+                            startTagOpen = false;
+                        } else {
+                            out.append("</").append(getQualifiedName(reader.getPrefix(), reader.getLocalName())).append('>');
+                        }
+                        if (!open.isEmpty()) {
+                            SensitiveElement element = open.get(open.size() - 1);
+                            if (element.mDepth == depth) {
+                                element.mContentEnd = out.length();
+                                element.mTextEnd = text.length();
+                                open.remove(open.size() - 1);
+                            }
+                        }
+                        depth--;
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                        // text outside the root element is not kept
+                        if (depth > 0) {
+                            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                            escape(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength(), false, out);
+                        }
+                        break;
+                    case XMLStreamConstants.CDATA:
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        if (lastCdata) {
+                            out.setLength(out.length() - "]]>".length());
+                        } else {
+                            out.append("<![CDATA[");
+                        }
+                        out.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength()).append("]]>");
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        noteTopLevelNode(depth, requestInfo);
+                        out.append("<!--").append(reader.getText()).append("-->");
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        noteTopLevelNode(depth, requestInfo);
+                        out.append("<?").append(reader.getPITarget());
+                        String data = reader.getPIData();
+                        if (data != null && data.length() > 0) {
+                            out.append(' ').append(data);
+                        }
+                        out.append("?>");
+                        break;
+                    case XMLStreamConstants.DTD:
+                        noteTopLevelNode(depth, requestInfo);
+                        out.append(reader.getText());
+                        break;
+                    default:
+                        break;
+                }
+                lastCdata = event == XMLStreamConstants.CDATA;
+            }
+        } finally {
+            XmlStreams.close(reader);
+        }
+        return replaceSensitiveContent(out, sensitive, text);
+    }
+
+    /**
+     * Tells the request info about a node found outside the root element.
+     *
+     * @param depth       int
+     * @param requestInfo XmlPayRequestInfo
+     */
+    private static void noteTopLevelNode(int depth, XmlPayRequestInfo requestInfo) {
+        if (depth == 0 && requestInfo != null) {
+            requestInfo.setHasTopLevelNodes();
+        }
+    }
+
+    /**
+     * Writes the namespace declarations and attributes of the current element, sorted by name.
+     *
+     * @param reader XMLStreamReader
+     * @param out    StringBuilder
+     */
+    private static void writeAttributes(XMLStreamReader reader, StringBuilder out) {
+        int namespaceCount = reader.getNamespaceCount();
+        int attributeCount = reader.getAttributeCount();
+        int count = namespaceCount + attributeCount;
+        if (count == 0) {
+            return;
+        }
+        String[] names = new String[count];
+        String[] values = new String[count];
+        for (int i = 0; i < namespaceCount; i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            names[i] = prefix == null || prefix.length() == 0 ? "xmlns" : "xmlns:" + prefix;
+            values[i] = reader.getNamespaceURI(i);
+        }
+        for (int i = 0; i < attributeCount; i++) {
+            names[namespaceCount + i] = getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+            values[namespaceCount + i] = reader.getAttributeValue(i);
+        }
+        // insertion sort, elements carry only a few attributes
+        for (int i = 1; i < count; i++) {
+            String name = names[i];
+            String value = values[i];
+            int j = i - 1;
+            while (j >= 0 && names[j].compareTo(name) > 0) {
+                names[j + 1] = names[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            names[j + 1] = name;
+            values[j + 1] = value;
+        }
+        for (int i = 0; i < count; i++) {
+            out.append(' ').append(names[i]).append("=\"");
+            String value = values[i] == null ? PayflowConstants.EMPTY_STRING : values[i];
+            escape(value.toCharArray(), 0, value.length(), true, out);
+            out.append('"');
+        }
+    }
+
+    /**
+     * Masks the sensitive elements and replaces their content with the masked text.
+     *
+     * @param out       StringBuilder : the request as written
+     * @param sensitive ArrayList : sensitive elements in document order
+     * @param text      StringBuilder : text of the elements, masked in place
+     * @return maskedRequest String
+     */
+    private static String replaceSensitiveContent(StringBuilder out, ArrayList<SensitiveElement> sensitive, StringBuilder text) {
+        if (sensitive.isEmpty()) {
+            return out.toString();
+        }
+        int size = sensitive.size();
+        for (int i = 0; i < SENSITIVE_ELEMENTS.length; i++) {
+            SensitiveElement single = null;
+            int count = 0;
+            for (int j = 0; j < size; j++) {
+                SensitiveElement element = sensitive.get(j);
+                if (SENSITIVE_ELEMENTS[i].equals(element.mName) && !isInMasked(element, sensitive)) {
+                    single = element;
+                    count++;
+                }
+            }
+            if (count == 1) {
+                // the masked text has the length of the text, so it is written over it and
+                // the elements around it see it as their text
+                String maskValue = maskValue(single.mName, text.substring(single.mTextStart, single.mTextEnd));
+                text.replace(single.mTextStart, single.mTextEnd, maskValue);
+                single.mMaskValue = maskValue;
+            }
+        }
+        StringBuilder masked = new StringBuilder(out.length());
+        int copied = 0;
+        for (int i = 0; i < size; i++) {
+            SensitiveElement element = sensitive.get(i);
+            // elements inside a masked element are gone with its content
+            if (element.mMaskValue == null || element.mContentStart < copied) {
+                continue;
+            }
+            masked.append(out, copied, element.mContentStart);
+            if (element.mMaskValue.length() == 0) {
+                masked.append("/>");
+            } else {
+                masked.append('>');
+                escape(element.mMaskValue.toCharArray(), 0, element.mMaskValue.length(), false, masked);
+                masked.append("</").append(element.mName).append('>');
+            }
+            copied = element.mContentEnd;
+        }
+        masked.append(out, copied, out.length());
+        return masked.toString();
+    }
+
+    /**
+     * Checks whether an element is inside an element which has been masked.
+     *
+     * @param element   SensitiveElement
+     * @param sensitive ArrayList
+     * @return true if a masked element contains the element.
+     */
+    private static boolean isInMasked(SensitiveElement element, ArrayList<SensitiveElement> sensitive) {
+        for (int i = 0; i < sensitive.size(); i++) {
+            SensitiveElement other = sensitive.get(i);
+            if (other.mMaskValue != null && other.mContentStart < element.mContentStart
+                    && element.mContentEnd <= other.mContentEnd) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Masks the text of a sensitive element. CardNum keeps its first six and its last
+     * digits after the twelfth; AcctNum is kept as it is, as it always has been.
+     *
+     * @param name String
+     * @param text String
+     * @return maskValue String
+     */
+    private static String maskValue(String name, String text) {
+        int length = text.length();
+        if (PayflowConstants.XML_PARAM_ACCTNUM.equals(name)) {
+            return text;
+        }
+        char[] maskValue = new char[length];
+        boolean cardNum = PayflowConstants.XML_PARAM_CARDNUM.equals(name);
+        for (int i = 0; i < length; i++) {
+            maskValue[i] = cardNum && (i < 6 || i > 11) ? text.charAt(i) : 'X';
+        }
+        return new String(maskValue);
+    }
+
+    /**
+     * Writes text or an attribute value with the markup characters escaped.
+     *
+     * @param text      char[]
+     * @param start     int
+     * @param length    int
+     * @param attribute boolean : true for an attribute value in double quotes
+     * @param out       StringBuilder
+     */
+    private static void escape(char[] text, int start, int length, boolean attribute, StringBuilder out) {
+        int end = start + length;
+        int copied = start;
+        for (int i = start; i < end; i++) {
+            String replacement;
+            switch (text[i]) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = attribute ? null : "&gt;";
+                    break;
+                case '"':
+                    replacement = attribute ? "&quot;" : null;
+                    break;
+                case '\r':
+                    replacement = "&#xd;";
+                    break;
+                case '\n':
+                    replacement = attribute ? "&#xa;" : null;
+                    break;
+                case '\t':
+                    replacement = attribute ? "&#x9;" : null;
+                    break;
+                default:
+                    replacement = null;
+                    break;
+            }
+            if (replacement != null) {
+                out.append(text, copied, i - copied).append(replacement);
+                copied = i + 1;
+            }
+        }
+        out.append(text, copied, end - copied);
+    }
+
+    /**
+     * Gets the name of an element or attribute as written.
+     *
+     * @param prefix    String
+     * @param localName String
+     * @return name String
+     */
+    private static String getQualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.length() == 0 ? localName : prefix + ":" + localName;
+    }
+
+    /**
+     * A sensitive element of the request.
+     */
+    private static final class SensitiveElement {
+
+        /**
+         * Element name.
+         */
+        private final String mName;
+
+        /**
+         * Depth of the element, 1 for the root element.
+         */
+        private final int mDepth;
+
+        /**
+         * Position in the output right after the element name and attributes.
+         */
+        private final int mContentStart;
+
+        /**
+         * Position in the output right after the end of the element.
+         */
+        private int mContentEnd;
+
+        /**
+         * Position of the text of the element in the text of the request.
+         */
+        private final int mTextStart;
+
+        /**
+         * Position right after the text of the element in the text of the request.
+         */
+        private int mTextEnd;
+
+        /**
+         * Masked text, null if the element is not masked.
+         */
+        private String mMaskValue;
+
+        /**
+         * Constructor for SensitiveElement
+         *
+         * @param name         String
+         * @param depth        int
+         * @param contentStart int
+         * @param textStart    int
+         */
+        private SensitiveElement(String name, int depth, int contentStart, int textStart) {
+            mName = name;
+            mDepth = depth;
+            mContentStart = contentStart;
+            mTextStart = textStart;
+        }
+    }
+}
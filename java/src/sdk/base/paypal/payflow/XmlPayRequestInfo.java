@@ -0,0 +1,185 @@
+package paypal.payflow;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * What the SDK reads from an XMLPay request: the version and request id attributes of
+ * the XMLPayRequest element, the XMLPay namespace which follows from the version, and
+ * the masked form of the request for logging.
+ * <p>
+ * All of them are read in the one streaming pass which masks the request, when the
+ * request is analyzed. The result is made once per submission and carried through the
+ * payment states, which used to parse the request again for each of these values.
+ * <p>
+ * The attributes are read the way the DOM based getXmlAttribute read them. A request
+ * which can not be read as a stream, or which has comments, processing instructions or
+ * a DTD next to its root element, has its attributes read by getXmlAttribute, so that it
+ * fails or succeeds as it always has.
+ */
+final class XmlPayRequestInfo {
+
+    /**
+     * The XMLPay request.
+     */
+    private final String mRequest;
+
+    /**
+     * Masked request, null if the request could not be masked.
+     */
+    private String mMaskedRequest;
+
+    /**
+     * Error raised while masking the request.
+     */
+    private XMLStreamException mMaskError;
+
+    /**
+     * True once the attributes have been read in the streaming pass.
+     */
+    private boolean mAttributesRead;
+
+    /**
+     * True if nodes other than the root element are at the top of the request.
+     */
+    private boolean mHasTopLevelNodes;
+
+    /**
+     * Version attribute of the XMLPayRequest element.
+     */
+    private String mVersion;
+
+    /**
+     * Request id attribute of the XMLPayRequest element.
+     */
+    private String mRequestId;
+
+    /**
+     * Constructor for XmlPayRequestInfo
+     *
+     * @param request String
+     */
+    private XmlPayRequestInfo(String request) {
+        mRequest = request;
+    }
+
+    /**
+     * Analyzes an XMLPay request in a single streaming pass.
+     *
+     * @param request String
+     * @return requestInfo XmlPayRequestInfo
+     */
+    protected static XmlPayRequestInfo analyze(String request) {
+        Logger.getInstance().log("paypal.payflow.XmlPayRequestInfo.analyze(String): Entered", PayflowConstants.SEVERITY_DEBUG);
+        XmlPayRequestInfo requestInfo = new XmlPayRequestInfo(request);
+        if (request != null && request.length() > 0) {
+            try {
+                requestInfo.mMaskedRequest = XmlPayMasker.mask(request, requestInfo);
+            } catch (XMLStreamException ex) {
+                requestInfo.mMaskError = ex;
+                requestInfo.mAttributesRead = false;
+            }
+        }
+        Logger.getInstance().log("paypal.payflow.XmlPayRequestInfo.analyze(String): Exiting", PayflowConstants.SEVERITY_DEBUG);
+        return requestInfo;
+    }
+
+    /**
+     * Checks whether this is the analysis of the given request.
+     *
+     * @param request String
+     * @return true if the request is the analyzed one.
+     */
+    protected boolean isFor(String request) {
+        return mRequest == request || (mRequest != null && mRequest.equals(request));
+    }
+
+    /**
+     * Gets the masked request.
+     *
+     * @return maskedRequest String
+     * @throws XMLStreamException if the request is not well formed.
+     */
+    protected String getMaskedRequest() throws XMLStreamException {
+        if (mMaskError != null) {
+            throw mMaskError;
+        }
+        return mMaskedRequest == null ? mRequest : mMaskedRequest;
+    }
+
+    /**
+     * Gets the version attribute of the XMLPayRequest element.
+     *
+     * @return version String, null if the request has no version.
+     * @throws Exception if the request can not be parsed.
+     */
+    protected String getVersion() throws Exception {
+        if (isAttributesRead()) {
+            return mVersion;
+        }
+        return PayflowUtility.getXmlAttribute(mRequest, PayflowConstants.XML_PARAM_VERSION);
+    }
+
+    /**
+     * Gets the request id attribute of the XMLPayRequest element.
+     *
+     * @return requestId String, null if the request has no request id.
+     * @throws Exception if the request can not be parsed.
+     */
+    protected String getRequestId() throws Exception {
+        if (isAttributesRead()) {
+            return mRequestId;
+        }
+        return PayflowUtility.getXmlAttribute(mRequest, PayflowConstants.XML_PARAM_REQUEST_ID);
+    }
+
+    /**
+     * Gets the Xml Namespace of the request.
+     *
+     * @return xmlNameSpace String
+     * @throws Exception if the request can not be parsed.
+     */
+    protected String getNameSpace() throws Exception {
+        return PayflowUtility.getXmlNameSpaceForVersion(getVersion());
+    }
+
+    /**
+     * Checks whether the attributes have been read in the streaming pass.
+     *
+     * @return true if the attributes are known without parsing the request again.
+     */
+    private boolean isAttributesRead() {
+        return mAttributesRead && !mHasTopLevelNodes;
+    }
+
+    /**
+     * Reads the attributes of the root element. Called by the masker on the root start tag.
+     *
+     * @param reader XMLStreamReader
+     */
+    protected void readRootElement(XMLStreamReader reader) {
+        mAttributesRead = true;
+        if (PayflowConstants.XMLPAY_REQUEST_TAG.equals(reader.getLocalName())) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String prefix = reader.getAttributePrefix(i);
+                // the DOM looked attributes up by their qualified name
+                if (prefix == null || prefix.length() == 0) {
+                    String name = reader.getAttributeLocalName(i);
+                    if (PayflowConstants.XML_PARAM_VERSION.equals(name)) {
+                        mVersion = reader.getAttributeValue(i);
+                    } else if (PayflowConstants.XML_PARAM_REQUEST_ID.equals(name)) {
+                        mRequestId = reader.getAttributeValue(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Notes a comment, processing instruction or DTD at the top of the request. Called by
+     * the masker.
+     */
+    protected void setHasTopLevelNodes() {
+        mHasTopLevelNodes = true;
+    }
+}
@@ -0,0 +1,95 @@
+package paypal.payflow;
+
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Validates XMLPay requests against the XMLPay schema set with
+ * SDKProperties.setXmlPaySchemaFile, so that a request the gateway would reject is
+ * rejected before it is sent.
+ * <p>
+ * The schema is compiled once, when it is first used, and shared: a compiled Schema can
+ * be used from any thread. A Validator can not, so each request gets a new validator of
+ * the schema, which is cheap next to compiling it. The request is validated as a
+ * stream; no DOM is built. A schema file which can not be read is a configuration
+ * problem, not an error of the requests: it is logged once and the requests are not
+ * validated against it.
+ */
+final class XmlPaySchema {
+
+    /**
+     * Schema file the compiled schema was read from, or which could not be read.
+     */
+    private static String compiledSchemaFile;
+
+    /**
+     * Compiled schema, null if the schema file could not be read.
+     */
+    private static Schema compiledSchema;
+
+    /**
+     * Private constructor for XmlPaySchema
+     */
+    private XmlPaySchema() {
+    }
+
+    /**
+     * Validates an XMLPay request against the schema.
+     *
+     * @param xmlPayRequest String
+     * @param schemaFile    String : path of the XMLPay schema.
+     * @return validated boolean : false if the schema can not be read, and the request
+     * was not validated.
+     * @throws SAXException if the request is not valid.
+     * @throws IOException  if the request can not be read.
+     */
+    protected static boolean validate(String xmlPayRequest, String schemaFile) throws SAXException, IOException {
+        Logger.getInstance().log("paypal.payflow.XmlPaySchema.validate(String,String): Entered", PayflowConstants.SEVERITY_DEBUG);
+        Schema schema = getSchema(schemaFile);
+        if (schema == null) {
+            Logger.getInstance().log("paypal.payflow.XmlPaySchema.validate(String,String): Exiting", PayflowConstants.SEVERITY_DEBUG);
+            return false;
+        }
+        Validator validator = schema.newValidator();
+        try {
+            // a request may not make the SDK read files or open connections
+            validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        } catch (SAXException ex) {
+            Logger.getInstance().log("paypal.payflow.XmlPaySchema.validate(String,String): External DTD access can not be switched off: " + ex.getMessage(),
+                    PayflowConstants.SEVERITY_DEBUG);
+        }
+        validator.validate(new StreamSource(new StringReader(xmlPayRequest)));
+        Logger.getInstance().log("paypal.payflow.XmlPaySchema.validate(String,String): Exiting", PayflowConstants.SEVERITY_DEBUG);
+        return true;
+    }
+
+    /**
+     * Gets the compiled schema, compiling it if the schema file is used for the first time.
+     *
+     * @param schemaFile String
+     * @return schema Schema : null if the schema file can not be read.
+     */
+    private static synchronized Schema getSchema(String schemaFile) {
+        if (!schemaFile.equals(compiledSchemaFile)) {
+            Logger.getInstance().log("paypal.payflow.XmlPaySchema.getSchema(String): Compiling " + schemaFile, PayflowConstants.SEVERITY_INFO);
+            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            try {
+                compiledSchema = factory.newSchema(new File(schemaFile));
+            } catch (SAXException ex) {
+                compiledSchema = null;
+                Logger.getInstance().log("paypal.payflow.XmlPaySchema.getSchema(String): XMLPay schema " + schemaFile
+                        + " can not be read, XMLPay requests are not validated against it: " + ex.getMessage(), PayflowConstants.SEVERITY_WARN);
+            }
+            compiledSchemaFile = schemaFile;
+        }
+        return compiledSchema;
+    }
+}
@@ -0,0 +1,172 @@
+package paypal.payflow;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashSet;
+
+/**
+ * Writes an XMLPay request as a stream, for the transactions which are sent as XMLPay
+ * instead of as a name value pair request.
+ * <p>
+ * The data objects write their elements with it the way they append their parameters to
+ * the name value pair request: an element or attribute with no value is left out. The
+ * values are escaped by the writer.
+ * <p>
+ * The writers also note which name value pair parameters their elements carry, so the
+ * transaction can write the parameters no element carries as ExtData.
+ */
+final class XmlPayWriter {
+
+    /**
+     * Initial capacity of the request buffer, enough for a transaction without line items.
+     */
+    private static final int REQUEST_CAPACITY = 2048;
+
+    /**
+     * Buffer the request is written to.
+     */
+    private final StringWriter mBuffer;
+
+    /**
+     * Stream writer over the buffer.
+     */
+    private final XMLStreamWriter mWriter;
+
+    /**
+     * Name value pair parameters carried by the elements written.
+     */
+    private final HashSet<String> mCarried = new HashSet<String>();
+
+    /**
+     * Constructor for XmlPayWriter
+     *
+     * @throws XMLStreamException if the stream writer can not be created.
+     */
+    protected XmlPayWriter() throws XMLStreamException {
+        mBuffer = new StringWriter(REQUEST_CAPACITY);
+        mWriter = XmlStreams.createWriter(mBuffer);
+    }
+
+    /**
+     * Writes the XML declaration.
+     *
+     * @throws XMLStreamException if the declaration can not be written.
+     */
+    protected void startDocument() throws XMLStreamException {
+        mWriter.writeStartDocument("1.0");
+    }
+
+    /**
+     * Writes the start tag of an element.
+     *
+     * @param name String
+     * @throws XMLStreamException if the tag can not be written.
+     */
+    protected void startElement(String name) throws XMLStreamException {
+        mWriter.writeStartElement(name);
+    }
+
+    /**
+     * Writes the default namespace declaration of the element just started.
+     *
+     * @param nameSpace String
+     * @throws XMLStreamException if the declaration can not be written.
+     */
+    protected void writeDefaultNamespace(String nameSpace) throws XMLStreamException {
+        mWriter.writeDefaultNamespace(nameSpace);
+    }
+
+    /**
+     * Writes an attribute of the element just started. Null values are skipped.
+     *
+     * @param name  String
+     * @param value Object
+     * @throws XMLStreamException if the attribute can not be written.
+     */
+    protected void writeAttribute(String name, Object value) throws XMLStreamException {
+        if (value != null) {
+            mWriter.writeAttribute(name, value.toString());
+        }
+    }
+
+    /**
+     * Writes text into the element just started.
+     *
+     * @param text String
+     * @throws XMLStreamException if the text can not be written.
+     */
+    protected void writeCharacters(String text) throws XMLStreamException {
+        mWriter.writeCharacters(text);
+    }
+
+    /**
+     * Writes elements written before by another XmlPayWriter into the open element.
+     *
+     * @param fragment String
+     * @throws XMLStreamException if the fragment can not be written.
+     */
+    protected void writeFragment(String fragment) throws XMLStreamException {
+        // writing no text completes the start tag of the open element
+        mWriter.writeCharacters("");
+        mWriter.flush();
+        mBuffer.write(fragment);
+    }
+
+    /**
+     * Writes the end tag of the innermost open element.
+     *
+     * @throws XMLStreamException if the tag can not be written.
+     */
+    protected void endElement() throws XMLStreamException {
+        mWriter.writeEndElement();
+    }
+
+    /**
+     * Writes an element holding a value. Null values are skipped.
+     *
+     * @param name  String
+     * @param value Object
+     * @throws XMLStreamException if the element can not be written.
+     */
+    protected void writeElement(String name, Object value) throws XMLStreamException {
+        if (value != null) {
+            mWriter.writeStartElement(name);
+            mWriter.writeCharacters(value.toString());
+            mWriter.writeEndElement();
+        }
+    }
+
+    /**
+     * Notes name value pair parameters as carried by the elements written.
+     *
+     * @param params String names of the parameters
+     */
+    protected void carry(String... params) {
+        Collections.addAll(mCarried, params);
+    }
+
+    /**
+     * Tells whether the elements written carry a name value pair parameter.
+     *
+     * @param param String
+     * @return true if an element carries the parameter.
+     */
+    protected boolean isCarried(String param) {
+        return mCarried.contains(param);
+    }
+
+    /**
+     * Closes the open elements and gets the request written.
+     *
+     * @return request String
+     * @throws XMLStreamException if the request can not be completed.
+     */
+    protected String toXml() throws XMLStreamException {
+        mWriter.writeEndDocument();
+        mWriter.flush();
+        mWriter.close();
+        return mBuffer.toString();
+    }
+}
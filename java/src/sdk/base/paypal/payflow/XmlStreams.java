@@ -0,0 +1,135 @@
+package paypal.payflow;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+
+/**
+ * Streaming (StAX) access to the XML documents handled by the SDK, such as the fraud
+ * rule data of a response or an XMLPay request.
+ * <p>
+ * The factories are created and configured once and shared; a configured XMLInputFactory
+ * or XMLOutputFactory can create readers and writers from any thread. DTDs and external entities are not processed, so
+ * a document can not make the SDK read files or open connections.
+ */
+final class XmlStreams {
+
+    /**
+     * Property of the JDK StAX implementation which makes it report CDATA sections as
+     * CDATA events instead of as text.
+     */
+    private static final String REPORT_CDATA_EVENT = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    /**
+     * Shared input factory.
+     */
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory(true);
+
+    /**
+     * Shared input factory for readers which copy a document.
+     */
+    private static final XMLInputFactory COPY_INPUT_FACTORY = createInputFactory(false);
+
+    /**
+     * Shared output factory.
+     */
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    /**
+     * Private constructor for XmlStreams
+     */
+    private XmlStreams() {
+    }
+
+    /**
+     * Creates and configures an input factory.
+     *
+     * @param coalescing boolean : true to read text split over several events, such as
+     *                   text and CDATA, as one value.
+     * @return factory XMLInputFactory
+     */
+    private static XMLInputFactory createInputFactory(boolean coalescing) {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.valueOf(coalescing));
+        if (!coalescing && factory.isPropertySupported(REPORT_CDATA_EVENT)) {
+            factory.setProperty(REPORT_CDATA_EVENT, Boolean.TRUE);
+        }
+        return factory;
+    }
+
+    /**
+     * Creates a reader over an XML document.
+     *
+     * @param xml String
+     * @return reader XMLStreamReader
+     * @throws XMLStreamException if the reader can not be created.
+     */
+    protected static XMLStreamReader createReader(String xml) throws XMLStreamException {
+        return INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+    }
+
+    /**
+     * Creates a reader over an XML document which reports CDATA sections apart from
+     * the text around them, for copying the document.
+     *
+     * @param xml String
+     * @return reader XMLStreamReader
+     * @throws XMLStreamException if the reader can not be created.
+     */
+    protected static XMLStreamReader createCopyReader(String xml) throws XMLStreamException {
+        return COPY_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+    }
+
+    /**
+     * Creates a writer which writes an XML document to the given writer.
+     *
+     * @param out Writer
+     * @return writer XMLStreamWriter
+     * @throws XMLStreamException if the writer can not be created.
+     */
+    protected static XMLStreamWriter createWriter(Writer out) throws XMLStreamException {
+        return OUTPUT_FACTORY.createXMLStreamWriter(out);
+    }
+
+    /**
+     * Skips an element and everything in it. The reader is on the start of the element
+     * and is left on its end.
+     *
+     * @param reader XMLStreamReader
+     * @throws XMLStreamException if the document is not well formed.
+     */
+    protected static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Closes a reader, ignoring errors.
+     *
+     * @param reader XMLStreamReader
+     */
+    protected static void close(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException ex) {
+                Logger.getInstance().log("paypal.payflow.XmlStreams.close(XMLStreamReader): Error closing reader: " + ex.getMessage(),
+                        PayflowConstants.SEVERITY_DEBUG);
+            }
+        }
+    }
+}
@@ -180,10 +180,10 @@ public final class ACHTender extends BaseTender {
 
     protected void generateRequest() {
         super.generateRequest();
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_AUTHTYPE, authType));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PRENOTE, preNote));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_TERMCITY, termCity));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_TERMSTATE, termState));
+        super.appendToRequest(PayflowConstants.PARAM_AUTHTYPE, authType);
+        super.appendToRequest(PayflowConstants.PARAM_PRENOTE, preNote);
+        super.appendToRequest(PayflowConstants.PARAM_TERMCITY, termCity);
+        super.appendToRequest(PayflowConstants.PARAM_TERMSTATE, termState);
     }
 
 
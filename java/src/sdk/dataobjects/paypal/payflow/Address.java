@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /// <summary>
 /// Abstract class to hold the Address information.
 /// </summary>
@@ -133,4 +135,28 @@ public abstract class Address extends BaseRequestDataObject {
         this.zip = zip;
     }
 
+    /// <summary>
+    /// Writes the name, address, email, phone and fax of an XMLPay BillTo or ShipTo.
+    /// </summary>
+    /// <remarks>The enclosing BillTo or ShipTo element is written by the Invoice.</remarks>
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        String name = firstName;
+        if (lastName != null) {
+            name = firstName == null ? lastName : firstName + " " + lastName;
+        }
+        writer.writeElement(PayflowConstants.XML_PARAM_CONTACTNAME, name);
+        if (addressStreet != null || city != null || state != null || zip != null || country != null) {
+            writer.startElement(PayflowConstants.XML_PARAM_ADDRESS);
+            writer.writeElement(PayflowConstants.XML_PARAM_STREET, addressStreet);
+            writer.writeElement(PayflowConstants.XML_PARAM_CITY, city);
+            writer.writeElement(PayflowConstants.XML_PARAM_STATE, state);
+            writer.writeElement(PayflowConstants.XML_PARAM_ZIP, zip);
+            writer.writeElement(PayflowConstants.XML_PARAM_COUNTRY, country);
+            writer.endElement();
+        }
+        writer.writeElement(PayflowConstants.XML_PARAM_EMAIL, email);
+        writer.writeElement(PayflowConstants.XML_PARAM_PHONE, phoneNum);
+        writer.writeElement(PayflowConstants.XML_PARAM_FAX, fax);
+    }
+
 }
\ No newline at end of file
@@ -23,6 +23,13 @@ package paypal.payflow;
 
 public class AdviceDetail extends BaseRequestDataObject {
 
+    /**
+     * Parameter names of the advice detail fields, by advice detail number.
+     */
+    private static final IndexedKeyTable KEYS = new IndexedKeyTable(new String[]{
+            PayflowConstants.PARAM_ADDLAMT,
+            PayflowConstants.PARAM_ADDLAMTTYPE});
+
     private String adviceDetailNumber;
     private String addLAmt;
     private String addLAmtType;
@@ -90,10 +97,10 @@ public class AdviceDetail extends BaseRequestDataObject {
     protected void generateRequest(int Index) {
 
         try {
-            String IndexVal = String.valueOf(Index+1);  // adding +1 as range is 1 to 5.
+            String[] keys = KEYS.getKeys(Index + 1);  // adding +1 as range is 1 to 5.
 
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ADDLAMT + IndexVal, addLAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ADDLAMTTYPE+ IndexVal, addLAmtType));
+            super.appendToRequest(keys[0], addLAmt);
+            super.appendToRequest(keys[1], addLAmtType);
 
         }
         catch (Exception ex) {
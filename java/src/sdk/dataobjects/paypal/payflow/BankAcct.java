@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * Used for BankAcct information.
  * BankAcct is associated with ACHTender. {@link ACHTender}
@@ -30,8 +32,21 @@ public final class BankAcct extends PaymentDevice {
     protected void generateRequest() {
         super.generateRequest();
         //Add ABA and ACCTTYPE to parameter list.
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ABA, aba));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ACCTTYPE, acctType));
+        super.appendToRequest(PayflowConstants.PARAM_ABA, aba);
+        super.appendToRequest(PayflowConstants.PARAM_ACCTTYPE, acctType);
+    }
+
+    /**
+     * Writes the account type, account number and ABA into the XMLPay ACH element.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the elements can not be written.
+     */
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        writer.writeElement(PayflowConstants.XML_PARAM_ACCTTYPE, acctType);
+        writer.writeElement(PayflowConstants.XML_PARAM_ACCTNUM, super.getAcct());
+        writer.writeElement(PayflowConstants.XML_PARAM_ABA, aba);
+        writer.carry(PayflowConstants.PARAM_ACCT, PayflowConstants.PARAM_ACCTTYPE, PayflowConstants.PARAM_ABA);
     }
 
     /**
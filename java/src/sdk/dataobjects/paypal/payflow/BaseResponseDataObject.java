@@ -1,6 +1,6 @@
 package paypal.payflow;
 
-import java.util.Hashtable;
+import java.util.HashMap;
 
 /**
  * Abstract base Class of all response data objects.
@@ -11,7 +11,7 @@ public class BaseResponseDataObject {
     protected void setParams(String Response) {
     }
 
-    protected void setParams(Hashtable ResponseHashTable) {
+    protected void setParams(HashMap<String, String> ResponseHashTable) {
     }
 
 }
\ No newline at end of file
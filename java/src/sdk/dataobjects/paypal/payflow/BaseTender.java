@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * This abstract class serves as base class of all tender objects.
  * Each tender type is associated with a Payment Device.
@@ -202,12 +204,60 @@ public class BaseTender extends BaseRequestDataObject {
             paymentDevice.generateRequest();
         }
 
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_TENDER, tender));
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CHKNUM, chkNum));
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CHKTYPE, chkType));
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DL, dL));
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SS, sS));
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_AUTHTYPE, authType));
+        appendToRequest(PayflowConstants.PARAM_TENDER, tender);
+        appendToRequest(PayflowConstants.PARAM_CHKNUM, chkNum);
+        appendToRequest(PayflowConstants.PARAM_CHKTYPE, chkType);
+        appendToRequest(PayflowConstants.PARAM_DL, dL);
+        appendToRequest(PayflowConstants.PARAM_SS, sS);
+        appendToRequest(PayflowConstants.PARAM_AUTHTYPE, authType);
+    }
+
+    /**
+     * Writes the XMLPay Tender element, with the payment device in the Card, ACH or
+     * Check element of the tender type.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the elements can not be written.
+     */
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        String tenderElement = getXmlPayTenderElement();
+        if (tenderElement == null) {
+            if (getContext() != null) {
+                getContext().addError(new ErrorObject(PayflowConstants.SEVERITY_FATAL, "",
+                        "Tender " + tender + " can not be sent as XMLPay."));
+            }
+            return;
+        }
+        writer.startElement(PayflowConstants.XML_PARAM_TENDER);
+        writer.startElement(tenderElement);
+        if (paymentDevice != null) {
+            paymentDevice.generateXmlPayRequest(writer);
+        }
+        writer.writeElement(PayflowConstants.XML_PARAM_CHECKTYPE, chkType);
+        writer.writeElement(PayflowConstants.XML_PARAM_CHECKNUM, chkNum);
+        writer.writeElement(PayflowConstants.XML_PARAM_DL, dL);
+        writer.writeElement(PayflowConstants.XML_PARAM_SS, sS);
+        writer.writeElement(PayflowConstants.XML_PARAM_AUTHTYPE, authType);
+        writer.endElement();
+        writer.endElement();
+        writer.carry(PayflowConstants.PARAM_TENDER, PayflowConstants.PARAM_CHKTYPE, PayflowConstants.PARAM_CHKNUM,
+                PayflowConstants.PARAM_DL, PayflowConstants.PARAM_SS, PayflowConstants.PARAM_AUTHTYPE);
+    }
+
+    /**
+     * Gets the XMLPay element of the tender type, which is also its XMLPay TenderType.
+     *
+     * @return tenderElement String, null if the tender type has no XMLPay element.
+     */
+    protected String getXmlPayTenderElement() {
+        if (PayflowConstants.TENDERTYPE_CARD.equals(tender)) {
+            return PayflowConstants.XML_PARAM_CARD;
+        } else if (PayflowConstants.TENDERTYPE_ACH.equals(tender)) {
+            return PayflowConstants.XML_PARAM_ACH;
+        } else if (PayflowConstants.TENDERTYPE_TELECHECK.equals(tender)) {
+            return PayflowConstants.XML_PARAM_CHECK;
+        }
+        return null;
     }
 
 }
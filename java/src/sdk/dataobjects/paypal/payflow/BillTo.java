@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * Used for Billing Address information
  * <p>Billing address is Cardholder's address information.</p>
@@ -414,20 +416,28 @@ public final class BillTo extends Address {
     }
 
     protected void generateRequest() {
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_STREET, this.getBillToStreet()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_STREET2, this.getBillToStreet2()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CITY, this.getBillToCity()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_STATE, this.getBillToState()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_BILLTOCOUNTRY, this.getBillToCountry()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ZIP, this.getBillToZip()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PHONENUM, this.getBillToPhone()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_BILLTOPHONE2, this.getBillToPhone2()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_EMAIL, this.getBillToEmail()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_FAX, this.getBillToFax()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_FIRSTNAME, this.getBillToFirstName()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MIDDLENAME, this.getBillToMiddleName()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_LASTNAME, this.getBillToLastName()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_HOMEPHONE, billToHomePhone));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_COMPANYNAME, billToCompanyName));
+        super.appendToRequest(PayflowConstants.PARAM_STREET, this.getBillToStreet());
+        super.appendToRequest(PayflowConstants.PARAM_STREET2, this.getBillToStreet2());
+        super.appendToRequest(PayflowConstants.PARAM_CITY, this.getBillToCity());
+        super.appendToRequest(PayflowConstants.PARAM_STATE, this.getBillToState());
+        super.appendToRequest(PayflowConstants.PARAM_BILLTOCOUNTRY, this.getBillToCountry());
+        super.appendToRequest(PayflowConstants.PARAM_ZIP, this.getBillToZip());
+        super.appendToRequest(PayflowConstants.PARAM_PHONENUM, this.getBillToPhone());
+        super.appendToRequest(PayflowConstants.PARAM_BILLTOPHONE2, this.getBillToPhone2());
+        super.appendToRequest(PayflowConstants.PARAM_EMAIL, this.getBillToEmail());
+        super.appendToRequest(PayflowConstants.PARAM_FAX, this.getBillToFax());
+        super.appendToRequest(PayflowConstants.PARAM_FIRSTNAME, this.getBillToFirstName());
+        super.appendToRequest(PayflowConstants.PARAM_MIDDLENAME, this.getBillToMiddleName());
+        super.appendToRequest(PayflowConstants.PARAM_LASTNAME, this.getBillToLastName());
+        super.appendToRequest(PayflowConstants.PARAM_HOMEPHONE, billToHomePhone);
+        super.appendToRequest(PayflowConstants.PARAM_COMPANYNAME, billToCompanyName);
+    }
+
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        super.generateXmlPayRequest(writer);
+        writer.carry(PayflowConstants.PARAM_FIRSTNAME, PayflowConstants.PARAM_LASTNAME,
+                PayflowConstants.PARAM_STREET, PayflowConstants.PARAM_CITY, PayflowConstants.PARAM_STATE,
+                PayflowConstants.PARAM_ZIP, PayflowConstants.PARAM_BILLTOCOUNTRY, PayflowConstants.PARAM_EMAIL,
+                PayflowConstants.PARAM_PHONENUM, PayflowConstants.PARAM_FAX);
     }
 }
@@ -39,13 +39,13 @@ public final class BrowserInfo extends BaseRequestDataObject {
 
     protected void generateRequest() {
         try {
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_BROWSERTIME, browserTime));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_BROWSERCOUNTRYCODE, browserCountryCode));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_BROWSERUSERAGENT, browserUserAgent));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_BUTTONSOURCE, buttonSource));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTOM, custom));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_NOTIFYURL, notifyURL));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTSESSIONID, merchantSessionId));
+            appendToRequest(PayflowConstants.PARAM_BROWSERTIME, browserTime);
+            appendToRequest(PayflowConstants.PARAM_BROWSERCOUNTRYCODE, browserCountryCode);
+            appendToRequest(PayflowConstants.PARAM_BROWSERUSERAGENT, browserUserAgent);
+            appendToRequest(PayflowConstants.PARAM_BUTTONSOURCE, buttonSource);
+            appendToRequest(PayflowConstants.PARAM_CUSTOM, custom);
+            appendToRequest(PayflowConstants.PARAM_NOTIFYURL, notifyURL);
+            appendToRequest(PayflowConstants.PARAM_MERCHANTSESSIONID, merchantSessionId);
         } catch (Exception ex) {
             ErrorObject error = PayflowUtility.populateCommError(PayflowConstants.E_UNKNOWN_STATE, ex, PayflowConstants.SEVERITY_FATAL, false, null);
             getContext().addError(error);
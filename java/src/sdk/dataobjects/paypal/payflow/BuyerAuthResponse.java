@@ -1,6 +1,6 @@
 package paypal.payflow;
 
-import java.util.Hashtable;
+import java.util.HashMap;
 
 /**
  * Used for the buyerauth operation
@@ -180,16 +180,16 @@ public class BuyerAuthResponse extends BaseResponseDataObject {
         this.xid = xid;
     }
 
-    protected void setParams(Hashtable ResponseHashTable) {
+    protected void setParams(HashMap<String, String> ResponseHashTable) {
 
-        acsUrl = (String) ResponseHashTable.get(PayflowConstants.PARAM_ACSURL);
-        authenticationId = (String) ResponseHashTable.get(PayflowConstants.PARAM_AUTHENTICATION_ID);
-        authenticationStatus = (String) ResponseHashTable.get(PayflowConstants.PARAM_AUTHENICATION_STATUS);
-        cavv = (String) ResponseHashTable.get(PayflowConstants.PARAM_CAVV);
-        eci = (String) ResponseHashTable.get(PayflowConstants.PARAM_ECI);
-        md = (String) ResponseHashTable.get(PayflowConstants.PARAM_MD);
-        paReq = (String) ResponseHashTable.get(PayflowConstants.PARAM_PAREQ);
-        xid = (String) ResponseHashTable.get(PayflowConstants.PARAM_XID);
+        acsUrl = ResponseHashTable.get(PayflowConstants.PARAM_ACSURL);
+        authenticationId = ResponseHashTable.get(PayflowConstants.PARAM_AUTHENTICATION_ID);
+        authenticationStatus = ResponseHashTable.get(PayflowConstants.PARAM_AUTHENICATION_STATUS);
+        cavv = ResponseHashTable.get(PayflowConstants.PARAM_CAVV);
+        eci = ResponseHashTable.get(PayflowConstants.PARAM_ECI);
+        md = ResponseHashTable.get(PayflowConstants.PARAM_MD);
+        paReq = ResponseHashTable.get(PayflowConstants.PARAM_PAREQ);
+        xid = ResponseHashTable.get(PayflowConstants.PARAM_XID);
         ResponseHashTable.remove(PayflowConstants.PARAM_ACSURL);
         ResponseHashTable.remove(PayflowConstants.PARAM_AUTHENTICATION_ID);
         ResponseHashTable.remove(PayflowConstants.PARAM_AUTHENICATION_STATUS);
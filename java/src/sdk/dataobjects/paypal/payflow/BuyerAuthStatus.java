@@ -156,13 +156,13 @@ public class BuyerAuthStatus extends BaseRequestDataObject {
 
     protected void generateRequest() {
 
-        this.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_AUTHENTICATION_ID, this.authenticationId));
-        this.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_AUTHENICATION_STATUS, this.authenticationStatus));
-        this.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CAVV, this.cavv));
-        this.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_XID, this.xid));
-        this.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ECI, this.eci));
-        this.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DSTRANSACTIONID, this.dsTransactionId));
-        this.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_THREEDSVERSION, this.threeDSVersion));
+        this.appendToRequest(PayflowConstants.PARAM_AUTHENTICATION_ID, this.authenticationId);
+        this.appendToRequest(PayflowConstants.PARAM_AUTHENICATION_STATUS, this.authenticationStatus);
+        this.appendToRequest(PayflowConstants.PARAM_CAVV, this.cavv);
+        this.appendToRequest(PayflowConstants.PARAM_XID, this.xid);
+        this.appendToRequest(PayflowConstants.PARAM_ECI, this.eci);
+        this.appendToRequest(PayflowConstants.PARAM_DSTRANSACTIONID, this.dsTransactionId);
+        this.appendToRequest(PayflowConstants.PARAM_THREEDSVERSION, this.threeDSVersion);
 
     }
 
@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * Used for Check Payment related information.
  * CheckPayment is associated with CheckTender. {@link CheckTender}
@@ -23,8 +25,19 @@ public final class CheckPayment extends PaymentDevice {
 
     protected void generateRequest() {
 //    	Put the base field Acct as MICR.
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MICR, super.getAcct()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_NAME, super.getName()));
+        super.appendToRequest(PayflowConstants.PARAM_MICR, super.getAcct());
+        super.appendToRequest(PayflowConstants.PARAM_NAME, super.getName());
+    }
+
+    /**
+     * Writes the MICR into the XMLPay Check element.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the element can not be written.
+     */
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        writer.writeElement(PayflowConstants.XML_PARAM_MICR, super.getAcct());
+        writer.carry(PayflowConstants.PARAM_MICR);
     }
 
 }
\ No newline at end of file
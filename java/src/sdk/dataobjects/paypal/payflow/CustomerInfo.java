@@ -40,17 +40,17 @@ public final class CustomerInfo extends BaseRequestDataObject {
 
     protected void generateRequest() {
         try {
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_REQNAME, reqName));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTCODE, custCode));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTIP, custIP));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTVATREGNUM, custVatRegNum));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DOB, dob));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTID, custId));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTHOSTNAME, custHostName));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTBROWSER, custBrowser));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTDATA, custData));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTOMERID, customerId));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTOMERNUMBER, customerNumber));
+            appendToRequest(PayflowConstants.PARAM_REQNAME, reqName);
+            appendToRequest(PayflowConstants.PARAM_CUSTCODE, custCode);
+            appendToRequest(PayflowConstants.PARAM_CUSTIP, custIP);
+            appendToRequest(PayflowConstants.PARAM_CUSTVATREGNUM, custVatRegNum);
+            appendToRequest(PayflowConstants.PARAM_DOB, dob);
+            appendToRequest(PayflowConstants.PARAM_CUSTID, custId);
+            appendToRequest(PayflowConstants.PARAM_CUSTHOSTNAME, custHostName);
+            appendToRequest(PayflowConstants.PARAM_CUSTBROWSER, custBrowser);
+            appendToRequest(PayflowConstants.PARAM_CUSTDATA, custData);
+            appendToRequest(PayflowConstants.PARAM_CUSTOMERID, customerId);
+            appendToRequest(PayflowConstants.PARAM_CUSTOMERNUMBER, customerNumber);
         } catch (Exception ex) {
             ErrorObject err = new ErrorObject(PayflowConstants.SEVERITY_FATAL, "", ex.toString());
             if (getContext() != null) {
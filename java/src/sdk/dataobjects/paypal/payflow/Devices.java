@@ -77,8 +77,8 @@ public final class Devices extends BaseRequestDataObject {
     }
 
     protected void generateRequest() {
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CATTYPE, catType));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CONTACTLESS, contactLess));
+        super.appendToRequest(PayflowConstants.PARAM_CATTYPE, catType);
+        super.appendToRequest(PayflowConstants.PARAM_CONTACTLESS, contactLess);
     }
 
 }
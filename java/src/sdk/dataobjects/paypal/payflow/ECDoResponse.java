@@ -17,7 +17,7 @@ package paypal.payflow;
 
 import paypal.payflow.ECGetResponse;
 
-import java.util.Hashtable;
+import java.util.HashMap;
 
 /**
  * UUsed for ExpressCheckout Do operation.
@@ -108,15 +108,15 @@ public class ECDoResponse extends ExpressCheckoutResponse {
     protected ECDoResponse() {
     }
 
-    protected void setParams(Hashtable ResponseHashTable) {
+    protected void setParams(HashMap<String, String> ResponseHashTable) {
 
-        amt = (String) ResponseHashTable.get(PayflowConstants.PARAM_AMT);
-        settleAmt = (String) ResponseHashTable.get(PayflowConstants.PARAM_SETTLEAMT);
-        taxAmt = (String) ResponseHashTable.get(PayflowConstants.PARAM_TAXAMT);
-        exchangeRate = (String) ResponseHashTable.get(PayflowConstants.PARAM_EXCHANGERATE);
-        paymentDate = (String) ResponseHashTable.get(PayflowConstants.PARAM_PAYMENTDATE);
-        paymentStatus = (String) ResponseHashTable.get(PayflowConstants.PARAM_PAYMENTSTATUS);
-        baId = (String) ResponseHashTable.get(PayflowConstants.PARAM_BAID);
+        amt = ResponseHashTable.get(PayflowConstants.PARAM_AMT);
+        settleAmt = ResponseHashTable.get(PayflowConstants.PARAM_SETTLEAMT);
+        taxAmt = ResponseHashTable.get(PayflowConstants.PARAM_TAXAMT);
+        exchangeRate = ResponseHashTable.get(PayflowConstants.PARAM_EXCHANGERATE);
+        paymentDate = ResponseHashTable.get(PayflowConstants.PARAM_PAYMENTDATE);
+        paymentStatus = ResponseHashTable.get(PayflowConstants.PARAM_PAYMENTSTATUS);
+        baId = ResponseHashTable.get(PayflowConstants.PARAM_BAID);
 
         ResponseHashTable.remove(PayflowConstants.PARAM_AMT);
         ResponseHashTable.remove(PayflowConstants.PARAM_SETTLEAMT);
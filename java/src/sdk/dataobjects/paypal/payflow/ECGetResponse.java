@@ -17,7 +17,7 @@ package paypal.payflow;
 
 import paypal.payflow.ExpressCheckoutResponse;
 
-import java.util.Hashtable;
+import java.util.HashMap;
 
 /**
  * Used for ExpressCheckout update operation.
@@ -25,6 +25,60 @@ import java.util.Hashtable;
  */
 
 public class ECGetResponse extends ExpressCheckoutResponse {
+
+    /**
+     * Parameter names of the response fields, in field order.
+     */
+    private static final ResponseFieldSchema FIELDS = new ResponseFieldSchema(new String[]{
+            PayflowConstants.PARAM_EMAIL,
+            PayflowConstants.PARAM_PAYERID,
+            PayflowConstants.PARAM_PAYERSTATUS,
+            PayflowConstants.PARAM_SHIPTONAME,
+            PayflowConstants.PARAM_FIRSTNAME,
+            PayflowConstants.PARAM_LASTNAME,
+            PayflowConstants.PARAM_SHIPTOCOUNTRY,
+            PayflowConstants.PARAM_SHIPTOBUSINESS,
+            PayflowConstants.PARAM_STREET,
+            PayflowConstants.PARAM_STREET2,
+            PayflowConstants.PARAM_CITY,
+            PayflowConstants.PARAM_STATE,
+            PayflowConstants.PARAM_ZIP,
+            PayflowConstants.PARAM_SHIPTOSTREET,
+            PayflowConstants.PARAM_SHIPTOSTREET2,
+            PayflowConstants.PARAM_SHIPTOCITY,
+            PayflowConstants.PARAM_SHIPTOSTATE,
+            PayflowConstants.PARAM_SHIPTOZIP,
+            PayflowConstants.PARAM_COUNTRYCODE,
+            PayflowConstants.PARAM_PHONENUM,
+            PayflowConstants.PARAM_BA_FLAG,
+            PayflowConstants.PARAM_ADDRESSSTATUS
+    }, new String[0]);
+
+    /**
+     * Positions of the fields in FIELDS.
+     */
+    private static final int F_EMAIL = 0;
+    private static final int F_PAYERID = 1;
+    private static final int F_PAYERSTATUS = 2;
+    private static final int F_SHIPTONAME = 3;
+    private static final int F_FIRSTNAME = 4;
+    private static final int F_LASTNAME = 5;
+    private static final int F_SHIPTOCOUNTRY = 6;
+    private static final int F_SHIPTOBUSINESS = 7;
+    private static final int F_STREET = 8;
+    private static final int F_STREET2 = 9;
+    private static final int F_CITY = 10;
+    private static final int F_STATE = 11;
+    private static final int F_ZIP = 12;
+    private static final int F_SHIPTOSTREET = 13;
+    private static final int F_SHIPTOSTREET2 = 14;
+    private static final int F_SHIPTOCITY = 15;
+    private static final int F_SHIPTOSTATE = 16;
+    private static final int F_SHIPTOZIP = 17;
+    private static final int F_COUNTRYCODE = 18;
+    private static final int F_PHONENUM = 19;
+    private static final int F_BA_FLAG = 20;
+    private static final int F_ADDRESSSTATUS = 21;
     private String email;
     private String payerId;
     private String payerStatus;
@@ -293,58 +347,31 @@ public class ECGetResponse extends ExpressCheckoutResponse {
     protected ECGetResponse() {
     }
 
-    protected void setParams(Hashtable ResponseHashTable) {
-        email = (String) ResponseHashTable.get(PayflowConstants.PARAM_EMAIL);
-        payerId = (String) ResponseHashTable.get(PayflowConstants.PARAM_PAYERID);
-        payerStatus = (String) ResponseHashTable.get(PayflowConstants.PARAM_PAYERSTATUS);
-        shipToName = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTONAME);
+    protected void setParams(HashMap<String, String> ResponseHashTable) {
+        String[] values = FIELDS.take(ResponseHashTable);
+        email = values[F_EMAIL];
+        payerId = values[F_PAYERID];
+        payerStatus = values[F_PAYERSTATUS];
+        shipToName = values[F_SHIPTONAME];
         // 04/08/2015 shipToFirstName and shipToLastName are not returned in the response, mapping only.
-        shipToFirstName = (String) ResponseHashTable.get(PayflowConstants.PARAM_FIRSTNAME);
-        shipToLastName = (String) ResponseHashTable.get(PayflowConstants.PARAM_LASTNAME);
-        shipToCountryCode = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOCOUNTRY);
-        shipToBusiness = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOBUSINESS);
-        //firstName = (String) ResponseHashTable.get(PayflowConstants.PARAM_FIRSTNAME);
-        //lastName = (String) ResponseHashTable.get(PayflowConstants.PARAM_LASTNAME);
-        street = (String) ResponseHashTable.get(PayflowConstants.PARAM_STREET);
-        street2 = (String) ResponseHashTable.get(PayflowConstants.PARAM_STREET2);
-        city = (String) ResponseHashTable.get(PayflowConstants.PARAM_CITY);
-        state = (String) ResponseHashTable.get(PayflowConstants.PARAM_STATE);
-        zip = (String) ResponseHashTable.get(PayflowConstants.PARAM_ZIP);
-        shipToStreet = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOSTREET);
-        shipToStreet2 = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOSTREET2);
-        shipToCity = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOCITY);
-        shipToState = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOSTATE);
-        shipToZip = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOZIP);
-        countryCode = (String) ResponseHashTable.get(PayflowConstants.PARAM_COUNTRYCODE);
-        phoneNum = (String) ResponseHashTable.get(PayflowConstants.PARAM_PHONENUM);
-        ba_Flag = (String) ResponseHashTable.get(PayflowConstants.PARAM_BA_FLAG);
-        addressStatus = (String) ResponseHashTable.get(PayflowConstants.PARAM_ADDRESSSTATUS);
-
-        ResponseHashTable.remove(PayflowConstants.PARAM_EMAIL);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PAYERID);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PAYERSTATUS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTONAME);
-        //ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOFIRSTNAME);
-        //ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOLASTNAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOCOUNTRY);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOBUSINESS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_FIRSTNAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_LASTNAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOSTREET);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOSTREET2);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOCITY);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOSTATE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOZIP);
-        ResponseHashTable.remove(PayflowConstants.PARAM_COUNTRYCODE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PHONENUM);
-        ResponseHashTable.remove(PayflowConstants.PARAM_BA_FLAG);
-        ResponseHashTable.remove(PayflowConstants.PARAM_STREET);
-        ResponseHashTable.remove(PayflowConstants.PARAM_STREET2);
-        ResponseHashTable.remove(PayflowConstants.PARAM_CITY);
-        ResponseHashTable.remove(PayflowConstants.PARAM_STATE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ZIP);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ADDRESSSTATUS);
-
+        shipToFirstName = values[F_FIRSTNAME];
+        shipToLastName = values[F_LASTNAME];
+        shipToCountryCode = values[F_SHIPTOCOUNTRY];
+        shipToBusiness = values[F_SHIPTOBUSINESS];
+        street = values[F_STREET];
+        street2 = values[F_STREET2];
+        city = values[F_CITY];
+        state = values[F_STATE];
+        zip = values[F_ZIP];
+        shipToStreet = values[F_SHIPTOSTREET];
+        shipToStreet2 = values[F_SHIPTOSTREET2];
+        shipToCity = values[F_SHIPTOCITY];
+        shipToState = values[F_SHIPTOSTATE];
+        shipToZip = values[F_SHIPTOZIP];
+        countryCode = values[F_COUNTRYCODE];
+        phoneNum = values[F_PHONENUM];
+        ba_Flag = values[F_BA_FLAG];
+        addressStatus = values[F_ADDRESSSTATUS];
     }
 }
 
@@ -515,25 +515,25 @@ public class ECSetRequest extends ExpressCheckoutRequest {
         //address information is validated and generated
         //in its respective derived classes.
         super.generateRequest();
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_RETURNURL, returnUrl));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CANCELURL, cancelUrl));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_REQCONFIRMSHIPPING, reqConfirmShipping));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_REQBILLINGADDRESS, reqBillingAddress));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_NOSHIPPING, noShipping));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_LOCALECODE, localecode));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MAXAMT, maxAmt));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PAGESTYLE, pageStyle));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_HDRIMG, headerImg));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_HDRBORDERCOLOR, headerBorderColor));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_HDRBACKCOLOR, headerBackColor));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PAYFLOWCOLOR, payFlowColor));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_BILLINGTYPE, billingType));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_BA_DESC, ba_Desc));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PAYMENTTYPE, paymentType));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_BA_CUSTOM, ba_Custom));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ADDROVERRIDE, addrOverride));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTONAME, shiptoName));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ALLOWNOTE, allowNote));
+        super.appendToRequest(PayflowConstants.PARAM_RETURNURL, returnUrl);
+        super.appendToRequest(PayflowConstants.PARAM_CANCELURL, cancelUrl);
+        super.appendToRequest(PayflowConstants.PARAM_REQCONFIRMSHIPPING, reqConfirmShipping);
+        super.appendToRequest(PayflowConstants.PARAM_REQBILLINGADDRESS, reqBillingAddress);
+        super.appendToRequest(PayflowConstants.PARAM_NOSHIPPING, noShipping);
+        super.appendToRequest(PayflowConstants.PARAM_LOCALECODE, localecode);
+        super.appendToRequest(PayflowConstants.PARAM_MAXAMT, maxAmt);
+        super.appendToRequest(PayflowConstants.PARAM_PAGESTYLE, pageStyle);
+        super.appendToRequest(PayflowConstants.PARAM_HDRIMG, headerImg);
+        super.appendToRequest(PayflowConstants.PARAM_HDRBORDERCOLOR, headerBorderColor);
+        super.appendToRequest(PayflowConstants.PARAM_HDRBACKCOLOR, headerBackColor);
+        super.appendToRequest(PayflowConstants.PARAM_PAYFLOWCOLOR, payFlowColor);
+        super.appendToRequest(PayflowConstants.PARAM_BILLINGTYPE, billingType);
+        super.appendToRequest(PayflowConstants.PARAM_BA_DESC, ba_Desc);
+        super.appendToRequest(PayflowConstants.PARAM_PAYMENTTYPE, paymentType);
+        super.appendToRequest(PayflowConstants.PARAM_BA_CUSTOM, ba_Custom);
+        super.appendToRequest(PayflowConstants.PARAM_ADDROVERRIDE, addrOverride);
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTONAME, shiptoName);
+        super.appendToRequest(PayflowConstants.PARAM_ALLOWNOTE, allowNote);
 
         if (payLater != null) {
             payLater.setRequestBuffer(getRequestBuffer());
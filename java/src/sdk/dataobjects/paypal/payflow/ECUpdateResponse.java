@@ -1,6 +1,6 @@
 package paypal.payflow;
 
-import java.util.Hashtable;
+import java.util.HashMap;
 
 public class ECUpdateResponse extends ExpressCheckoutResponse {
 
@@ -53,10 +53,10 @@ public class ECUpdateResponse extends ExpressCheckoutResponse {
     protected ECUpdateResponse() {
     }
 
-    protected void setParams(Hashtable ResponseHashTable) {
+    protected void setParams(HashMap<String, String> ResponseHashTable) {
 
-        ba_Desc = (String) ResponseHashTable.get(PayflowConstants.PARAM_BA_DESC);
-        ba_Status = (String) ResponseHashTable.get(PayflowConstants.PARAM_BA_STATUS);
+        ba_Desc = ResponseHashTable.get(PayflowConstants.PARAM_BA_DESC);
+        ba_Status = ResponseHashTable.get(PayflowConstants.PARAM_BA_STATUS);
 
         ResponseHashTable.remove(PayflowConstants.PARAM_BA_DESC);
         ResponseHashTable.remove(PayflowConstants.PARAM_BA_STATUS);
@@ -119,11 +119,11 @@ public class ExpressCheckoutRequest extends BaseRequestDataObject {
         //address information is validated and generated
         //in its respective derived classes.
         super.generateRequest();
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_TOKEN, token));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_COUNTRYCODE, countryCode));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_POSTALCODE, postalCode));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ACTION, action));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DOREAUTHORIZATION, doReauthorization));
+        super.appendToRequest(PayflowConstants.PARAM_TOKEN, token);
+        super.appendToRequest(PayflowConstants.PARAM_COUNTRYCODE, countryCode);
+        super.appendToRequest(PayflowConstants.PARAM_POSTALCODE, postalCode);
+        super.appendToRequest(PayflowConstants.PARAM_ACTION, action);
+        super.appendToRequest(PayflowConstants.PARAM_DOREAUTHORIZATION, doReauthorization);
 
     }
 
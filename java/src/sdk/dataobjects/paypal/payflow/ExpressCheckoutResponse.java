@@ -2,7 +2,7 @@ package paypal.payflow;
 
 import paypal.payflow.ECGetResponse;
 
-import java.util.Hashtable;
+import java.util.HashMap;
 
 /**
  * This  class serves as base class of all ExpressCheckout response classes.
@@ -32,8 +32,8 @@ public class ExpressCheckoutResponse extends BaseResponseDataObject {
     protected ExpressCheckoutResponse() {
     }
 
-    protected void setParams(Hashtable ResponseHashTable) {
-        token = (String) ResponseHashTable.get(PayflowConstants.PARAM_TOKEN);
+    protected void setParams(HashMap<String, String> ResponseHashTable) {
+        token = ResponseHashTable.get(PayflowConstants.PARAM_TOKEN);
         ResponseHashTable.remove(PayflowConstants.PARAM_TOKEN);
     }
 
@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * /// Used for Extended param information
  * /// <p>Extended data are the Payflow parameters which are
@@ -34,6 +36,21 @@ public final class ExtendData extends BaseRequestDataObject {
     }
 
     protected void generateRequest() {
-        this.getRequestBuffer().append(PayflowUtility.appendToRequest(paramName, paramValue));
+        this.appendToRequest(paramName, paramValue);
+    }
+
+    /**
+     * Writes the parameter as an XMLPay ExtData element.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the element can not be written.
+     */
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        if (paramName != null) {
+            writer.startElement(PayflowConstants.XML_PARAM_EXTDATA);
+            writer.writeAttribute(PayflowConstants.XML_PARAM_EXTDATA_NAME, paramName);
+            writer.writeAttribute(PayflowConstants.XML_PARAM_EXTDATA_VALUE, paramValue);
+            writer.endElement();
+        }
     }
 }
@@ -66,14 +66,14 @@ import java.util.ArrayList;
 public class FpsXmlData {
 
 
-    private ArrayList rules;
+    private ArrayList<Rule> rules;
 
     /**
      * Gets the Rules list.
      *
      * @return ArrayList
      */
-    public ArrayList getRules() {
+    public ArrayList<Rule> getRules() {
         return rules;
     }
 
@@ -81,10 +81,10 @@ public class FpsXmlData {
      * constructor
      */
     public FpsXmlData() {
-        rules = new ArrayList();
+        rules = new ArrayList<Rule>();
     }
 
-    protected void SetRuleList(ArrayList RuleList) {
+    protected void SetRuleList(ArrayList<Rule> RuleList) {
         rules = RuleList;
     }
 
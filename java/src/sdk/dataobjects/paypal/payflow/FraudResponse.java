@@ -1,15 +1,9 @@
 package paypal.payflow;
 
-import org.apache.xerces.parsers.DOMParser;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-
-import java.io.ByteArrayInputStream;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 import java.util.ArrayList;
-import java.util.Hashtable;
+import java.util.HashMap;
 
 /**
  * Container class for response messages specific Fraud Protections Services.
@@ -79,96 +73,126 @@ public final class FraudResponse extends BaseResponseDataObject {
     protected FraudResponse() {
     }
 
-    private ArrayList parseXmlData(String XmlData) throws Exception {
-
-        DOMParser parser = new DOMParser();
-        ByteArrayInputStream byteStream = new ByteArrayInputStream(XmlData.getBytes());
-        InputSource source = new InputSource(byteStream);
-        ArrayList fraudRuleList = new ArrayList();
-        //try
-        //{
-        parser.parse(source);
-
-        Document xmlDocument = parser.getDocument();
-
-        NodeList ruleList = xmlDocument.getElementsByTagName(PayflowConstants.XML_PARAM_RULE);
-        if (ruleList != null) {
-            int length = ruleList.getLength();
-            if (length > 0) {
-                for (int index = 0; index < length; index++) {
-                    Node ruleNode = ruleList.item(index);
-                    Rule currRule = new Rule();
-                    currRule.setNum(Integer.parseInt(ruleNode.getAttributes().getNamedItem(PayflowConstants.XML_PARAM_NUM).getNodeValue()));
-                    NodeList childNodes = ruleNode.getChildNodes();
-                    int childLength = childNodes.getLength();
-                    for (int cindex = 0; cindex < childLength; cindex++) {
-                        Element currChild = (Element) childNodes.item(cindex);
-                        String Name = currChild.getNodeName();
-                        Node child = currChild.getFirstChild();
-                        if (PayflowConstants.XML_PARAM_RULEID.equals(Name)) {
-                            currRule.setRuleId(child.getNodeValue());
-                        } else if (PayflowConstants.XML_PARAM_RULEALIAS.equals(Name)) {
-                            currRule.setRuleAlias(child.getNodeValue());
-                        } else if (PayflowConstants.XML_PARAM_RULEDESCRIPTION.equals(Name)) {
-                            currRule.setRuleDescription(child.getNodeValue());
-                        } else if (PayflowConstants.XML_PARAM_ACTION.equals(Name)) {
-                            currRule.setAction(child.getNodeValue());
-                        } else if (PayflowConstants.XML_PARAM_TRIGGEREDMESSAGE.equals(Name)) {
-                            currRule.setTriggeredMessage(child.getNodeValue());
-                        } else if (PayflowConstants.XML_PARAM_RULEVENDORPARMS.equals(Name)) {
-                            Element ruleVendorParams;
-                            ruleVendorParams = currChild;
-                            NodeList ruleParamList = ruleVendorParams.getElementsByTagName(PayflowConstants.XML_PARAM_RULEPARAMETER);
-                            int ruleParamLength = ruleParamList.getLength();
-                            for (int rindex = 0; rindex < ruleParamLength; rindex++) {
-                                Node ruleParamNode = ruleParamList.item(rindex);
-                                RuleParameter currRuleParam = new RuleParameter();
-                                currRuleParam.setNum(Integer.parseInt(ruleParamNode.getAttributes().getNamedItem(PayflowConstants.XML_PARAM_NUM).getNodeValue()));
-                                NodeList ruleParamChildNodes = ruleParamNode.getChildNodes();
-                                int ruleParamChildLength = ruleParamChildNodes.getLength();
-                                for (int rpindex = 0; rpindex < ruleParamChildLength; rpindex++) {
-                                    Element currRuleParamChild = (Element) ruleParamChildNodes.item(rpindex);
-                                    String ruleParamName = currRuleParamChild.getNodeName();
-                                    Node ruleParamChild = currRuleParamChild.getFirstChild();
-                                    if (PayflowConstants.XML_PARAM_NAME.equals(ruleParamName)) {
-                                        currRuleParam.setName(ruleParamChild.getNodeValue());
-                                    } else if (PayflowConstants.XML_PARAM_VALUE.equals(ruleParamName)) {
-                                        currRuleParam.setType(currRuleParamChild.getAttribute(PayflowConstants.XML_PARAM_TYPE));
-                                        currRuleParam.setValue(ruleParamChild.getNodeValue());
-                                    }
-                                }
-                                currRule.getRuleVendorParms().add(currRuleParam);
-                            }
-                        }
-
-                    }
-                    fraudRuleList.add(currRule);
+    /**
+     * Reads the triggered rules out of the fps xml data. The xml data is read as a stream,
+     * each rule element anywhere in the document giving one Rule. Text between the
+     * elements, such as line breaks and indentation, is skipped.
+     *
+     * @param XmlData String
+     * @return fraudRuleList ArrayList : Rule objects in document order.
+     * @throws Exception if the xml data is not well formed or a rule has no valid num.
+     */
+    private ArrayList<Rule> parseXmlData(String XmlData) throws Exception {
+        ArrayList<Rule> fraudRuleList = new ArrayList<Rule>();
+        XMLStreamReader reader = XmlStreams.createReader(XmlData);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                        && PayflowConstants.XML_PARAM_RULE.equals(reader.getLocalName())) {
+                    fraudRuleList.add(parseRule(reader));
                 }
             }
+        } finally {
+            XmlStreams.close(reader);
         }
-
-        //}
-        //catch(Exception ex)
-        //{
-        //	throw ex;
-        //}
         return fraudRuleList;
     }
 
+    /**
+     * Reads a rule element. The reader is on the start of the element and is left on its end.
+     *
+     * @param reader XMLStreamReader
+     * @return currRule Rule
+     * @throws Exception if the xml data is not well formed or the rule has no valid num.
+     */
+    private static Rule parseRule(XMLStreamReader reader) throws Exception {
+        Rule currRule = new Rule();
+        currRule.setNum(Integer.parseInt(reader.getAttributeValue(null, PayflowConstants.XML_PARAM_NUM)));
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String Name = reader.getLocalName();
+            if (PayflowConstants.XML_PARAM_RULEID.equals(Name)) {
+                currRule.setRuleId(reader.getElementText());
+            } else if (PayflowConstants.XML_PARAM_RULEALIAS.equals(Name)) {
+                currRule.setRuleAlias(reader.getElementText());
+            } else if (PayflowConstants.XML_PARAM_RULEDESCRIPTION.equals(Name)) {
+                currRule.setRuleDescription(reader.getElementText());
+            } else if (PayflowConstants.XML_PARAM_ACTION.equals(Name)) {
+                currRule.setAction(reader.getElementText());
+            } else if (PayflowConstants.XML_PARAM_TRIGGEREDMESSAGE.equals(Name)) {
+                currRule.setTriggeredMessage(reader.getElementText());
+            } else if (PayflowConstants.XML_PARAM_RULEVENDORPARMS.equals(Name)) {
+                parseRuleVendorParms(reader, currRule.getRuleVendorParms());
+            } else {
+                XmlStreams.skipElement(reader);
+            }
+        }
+        return currRule;
+    }
+
+    /**
+     * Reads the rule parameters of a rulevendorparms element. The reader is on the start
+     * of the element and is left on its end.
+     *
+     * @param reader          XMLStreamReader
+     * @param ruleVendorParms ArrayList : list the RuleParameter objects are added to
+     * @throws Exception if the xml data is not well formed or a parameter has no valid num.
+     */
+    private static void parseRuleVendorParms(XMLStreamReader reader, ArrayList<RuleParameter> ruleVendorParms) throws Exception {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (PayflowConstants.XML_PARAM_RULEPARAMETER.equals(reader.getLocalName())) {
+                    ruleVendorParms.add(parseRuleParameter(reader));
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads a ruleParameter element. The reader is on the start of the element and is left
+     * on its end.
+     *
+     * @param reader XMLStreamReader
+     * @return currRuleParam RuleParameter
+     * @throws Exception if the xml data is not well formed or the parameter has no valid num.
+     */
+    private static RuleParameter parseRuleParameter(XMLStreamReader reader) throws Exception {
+        RuleParameter currRuleParam = new RuleParameter();
+        currRuleParam.setNum(Integer.parseInt(reader.getAttributeValue(null, PayflowConstants.XML_PARAM_NUM)));
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String ruleParamName = reader.getLocalName();
+            if (PayflowConstants.XML_PARAM_NAME.equals(ruleParamName)) {
+                currRuleParam.setName(reader.getElementText());
+            } else if (PayflowConstants.XML_PARAM_VALUE.equals(ruleParamName)) {
+                String type = reader.getAttributeValue(null, PayflowConstants.XML_PARAM_TYPE);
+                currRuleParam.setType(type == null ? "" : type);
+                currRuleParam.setValue(reader.getElementText());
+            } else {
+                XmlStreams.skipElement(reader);
+            }
+        }
+        return currRuleParam;
+    }
+
 
-    protected void setParams(Hashtable ResponseHashTable) {
-        preFpsMsg = (String) ResponseHashTable.get(PayflowConstants.PARAM_PREFPSMSG);
-        postFpsMsg = (String) ResponseHashTable.get(PayflowConstants.PARAM_POSTFPSMSG);
+    protected void setParams(HashMap<String, String> ResponseHashTable) {
+        preFpsMsg = ResponseHashTable.get(PayflowConstants.PARAM_PREFPSMSG);
+        postFpsMsg = ResponseHashTable.get(PayflowConstants.PARAM_POSTFPSMSG);
         ResponseHashTable.remove(PayflowConstants.PARAM_PREFPSMSG);
         ResponseHashTable.remove(PayflowConstants.PARAM_POSTFPSMSG);
         SetFpsXmlData(ResponseHashTable);
     }
 
-    private void SetFpsXmlData(Hashtable ResponseHashTable) {
+    private void SetFpsXmlData(HashMap<String, String> ResponseHashTable) {
         String XmlData;
-        XmlData = (String) ResponseHashTable.get(PayflowConstants.PARAM_FPS_PREXMLDATA);
+        XmlData = ResponseHashTable.get(PayflowConstants.PARAM_FPS_PREXMLDATA);
         fpsPreXmlData = SetRules(XmlData);
-        XmlData = (String) ResponseHashTable.get(PayflowConstants.PARAM_FPS_POSTXMLDATA);
+        XmlData = ResponseHashTable.get(PayflowConstants.PARAM_FPS_POSTXMLDATA);
         fpsPostXmlData = SetRules(XmlData);
         ResponseHashTable.remove(PayflowConstants.PARAM_FPS_PREXMLDATA);
         ResponseHashTable.remove(PayflowConstants.PARAM_FPS_POSTXMLDATA);
@@ -178,7 +202,7 @@ public final class FraudResponse extends BaseResponseDataObject {
         FpsXmlData FpsData = new FpsXmlData();
         try {
             if (XmlData != null && XmlData.length() > 0) {
-                ArrayList ruleList;
+                ArrayList<Rule> ruleList;
 
                 ruleList = parseXmlData(XmlData);
                 if (ruleList != null && ruleList.size() > 0) {
@@ -1,5 +1,6 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
 import java.util.ArrayList;
 
 /**
@@ -42,7 +43,8 @@ public class Invoice extends BaseRequestDataObject {
 
     private BillTo billTo;
     private ShipTo shipTo;
-    private ArrayList itemList;
+    private ArrayList<LineItem> itemList;
+    private LineItemTable itemTable;
     private String invNum;
     private Currency amt;
     private Currency taxAmt;
@@ -88,7 +90,7 @@ public class Invoice extends BaseRequestDataObject {
     private String vatInvNum;
     private String vatTaxRate;
     private String reportGroup;
-    private ArrayList adviceDetailList;
+    private ArrayList<AdviceDetail> adviceDetailList;
     private Devices devices;
     private String miscData;
     private String scaExemption;
@@ -101,8 +103,8 @@ public class Invoice extends BaseRequestDataObject {
      * *
      */
     public Invoice() {
-        itemList = new ArrayList();
-        adviceDetailList = new ArrayList();
+        itemList = new ArrayList<LineItem>();
+        adviceDetailList = new ArrayList<AdviceDetail>();
     }
 
     /**
@@ -143,7 +145,50 @@ public class Invoice extends BaseRequestDataObject {
      *             .................
      */
     public void addLineItem(LineItem item) {
-        itemList.add(item);
+        if (itemTable != null) {
+            itemTable.addLineItem(item);
+        } else {
+            itemList.add(item);
+        }
+    }
+
+    /**
+     * Gets the line item table.
+     *
+     * @return itemTable LineItemTable, null when the line items are held as LineItem objects.
+     */
+    public LineItemTable getLineItemTable() {
+        return itemTable;
+    }
+
+    /**
+     * Sets the line item table.
+     * <p>Use this method for orders with many line items. Once set, addLineItem copies the
+     * values of each line item into the table, which holds them in columns instead of
+     * holding the LineItem objects. Line items added before are copied into the table.
+     * Changes made to a LineItem after it was added are then not sent.</p>
+     *
+     * @param itemTable LineItemTable
+     *                  <p>
+     *                  .................
+     *                  // inv is the Invoice object
+     *                  .................
+     *                  inv.setLineItemTable(new LineItemTable());
+     *                  // item can be changed and added again for the next line.
+     *                  inv.addLineItem(item);
+     *                  .................
+     */
+    public void setLineItemTable(LineItemTable itemTable) {
+        if (itemTable != null) {
+            for (int index = 0; index < itemList.size(); index++) {
+                LineItem item = itemList.get(index);
+                if (item != null) {
+                    itemTable.addLineItem(item);
+                }
+            }
+            itemList.clear();
+        }
+        this.itemTable = itemTable;
     }
 
     /**
@@ -160,7 +205,11 @@ public class Invoice extends BaseRequestDataObject {
      *              .................
      */
     public void removeLineItem(int index) {
-        itemList.remove(index);
+        if (itemTable != null) {
+            itemTable.removeLineItem(index);
+        } else {
+            itemList.remove(index);
+        }
     }
 
     /**
@@ -177,6 +226,9 @@ public class Invoice extends BaseRequestDataObject {
      * .................
      */
     public void removeAllLineItems() {
+        if (itemTable != null) {
+            itemTable.removeAllLineItems();
+        }
         itemList.clear();
     }
 
@@ -185,7 +237,7 @@ public class Invoice extends BaseRequestDataObject {
      */
     private void generateItemRequest() {
         for (int index = 0; index < itemList.size(); index++) {
-            LineItem item = (LineItem) itemList.get(index);
+            LineItem item = itemList.get(index);
             if (item != null) {
                 item.setContext(getContext());
                 item.setRequestBuffer(super.getRequestBuffer());
@@ -254,7 +306,7 @@ public class Invoice extends BaseRequestDataObject {
      */
     private void generateAdviceDetailRequest() {
         for (int index = 0; index < adviceDetailList.size(); index++) {
-            AdviceDetail item = (AdviceDetail) adviceDetailList.get(index);
+            AdviceDetail item = adviceDetailList.get(index);
             if (item != null) {
                 item.setContext(getContext());
                 item.setRequestBuffer(super.getRequestBuffer());
@@ -267,55 +319,55 @@ public class Invoice extends BaseRequestDataObject {
         try {
             initErrorContext();
 
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_INVNUM, invNum));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_AMT, amt));
+            super.appendToRequest(PayflowConstants.PARAM_INVNUM, invNum);
+            super.appendToRequest(PayflowConstants.PARAM_AMT, amt);
             if (amt != null) {
-                super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CURRENCY, amt.getCurrencyCode()));
+                super.appendToRequest(PayflowConstants.PARAM_CURRENCY, amt.getCurrencyCode());
             }
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_TAXEXEMPT, taxExempt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_TAXAMT, taxAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DUTYAMT, dutyAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_FREIGHTAMT, freightAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_HANDLINGAMT, handlingAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPPINGAMT, shippingAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DISCOUNT, discount));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DESC, desc));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_COMMENT1, comment1));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_COMMENT2, comment2));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DESC1, desc1));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DESC2, desc2));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DESC3, desc3));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_DESC4, desc4));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTREF, custRef));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PONUM, poNum));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_VATREGNUM, vatRegNum));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_VATTAXAMT, vatTaxAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_LOCALTAXAMT, localTaxAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_NATIONALTAXAMT, nationalTaxAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ALTTAXAMT, altTaxAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_COMMCODE, commCode));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_VATTAXPERCENT, vatTaxPercent));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_INVOICEDATE, invoiceDate));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_STARTTIME, startTime));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ENDTIME, endTime));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ORDERDATE, orderDate));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ORDERTIME, orderTime));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_RECURRING, recurring));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ITEMAMT, itemAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ORDERDESC, orderDesc));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CUSTIP, custIp));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_RECURRINGTYPE, recurringType));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_TRANSACTIONID, transactionId));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ECHODATA, echoData));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ORDERID, orderId));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_VATINVNUM, vatInvNum));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_VATTAXRATE, vatTaxRate));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_REPORTGROUP, reportGroup));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MISCDATA, miscData));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SCAEXEMPTION, scaExemption));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CITDATE, citDate));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_VMAID, vMaid));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PAR, par));
+            super.appendToRequest(PayflowConstants.PARAM_TAXEXEMPT, taxExempt);
+            super.appendToRequest(PayflowConstants.PARAM_TAXAMT, taxAmt);
+            super.appendToRequest(PayflowConstants.PARAM_DUTYAMT, dutyAmt);
+            super.appendToRequest(PayflowConstants.PARAM_FREIGHTAMT, freightAmt);
+            super.appendToRequest(PayflowConstants.PARAM_HANDLINGAMT, handlingAmt);
+            super.appendToRequest(PayflowConstants.PARAM_SHIPPINGAMT, shippingAmt);
+            super.appendToRequest(PayflowConstants.PARAM_DISCOUNT, discount);
+            super.appendToRequest(PayflowConstants.PARAM_DESC, desc);
+            super.appendToRequest(PayflowConstants.PARAM_COMMENT1, comment1);
+            super.appendToRequest(PayflowConstants.PARAM_COMMENT2, comment2);
+            super.appendToRequest(PayflowConstants.PARAM_DESC1, desc1);
+            super.appendToRequest(PayflowConstants.PARAM_DESC2, desc2);
+            super.appendToRequest(PayflowConstants.PARAM_DESC3, desc3);
+            super.appendToRequest(PayflowConstants.PARAM_DESC4, desc4);
+            super.appendToRequest(PayflowConstants.PARAM_CUSTREF, custRef);
+            super.appendToRequest(PayflowConstants.PARAM_PONUM, poNum);
+            super.appendToRequest(PayflowConstants.PARAM_VATREGNUM, vatRegNum);
+            super.appendToRequest(PayflowConstants.PARAM_VATTAXAMT, vatTaxAmt);
+            super.appendToRequest(PayflowConstants.PARAM_LOCALTAXAMT, localTaxAmt);
+            super.appendToRequest(PayflowConstants.PARAM_NATIONALTAXAMT, nationalTaxAmt);
+            super.appendToRequest(PayflowConstants.PARAM_ALTTAXAMT, altTaxAmt);
+            super.appendToRequest(PayflowConstants.PARAM_COMMCODE, commCode);
+            super.appendToRequest(PayflowConstants.PARAM_VATTAXPERCENT, vatTaxPercent);
+            super.appendToRequest(PayflowConstants.PARAM_INVOICEDATE, invoiceDate);
+            super.appendToRequest(PayflowConstants.PARAM_STARTTIME, startTime);
+            super.appendToRequest(PayflowConstants.PARAM_ENDTIME, endTime);
+            super.appendToRequest(PayflowConstants.PARAM_ORDERDATE, orderDate);
+            super.appendToRequest(PayflowConstants.PARAM_ORDERTIME, orderTime);
+            super.appendToRequest(PayflowConstants.PARAM_RECURRING, recurring);
+            super.appendToRequest(PayflowConstants.PARAM_ITEMAMT, itemAmt);
+            super.appendToRequest(PayflowConstants.PARAM_ORDERDESC, orderDesc);
+            super.appendToRequest(PayflowConstants.PARAM_CUSTIP, custIp);
+            super.appendToRequest(PayflowConstants.PARAM_RECURRINGTYPE, recurringType);
+            super.appendToRequest(PayflowConstants.PARAM_TRANSACTIONID, transactionId);
+            super.appendToRequest(PayflowConstants.PARAM_ECHODATA, echoData);
+            super.appendToRequest(PayflowConstants.PARAM_ORDERID, orderId);
+            super.appendToRequest(PayflowConstants.PARAM_VATINVNUM, vatInvNum);
+            super.appendToRequest(PayflowConstants.PARAM_VATTAXRATE, vatTaxRate);
+            super.appendToRequest(PayflowConstants.PARAM_REPORTGROUP, reportGroup);
+            super.appendToRequest(PayflowConstants.PARAM_MISCDATA, miscData);
+            super.appendToRequest(PayflowConstants.PARAM_SCAEXEMPTION, scaExemption);
+            super.appendToRequest(PayflowConstants.PARAM_CITDATE, citDate);
+            super.appendToRequest(PayflowConstants.PARAM_VMAID, vMaid);
+            super.appendToRequest(PayflowConstants.PARAM_PAR, par);
 
             if (billTo != null) {
                 billTo.setRequestBuffer(getRequestBuffer());
@@ -337,7 +389,11 @@ public class Invoice extends BaseRequestDataObject {
                 userItem.setRequestBuffer(getRequestBuffer());
                 userItem.generateRequest();
             }
-            if (itemList != null && itemList.size() > 0) {
+            if (itemTable != null && itemTable.size() > 0) {
+                itemTable.setContext(getContext());
+                itemTable.setRequestBuffer(getRequestBuffer());
+                itemTable.generateRequest();
+            } else if (itemList != null && itemList.size() > 0) {
                 generateItemRequest();
             }
             if (adviceDetailList != null && adviceDetailList.size() > 0) {
@@ -348,8 +404,8 @@ public class Invoice extends BaseRequestDataObject {
                 devices.generateRequest();
             }
             if (merchantInfo != null) {
-                merchantInfo.setRequestBuffer(getRequestBuffer());
-                merchantInfo.generateRequest();
+                // splice in the pre-encoded merchant details
+                merchantInfo.compile().appendTo(getRequestBuffer());
             }
 
         } catch (Exception ex) {
@@ -361,6 +417,59 @@ public class Invoice extends BaseRequestDataObject {
     }
 
 
+    /**
+     * Writes the XMLPay Invoice element: the customer IP, the invoice number and date, the
+     * bill to and ship to addresses, the description, the amounts, the comment and the
+     * order description.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the elements can not be written.
+     */
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        initErrorContext();
+
+        writer.startElement(PayflowConstants.XML_PARAM_INVOICE);
+        writer.writeElement(PayflowConstants.XML_PARAM_CUSTIP, custIp);
+        writer.writeElement(PayflowConstants.XML_PARAM_INVNUM, invNum);
+        writer.writeElement(PayflowConstants.XML_PARAM_DATE, invoiceDate);
+        if (billTo != null || poNum != null) {
+            writer.startElement(PayflowConstants.XML_PARAM_BILLTO);
+            if (billTo != null) {
+                billTo.generateXmlPayRequest(writer);
+            }
+            writer.writeElement(PayflowConstants.XML_PARAM_PONUM, poNum);
+            writer.endElement();
+        }
+        if (shipTo != null) {
+            writer.startElement(PayflowConstants.XML_PARAM_SHIPTO);
+            shipTo.generateXmlPayRequest(writer);
+            writer.endElement();
+        }
+        writer.writeElement(PayflowConstants.XML_PARAM_DESCRIPTION, desc);
+        writer.writeElement(PayflowConstants.XML_PARAM_DISCOUNTAMT, discount);
+        writer.writeElement(PayflowConstants.XML_PARAM_SHIPPINGAMT, shippingAmt);
+        writer.writeElement(PayflowConstants.XML_PARAM_DUTYAMT, dutyAmt);
+        writer.writeElement(PayflowConstants.XML_PARAM_TAXAMT, taxAmt);
+        if (amt != null) {
+            writer.startElement(PayflowConstants.XML_PARAM_TOTALAMT);
+            writer.writeAttribute(PayflowConstants.XML_PARAM_CURRENCY, amt.getCurrencyCode());
+            writer.writeCharacters(amt.toString());
+            writer.endElement();
+        }
+        writer.writeElement(PayflowConstants.XML_PARAM_FREIGHTAMT, freightAmt);
+        writer.writeElement(PayflowConstants.XML_PARAM_HANDLINGAMT, handlingAmt);
+        writer.writeElement(PayflowConstants.XML_PARAM_ITEMAMT, itemAmt);
+        writer.writeElement(PayflowConstants.XML_PARAM_COMMENT, comment1);
+        writer.writeElement(PayflowConstants.XML_PARAM_ORDERDESC, orderDesc);
+        writer.endElement();
+        writer.carry(PayflowConstants.PARAM_CUSTIP, PayflowConstants.PARAM_INVNUM, PayflowConstants.PARAM_INVOICEDATE,
+                PayflowConstants.PARAM_PONUM, PayflowConstants.PARAM_DESC, PayflowConstants.PARAM_DISCOUNT,
+                PayflowConstants.PARAM_SHIPPINGAMT, PayflowConstants.PARAM_DUTYAMT, PayflowConstants.PARAM_TAXAMT,
+                PayflowConstants.PARAM_AMT, PayflowConstants.PARAM_CURRENCY, PayflowConstants.PARAM_FREIGHTAMT,
+                PayflowConstants.PARAM_HANDLINGAMT, PayflowConstants.PARAM_ITEMAMT, PayflowConstants.PARAM_COMMENT1,
+                PayflowConstants.PARAM_ORDERDESC);
+    }
+
     private void initErrorContext() {
         if (billTo != null) {
             billTo.setContext(getContext());
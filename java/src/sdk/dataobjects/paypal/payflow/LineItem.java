@@ -37,6 +37,84 @@ package paypal.payflow;
 
 public final class LineItem extends BaseRequestDataObject {
 
+    /**
+     * Parameter names of the line item fields, by line item number.
+     */
+    protected static final IndexedKeyTable KEYS = new IndexedKeyTable(new String[]{
+            PayflowConstants.PARAM_L_AMT,
+            PayflowConstants.PARAM_L_COST,
+            PayflowConstants.PARAM_L_FREIGHTAMT,
+            PayflowConstants.PARAM_L_HANDLINGAMT,
+            PayflowConstants.PARAM_L_TAXAMT,
+            PayflowConstants.PARAM_L_UOM,
+            PayflowConstants.PARAM_L_PICKUPSTREET,
+            PayflowConstants.PARAM_L_PICKUPSTATE,
+            PayflowConstants.PARAM_L_PICKUPCOUNTRY,
+            PayflowConstants.PARAM_L_PICKUPCITY,
+            PayflowConstants.PARAM_L_PICKUPZIP,
+            PayflowConstants.PARAM_L_DESC,
+            PayflowConstants.PARAM_L_DISCOUNT,
+            PayflowConstants.PARAM_L_MANUFACTURER,
+            PayflowConstants.PARAM_L_PRODCODE,
+            PayflowConstants.PARAM_L_ITEMNUMBER,
+            PayflowConstants.PARAM_L_QTY,
+            PayflowConstants.PARAM_L_SKU,
+            PayflowConstants.PARAM_L_TAXRATE,
+            PayflowConstants.PARAM_L_TAXTYPE,
+            PayflowConstants.PARAM_L_TYPE,
+            PayflowConstants.PARAM_L_COMMCODE,
+            PayflowConstants.PARAM_L_TRACKINGNUM,
+            PayflowConstants.PARAM_L_COSTCENTERNUM,
+            PayflowConstants.PARAM_L_CATALOGNUM,
+            PayflowConstants.PARAM_L_UPC,
+            PayflowConstants.PARAM_L_UNSPSCCODE,
+            PayflowConstants.PARAM_L_ALTTAXAMT,
+            PayflowConstants.PARAM_L_ALTTAXID,
+            PayflowConstants.PARAM_L_ALTTAXRATE,
+            PayflowConstants.PARAM_L_CARRIERSERVICESLEVELCODE,
+            PayflowConstants.PARAM_L_EXTAMT});
+
+    /**
+     * Positions of the fields in KEYS.
+     */
+    protected static final int KEY_AMT = 0;
+    protected static final int KEY_COST = 1;
+    protected static final int KEY_FREIGHTAMT = 2;
+    protected static final int KEY_HANDLINGAMT = 3;
+    protected static final int KEY_TAXAMT = 4;
+    protected static final int KEY_UOM = 5;
+    protected static final int KEY_PICKUPSTREET = 6;
+    protected static final int KEY_PICKUPSTATE = 7;
+    protected static final int KEY_PICKUPCOUNTRY = 8;
+    protected static final int KEY_PICKUPCITY = 9;
+    protected static final int KEY_PICKUPZIP = 10;
+    protected static final int KEY_DESC = 11;
+    protected static final int KEY_DISCOUNT = 12;
+    protected static final int KEY_MANUFACTURER = 13;
+    protected static final int KEY_PRODCODE = 14;
+    protected static final int KEY_ITEMNUMBER = 15;
+    protected static final int KEY_QTY = 16;
+    protected static final int KEY_SKU = 17;
+    protected static final int KEY_TAXRATE = 18;
+    protected static final int KEY_TAXTYPE = 19;
+    protected static final int KEY_TYPE = 20;
+    protected static final int KEY_COMMCODE = 21;
+    protected static final int KEY_TRACKINGNUM = 22;
+    protected static final int KEY_COSTCENTERNUM = 23;
+    protected static final int KEY_CATALOGNUM = 24;
+    protected static final int KEY_UPC = 25;
+    protected static final int KEY_UNSPSCCODE = 26;
+    protected static final int KEY_ALTTAXAMT = 27;
+    protected static final int KEY_ALTTAXID = 28;
+    protected static final int KEY_ALTTAXRATE = 29;
+    protected static final int KEY_CARRIERSERVICESLEVELCODE = 30;
+    protected static final int KEY_EXTAMT = 31;
+
+    /**
+     * Number of fields in KEYS.
+     */
+    protected static final int KEY_COUNT = 32;
+
     private Currency amt;
     private Currency cost;
     private Currency freightAmt;
@@ -831,47 +909,43 @@ public final class LineItem extends BaseRequestDataObject {
     protected void generateRequest(int Index) {
 
         try {
-            String IndexVal = String.valueOf(Index);
-
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_AMT + IndexVal, amt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_COST + IndexVal, cost));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_FREIGHTAMT + IndexVal, freightAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_HANDLINGAMT + IndexVal, handlingAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_TAXAMT + IndexVal, taxAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_UOM + IndexVal, uom));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_PICKUPSTREET + IndexVal, pickupStreet));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_PICKUPSTATE + IndexVal, pickupState));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_PICKUPCOUNTRY + IndexVal, pickupCountry));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_PICKUPCITY + IndexVal, pickupCity));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_PICKUPZIP + IndexVal, pickupZip));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_DESC + IndexVal, desc));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_DISCOUNT + IndexVal, discount));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_MANUFACTURER + IndexVal, manufacturer));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_PRODCODE + IndexVal, prodCode));
-
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_ITEMNUMBER + IndexVal, itemNumber));
+            String[] keys = KEYS.getKeys(Index);
+
+            super.appendToRequest(keys[KEY_AMT], amt);
+            super.appendToRequest(keys[KEY_COST], cost);
+            super.appendToRequest(keys[KEY_FREIGHTAMT], freightAmt);
+            super.appendToRequest(keys[KEY_HANDLINGAMT], handlingAmt);
+            super.appendToRequest(keys[KEY_TAXAMT], taxAmt);
+            super.appendToRequest(keys[KEY_UOM], uom);
+            super.appendToRequest(keys[KEY_PICKUPSTREET], pickupStreet);
+            super.appendToRequest(keys[KEY_PICKUPSTATE], pickupState);
+            super.appendToRequest(keys[KEY_PICKUPCOUNTRY], pickupCountry);
+            super.appendToRequest(keys[KEY_PICKUPCITY], pickupCity);
+            super.appendToRequest(keys[KEY_PICKUPZIP], pickupZip);
+            super.appendToRequest(keys[KEY_DESC], desc);
+            super.appendToRequest(keys[KEY_DISCOUNT], discount);
+            super.appendToRequest(keys[KEY_MANUFACTURER], manufacturer);
+            super.appendToRequest(keys[KEY_PRODCODE], prodCode);
+
+            super.appendToRequest(keys[KEY_ITEMNUMBER], itemNumber);
             if (qty != PayflowConstants.INVALID_NUMBER) {
-                super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_QTY + IndexVal, String.valueOf(qty)));
+                super.appendToRequest(keys[KEY_QTY], String.valueOf(qty));
             }
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_SKU + IndexVal, sku));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_TAXRATE + IndexVal, taxRate));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_TAXTYPE + IndexVal, taxType));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_TYPE + IndexVal, type));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_COMMCODE + IndexVal, commCode));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_TRACKINGNUM + IndexVal, trackingNum));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_COSTCENTERNUM + IndexVal, costCenterNum));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_CATALOGNUM + IndexVal, catalogNum));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_UPC + IndexVal, upc));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_UNSPSCCODE + IndexVal, unspscCode));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_ALTTAXAMT + IndexVal, altTaxAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_ALTTAXID + IndexVal, altTaxId));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_ALTTAXRATE + IndexVal, altTaxRate));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_CARRIERSERVICESLEVELCODE + IndexVal, carrierServiceLevelCode));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_L_EXTAMT+ IndexVal,extAmt));
-
-
-
-
+            super.appendToRequest(keys[KEY_SKU], sku);
+            super.appendToRequest(keys[KEY_TAXRATE], taxRate);
+            super.appendToRequest(keys[KEY_TAXTYPE], taxType);
+            super.appendToRequest(keys[KEY_TYPE], type);
+            super.appendToRequest(keys[KEY_COMMCODE], commCode);
+            super.appendToRequest(keys[KEY_TRACKINGNUM], trackingNum);
+            super.appendToRequest(keys[KEY_COSTCENTERNUM], costCenterNum);
+            super.appendToRequest(keys[KEY_CATALOGNUM], catalogNum);
+            super.appendToRequest(keys[KEY_UPC], upc);
+            super.appendToRequest(keys[KEY_UNSPSCCODE], unspscCode);
+            super.appendToRequest(keys[KEY_ALTTAXAMT], altTaxAmt);
+            super.appendToRequest(keys[KEY_ALTTAXID], altTaxId);
+            super.appendToRequest(keys[KEY_ALTTAXRATE], altTaxRate);
+            super.appendToRequest(keys[KEY_CARRIERSERVICESLEVELCODE], carrierServiceLevelCode);
+            super.appendToRequest(keys[KEY_EXTAMT], extAmt);
         } catch (Exception ex) {
             ErrorObject err = new ErrorObject(PayflowConstants.SEVERITY_FATAL, "", ex.toString());
             if (getContext() != null) {
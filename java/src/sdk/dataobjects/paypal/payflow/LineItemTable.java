@@ -0,0 +1,600 @@
+package paypal.payflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class holds a large number of line items in columns.
+ * <p>Every LineItem is an object with one field per line item parameter, most of
+ * them unused in a typical order. LineItemTable keeps one array per parameter instead,
+ * created only when some line item uses the parameter:</p>
+ * <ul>
+ * <li>amounts are kept as a long number of minor units and a scale, so 8.95 is kept as 895
+ * with scale 2,</li>
+ * <li>text values and currency codes are kept as codes into a dictionary shared by all
+ * columns, so a value used by many line items is held once,</li>
+ * <li>the quantity is kept as a long.</li>
+ * </ul>
+ * <p>Line items are added by copying the values of a LineItem, which can then be changed
+ * and added again. Changes made to a LineItem after it was added are not seen by the table.
+ * The request is encoded straight from the columns, without creating a LineItem per item.</p>
+ * <p>Following example shows how to use the line item table.</p>
+ * <p>
+ * .................
+ * //inv is the Invoice object.
+ * .................
+ * LineItemTable items = new LineItemTable();
+ * inv.setLineItemTable(items);
+ * LineItem item = new LineItem();
+ * for (int i = 0; i &lt; 2000; i++) {
+ * item.setAmt(new Currency(new Double(8.95), "USD"));
+ * item.setDesc("Line " + i);
+ * item.setQty(1);
+ * // Copies the values, item is reused for the next line.
+ * inv.addLineItem(item);
+ * }
+ * ..................
+ */
+public final class LineItemTable extends BaseRequestDataObject {
+
+    /**
+     * Number of line items the columns are created with.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Most digits an amount kept as minor units can have.
+     */
+    private static final int MAX_AMOUNT_DIGITS = 18;
+
+    /**
+     * Scale value of an amount that is not set.
+     */
+    private static final byte SCALE_NULL = 0;
+
+    /**
+     * Scale value of an amount kept as text, for amounts which are not plain decimals.
+     * The units column then holds the dictionary code of the text.
+     */
+    private static final byte SCALE_TEXT = -1;
+
+    /**
+     * Dictionary code of a text value that is not set.
+     */
+    private static final int CODE_NULL = 0;
+
+    /**
+     * Type of each field in LineItem.KEYS.
+     */
+    private static final int TYPE_STRING = 0;
+    private static final int TYPE_CURRENCY = 1;
+    private static final int TYPE_QTY = 2;
+
+    /**
+     * Types of the fields, by LineItem.KEYS position.
+     */
+    private static final int[] FIELD_TYPES = new int[LineItem.KEY_COUNT];
+
+    static {
+        FIELD_TYPES[LineItem.KEY_AMT] = TYPE_CURRENCY;
+        FIELD_TYPES[LineItem.KEY_COST] = TYPE_CURRENCY;
+        FIELD_TYPES[LineItem.KEY_FREIGHTAMT] = TYPE_CURRENCY;
+        FIELD_TYPES[LineItem.KEY_HANDLINGAMT] = TYPE_CURRENCY;
+        FIELD_TYPES[LineItem.KEY_TAXAMT] = TYPE_CURRENCY;
+        FIELD_TYPES[LineItem.KEY_DISCOUNT] = TYPE_CURRENCY;
+        FIELD_TYPES[LineItem.KEY_TAXRATE] = TYPE_CURRENCY;
+        FIELD_TYPES[LineItem.KEY_QTY] = TYPE_QTY;
+    }
+
+    /**
+     * Number of line items.
+     */
+    private int mSize;
+
+    /**
+     * Length of the columns.
+     */
+    private int mCapacity;
+
+    /**
+     * Amounts in minor units and quantities, by field. Null for unused fields.
+     */
+    private final long[][] mUnits = new long[LineItem.KEY_COUNT][];
+
+    /**
+     * Amount scales plus one, by field. Null for unused fields.
+     */
+    private final byte[][] mScales = new byte[LineItem.KEY_COUNT][];
+
+    /**
+     * Dictionary codes of text values and of currency codes, by field. Null for unused fields.
+     */
+    private final int[][] mCodes = new int[LineItem.KEY_COUNT][];
+
+    /**
+     * Dictionary values, the value of code n at n - 1.
+     */
+    private final ArrayList<String> mDictionary = new ArrayList<String>();
+
+    /**
+     * Dictionary value to its Integer code.
+     */
+    private final HashMap<String, Integer> mDictionaryCodes = new HashMap<String, Integer>();
+
+    /**
+     * Scratch buffer amounts are rendered into.
+     */
+    private final StringBuilder mScratch = new StringBuilder(MAX_AMOUNT_DIGITS + 2);
+
+    /**
+     * Constructor. This is a default constructor which does not take any parameters.
+     */
+    public LineItemTable() {
+    }
+
+    /**
+     * Gets the number of line items.
+     *
+     * @return size int
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Adds a copy of a line item at the end of the table.
+     *
+     * @param item LineItem : its values are copied, so the object can be reused.
+     */
+    public void addLineItem(LineItem item) {
+        if (mSize == mCapacity) {
+            grow();
+        }
+        int row = mSize++;
+        putCurrency(LineItem.KEY_AMT, row, item.getAmt());
+        putCurrency(LineItem.KEY_COST, row, item.getCost());
+        putCurrency(LineItem.KEY_FREIGHTAMT, row, item.getFreightAmt());
+        putCurrency(LineItem.KEY_HANDLINGAMT, row, item.getHandlingAmt());
+        putCurrency(LineItem.KEY_TAXAMT, row, item.getTaxAmt());
+        putString(LineItem.KEY_UOM, row, item.getUom());
+        putString(LineItem.KEY_PICKUPSTREET, row, item.getPickupStreet());
+        putString(LineItem.KEY_PICKUPSTATE, row, item.getPickupState());
+        putString(LineItem.KEY_PICKUPCOUNTRY, row, item.getPickupCountry());
+        putString(LineItem.KEY_PICKUPCITY, row, item.getPickupCity());
+        putString(LineItem.KEY_PICKUPZIP, row, item.getPickupZip());
+        putString(LineItem.KEY_DESC, row, item.getDesc());
+        putCurrency(LineItem.KEY_DISCOUNT, row, item.getDiscount());
+        putString(LineItem.KEY_MANUFACTURER, row, item.getManufacturer());
+        putString(LineItem.KEY_PRODCODE, row, item.getProdCode());
+        putString(LineItem.KEY_ITEMNUMBER, row, item.getItemNumber());
+        putQty(row, item.getQty());
+        putString(LineItem.KEY_SKU, row, item.getSku());
+        putCurrency(LineItem.KEY_TAXRATE, row, item.getTaxRate());
+        putString(LineItem.KEY_TAXTYPE, row, item.getTaxType());
+        putString(LineItem.KEY_TYPE, row, item.getType());
+        putString(LineItem.KEY_COMMCODE, row, item.getCommCode());
+        putString(LineItem.KEY_TRACKINGNUM, row, item.getTrackingNum());
+        putString(LineItem.KEY_COSTCENTERNUM, row, item.getCostCenterNum());
+        putString(LineItem.KEY_CATALOGNUM, row, item.getCatalogNum());
+        putString(LineItem.KEY_UPC, row, item.getUpc());
+        putString(LineItem.KEY_UNSPSCCODE, row, item.getUnspscCode());
+        putString(LineItem.KEY_ALTTAXAMT, row, item.getAltTaxAmt());
+        putString(LineItem.KEY_ALTTAXID, row, item.getAltTaxId());
+        putString(LineItem.KEY_ALTTAXRATE, row, item.getAltTaxRate());
+        putString(LineItem.KEY_CARRIERSERVICESLEVELCODE, row, item.getCarrierServiceLevelCode());
+        putString(LineItem.KEY_EXTAMT, row, item.getExtAmt());
+    }
+
+    /**
+     * Gets a line item as a new LineItem object.
+     * <p>Amounts are returned as Currency objects holding the same value and currency code
+     * as the amount sent in the request. Changes made to the returned object are not
+     * seen by the table.</p>
+     *
+     * @param index int : index of the line item.
+     * @return item LineItem
+     */
+    public LineItem getLineItem(int index) {
+        checkIndex(index);
+        LineItem item = new LineItem();
+        item.setAmt(getCurrency(LineItem.KEY_AMT, index));
+        item.setCost(getCurrency(LineItem.KEY_COST, index));
+        item.setFreightAmt(getCurrency(LineItem.KEY_FREIGHTAMT, index));
+        item.setHandlingAmt(getCurrency(LineItem.KEY_HANDLINGAMT, index));
+        item.setTaxAmt(getCurrency(LineItem.KEY_TAXAMT, index));
+        item.setUom(getString(LineItem.KEY_UOM, index));
+        item.setPickupStreet(getString(LineItem.KEY_PICKUPSTREET, index));
+        item.setPickupState(getString(LineItem.KEY_PICKUPSTATE, index));
+        item.setPickupCountry(getString(LineItem.KEY_PICKUPCOUNTRY, index));
+        item.setPickupCity(getString(LineItem.KEY_PICKUPCITY, index));
+        item.setPickupZip(getString(LineItem.KEY_PICKUPZIP, index));
+        item.setDesc(getString(LineItem.KEY_DESC, index));
+        item.setDiscount(getCurrency(LineItem.KEY_DISCOUNT, index));
+        item.setManufacturer(getString(LineItem.KEY_MANUFACTURER, index));
+        item.setProdCode(getString(LineItem.KEY_PRODCODE, index));
+        item.setItemNumber(getString(LineItem.KEY_ITEMNUMBER, index));
+        item.setQty(getQty(index));
+        item.setSku(getString(LineItem.KEY_SKU, index));
+        item.setTaxRate(getCurrency(LineItem.KEY_TAXRATE, index));
+        item.setTaxType(getString(LineItem.KEY_TAXTYPE, index));
+        item.setType(getString(LineItem.KEY_TYPE, index));
+        item.setCommCode(getString(LineItem.KEY_COMMCODE, index));
+        item.setTrackingNum(getString(LineItem.KEY_TRACKINGNUM, index));
+        item.setCostCenterNum(getString(LineItem.KEY_COSTCENTERNUM, index));
+        item.setCatalogNum(getString(LineItem.KEY_CATALOGNUM, index));
+        item.setUpc(getString(LineItem.KEY_UPC, index));
+        item.setUnspscCode(getString(LineItem.KEY_UNSPSCCODE, index));
+        item.setAltTaxAmt(getString(LineItem.KEY_ALTTAXAMT, index));
+        item.setAltTaxId(getString(LineItem.KEY_ALTTAXID, index));
+        item.setAltTaxRate(getString(LineItem.KEY_ALTTAXRATE, index));
+        item.setCarrierServiceLevelCode(getString(LineItem.KEY_CARRIERSERVICESLEVELCODE, index));
+        item.setExtAmt(getString(LineItem.KEY_EXTAMT, index));
+        return item;
+    }
+
+    /**
+     * Removes a line item. The line items after it move up by one.
+     *
+     * @param index int : index of the line item to be removed.
+     */
+    public void removeLineItem(int index) {
+        checkIndex(index);
+        int moved = mSize - index - 1;
+        for (int key = 0; key < LineItem.KEY_COUNT; key++) {
+            if (mUnits[key] != null) {
+                System.arraycopy(mUnits[key], index + 1, mUnits[key], index, moved);
+                mUnits[key][mSize - 1] = FIELD_TYPES[key] == TYPE_QTY ? PayflowConstants.INVALID_NUMBER : 0;
+            }
+            if (mScales[key] != null) {
+                System.arraycopy(mScales[key], index + 1, mScales[key], index, moved);
+                mScales[key][mSize - 1] = SCALE_NULL;
+            }
+            if (mCodes[key] != null) {
+                System.arraycopy(mCodes[key], index + 1, mCodes[key], index, moved);
+                mCodes[key][mSize - 1] = CODE_NULL;
+            }
+        }
+        mSize--;
+    }
+
+    /**
+     * Removes all the line items and releases the columns and the dictionary.
+     */
+    public void removeAllLineItems() {
+        Arrays.fill(mUnits, null);
+        Arrays.fill(mScales, null);
+        Arrays.fill(mCodes, null);
+        mDictionary.clear();
+        mDictionaryCodes.clear();
+        mSize = 0;
+        mCapacity = 0;
+    }
+
+    /**
+     * Encodes all the line items, numbered from 0, straight from the columns.
+     */
+    protected void generateRequest() {
+        try {
+            StringBuilder request = getRequestBuffer();
+            for (int row = 0; row < mSize; row++) {
+                String[] keys = LineItem.KEYS.getKeys(row);
+                for (int key = 0; key < LineItem.KEY_COUNT; key++) {
+                    switch (FIELD_TYPES[key]) {
+                        case TYPE_CURRENCY:
+                            appendCurrency(request, keys[key], key, row);
+                            break;
+                        case TYPE_QTY:
+                            if (mUnits[key] != null && mUnits[key][row] != PayflowConstants.INVALID_NUMBER) {
+                                mScratch.setLength(0);
+                                mScratch.append(mUnits[key][row]);
+                                appendScratch(request, keys[key]);
+                            }
+                            break;
+                        default:
+                            if (mCodes[key] != null && mCodes[key][row] != CODE_NULL) {
+                                super.appendToRequest(keys[key], decode(mCodes[key][row]));
+                            }
+                            break;
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            ErrorObject err = new ErrorObject(PayflowConstants.SEVERITY_FATAL, "", ex.toString());
+            if (getContext() != null) {
+                getContext().addError(err);
+            }
+        }
+    }
+
+    /**
+     * Appends an amount as a name value pair.
+     *
+     * @param request StringBuilder
+     * @param name    String
+     * @param key     int
+     * @param row     int
+     */
+    private void appendCurrency(StringBuilder request, String name, int key, int row) {
+        if (mScales[key] == null) {
+            return;
+        }
+        byte scale = mScales[key][row];
+        if (scale == SCALE_NULL) {
+            return;
+        }
+        if (scale == SCALE_TEXT) {
+            super.appendToRequest(name, decode((int) mUnits[key][row]));
+        } else {
+            mScratch.setLength(0);
+            formatAmount(mScratch, mUnits[key][row], scale - 1);
+            appendScratch(request, name);
+        }
+    }
+
+    /**
+     * Appends the scratch buffer as the value of a name value pair. The scratch buffer only
+     * holds digits, '-' and '.', so its length is its length in characters.
+     *
+     * @param request StringBuilder
+     * @param name    String
+     */
+    private void appendScratch(StringBuilder request, String name) {
+        if (request.length() > 0) {
+            request.append('&');
+        }
+        request.append(name)
+                .append('[')
+                .append(mScratch.length())
+                .append(']')
+                .append('=')
+                .append(mScratch);
+    }
+
+    /**
+     * Keeps an amount. Amounts which are sent as plain decimals are kept as minor units,
+     * others as text.
+     *
+     * @param key      int
+     * @param row      int
+     * @param currency Currency
+     */
+    private void putCurrency(int key, int row, Currency currency) {
+        if (currency == null) {
+            return;
+        }
+        if (mScales[key] == null) {
+            mUnits[key] = new long[mCapacity];
+            mScales[key] = new byte[mCapacity];
+            mCodes[key] = new int[mCapacity];
+        }
+        String text = currency.toString();
+        mCodes[key][row] = encode(currency.getCurrencyCode());
+        int scale = parseScale(text);
+        if (scale >= 0) {
+            long units = parseUnits(text);
+            mScratch.setLength(0);
+            formatAmount(mScratch, units, scale);
+            if (text.contentEquals(mScratch)) {
+                mUnits[key][row] = units;
+                mScales[key][row] = (byte) (scale + 1);
+                return;
+            }
+        }
+        mUnits[key][row] = encode(text);
+        mScales[key][row] = SCALE_TEXT;
+    }
+
+    /**
+     * Gets an amount as a Currency.
+     *
+     * @param key int
+     * @param row int
+     * @return currency Currency, null when the amount is not set.
+     */
+    private Currency getCurrency(int key, int row) {
+        if (mScales[key] == null || mScales[key][row] == SCALE_NULL) {
+            return null;
+        }
+        String text;
+        if (mScales[key][row] == SCALE_TEXT) {
+            text = decode((int) mUnits[key][row]);
+        } else {
+            mScratch.setLength(0);
+            formatAmount(mScratch, mUnits[key][row], mScales[key][row] - 1);
+            text = mScratch.toString();
+        }
+        Double value;
+        try {
+            value = Double.valueOf(text);
+        } catch (NumberFormatException ex) {
+            value = null;
+        }
+        return new Currency(value, decode(mCodes[key][row]));
+    }
+
+    /**
+     * Keeps a text value.
+     *
+     * @param key   int
+     * @param row   int
+     * @param value String
+     */
+    private void putString(int key, int row, String value) {
+        if (value == null) {
+            return;
+        }
+        if (mCodes[key] == null) {
+            mCodes[key] = new int[mCapacity];
+        }
+        mCodes[key][row] = encode(value);
+    }
+
+    /**
+     * Gets a text value.
+     *
+     * @param key int
+     * @param row int
+     * @return value String
+     */
+    private String getString(int key, int row) {
+        return mCodes[key] == null ? null : decode(mCodes[key][row]);
+    }
+
+    /**
+     * Keeps the quantity.
+     *
+     * @param row int
+     * @param qty long
+     */
+    private void putQty(int row, long qty) {
+        if (qty == PayflowConstants.INVALID_NUMBER) {
+            return;
+        }
+        if (mUnits[LineItem.KEY_QTY] == null) {
+            mUnits[LineItem.KEY_QTY] = new long[mCapacity];
+            Arrays.fill(mUnits[LineItem.KEY_QTY], PayflowConstants.INVALID_NUMBER);
+        }
+        mUnits[LineItem.KEY_QTY][row] = qty;
+    }
+
+    /**
+     * Gets the quantity.
+     *
+     * @param row int
+     * @return qty long
+     */
+    private long getQty(int row) {
+        long[] column = mUnits[LineItem.KEY_QTY];
+        return column == null ? PayflowConstants.INVALID_NUMBER : column[row];
+    }
+
+    /**
+     * Doubles the length of the columns in use.
+     */
+    private void grow() {
+        int capacity = mCapacity == 0 ? INITIAL_CAPACITY : mCapacity * 2;
+        for (int key = 0; key < LineItem.KEY_COUNT; key++) {
+            if (mUnits[key] != null) {
+                mUnits[key] = Arrays.copyOf(mUnits[key], capacity);
+                if (FIELD_TYPES[key] == TYPE_QTY) {
+                    Arrays.fill(mUnits[key], mCapacity, capacity, PayflowConstants.INVALID_NUMBER);
+                }
+            }
+            if (mScales[key] != null) {
+                mScales[key] = Arrays.copyOf(mScales[key], capacity);
+            }
+            if (mCodes[key] != null) {
+                mCodes[key] = Arrays.copyOf(mCodes[key], capacity);
+            }
+        }
+        mCapacity = capacity;
+    }
+
+    /**
+     * Gets the dictionary code of a value, adding the value when it is new.
+     *
+     * @param value String
+     * @return code int
+     */
+    private int encode(String value) {
+        if (value == null) {
+            return CODE_NULL;
+        }
+        Integer code = mDictionaryCodes.get(value);
+        if (code == null) {
+            mDictionary.add(value);
+            code = Integer.valueOf(mDictionary.size());
+            mDictionaryCodes.put(value, code);
+        }
+        return code.intValue();
+    }
+
+    /**
+     * Gets the value of a dictionary code.
+     *
+     * @param code int
+     * @return value String
+     */
+    private String decode(int code) {
+        return code == CODE_NULL ? null : mDictionary.get(code - 1);
+    }
+
+    /**
+     * Checks a line item index.
+     *
+     * @param index int
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+    }
+
+    /**
+     * Gets the number of decimal places of an amount written as an optional '-', digits and
+     * optionally '.' followed by digits.
+     *
+     * @param text String
+     * @return scale int, -1 when the amount is not written that way or has too many digits.
+     */
+    private static int parseScale(String text) {
+        int length = text.length();
+        int start = length > 0 && text.charAt(0) == '-' ? 1 : 0;
+        int dot = -1;
+        int digits = 0;
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && dot < 0) {
+                dot = i;
+            } else if (c >= '0' && c <= '9') {
+                digits++;
+            } else {
+                return -1;
+            }
+        }
+        if (digits == 0 || digits > MAX_AMOUNT_DIGITS || dot == start || dot == length - 1) {
+            return -1;
+        }
+        return dot < 0 ? 0 : length - dot - 1;
+    }
+
+    /**
+     * Gets the minor units of an amount accepted by parseScale.
+     *
+     * @param text String
+     * @return units long
+     */
+    private static long parseUnits(String text) {
+        long units = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                units = units * 10 + (c - '0');
+            }
+        }
+        return text.charAt(0) == '-' ? -units : units;
+    }
+
+    /**
+     * Writes an amount kept as minor units.
+     *
+     * @param out   StringBuilder
+     * @param units long
+     * @param scale int
+     */
+    private static void formatAmount(StringBuilder out, long units, int scale) {
+        if (units < 0) {
+            out.append('-');
+            units = -units;
+        }
+        int start = out.length();
+        out.append(units);
+        if (scale > 0) {
+            while (out.length() - start <= scale) {
+                out.insert(start, '0');
+            }
+            out.insert(out.length() - scale, '.');
+        }
+    }
+}
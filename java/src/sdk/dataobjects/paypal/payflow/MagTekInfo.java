@@ -42,25 +42,25 @@ public final class MagTekInfo extends BaseRequestDataObject {
 
     protected void generateRequest() {
         try {
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_ENCMP, encMP));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_ENCRYPTIONBLOCKTYPE, encryptionBlockType));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_ENCTRACK1, encTrack1));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_ENCTRACK2, encTrack2));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_ENCTRACK3, encTrack3));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_KSN, ksn));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_MAGTEKCARDTYPE, magtekCardType));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_REGISTEREDBY, registeredBy));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_SWIPEDECRHOST, swipedECRHost));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_DEVICESN, deviceSN));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_MPSTATUS, mpStatus));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_PAN4, pan4));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_MERCHANTID, merchantId));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_PCODE, pCode));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_AUTHVALUE1, authValue1));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_AUTHVALUE2, authValue2));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_AUTHVALUE3, authValue3));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_MAGTEKUSERNAME, magtekUserName));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.MAGTEK_PARAM_MAGTEKPWD, magtekPassword));
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_ENCMP, encMP);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_ENCRYPTIONBLOCKTYPE, encryptionBlockType);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_ENCTRACK1, encTrack1);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_ENCTRACK2, encTrack2);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_ENCTRACK3, encTrack3);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_KSN, ksn);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_MAGTEKCARDTYPE, magtekCardType);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_REGISTEREDBY, registeredBy);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_SWIPEDECRHOST, swipedECRHost);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_DEVICESN, deviceSN);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_MPSTATUS, mpStatus);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_PAN4, pan4);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_MERCHANTID, merchantId);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_PCODE, pCode);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_AUTHVALUE1, authValue1);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_AUTHVALUE2, authValue2);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_AUTHVALUE3, authValue3);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_MAGTEKUSERNAME, magtekUserName);
+            appendToRequest(PayflowConstants.MAGTEK_PARAM_MAGTEKPWD, magtekPassword);
 
 
         } catch (Exception ex) {
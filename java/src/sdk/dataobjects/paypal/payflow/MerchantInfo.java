@@ -31,6 +31,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
     private String merchantLocationId;
     private String merchantId;
     private String merchantContactInfo;
+    private RequestFragment fragment;
 
     /**
      * Constructor
@@ -41,21 +42,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
 
     protected void generateRequest() {
         try {
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTNAME, merchantName));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTSTREET, merchantStreet));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTCITY, merchantCity));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTSTATE, merchantState));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTZIP, merchantZip));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTCOUNTRYCODE, merchantCountryCode));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTURL, merchantUrl));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTVATNUM, merchantVatNum));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTINVOICENUM, merchantInvoiceNum));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTLOCATIONID, merchantLocationId));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTID, merchantId));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHANTCONTACTINFO, merchantContactInfo));
-
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHDESCR, merchDescr));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MERCHSVC, merchSvc));
+            compile().appendTo(getRequestBuffer());
         } catch (Exception ex) {
             ErrorObject err = new ErrorObject(PayflowConstants.SEVERITY_FATAL, "", ex.toString());
             if (getContext() != null) {
@@ -64,6 +51,37 @@ public final class MerchantInfo extends BaseRequestDataObject {
         }
     }
 
+    /**
+     * Encodes the merchant details once. The fragment is kept until one of the setters
+     * is called, so transactions that reuse this MerchantInfo do not encode it again.
+     * A MerchantInfo shared between threads must not be changed while in use.
+     *
+     * @return fragment RequestFragment
+     */
+    public RequestFragment compile() {
+        RequestFragment compiled = fragment;
+        if (compiled == null) {
+            StringBuilder request = new StringBuilder();
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTNAME, merchantName);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTSTREET, merchantStreet);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTCITY, merchantCity);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTSTATE, merchantState);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTZIP, merchantZip);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTCOUNTRYCODE, merchantCountryCode);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTURL, merchantUrl);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTVATNUM, merchantVatNum);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTINVOICENUM, merchantInvoiceNum);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTLOCATIONID, merchantLocationId);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTID, merchantId);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHANTCONTACTINFO, merchantContactInfo);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHDESCR, merchDescr);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_MERCHSVC, merchSvc);
+            compiled = new RequestFragment(request.toString());
+            fragment = compiled;
+        }
+        return compiled;
+    }
+
     /**
      * Gets the Merchant's Name.
      *
@@ -83,6 +101,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantName(String merchantName) {
         this.merchantName = merchantName;
+        fragment = null;
     }
 
     /**
@@ -103,6 +122,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantStreet(String merchantStreet) {
         this.merchantStreet = merchantStreet;
+        fragment = null;
     }
 
     /**
@@ -123,6 +143,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantCity(String merchantCity) {
         this.merchantCity = merchantCity;
+        fragment = null;
     }
 
     /**
@@ -143,6 +164,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantState(String merchantState) {
         this.merchantState = merchantState;
+        fragment = null;
     }
 
     /**
@@ -163,6 +185,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantZip(String merchantZip) {
         this.merchantZip = merchantZip;
+        fragment = null;
     }
 
     /**
@@ -182,6 +205,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantCountryCode(String merchantCountryCode) {
         this.merchantCountryCode = merchantCountryCode;
+        fragment = null;
     }
 
     /**
@@ -201,6 +225,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantUrl(String merchantUrl) {
         this.merchantUrl = merchantUrl;
+        fragment = null;
     }
 
     /**
@@ -220,6 +245,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantVatNum(String merchantVatNum) {
         this.merchantVatNum = merchantVatNum;
+        fragment = null;
     }
 
     /**
@@ -238,6 +264,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantInvoiceNum(String merchantInvoiceNum) {
         this.merchantInvoiceNum = merchantInvoiceNum;
+        fragment = null;
     }
 
     /**
@@ -256,6 +283,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantLocationId(String merchantLocationId) {
         this.merchantLocationId = merchantLocationId;
+        fragment = null;
     }
 
     /**
@@ -274,6 +302,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantId(String merchantId) {
         this.merchantId = merchantId;
+        fragment = null;
     }
 
     /**
@@ -292,6 +321,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchantContactInfoId(String merchantContactInfo) {
         this.merchantContactInfo = merchantContactInfo;
+        fragment = null;
     }
 
 
@@ -327,6 +357,7 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchDescr(String merchDescr) {
         this.merchDescr = merchDescr;
+        fragment = null;
     }
 
     /**
@@ -347,5 +378,6 @@ public final class MerchantInfo extends BaseRequestDataObject {
      */
     public void setMerchSvc(String merchSvc) {
         this.merchSvc = merchSvc;
+        fragment = null;
     }
 }
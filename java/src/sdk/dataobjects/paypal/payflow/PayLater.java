@@ -39,14 +39,14 @@ public class PayLater extends BaseRequestDataObject {
     private String paypalCheckoutBtnType;
     private String profileAddressChangeDate;
     private String promoCodeOverride;
-    private ArrayList itemList;
+    private ArrayList<PayLaterLineItem> itemList;
 
     /**
      * Constructor. This is a default constructor which does not take any parameters.
      * *
      */
     public PayLater() {
-        itemList = new ArrayList();
+        itemList = new ArrayList<PayLaterLineItem>();
     }
 
     /**
@@ -118,7 +118,7 @@ public class PayLater extends BaseRequestDataObject {
      */
     private void generateItemRequest() {
         for (int index = 0; index < itemList.size(); index++) {
-            PayLaterLineItem item = (PayLaterLineItem) itemList.get(index);
+            PayLaterLineItem item = itemList.get(index);
             if (item != null) {
                 item.setContext(getContext());
                 item.setRequestBuffer(super.getRequestBuffer());
@@ -130,11 +130,11 @@ public class PayLater extends BaseRequestDataObject {
 
     protected void generateRequest() {
         try {
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPPINGMETHOD, shippingMethod));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PROMOCODEOVERRIDE, promoCodeOverride));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PROFILEADDRESSCHANGEDATE, profileAddressChangeDate));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PAYPALCHECKOUTBTNTYPE, paypalCheckoutBtnType));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PRODUCTCATEGORY, productCategory));
+            super.appendToRequest(PayflowConstants.PARAM_SHIPPINGMETHOD, shippingMethod);
+            super.appendToRequest(PayflowConstants.PARAM_PROMOCODEOVERRIDE, promoCodeOverride);
+            super.appendToRequest(PayflowConstants.PARAM_PROFILEADDRESSCHANGEDATE, profileAddressChangeDate);
+            super.appendToRequest(PayflowConstants.PARAM_PAYPALCHECKOUTBTNTYPE, paypalCheckoutBtnType);
+            super.appendToRequest(PayflowConstants.PARAM_PRODUCTCATEGORY, productCategory);
             if (itemList != null && itemList.size() > 0) {
                 generateItemRequest();
             }
@@ -27,6 +27,12 @@ package paypal.payflow;
 
 public final class PayLaterLineItem extends BaseRequestDataObject {
 
+    /**
+     * Parameter names of the PayLater line item fields, by line item number.
+     */
+    private static final IndexedKeyTable KEYS = new IndexedKeyTable(new String[]{
+            PayflowConstants.PARAM_PROMOCODE});
+
     private String promoCode;
 
     /**
@@ -81,8 +87,7 @@ public final class PayLaterLineItem extends BaseRequestDataObject {
     protected void generateRequest(int Index) {
 
         try {
-            String IndexVal = String.valueOf(Index);
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PROMOCODE + IndexVal, promoCode));
+            super.appendToRequest(KEYS.getKeys(Index)[0], promoCode);
         }
         catch (Exception ex) {
             ErrorObject err = new ErrorObject(PayflowConstants.SEVERITY_FATAL, "", ex.toString());
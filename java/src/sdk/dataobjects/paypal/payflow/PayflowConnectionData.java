@@ -182,13 +182,7 @@ public final class PayflowConnectionData extends BaseRequestDataObject {
         if (null == hostAddress || hostAddress.trim().length() == 0) {
             hostAddress = SDKProperties.getHostAddress();
             if (null == hostAddress || hostAddress.trim().length() == 0) {
-                String RespMessage = PayflowConstants.PARAM_RESULT
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorCodes.get(PayflowConstants.E_INIT_ERROR)
-                        + PayflowConstants.DELIMITER_NVP
-                        + PayflowConstants.PARAM_RESPMSG
-                        + PayflowConstants.SEPARATOR_NVP
-                        + PayflowConstants.CommErrorMessages.get(PayflowConstants.E_INIT_ERROR)
+                String RespMessage = CommErrorCatalog.getNvpResponse(PayflowConstants.E_INIT_ERROR)
                         + "host Address has not been initialised. Please make sure it is being set.";
 
                 ErrorObject error = new ErrorObject(PayflowConstants.SEVERITY_FATAL, PayflowConstants.EMPTY_STRING, RespMessage);
@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * This abstract class serves as base class for Card Payment devices.
  * This class can be extended to create a new payment device type.
@@ -206,12 +208,32 @@ abstract class PaymentCard extends PaymentDevice {
      */
     protected void generateRequest() {
         super.generateRequest();
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_EXPDATE, expDate));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CVV2, cvv2));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CARDSTART, cardStart));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CARDISSUE, cardIssue));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CARDONFILE, cardOnFile));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_TXID, txId));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PAR, par));
+        super.appendToRequest(PayflowConstants.PARAM_EXPDATE, expDate);
+        super.appendToRequest(PayflowConstants.PARAM_CVV2, cvv2);
+        super.appendToRequest(PayflowConstants.PARAM_CARDSTART, cardStart);
+        super.appendToRequest(PayflowConstants.PARAM_CARDISSUE, cardIssue);
+        super.appendToRequest(PayflowConstants.PARAM_CARDONFILE, cardOnFile);
+        super.appendToRequest(PayflowConstants.PARAM_TXID, txId);
+        super.appendToRequest(PayflowConstants.PARAM_PAR, par);
+    }
+
+    /**
+     * Writes the card number, expiry date, CVV2 and name on card into the XMLPay Card
+     * element. The MMYY expiry date is written in the YYYYMM form of XMLPay.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the elements can not be written.
+     */
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        writer.writeElement(PayflowConstants.XML_PARAM_CARDNUM, getAcct());
+        if (expDate != null && expDate.length() == 4) {
+            writer.writeElement(PayflowConstants.XML_PARAM_EXPDATE, "20" + expDate.substring(2) + expDate.substring(0, 2));
+        } else {
+            writer.writeElement(PayflowConstants.XML_PARAM_EXPDATE, expDate);
+        }
+        writer.writeElement(PayflowConstants.XML_PARAM_CVNUM, cvv2);
+        writer.writeElement(PayflowConstants.XML_PARAM_NAMEONCARD, getName());
+        writer.carry(PayflowConstants.PARAM_ACCT, PayflowConstants.PARAM_EXPDATE, PayflowConstants.PARAM_CVV2,
+                PayflowConstants.PARAM_NAME);
     }
 }
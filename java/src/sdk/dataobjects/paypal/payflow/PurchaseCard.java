@@ -30,7 +30,7 @@ public final class PurchaseCard extends PaymentCard {
      */
     protected void generateRequest() {
         super.generateRequest();
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_COMMCARD, commCard));
+        super.appendToRequest(PayflowConstants.PARAM_COMMCARD, commCard);
     }
 
 
@@ -407,24 +407,24 @@ public final class RecurringInfo extends BaseRequestDataObject {
 
     protected void generateRequest() {
         try {
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PROFILENAME, profileName));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_START, start));
+            super.appendToRequest(PayflowConstants.PARAM_PROFILENAME, profileName);
+            super.appendToRequest(PayflowConstants.PARAM_START, start);
 
             if (term != PayflowConstants.INVALID_NUMBER) {
-                super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_TERM, String.valueOf(term)));
+                super.appendToRequest(PayflowConstants.PARAM_TERM, String.valueOf(term));
             }
 
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PAYPERIOD, payPeriod));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_OPTIONALTRX, optionalTrx));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_OPTIONALTRXAMT, optionalTrxAmt));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_RETRYNUMDAYS, String.valueOf(retryNumDays)));
+            super.appendToRequest(PayflowConstants.PARAM_PAYPERIOD, payPeriod);
+            super.appendToRequest(PayflowConstants.PARAM_OPTIONALTRX, optionalTrx);
+            super.appendToRequest(PayflowConstants.PARAM_OPTIONALTRXAMT, optionalTrxAmt);
+            super.appendToRequest(PayflowConstants.PARAM_RETRYNUMDAYS, String.valueOf(retryNumDays));
             if (maxFailPayments != PayflowConstants.INVALID_NUMBER) {
-                super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_MAXFAILPAYMENTS, String.valueOf(maxFailPayments)));
+                super.appendToRequest(PayflowConstants.PARAM_MAXFAILPAYMENTS, String.valueOf(maxFailPayments));
             }
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ORIGPROFILEID, origProfileId));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PAYMENTHISTORY, paymentHistory));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PAYMENTNUM, paymentNum));
-            super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_FREQUENCY, frequency));
+            super.appendToRequest(PayflowConstants.PARAM_ORIGPROFILEID, origProfileId);
+            super.appendToRequest(PayflowConstants.PARAM_PAYMENTHISTORY, paymentHistory);
+            super.appendToRequest(PayflowConstants.PARAM_PAYMENTNUM, paymentNum);
+            super.appendToRequest(PayflowConstants.PARAM_FREQUENCY, frequency);
         }
         catch (Exception ex) {
             ErrorObject err = new ErrorObject(PayflowConstants.SEVERITY_FATAL, "", ex.toString());
@@ -1,6 +1,8 @@
 package paypal.payflow;
 
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Map;
 
 /**
  * Container class for all the messages related to
@@ -39,6 +41,122 @@ import java.util.Hashtable;
  */
 public final class RecurringResponse extends BaseResponseDataObject {
 
+    /**
+     * Parameter names of the response fields, in field order.
+     */
+    private static final ResponseFieldSchema FIELDS = new ResponseFieldSchema(new String[]{
+            PayflowConstants.PARAM_PROFILEID,
+            PayflowConstants.PARAM_RPREF,
+            PayflowConstants.PARAM_TRXPNREF,
+            PayflowConstants.PARAM_TRXRESULT,
+            PayflowConstants.PARAM_TRXRESPMSG,
+            PayflowConstants.PARAM_PROFILENAME,
+            PayflowConstants.PARAM_START,
+            PayflowConstants.PARAM_TERM,
+            PayflowConstants.PARAM_PAYPERIOD,
+            PayflowConstants.PARAM_STATUS,
+            PayflowConstants.PARAM_TENDER,
+            PayflowConstants.PARAM_PAYMENTSLEFT,
+            PayflowConstants.PARAM_NEXTPAYMENT,
+            PayflowConstants.PARAM_END,
+            PayflowConstants.PARAM_AGGREGATEAMT,
+            PayflowConstants.PARAM_AGGREGATEOPTIONALAMT,
+            PayflowConstants.PARAM_AMT,
+            PayflowConstants.PARAM_ACCT,
+            PayflowConstants.PARAM_EXPDATE,
+            PayflowConstants.PARAM_MAXFAILPAYMENTS,
+            PayflowConstants.PARAM_NUMFAILPAYMENTS,
+            PayflowConstants.PARAM_RETRYNUMDAYS,
+            PayflowConstants.PARAM_COMPANYNAME,
+            PayflowConstants.PARAM_NAME,
+            PayflowConstants.PARAM_FIRSTNAME,
+            PayflowConstants.PARAM_MIDDLENAME,
+            "LASTNAME",
+            "STREET",
+            "CITY",
+            "STATE",
+            "ZIP",
+            "EMAIL",
+            PayflowConstants.PARAM_COUNTRY,
+            PayflowConstants.PARAM_PHONENUM,
+            PayflowConstants.PARAM_SHIPTOFIRSTNAME,
+            PayflowConstants.PARAM_SHIPTOMIDDLENAME,
+            PayflowConstants.PARAM_SHIPTOLASTNAME,
+            PayflowConstants.PARAM_SHIPTOSTREET,
+            PayflowConstants.PARAM_SHIPTOCITY,
+            PayflowConstants.PARAM_SHIPTOSTATE,
+            PayflowConstants.PARAM_SHIPTOZIP,
+            PayflowConstants.PARAM_SHIPTOCOUNTRY,
+            PayflowConstants.PARAM_CREATIONDATE,
+            PayflowConstants.PARAM_LASTCHANGED,
+            PayflowConstants.PARAM_RPSTATE,
+            PayflowConstants.PARAM_NEXTPAYMENTNUM,
+            PayflowConstants.PARAM_FREQUENCY,
+            PayflowConstants.PARAM_CURRENCY,
+            // removed from the response, not read
+            PayflowConstants.PARAM_LASTNAME,
+            PayflowConstants.PARAM_P_RESULTn,
+            PayflowConstants.PARAM_P_PNREFn,
+            PayflowConstants.PARAM_P_TRANSTATEn,
+            PayflowConstants.PARAM_P_TENDERn,
+            PayflowConstants.PARAM_P_TRANSTIMEn,
+            PayflowConstants.PARAM_P_AMOUNTn
+    }, new String[]{
+            "LASTNAME"
+    });
+
+    /**
+     * Positions of the fields in FIELDS.
+     */
+    private static final int F_PROFILEID = 0;
+    private static final int F_RPREF = 1;
+    private static final int F_TRXPNREF = 2;
+    private static final int F_TRXRESULT = 3;
+    private static final int F_TRXRESPMSG = 4;
+    private static final int F_PROFILENAME = 5;
+    private static final int F_START = 6;
+    private static final int F_TERM = 7;
+    private static final int F_PAYPERIOD = 8;
+    private static final int F_STATUS = 9;
+    private static final int F_TENDER = 10;
+    private static final int F_PAYMENTSLEFT = 11;
+    private static final int F_NEXTPAYMENT = 12;
+    private static final int F_END = 13;
+    private static final int F_AGGREGATEAMT = 14;
+    private static final int F_AGGREGATEOPTIONALAMT = 15;
+    private static final int F_AMT = 16;
+    private static final int F_ACCT = 17;
+    private static final int F_EXPDATE = 18;
+    private static final int F_MAXFAILPAYMENTS = 19;
+    private static final int F_NUMFAILPAYMENTS = 20;
+    private static final int F_RETRYNUMDAYS = 21;
+    private static final int F_COMPANYNAME = 22;
+    private static final int F_NAME = 23;
+    private static final int F_FIRSTNAME = 24;
+    private static final int F_MIDDLENAME = 25;
+    private static final int F_LASTNAME = 26;
+    private static final int F_STREET = 27;
+    private static final int F_CITY = 28;
+    private static final int F_STATE = 29;
+    private static final int F_ZIP = 30;
+    private static final int F_EMAIL = 31;
+    private static final int F_COUNTRY = 32;
+    private static final int F_PHONENUM = 33;
+    private static final int F_SHIPTOFIRSTNAME = 34;
+    private static final int F_SHIPTOMIDDLENAME = 35;
+    private static final int F_SHIPTOLASTNAME = 36;
+    private static final int F_SHIPTOSTREET = 37;
+    private static final int F_SHIPTOCITY = 38;
+    private static final int F_SHIPTOSTATE = 39;
+    private static final int F_SHIPTOZIP = 40;
+    private static final int F_SHIPTOCOUNTRY = 41;
+    private static final int F_CREATIONDATE = 42;
+    private static final int F_LASTCHANGED = 43;
+    private static final int F_RPSTATE = 44;
+    private static final int F_NEXTPAYMENTNUM = 45;
+    private static final int F_FREQUENCY = 46;
+    private static final int F_CURRENCY = 47;
+
 
     private String profileId;
     private String rpRef;
@@ -88,7 +206,8 @@ public final class RecurringResponse extends BaseResponseDataObject {
     private String nextPaymentNumber;
     private String frequency;
     private String currency;
-    private Hashtable inquiryParams;
+    private HashMap<String, String> inquiryParams;
+    private Hashtable<String, String> inquiryParamsTable;
 
     /**
      * Gets the Profile ID of the original profile.
@@ -574,127 +693,84 @@ public final class RecurringResponse extends BaseResponseDataObject {
     }
 
     /**
-     * Gets the profileName parameter.
+     * Gets the payment history returned by a recurring inquiry,
+     * as a Hashtable copy of {@link #getInquiryParamMap()}.
      *
-     * @return - String
-     * <p>Maps to Payflow Parameter: PROFILENAME
+     * @return - Hashtable
+     * <p>Maps to Payflow Parameters: P_PNREFn, P_RESULTn, P_AMTn ...
+     */
+    public Hashtable<String, String> getInquiryParams() {
+        if (inquiryParamsTable == null) {
+            inquiryParamsTable = new Hashtable<String, String>(inquiryParams);
+        }
+        return inquiryParamsTable;
+    }
+
+    /**
+     * Gets the payment history returned by a recurring inquiry.
+     *
+     * @return - Map
+     * <p>Maps to Payflow Parameters: P_PNREFn, P_RESULTn, P_AMTn ...
      */
-    public Hashtable getInquiryParams() {
+    public Map<String, String> getInquiryParamMap() {
         return inquiryParams;
     }
 
     protected RecurringResponse() {
-        inquiryParams = new Hashtable();
-    }
-
-    protected void setParams(Hashtable ResponseHashTable) {
-        profileId = (String) ResponseHashTable.get(PayflowConstants.PARAM_PROFILEID);
-        rpRef = (String) ResponseHashTable.get(PayflowConstants.PARAM_RPREF);
-        trxPNRef = (String) ResponseHashTable.get(PayflowConstants.PARAM_TRXPNREF);
-        trxResult = (String) ResponseHashTable.get(PayflowConstants.PARAM_TRXRESULT);
-        trxRespMsg = (String) ResponseHashTable.get(PayflowConstants.PARAM_TRXRESPMSG);
-
-        //Additional fields for Inquiry transaction
-        profileName = (String) ResponseHashTable.get(PayflowConstants.PARAM_PROFILENAME);
-        start = (String) ResponseHashTable.get(PayflowConstants.PARAM_START);
-        term = (String) ResponseHashTable.get(PayflowConstants.PARAM_TERM);
-        payPeriod = (String) ResponseHashTable.get(PayflowConstants.PARAM_PAYPERIOD);
-        status = (String) ResponseHashTable.get(PayflowConstants.PARAM_STATUS);
-        tender = (String) ResponseHashTable.get(PayflowConstants.PARAM_TENDER);
-        paymentsLeft = (String) ResponseHashTable.get(PayflowConstants.PARAM_PAYMENTSLEFT);
-        nextPayment = (String) ResponseHashTable.get(PayflowConstants.PARAM_NEXTPAYMENT);
-        end = (String) ResponseHashTable.get(PayflowConstants.PARAM_END);
-        aggregateAmt = (String) ResponseHashTable.get(PayflowConstants.PARAM_AGGREGATEAMT);
-        aggregateOptionalAmt = (String) ResponseHashTable.get(PayflowConstants.PARAM_AGGREGATEOPTIONALAMT);
-        amt = (String) ResponseHashTable.get(PayflowConstants.PARAM_AMT);
-        acct = (String) ResponseHashTable.get(PayflowConstants.PARAM_ACCT);
-        expDate = (String) ResponseHashTable.get(PayflowConstants.PARAM_EXPDATE);
-        maxFailPayments = (String) ResponseHashTable.get(PayflowConstants.PARAM_MAXFAILPAYMENTS);
-        numFailPayments = (String) ResponseHashTable.get(PayflowConstants.PARAM_NUMFAILPAYMENTS);
-        retryNumDays = (String) ResponseHashTable.get(PayflowConstants.PARAM_RETRYNUMDAYS);
-        companyName = (String) ResponseHashTable.get(PayflowConstants.PARAM_COMPANYNAME);
+        inquiryParams = new HashMap<String, String>();
+    }
+
+    protected void setParams(HashMap<String, String> ResponseHashTable) {
+        String[] values = FIELDS.take(ResponseHashTable);
+        profileId = values[F_PROFILEID];
+        rpRef = values[F_RPREF];
+        trxPNRef = values[F_TRXPNREF];
+        trxResult = values[F_TRXRESULT];
+        trxRespMsg = values[F_TRXRESPMSG];
+        profileName = values[F_PROFILENAME];
+        start = values[F_START];
+        term = values[F_TERM];
+        payPeriod = values[F_PAYPERIOD];
+        status = values[F_STATUS];
+        tender = values[F_TENDER];
+        paymentsLeft = values[F_PAYMENTSLEFT];
+        nextPayment = values[F_NEXTPAYMENT];
+        end = values[F_END];
+        aggregateAmt = values[F_AGGREGATEAMT];
+        aggregateOptionalAmt = values[F_AGGREGATEOPTIONALAMT];
+        amt = values[F_AMT];
+        acct = values[F_ACCT];
+        expDate = values[F_EXPDATE];
+        maxFailPayments = values[F_MAXFAILPAYMENTS];
+        numFailPayments = values[F_NUMFAILPAYMENTS];
+        retryNumDays = values[F_RETRYNUMDAYS];
+        companyName = values[F_COMPANYNAME];
         // Since Recurring Billing was never updated to support "BILLTO" parameters, overriding with older NVPs.
-        name = (String) ResponseHashTable.get(PayflowConstants.PARAM_NAME);
-        firstName = (String) ResponseHashTable.get(PayflowConstants.PARAM_FIRSTNAME);
-        middleName = (String) ResponseHashTable.get(PayflowConstants.PARAM_MIDDLENAME);
-        lastname = (String) ResponseHashTable.get("LASTNAME");
-        street = (String) ResponseHashTable.get("STREET");
-        city = (String) ResponseHashTable.get("CITY");
-        state = (String) ResponseHashTable.get("STATE");
-        zip = (String) ResponseHashTable.get("ZIP");
-        email = (String) ResponseHashTable.get("EMAIL");
-        country = (String) ResponseHashTable.get(PayflowConstants.PARAM_COUNTRY);
-        phoneNum = (String) ResponseHashTable.get(PayflowConstants.PARAM_PHONENUM);
-        shipToFName = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOFIRSTNAME);
-        shipToMName = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOMIDDLENAME);
-        shipToLName = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOLASTNAME);
-        shipToStreet = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOSTREET);
-        shipToCity = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOCITY);
-        shipToState = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOSTATE);
-        shipToZip = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOZIP);
-        shipToCountry = (String) ResponseHashTable.get(PayflowConstants.PARAM_SHIPTOCOUNTRY);
-        creationDate = (String) ResponseHashTable.get(PayflowConstants.PARAM_CREATIONDATE);
-        lastChanged = (String) ResponseHashTable.get(PayflowConstants.PARAM_LASTCHANGED);
-        rpState = (String) ResponseHashTable.get(PayflowConstants.PARAM_RPSTATE);
-        nextPaymentNumber = (String) ResponseHashTable.get(PayflowConstants.PARAM_NEXTPAYMENTNUM);
-        frequency = (String) ResponseHashTable.get(PayflowConstants.PARAM_FREQUENCY);
-        currency = (String) ResponseHashTable.get(PayflowConstants.PARAM_CURRENCY);
-
-
-        ResponseHashTable.remove(PayflowConstants.PARAM_PROFILEID);
-        ResponseHashTable.remove(PayflowConstants.PARAM_RPREF);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TRXPNREF);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TRXRESULT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TRXRESPMSG);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PROFILENAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_START);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TERM);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PAYPERIOD);
-        ResponseHashTable.remove(PayflowConstants.PARAM_STATUS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TENDER);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PAYMENTSLEFT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_NEXTPAYMENT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_END);
-        ResponseHashTable.remove(PayflowConstants.PARAM_AGGREGATEAMT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_AGGREGATEOPTIONALAMT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_AMT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ACCT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_EXPDATE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_MAXFAILPAYMENTS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_NUMFAILPAYMENTS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_RETRYNUMDAYS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_COMPANYNAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_NAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_FIRSTNAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_MIDDLENAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_LASTNAME);
-        ResponseHashTable.remove("STREET");
-        ResponseHashTable.remove("CITY");
-        ResponseHashTable.remove("STATE");
-        ResponseHashTable.remove("ZIP");
-        ResponseHashTable.remove("EMAIL");
-        ResponseHashTable.remove(PayflowConstants.PARAM_COUNTRY);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PHONENUM);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOFIRSTNAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOMIDDLENAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOLASTNAME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOSTREET);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOCITY);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOSTATE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOZIP);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SHIPTOCOUNTRY);
-        ResponseHashTable.remove(PayflowConstants.PARAM_P_RESULTn);
-        ResponseHashTable.remove(PayflowConstants.PARAM_P_PNREFn);
-        ResponseHashTable.remove(PayflowConstants.PARAM_P_TRANSTATEn);
-        ResponseHashTable.remove(PayflowConstants.PARAM_P_TENDERn);
-        ResponseHashTable.remove(PayflowConstants.PARAM_P_TRANSTIMEn);
-        ResponseHashTable.remove(PayflowConstants.PARAM_P_AMOUNTn);
-        ResponseHashTable.remove(PayflowConstants.PARAM_CREATIONDATE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_LASTCHANGED);
-        ResponseHashTable.remove(PayflowConstants.PARAM_RPSTATE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_NEXTPAYMENTNUM);
-        ResponseHashTable.remove(PayflowConstants.PARAM_FREQUENCY);
-        ResponseHashTable.remove(PayflowConstants.PARAM_CURRENCY);
+        name = values[F_NAME];
+        firstName = values[F_FIRSTNAME];
+        middleName = values[F_MIDDLENAME];
+        lastname = values[F_LASTNAME];
+        street = values[F_STREET];
+        city = values[F_CITY];
+        state = values[F_STATE];
+        zip = values[F_ZIP];
+        email = values[F_EMAIL];
+        country = values[F_COUNTRY];
+        phoneNum = values[F_PHONENUM];
+        shipToFName = values[F_SHIPTOFIRSTNAME];
+        shipToMName = values[F_SHIPTOMIDDLENAME];
+        shipToLName = values[F_SHIPTOLASTNAME];
+        shipToStreet = values[F_SHIPTOSTREET];
+        shipToCity = values[F_SHIPTOCITY];
+        shipToState = values[F_SHIPTOSTATE];
+        shipToZip = values[F_SHIPTOZIP];
+        shipToCountry = values[F_SHIPTOCOUNTRY];
+        creationDate = values[F_CREATIONDATE];
+        lastChanged = values[F_LASTCHANGED];
+        rpState = values[F_RPSTATE];
+        nextPaymentNumber = values[F_NEXTPAYMENTNUM];
+        frequency = values[F_FREQUENCY];
+        currency = values[F_CURRENCY];
     }
 
 }
@@ -0,0 +1,84 @@
+package paypal.payflow;
+
+/**
+ * Pre-encoded part of a transaction request.
+ * <p>Data objects that stay the same across many transactions, such as the
+ * user credentials in UserInfo or the merchant and soft descriptor details in
+ * MerchantInfo, are encoded into a RequestFragment once. Every transaction that uses
+ * the same data object then copies the encoded name value pairs into its request
+ * instead of encoding the fields again.</p>
+ * <p>A RequestFragment is immutable and can be shared between threads.</p>
+ * <p>
+ * ..............
+ * // Create the user once and reuse it for all transactions of this merchant.
+ * UserInfo user = new UserInfo("user", "vendor", "partner", "password");
+ * RequestFragment credentials = user.compile();
+ * // credentials.toString() gives the masked form, for logging.
+ * ..............
+ * </p>
+ */
+public final class RequestFragment {
+
+    /**
+     * Holds the encoded name value pairs.
+     */
+    private final String mRequest;
+
+    /**
+     * Holds the encoded name value pairs with the sensitive values masked.
+     */
+    private final String mMaskedRequest;
+
+    /**
+     * Constructor
+     *
+     * @param request String : encoded name value pairs, separated by &amp;
+     */
+    protected RequestFragment(String request) {
+        mRequest = request;
+        mMaskedRequest = request.length() == 0 ? request : PayflowUtility.maskSensitiveFields(request);
+    }
+
+    /**
+     * Gets the encoded name value pairs.
+     *
+     * @return request String
+     */
+    protected String getRequest() {
+        return mRequest;
+    }
+
+    /**
+     * Gets the encoded name value pairs with the sensitive values (such as PWD) masked.
+     *
+     * @return maskedRequest String
+     */
+    public String getMaskedRequest() {
+        return mMaskedRequest;
+    }
+
+    /**
+     * Copies the encoded name value pairs into a request, after a &amp; delimiter unless
+     * the request is still empty.
+     *
+     * @param request StringBuilder
+     */
+    protected void appendTo(StringBuilder request) {
+        if (mRequest.length() == 0) {
+            return;
+        }
+        if (request.length() > 0) {
+            request.append('&');
+        }
+        request.append(mRequest);
+    }
+
+    /**
+     * Gives the masked form of the fragment, safe for logging.
+     *
+     * @return maskedRequest String
+     */
+    public String toString() {
+        return mMaskedRequest;
+    }
+}
@@ -18,8 +18,9 @@ package paypal.payflow;
 import paypal.payflow.ECGetResponse;
 
 import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.Hashtable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 
 /**
  * <pre>{@code
@@ -89,14 +90,15 @@ public final class Response extends BaseResponseDataObject {
     private ECDoResponse ecDoResponse;
     private TransactionResponse transactionResponse;
     private Context context;
-    private Hashtable responseHashTable;
-    private ArrayList extDataList;
+    private HashMap<String, String> responseHashTable;
+    private ArrayList<ExtendData> extDataList;
     private String requestString;
     private String responseString;
     private String requestId;
     private ECGetResponse ecGetResponse;
     private ExpressCheckoutResponse ecSetResponse;
     private ECUpdateResponse ecUpdateResponse;
+    private boolean recurringTrx;
 
     /**
      * Gets the container object for all the fraud filters
@@ -106,6 +108,9 @@ public final class Response extends BaseResponseDataObject {
      * @return - FraudResponse
      */
     public FraudResponse getFraudResponse() {
+        if (fraudResponse == null && responseHashTable != null) {
+            setFraudResultParams();
+        }
         return fraudResponse;
     }
 
@@ -117,6 +122,9 @@ public final class Response extends BaseResponseDataObject {
      * @return - ECGetResponse
      */
     public ECGetResponse getEcGetResponse() {
+        if (ecGetResponse == null && responseHashTable != null && !recurringTrx) {
+            setECGetResultParams();
+        }
         return ecGetResponse;
     }
 
@@ -128,6 +136,9 @@ public final class Response extends BaseResponseDataObject {
      * @return - ExpressCheckoutResponse
      */
     public ExpressCheckoutResponse getEcSetResponse() {
+        if (ecSetResponse == null && responseHashTable != null && !recurringTrx) {
+            setECSetResultParams();
+        }
         return ecSetResponse;
     }
 
@@ -139,6 +150,9 @@ public final class Response extends BaseResponseDataObject {
      * @return - ExpressCheckoutResponse
      */
     public ECUpdateResponse getEcUpdateResponse() {
+        if (ecUpdateResponse == null && responseHashTable != null && !recurringTrx) {
+            setECUpdateResultParams();
+        }
         return ecUpdateResponse;
     }
 
@@ -150,6 +164,9 @@ public final class Response extends BaseResponseDataObject {
      * @return - BuyerAuthResponse
      */
     public BuyerAuthResponse getBuyerAuthResponse() {
+        if (buyerAuthResponse == null && responseHashTable != null) {
+            setBuyerAuthResultParams();
+        }
         return buyerAuthResponse;
     }
 
@@ -161,6 +178,10 @@ public final class Response extends BaseResponseDataObject {
      * @return - RecurringResponse
      */
     public RecurringResponse getRecurringResponse() {
+        // the inquiry params are filled in from the extended data, so build everything
+        if (responseHashTable != null && recurringTrx) {
+            completeResponseDataObjects();
+        }
         return recurringResponse;
     }
 
@@ -172,6 +193,9 @@ public final class Response extends BaseResponseDataObject {
      * @return - ECDoResponse
      */
     public ECDoResponse getEcDoResponse() {
+        if (ecDoResponse == null && responseHashTable != null && !recurringTrx) {
+            setECDoResultParms();
+        }
         return ecDoResponse;
     }
 
@@ -204,7 +228,10 @@ public final class Response extends BaseResponseDataObject {
      *
      * @return - ArrayList
      */
-    public ArrayList getExtDataList() {
+    public ArrayList<ExtendData> getExtDataList() {
+        if (responseHashTable != null) {
+            completeResponseDataObjects();
+        }
         return extDataList;
     }
 
@@ -268,7 +295,7 @@ public final class Response extends BaseResponseDataObject {
             String Result = PayflowUtility.locateValueForName(Response, PayflowConstants.PARAM_RESULT, false);
             String RespMsg = PayflowUtility.locateValueForName(Response, PayflowConstants.PARAM_RESPMSG, false);
             if (responseHashTable == null) {
-                responseHashTable = new Hashtable();
+                responseHashTable = new HashMap<String, String>();
             }
 
             responseHashTable.put(PayflowConstants.INTL_PARAM_FULLRESPONSE, responseString);
@@ -329,24 +356,97 @@ public final class Response extends BaseResponseDataObject {
     }
 
     private void setResponseDataObjects() {
+        fraudResponse = null;
+        buyerAuthResponse = null;
+        recurringResponse = null;
+        ecDoResponse = null;
+        ecGetResponse = null;
+        ecSetResponse = null;
+        ecUpdateResponse = null;
+        extDataList = null;
         this.setResultParams();
-        this.setFraudResultParams();
-        this.setBuyerAuthResultParams();
         String TrxType = PayflowUtility.locateValueForName(requestString,
                 PayflowConstants.PARAM_TRXTYPE, false);
+        recurringTrx = PayflowConstants.TRXTYPE_RECURRING.equals(TrxType);
+
+        // The other response objects are built from what is left of responseHashTable
+        // when they are first asked for. Each of them takes its own fields out of the
+        // table, and no two of them share a field, so the order they are built in does
+        // not change what they get; the extended data is what is left once all are built.
+        // Recurring inquiry fields in a non recurring response fail the extended data, so
+        // in that case everything is built now and the failure is reported as before.
+        if (!recurringTrx && containsRecurringInquiryParams()) {
+            completeResponseDataObjects();
+        }
+        // The FPS XML data is parsed now, so that a parse error is in the context before
+        // the transaction logs its errors.
+        if (responseHashTable != null && (responseHashTable.containsKey(PayflowConstants.PARAM_FPS_PREXMLDATA)
+                || responseHashTable.containsKey(PayflowConstants.PARAM_FPS_POSTXMLDATA))) {
+            this.setFraudResultParams();
+        }
+    }
 
-        if (PayflowConstants.TRXTYPE_RECURRING.equals(TrxType)) {
-            this.setRecurringResultParams();
+    /**
+     * Builds the response objects not built yet and the extended data.
+     */
+    private void completeResponseDataObjects() {
+        if (fraudResponse == null) {
+            this.setFraudResultParams();
+        }
+        if (buyerAuthResponse == null) {
+            this.setBuyerAuthResultParams();
+        }
+        if (recurringTrx) {
+            if (recurringResponse == null) {
+                this.setRecurringResultParams();
+            }
         } else {
-            this.setECDoResultParms();
-            this.setECGetResultParams();
-            this.setECSetResultParams();
-            this.setECUpdateResultParams();
+            if (ecDoResponse == null) {
+                this.setECDoResultParms();
+            }
+            if (ecGetResponse == null) {
+                this.setECGetResultParams();
+            }
+            if (ecSetResponse == null) {
+                this.setECSetResultParams();
+            }
+            if (ecUpdateResponse == null) {
+                this.setECUpdateResultParams();
+            }
         }
         this.setExtDataList();
         responseHashTable = null;
     }
 
+    /**
+     * Checks whether the response has recurring inquiry fields.
+     *
+     * @return true if a field name starts with PREFIX_RECURRING_INQUIRY_RESP.
+     */
+    private boolean containsRecurringInquiryParams() {
+        Iterator<String> respKeys = responseHashTable.keySet().iterator();
+        while (respKeys.hasNext()) {
+            if (getExtDataName(respKeys.next()).startsWith(PayflowConstants.PREFIX_RECURRING_INQUIRY_RESP)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the name an extended data field is reported with.
+     *
+     * @param key String : key in responseHashTable
+     * @return name String
+     */
+    private static String getExtDataName(String key) {
+        int DuplicateKeyIndex = key.indexOf(PayflowConstants.TAG_DUPLICATE);
+        if (DuplicateKeyIndex > 0) {
+            return key.substring(0, DuplicateKeyIndex - 1);
+        }
+        return key;
+    }
+
     /**
      * @param Response String
      */
@@ -364,13 +464,7 @@ public final class Response extends BaseResponseDataObject {
                 } else {
                     // Append the RESULT and RESPMSG for error code E_UNKNOWN_STATE and create a message.
                     // Call SetParams again on it.
-                    String responseValue = PayflowConstants.PARAM_RESULT
-                            + PayflowConstants.SEPARATOR_NVP
-                            + PayflowConstants.CommErrorCodes.get(PayflowConstants.E_UNKNOWN_STATE)
-                            + PayflowConstants.DELIMITER_NVP
-                            + PayflowConstants.PARAM_RESPMSG
-                            + PayflowConstants.SEPARATOR_NVP
-                            + PayflowConstants.CommErrorMessages.get(PayflowConstants.E_UNKNOWN_STATE)
+                    String responseValue = CommErrorCatalog.getNvpResponse(PayflowConstants.E_UNKNOWN_STATE)
                             + ", " + responseString;
                     this.setParams(responseValue);
                 }
@@ -390,6 +484,52 @@ public final class Response extends BaseResponseDataObject {
         }
     }
 
+    /**
+     * Sets the response data objects from an XMLPay response. The response is decoded
+     * into the same parameters a name value pair response has, from its first
+     * TransactionResult, so it fills the same response data objects.
+     *
+     * @param XmlPayResponse String
+     */
+    protected void setXmlPayParams(String XmlPayResponse) {
+        if (XmlPayResponse == null) {
+            this.setParams(XmlPayResponse);
+            return;
+        }
+        try {
+            responseString = XmlPayResponse;
+            ArrayList<HashMap<String, String>> Results = XmlPayResponseDecoder.decode(XmlPayResponse);
+            setXmlPayResult(XmlPayResponse, Results.isEmpty() ? null : Results.get(0));
+        } catch (Exception Ex) {
+            ErrorObject Error = PayflowUtility.populateCommError(PayflowConstants.E_UNKNOWN_STATE, Ex, PayflowConstants.SEVERITY_ERROR, false, null);
+            context.addError(Error);
+            String ResponseValue = Error.toString();
+            this.setParams(ResponseValue);
+        }
+    }
+
+    /**
+     * Sets the response from one decoded TransactionResult of an XMLPay response, such as
+     * the result of one transaction of an XMLPay batch.
+     *
+     * @param XmlPayResponse String : the whole XMLPay response.
+     * @param Parameters     HashMap : the parameters of the TransactionResult, null if
+     *                       the response has no TransactionResult.
+     */
+    protected void setXmlPayResult(String XmlPayResponse, HashMap<String, String> Parameters) {
+        responseString = XmlPayResponse;
+        if (Parameters != null && Parameters.containsKey(PayflowConstants.PARAM_RESULT)) {
+            responseHashTable = Parameters;
+            responseHashTable.put(PayflowConstants.INTL_PARAM_FULLRESPONSE, XmlPayResponse);
+            this.setResponseDataObjects();
+        } else {
+            // No transaction result; report it as setParams does for a response without RESULT.
+            String responseValue = CommErrorCatalog.getNvpResponse(PayflowConstants.E_UNKNOWN_STATE)
+                    + ", " + responseString;
+            this.setParams(responseValue);
+        }
+    }
+
     /**
      *
      */
@@ -400,19 +540,16 @@ public final class Response extends BaseResponseDataObject {
         if (responseHashTable == null || responseHashTable.size() == 0) {
             extDataList = null;
         } else {
-            extDataList = new ArrayList();
+            extDataList = new ArrayList<ExtendData>(responseHashTable.size());
 
-            Enumeration respKeys = responseHashTable.keys();
+            Iterator<Map.Entry<String, String>> respEntries = responseHashTable.entrySet().iterator();
 
-            while (respKeys.hasMoreElements()) {
-                Name = (String) respKeys.nextElement();
-                Value = (String) responseHashTable.get(Name);
-                int DuplicateKeyIndex = Name.indexOf(PayflowConstants.TAG_DUPLICATE);
-                if (DuplicateKeyIndex > 0) {
-                    Name = Name.substring(0, DuplicateKeyIndex - 1);
-                }
+            while (respEntries.hasNext()) {
+                Map.Entry<String, String> respEntry = respEntries.next();
+                Name = getExtDataName(respEntry.getKey());
+                Value = respEntry.getValue();
                 if (Name.startsWith(PayflowConstants.PREFIX_RECURRING_INQUIRY_RESP)) {
-                    recurringResponse.getInquiryParams().put(Name, Value);
+                    recurringResponse.getInquiryParamMap().put(Name, Value);
                 } else {
                     ExtData = new ExtendData(Name, Value);
                     extDataList.add(ExtData);
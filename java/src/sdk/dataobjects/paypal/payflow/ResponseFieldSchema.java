@@ -0,0 +1,84 @@
+package paypal.payflow;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Field schema of a response data object: the parameter names the object takes from
+ * the response, in field order. The position of a name in the schema is its field id.
+ * <p>
+ * take() moves the values of all the fields out of the response table in one pass and
+ * returns them by field id, instead of a get and a remove on the table per field. When
+ * the response has fewer parameters than the schema has fields, the response is walked
+ * and each parameter name is looked up in the schema; otherwise the schema is walked.
+ * <p>
+ * Retained fields are read but stay in the response table, for the response data
+ * objects which read them after this one. A schema is immutable and shared by all
+ * instances of its data object.
+ */
+final class ResponseFieldSchema {
+
+    /**
+     * Parameter names, by field id.
+     */
+    private final String[] mFields;
+
+    /**
+     * True for the fields which stay in the response table, by field id.
+     */
+    private final boolean[] mRetained;
+
+    /**
+     * Field ids, by parameter name.
+     */
+    private final HashMap<String, Integer> mFieldIds;
+
+    /**
+     * Constructor for ResponseFieldSchema
+     *
+     * @param fields   String[] : parameter names, in field order
+     * @param retained String[] : parameter names, out of fields, which stay in the response table
+     */
+    protected ResponseFieldSchema(String[] fields, String[] retained) {
+        mFields = fields.clone();
+        mRetained = new boolean[mFields.length];
+        mFieldIds = new HashMap<String, Integer>(mFields.length * 2);
+        for (int id = 0; id < mFields.length; id++) {
+            mFieldIds.put(mFields[id], Integer.valueOf(id));
+        }
+        for (int i = 0; i < retained.length; i++) {
+            mRetained[mFieldIds.get(retained[i]).intValue()] = true;
+        }
+    }
+
+    /**
+     * Takes the values of the fields out of a response table. Retained fields are left
+     * in the table.
+     *
+     * @param responseTable HashMap
+     * @return values String[] : values by field id, null for the fields not in the response.
+     */
+    protected String[] take(HashMap<String, String> responseTable) {
+        String[] values = new String[mFields.length];
+        if (responseTable.size() < mFields.length) {
+            Iterator<Map.Entry<String, String>> entries = responseTable.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, String> entry = entries.next();
+                Integer id = mFieldIds.get(entry.getKey());
+                if (id != null) {
+                    values[id.intValue()] = entry.getValue();
+                    if (!mRetained[id.intValue()]) {
+                        entries.remove();
+                    }
+                }
+            }
+        } else {
+            for (int id = 0; id < mFields.length; id++) {
+                values[id] = mRetained[id] ? responseTable.get(mFields[id])
+                        : responseTable.remove(mFields[id]);
+            }
+        }
+        return values;
+    }
+}
@@ -9,7 +9,7 @@ public class Rule extends BaseResponseDataObject {
     private String ruleDescription;
     private String action;
     private String triggeredMessage;
-    private ArrayList ruleVendorParms;
+    private ArrayList<RuleParameter> ruleVendorParms;
 
     public int getNum() {
         return num;
@@ -59,16 +59,16 @@ public class Rule extends BaseResponseDataObject {
         this.triggeredMessage = triggeredMessage;
     }
 
-    public ArrayList getRuleVendorParms() {
+    public ArrayList<RuleParameter> getRuleVendorParms() {
         return ruleVendorParms;
     }
 
-    public void setRuleVendorParms(ArrayList ruleVendorParms) {
+    public void setRuleVendorParms(ArrayList<RuleParameter> ruleVendorParms) {
         this.ruleVendorParms = ruleVendorParms;
     }
 
     protected Rule() {
-        ruleVendorParms = new ArrayList();
+        ruleVendorParms = new ArrayList<RuleParameter>();
     }
 
 }
@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * Used for shipping address information
  * <p>Shipping address is destination address information.</p>
@@ -385,22 +387,31 @@ public final class ShipTo extends Address {
     }
 
     protected void generateRequest() {
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOSTREET, this.getShipToStreet()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOSTREET2, this.getShipToStreet2()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOCITY, this.getShipToCity()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOSTATE, this.getShipToState()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOCOUNTRY, this.getShipToCountry()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOZIP, this.getShipToZip()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOPHONE, this.getShipToPhone()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOPHONE2, this.getShipToPhone2()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOEMAIL, this.getShipToEmail()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOFIRSTNAME, this.getShipToFirstName()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOMIDDLENAME, this.getShipToMiddleName()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPTOLASTNAME, this.getShipToLastName()));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPCARRIER, shipCarrier));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPMETHOD, shipMethod));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPFROMZIP, shipFromZip));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SHIPPEDFROMZIP, shipFromZip));
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOSTREET, this.getShipToStreet());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOSTREET2, this.getShipToStreet2());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOCITY, this.getShipToCity());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOSTATE, this.getShipToState());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOCOUNTRY, this.getShipToCountry());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOZIP, this.getShipToZip());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOPHONE, this.getShipToPhone());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOPHONE2, this.getShipToPhone2());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOEMAIL, this.getShipToEmail());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOFIRSTNAME, this.getShipToFirstName());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOMIDDLENAME, this.getShipToMiddleName());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPTOLASTNAME, this.getShipToLastName());
+        super.appendToRequest(PayflowConstants.PARAM_SHIPCARRIER, shipCarrier);
+        super.appendToRequest(PayflowConstants.PARAM_SHIPMETHOD, shipMethod);
+        super.appendToRequest(PayflowConstants.PARAM_SHIPFROMZIP, shipFromZip);
+        super.appendToRequest(PayflowConstants.PARAM_SHIPPEDFROMZIP, shipFromZip);
+    }
+
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        super.generateXmlPayRequest(writer);
+        writer.carry(PayflowConstants.PARAM_SHIPTOFIRSTNAME, PayflowConstants.PARAM_SHIPTOLASTNAME,
+                PayflowConstants.PARAM_SHIPTOSTREET, PayflowConstants.PARAM_SHIPTOCITY,
+                PayflowConstants.PARAM_SHIPTOSTATE, PayflowConstants.PARAM_SHIPTOZIP,
+                PayflowConstants.PARAM_SHIPTOCOUNTRY, PayflowConstants.PARAM_SHIPTOEMAIL,
+                PayflowConstants.PARAM_SHIPTOPHONE);
     }
 
 }
@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * Used for swipe card information
  *  * <p>
@@ -33,7 +35,18 @@ public final class SwipeCard extends PaymentDevice {
      */
     protected void generateRequest() {
         super.generateRequest();
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SWIPE, super.getAcct()));
+        super.appendToRequest(PayflowConstants.PARAM_SWIPE, super.getAcct());
+    }
+
+    /**
+     * Writes the track data as the XMLPay MagData.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the element can not be written.
+     */
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        writer.writeElement(PayflowConstants.XML_PARAM_MAGDATA, super.getAcct());
+        writer.carry(PayflowConstants.PARAM_ACCT, PayflowConstants.PARAM_SWIPE);
     }
 }
 
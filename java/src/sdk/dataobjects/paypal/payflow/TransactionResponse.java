@@ -1,6 +1,6 @@
 package paypal.payflow;
 
-import java.util.Hashtable;
+import java.util.HashMap;
 
 /**
  * Used for transaction response.
@@ -34,6 +34,153 @@ import java.util.Hashtable;
  */
 public final class TransactionResponse extends BaseResponseDataObject {
 
+    /**
+     * Parameter names of the response fields, in field order.
+     */
+    private static final ResponseFieldSchema FIELDS = new ResponseFieldSchema(new String[]{
+            PayflowConstants.PARAM_RESULT,
+            PayflowConstants.PARAM_PPREF,
+            PayflowConstants.PARAM_PNREF,
+            PayflowConstants.PARAM_RESPMSG,
+            PayflowConstants.PARAM_AUTHCODE,
+            PayflowConstants.PARAM_AVSADDR,
+            PayflowConstants.PARAM_AVSZIP,
+            PayflowConstants.PARAM_CARDSECURE,
+            PayflowConstants.PARAM_CVV2MATCH,
+            PayflowConstants.PARAM_IAVS,
+            PayflowConstants.PARAM_ORIGRESULT,
+            PayflowConstants.PARAM_TRANSSTATE,
+            PayflowConstants.PARAM_CUSTREF,
+            PayflowConstants.PARAM_STARTTIME,
+            PayflowConstants.PARAM_ENDTIME,
+            PayflowConstants.PARAM_DUPLICATE,
+            PayflowConstants.PARAM_DATE_TO_SETTLE,
+            PayflowConstants.PARAM_BATCHID,
+            PayflowConstants.PARAM_ADDLMSGS,
+            PayflowConstants.PARAM_RESPTEXT,
+            PayflowConstants.PARAM_PROCAVS,
+            PayflowConstants.PARAM_PROCCARDSECURE,
+            PayflowConstants.PARAM_PROCCVV2,
+            PayflowConstants.PARAM_HOSTCODE,
+            PayflowConstants.PARAM_SETTLE_DATE,
+            PayflowConstants.PARAM_ORIGPNREF,
+            PayflowConstants.PARAM_FEEAMT,
+            PayflowConstants.PARAM_PENDINGREASON,
+            PayflowConstants.PARAM_PAYMENTTYPE,
+            PayflowConstants.PARAM_CORRELATIONID,
+            PayflowConstants.PARAM_STATUS,
+            PayflowConstants.PARAM_BALAMT,
+            PayflowConstants.PARAM_AMEXID,
+            PayflowConstants.PARAM_AMEXPOSDATA,
+            PayflowConstants.PARAM_ACCT,
+            PayflowConstants.PARAM_LASTNAME,
+            PayflowConstants.PARAM_FIRSTNAME,
+            PayflowConstants.PARAM_AMT,
+            PayflowConstants.PARAM_TRANSTIME,
+            PayflowConstants.PARAM_EXPDATE,
+            PayflowConstants.PARAM_CARDTYPE,
+            PayflowConstants.PARAM_ORIGAMT,
+            PayflowConstants.PARAM_SECURETOKEN,
+            PayflowConstants.PARAM_SECURETOKENID,
+            PayflowConstants.PARAM_PHONEMATCH,
+            PayflowConstants.PARAM_EMAILMATCH,
+            PayflowConstants.PARAM_EXTRSPMSG,
+            PayflowConstants.PARAM_PAYMENTADVICECODE,
+            PayflowConstants.PARAM_ASSOCIATIONRESPCODE,
+            PayflowConstants.PARAM_TRANSACTIONID,
+            PayflowConstants.PARAM_TXID,
+            PayflowConstants.MAGTEK_PARAM_MAGTRESPONSE,
+            PayflowConstants.PARAM_TRACEID,
+            PayflowConstants.PARAM_ACHSTATUS,
+            PayflowConstants.PARAM_TYPE,
+            PayflowConstants.PARAM_AFFLUENT,
+            PayflowConstants.PARAM_CCUPDATED,
+            PayflowConstants.PARAM_RRN,
+            PayflowConstants.PARAM_STAN,
+            PayflowConstants.PARAM_ACI,
+            PayflowConstants.PARAM_VALIDATIONCODE,
+            PayflowConstants.PARAM_CCTRANSID,
+            PayflowConstants.PARAM_CCTRANS_POSDATA,
+            PayflowConstants.PARAM_PARID
+    }, new String[]{
+            // used by the responses read after this one too
+            PayflowConstants.PARAM_STATUS,
+            PayflowConstants.PARAM_ACCT,
+            PayflowConstants.PARAM_LASTNAME,
+            PayflowConstants.PARAM_FIRSTNAME,
+            PayflowConstants.PARAM_AMT,
+            PayflowConstants.PARAM_EXPDATE,
+            PayflowConstants.PARAM_CCUPDATED
+    });
+
+    /**
+     * Positions of the fields in FIELDS.
+     */
+    private static final int F_RESULT = 0;
+    private static final int F_PPREF = 1;
+    private static final int F_PNREF = 2;
+    private static final int F_RESPMSG = 3;
+    private static final int F_AUTHCODE = 4;
+    private static final int F_AVSADDR = 5;
+    private static final int F_AVSZIP = 6;
+    private static final int F_CARDSECURE = 7;
+    private static final int F_CVV2MATCH = 8;
+    private static final int F_IAVS = 9;
+    private static final int F_ORIGRESULT = 10;
+    private static final int F_TRANSSTATE = 11;
+    private static final int F_CUSTREF = 12;
+    private static final int F_STARTTIME = 13;
+    private static final int F_ENDTIME = 14;
+    private static final int F_DUPLICATE = 15;
+    private static final int F_DATE_TO_SETTLE = 16;
+    private static final int F_BATCHID = 17;
+    private static final int F_ADDLMSGS = 18;
+    private static final int F_RESPTEXT = 19;
+    private static final int F_PROCAVS = 20;
+    private static final int F_PROCCARDSECURE = 21;
+    private static final int F_PROCCVV2 = 22;
+    private static final int F_HOSTCODE = 23;
+    private static final int F_SETTLE_DATE = 24;
+    private static final int F_ORIGPNREF = 25;
+    private static final int F_FEEAMT = 26;
+    private static final int F_PENDINGREASON = 27;
+    private static final int F_PAYMENTTYPE = 28;
+    private static final int F_CORRELATIONID = 29;
+    private static final int F_STATUS = 30;
+    private static final int F_BALAMT = 31;
+    private static final int F_AMEXID = 32;
+    private static final int F_AMEXPOSDATA = 33;
+    private static final int F_ACCT = 34;
+    private static final int F_LASTNAME = 35;
+    private static final int F_FIRSTNAME = 36;
+    private static final int F_AMT = 37;
+    private static final int F_TRANSTIME = 38;
+    private static final int F_EXPDATE = 39;
+    private static final int F_CARDTYPE = 40;
+    private static final int F_ORIGAMT = 41;
+    private static final int F_SECURETOKEN = 42;
+    private static final int F_SECURETOKENID = 43;
+    private static final int F_PHONEMATCH = 44;
+    private static final int F_EMAILMATCH = 45;
+    private static final int F_EXTRSPMSG = 46;
+    private static final int F_PAYMENTADVICECODE = 47;
+    private static final int F_ASSOCIATIONRESPCODE = 48;
+    private static final int F_TRANSACTIONID = 49;
+    private static final int F_TXID = 50;
+    private static final int F_MAGTRESPONSE = 51;
+    private static final int F_TRACEID = 52;
+    private static final int F_ACHSTATUS = 53;
+    private static final int F_TYPE = 54;
+    private static final int F_AFFLUENT = 55;
+    private static final int F_CCUPDATED = 56;
+    private static final int F_RRN = 57;
+    private static final int F_STAN = 58;
+    private static final int F_ACI = 59;
+    private static final int F_VALIDATIONCODE = 60;
+    private static final int F_CCTRANSID = 61;
+    private static final int F_CCTRANS_POSDATA = 62;
+    private static final int F_PARID = 63;
+
     private int result;
     private String ppref;
     private String pnref;
@@ -766,141 +913,73 @@ public final class TransactionResponse extends BaseResponseDataObject {
     protected TransactionResponse() {
     }
 
-    protected void setParams(Hashtable ResponseHashTable) {
-
-        result = Integer.parseInt((String) ResponseHashTable.get(PayflowConstants.PARAM_RESULT));
-        ppref = (String) ResponseHashTable.get(PayflowConstants.PARAM_PPREF);
-        pnref = (String) ResponseHashTable.get(PayflowConstants.PARAM_PNREF);
-        respMsg = (String) ResponseHashTable.get(PayflowConstants.PARAM_RESPMSG);
-        authCode = (String) ResponseHashTable.get(PayflowConstants.PARAM_AUTHCODE);
-        avsAddr = (String) ResponseHashTable.get(PayflowConstants.PARAM_AVSADDR);
-        avsZip = (String) ResponseHashTable.get(PayflowConstants.PARAM_AVSZIP);
-        cardSecure = (String) ResponseHashTable.get(PayflowConstants.PARAM_CARDSECURE);
-        cvv2Match = (String) ResponseHashTable.get(PayflowConstants.PARAM_CVV2MATCH);
-        iavs = (String) ResponseHashTable.get(PayflowConstants.PARAM_IAVS);
-        origResult = (String) ResponseHashTable.get(PayflowConstants.PARAM_ORIGRESULT);
-        transState = (String) ResponseHashTable.get(PayflowConstants.PARAM_TRANSSTATE);
-        custRef = (String) ResponseHashTable.get(PayflowConstants.PARAM_CUSTREF);
-        startTime = (String) ResponseHashTable.get(PayflowConstants.PARAM_STARTTIME);
-        endTime = (String) ResponseHashTable.get(PayflowConstants.PARAM_ENDTIME);
-        duplicate = (String) ResponseHashTable.get(PayflowConstants.PARAM_DUPLICATE);
-        dateToSettle = (String) ResponseHashTable.get(PayflowConstants.PARAM_DATE_TO_SETTLE);
-        batchId = (String) ResponseHashTable.get(PayflowConstants.PARAM_BATCHID);
-        addlMsgs = (String) ResponseHashTable.get(PayflowConstants.PARAM_ADDLMSGS);
-        respText = (String) ResponseHashTable.get(PayflowConstants.PARAM_RESPTEXT);
-        procAvs = (String) ResponseHashTable.get(PayflowConstants.PARAM_PROCAVS);
-        procCardSecure = (String) ResponseHashTable.get(PayflowConstants.PARAM_PROCCARDSECURE);
-        procCVV2 = (String) ResponseHashTable.get(PayflowConstants.PARAM_PROCCVV2);
-        hostCode = (String) ResponseHashTable.get(PayflowConstants.PARAM_HOSTCODE);
-        settleDate = (String) ResponseHashTable.get(PayflowConstants.PARAM_SETTLE_DATE);
-        origPnref = (String) ResponseHashTable.get(PayflowConstants.PARAM_ORIGPNREF);
-        feeAmt = (String) ResponseHashTable.get(PayflowConstants.PARAM_FEEAMT);
-        pendingReason = (String) ResponseHashTable.get(PayflowConstants.PARAM_PENDINGREASON);
-        paymentType = (String) ResponseHashTable.get(PayflowConstants.PARAM_PAYMENTTYPE);
-        correlationId = (String) ResponseHashTable.get(PayflowConstants.PARAM_CORRELATIONID);
-        status = (String) ResponseHashTable.get(PayflowConstants.PARAM_STATUS);
-        balAmt = (String) ResponseHashTable.get(PayflowConstants.PARAM_BALAMT);
-        amexId = (String) ResponseHashTable.get(PayflowConstants.PARAM_AMEXID);
-        amexPosData = (String) ResponseHashTable.get(PayflowConstants.PARAM_AMEXPOSDATA);
-        acct = (String) ResponseHashTable.get(PayflowConstants.PARAM_ACCT);
-        billToLastName = (String) ResponseHashTable.get(PayflowConstants.PARAM_LASTNAME);
-        billToFirstName = (String) ResponseHashTable.get(PayflowConstants.PARAM_FIRSTNAME);
-        amt = (String) ResponseHashTable.get(PayflowConstants.PARAM_AMT);
-        transTime = (String) ResponseHashTable.get(PayflowConstants.PARAM_TRANSTIME);
-        expDate = (String) ResponseHashTable.get(PayflowConstants.PARAM_EXPDATE);
-        cardType = (String) ResponseHashTable.get(PayflowConstants.PARAM_CARDTYPE);
-        origAmt = (String) ResponseHashTable.get(PayflowConstants.PARAM_ORIGAMT);
-        secureToken = (String) ResponseHashTable.get(PayflowConstants.PARAM_SECURETOKEN);
-        secureTokenId = (String) ResponseHashTable.get(PayflowConstants.PARAM_SECURETOKENID);
-        phoneMatch = (String) ResponseHashTable.get(PayflowConstants.PARAM_PHONEMATCH);
-        emailMatch = (String) ResponseHashTable.get(PayflowConstants.PARAM_EMAILMATCH);
-        extRspMsg = (String) ResponseHashTable.get(PayflowConstants.PARAM_EXTRSPMSG);
-        paymentAdviceCode = (String) ResponseHashTable.get(PayflowConstants.PARAM_PAYMENTADVICECODE);
-        associationResponseCode = (String) ResponseHashTable.get(PayflowConstants.PARAM_ASSOCIATIONRESPCODE);
-        transactionId = (String) ResponseHashTable.get(PayflowConstants.PARAM_TRANSACTIONID);
-        txId = (String) ResponseHashTable.get(PayflowConstants.PARAM_TXID);
-        magTResponse = (String) ResponseHashTable.get(PayflowConstants.MAGTEK_PARAM_MAGTRESPONSE);
-        traceId = (String) ResponseHashTable.get(PayflowConstants.PARAM_TRACEID);
-        achStatus = (String) ResponseHashTable.get(PayflowConstants.PARAM_ACHSTATUS);
-        type = (String) ResponseHashTable.get(PayflowConstants.PARAM_TYPE);
-        affluent= (String) ResponseHashTable.get(PayflowConstants.PARAM_AFFLUENT);
-        ccUpdated = (String) ResponseHashTable.get(PayflowConstants.PARAM_CCUPDATED);
-        rrn = (String) ResponseHashTable.get(PayflowConstants.PARAM_RRN);
-        stan = (String) ResponseHashTable.get(PayflowConstants.PARAM_STAN);
-        aci = (String) ResponseHashTable.get(PayflowConstants.PARAM_ACI);
-        validationCode = (String) ResponseHashTable.get(PayflowConstants.PARAM_VALIDATIONCODE);
-        ccTransId = (String) ResponseHashTable.get(PayflowConstants.PARAM_CCTRANSID);
-        ccTrans_PosData = (String) ResponseHashTable.get(PayflowConstants.PARAM_CCTRANS_POSDATA);
-        parId= (String) ResponseHashTable.get(PayflowConstants.PARAM_PARID);
-
-        // items commented out below are due to being used in RecurringResponse too.
-        ResponseHashTable.remove(PayflowConstants.PARAM_RESULT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PPREF);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PNREF);
-        ResponseHashTable.remove(PayflowConstants.PARAM_RESPMSG);
-        ResponseHashTable.remove(PayflowConstants.PARAM_AUTHCODE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_AVSADDR);
-        ResponseHashTable.remove(PayflowConstants.PARAM_AVSZIP);
-        ResponseHashTable.remove(PayflowConstants.PARAM_CARDSECURE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_CVV2MATCH);
-        ResponseHashTable.remove(PayflowConstants.PARAM_IAVS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ORIGRESULT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TRANSSTATE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_CUSTREF);
-        ResponseHashTable.remove(PayflowConstants.PARAM_STARTTIME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ENDTIME);
-        ResponseHashTable.remove(PayflowConstants.PARAM_DUPLICATE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_DATE_TO_SETTLE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_BATCHID);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ADDLMSGS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_RESPTEXT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PROCAVS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PROCCARDSECURE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PROCCVV2);
-        ResponseHashTable.remove(PayflowConstants.PARAM_HOSTCODE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ORIGPNREF);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SETTLE_DATE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_FEEAMT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PENDINGREASON);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PAYMENTTYPE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_CORRELATIONID);
-        //ResponseHashTable.remove(PayflowConstants.PARAM_STATUS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_BALAMT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_AMEXID);
-        ResponseHashTable.remove(PayflowConstants.PARAM_AMEXPOSDATA);
-        //ResponseHashTable.remove(PayflowConstants.PARAM_ACCT);
-        //ResponseHashTable.remove(PayflowConstants.PARAM_LASTNAME);
-        //ResponseHashTable.remove(PayflowConstants.PARAM_FIRSTNAME);
-        //ResponseHashTable.remove(PayflowConstants.PARAM_AMT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TRANSTIME);
-        //ResponseHashTable.remove(PayflowConstants.PARAM_EXPDATE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_CARDTYPE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ORIGAMT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SECURETOKEN);
-        ResponseHashTable.remove(PayflowConstants.PARAM_SECURETOKENID);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PHONEMATCH);
-        ResponseHashTable.remove(PayflowConstants.PARAM_EMAILMATCH);
-        ResponseHashTable.remove(PayflowConstants.PARAM_EXTRSPMSG);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PAYMENTADVICECODE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ASSOCIATIONRESPCODE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TXID);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TRANSACTIONID);
-        ResponseHashTable.remove(PayflowConstants.MAGTEK_PARAM_MAGTRESPONSE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TRACEID);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ACHSTATUS);
-        ResponseHashTable.remove(PayflowConstants.PARAM_AFFLUENT);
-        ResponseHashTable.remove(PayflowConstants.PARAM_TYPE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_RRN);
-        ResponseHashTable.remove(PayflowConstants.PARAM_STAN);
-        ResponseHashTable.remove(PayflowConstants.PARAM_ACI);
-        ResponseHashTable.remove(PayflowConstants.PARAM_VALIDATIONCODE);
-        ResponseHashTable.remove(PayflowConstants.PARAM_CCTRANSID);
-        ResponseHashTable.remove(PayflowConstants.PARAM_CCTRANS_POSDATA);
-        ResponseHashTable.remove(PayflowConstants.PARAM_PARID);
-
-
-
-
+    protected void setParams(HashMap<String, String> ResponseHashTable) {
+        // RESULT is parsed before the table is changed, as it is the one field which can fail
+        result = Integer.parseInt(ResponseHashTable.get(PayflowConstants.PARAM_RESULT));
+        String[] values = FIELDS.take(ResponseHashTable);
+        ppref = values[F_PPREF];
+        pnref = values[F_PNREF];
+        respMsg = values[F_RESPMSG];
+        authCode = values[F_AUTHCODE];
+        avsAddr = values[F_AVSADDR];
+        avsZip = values[F_AVSZIP];
+        cardSecure = values[F_CARDSECURE];
+        cvv2Match = values[F_CVV2MATCH];
+        iavs = values[F_IAVS];
+        origResult = values[F_ORIGRESULT];
+        transState = values[F_TRANSSTATE];
+        custRef = values[F_CUSTREF];
+        startTime = values[F_STARTTIME];
+        endTime = values[F_ENDTIME];
+        duplicate = values[F_DUPLICATE];
+        dateToSettle = values[F_DATE_TO_SETTLE];
+        batchId = values[F_BATCHID];
+        addlMsgs = values[F_ADDLMSGS];
+        respText = values[F_RESPTEXT];
+        procAvs = values[F_PROCAVS];
+        procCardSecure = values[F_PROCCARDSECURE];
+        procCVV2 = values[F_PROCCVV2];
+        hostCode = values[F_HOSTCODE];
+        settleDate = values[F_SETTLE_DATE];
+        origPnref = values[F_ORIGPNREF];
+        feeAmt = values[F_FEEAMT];
+        pendingReason = values[F_PENDINGREASON];
+        paymentType = values[F_PAYMENTTYPE];
+        correlationId = values[F_CORRELATIONID];
+        status = values[F_STATUS];
+        balAmt = values[F_BALAMT];
+        amexId = values[F_AMEXID];
+        amexPosData = values[F_AMEXPOSDATA];
+        acct = values[F_ACCT];
+        billToLastName = values[F_LASTNAME];
+        billToFirstName = values[F_FIRSTNAME];
+        amt = values[F_AMT];
+        transTime = values[F_TRANSTIME];
+        expDate = values[F_EXPDATE];
+        cardType = values[F_CARDTYPE];
+        origAmt = values[F_ORIGAMT];
+        secureToken = values[F_SECURETOKEN];
+        secureTokenId = values[F_SECURETOKENID];
+        phoneMatch = values[F_PHONEMATCH];
+        emailMatch = values[F_EMAILMATCH];
+        extRspMsg = values[F_EXTRSPMSG];
+        paymentAdviceCode = values[F_PAYMENTADVICECODE];
+        associationResponseCode = values[F_ASSOCIATIONRESPCODE];
+        transactionId = values[F_TRANSACTIONID];
+        txId = values[F_TXID];
+        magTResponse = values[F_MAGTRESPONSE];
+        traceId = values[F_TRACEID];
+        achStatus = values[F_ACHSTATUS];
+        type = values[F_TYPE];
+        affluent = values[F_AFFLUENT];
+        ccUpdated = values[F_CCUPDATED];
+        rrn = values[F_RRN];
+        stan = values[F_STAN];
+        aci = values[F_ACI];
+        validationCode = values[F_VALIDATIONCODE];
+        ccTransId = values[F_CCTRANSID];
+        ccTrans_PosData = values[F_CCTRANS_POSDATA];
+        parId = values[F_PARID];
     }
 
     /**
@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 
 /**
  * Used for PayPal User account information
@@ -30,6 +32,7 @@ public final class UserInfo extends BaseRequestDataObject {
     private String vendor;
     private String partner;
     private String pwd;
+    private RequestFragment fragment;
 
     /**
      * Constructor
@@ -48,9 +51,52 @@ public final class UserInfo extends BaseRequestDataObject {
     }
 
     protected void generateRequest() {
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER, user));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_VENDOR, vendor));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PARTNER, partner));
-        super.getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PWD, pwd));
+        compile().appendTo(getRequestBuffer());
+    }
+
+    /**
+     * Writes the vendor and partner of the XMLPay RequestData.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the elements can not be written.
+     */
+    protected void generateXmlPayRequest(XmlPayWriter writer) throws XMLStreamException {
+        writer.writeElement(PayflowConstants.XML_PARAM_VENDOR, vendor);
+        writer.writeElement(PayflowConstants.XML_PARAM_PARTNER, partner);
+    }
+
+    /**
+     * Writes the XMLPay RequestAuth, which holds the user and password.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the elements can not be written.
+     */
+    protected void generateXmlPayRequestAuth(XmlPayWriter writer) throws XMLStreamException {
+        writer.startElement(PayflowConstants.XML_PARAM_REQUESTAUTH);
+        writer.startElement(PayflowConstants.XML_PARAM_USERPASS);
+        writer.writeElement(PayflowConstants.XML_PARAM_USER, user);
+        writer.writeElement(PayflowConstants.XML_PARAM_PASSWORD, pwd);
+        writer.endElement();
+        writer.endElement();
+    }
+
+    /**
+     * Encodes the user credentials once. UserInfo cannot be changed after construction,
+     * so all transactions that use this UserInfo share the same encoded fragment.
+     *
+     * @return fragment RequestFragment
+     */
+    public RequestFragment compile() {
+        RequestFragment compiled = fragment;
+        if (compiled == null) {
+            StringBuilder request = new StringBuilder();
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_USER, user);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_VENDOR, vendor);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_PARTNER, partner);
+            PayflowUtility.appendToRequest(request, PayflowConstants.PARAM_PWD, pwd);
+            compiled = new RequestFragment(request.toString());
+            fragment = compiled;
+        }
+        return compiled;
     }
 }
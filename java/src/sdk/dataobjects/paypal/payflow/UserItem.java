@@ -270,16 +270,16 @@ public final class UserItem extends BaseRequestDataObject {
     }
     protected void generateRequest() {
         try {
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER1, userItem1));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER2, userItem2));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER3, userItem3));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER4, userItem4));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER5, userItem5));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER6, userItem6));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER7, userItem7));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER8, userItem8));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER9, userItem9));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_USER10, userItem10));
+            appendToRequest(PayflowConstants.PARAM_USER1, userItem1);
+            appendToRequest(PayflowConstants.PARAM_USER2, userItem2);
+            appendToRequest(PayflowConstants.PARAM_USER3, userItem3);
+            appendToRequest(PayflowConstants.PARAM_USER4, userItem4);
+            appendToRequest(PayflowConstants.PARAM_USER5, userItem5);
+            appendToRequest(PayflowConstants.PARAM_USER6, userItem6);
+            appendToRequest(PayflowConstants.PARAM_USER7, userItem7);
+            appendToRequest(PayflowConstants.PARAM_USER8, userItem8);
+            appendToRequest(PayflowConstants.PARAM_USER9, userItem9);
+            appendToRequest(PayflowConstants.PARAM_USER10, userItem10);
         } catch (Exception ex) {
             ErrorObject err = new ErrorObject(PayflowConstants.SEVERITY_FATAL, "", ex.toString());
             if (getContext() != null) {
@@ -0,0 +1,304 @@
+package paypal.payflow;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Decodes an XMLPay response into the parameter tables the name value pair responses
+ * are read into, so that an XMLPay response fills the same TransactionResponse and
+ * FraudResponse objects as a name value pair response.
+ * <p>
+ * The response is read as a stream, in one pass. Each TransactionResult element gives
+ * one table, keyed by the Payflow parameter names:
+ * <ul>
+ * <li>Result, Message, PNRef, AuthCode, HostCode, OrigResult and IAVSResult give RESULT,
+ * RESPMSG, PNREF, AUTHCODE, HOSTCODE, ORIGRESULT and IAVS,</li>
+ * <li>AVSResult/StreetMatch, AVSResult/ZipMatch and CVResult give AVSADDR, AVSZIP and
+ * CVV2MATCH, with Match as Y, No Match as N and any other result as X,</li>
+ * <li>ProcessorResult/AVSResult and ProcessorResult/CVResult give PROCAVS and PROCCVV2,</li>
+ * <li>the Message and XMLData of FraudPreprocessResult and FraudPostprocessResult give
+ * PREFPSMSG, FPS_PREXMLDATA, POSTFPSMSG and FPS_POSTXMLDATA,</li>
+ * <li>each ExtData element gives the parameter named by its Name attribute.</li>
+ * </ul>
+ * Other elements are skipped. Values are trimmed, as name value pair values are.
+ * The Id attribute of each TransactionResult can also be read, to match the results of
+ * an XmlPayBatch request to its transactions.
+ */
+final class XmlPayResponseDecoder {
+
+    /**
+     * Parameter names of the elements directly in a TransactionResult.
+     */
+    private static final HashMap<String, String> RESULT_FIELDS = new HashMap<String, String>();
+
+    /**
+     * Parameter names of the elements in the groups of a TransactionResult, by group name.
+     */
+    private static final HashMap<String, HashMap<String, String>> GROUP_FIELDS = new HashMap<String, HashMap<String, String>>();
+
+    static {
+        RESULT_FIELDS.put(PayflowConstants.XML_PARAM_RESULT, PayflowConstants.PARAM_RESULT);
+        RESULT_FIELDS.put(PayflowConstants.XML_PARAM_MESSAGE, PayflowConstants.PARAM_RESPMSG);
+        RESULT_FIELDS.put(PayflowConstants.XML_PARAM_PNREF, PayflowConstants.PARAM_PNREF);
+        RESULT_FIELDS.put(PayflowConstants.XML_PARAM_AUTHCODE, PayflowConstants.PARAM_AUTHCODE);
+        RESULT_FIELDS.put(PayflowConstants.XML_PARAM_HOSTCODE, PayflowConstants.PARAM_HOSTCODE);
+        RESULT_FIELDS.put(PayflowConstants.XML_PARAM_ORIGRESULT, PayflowConstants.PARAM_ORIGRESULT);
+        RESULT_FIELDS.put(PayflowConstants.XML_PARAM_IAVSRESULT, PayflowConstants.PARAM_IAVS);
+        RESULT_FIELDS.put(PayflowConstants.XML_PARAM_CVRESULT, PayflowConstants.PARAM_CVV2MATCH);
+
+        HashMap<String, String> avsFields = new HashMap<String, String>();
+        avsFields.put(PayflowConstants.XML_PARAM_STREETMATCH, PayflowConstants.PARAM_AVSADDR);
+        avsFields.put(PayflowConstants.XML_PARAM_ZIPMATCH, PayflowConstants.PARAM_AVSZIP);
+        GROUP_FIELDS.put(PayflowConstants.XML_PARAM_AVSRESULT, avsFields);
+
+        HashMap<String, String> processorFields = new HashMap<String, String>();
+        processorFields.put(PayflowConstants.XML_PARAM_AVSRESULT, PayflowConstants.PARAM_PROCAVS);
+        processorFields.put(PayflowConstants.XML_PARAM_CVRESULT, PayflowConstants.PARAM_PROCCVV2);
+        GROUP_FIELDS.put(PayflowConstants.XML_PARAM_PROCESSORRESULT, processorFields);
+
+        HashMap<String, String> preFpsFields = new HashMap<String, String>();
+        preFpsFields.put(PayflowConstants.XML_PARAM_MESSAGE, PayflowConstants.PARAM_PREFPSMSG);
+        preFpsFields.put(PayflowConstants.XML_PARAM_XMLDATA, PayflowConstants.PARAM_FPS_PREXMLDATA);
+        GROUP_FIELDS.put(PayflowConstants.XML_PARAM_FRAUDPREPROCESSRESULT, preFpsFields);
+
+        HashMap<String, String> postFpsFields = new HashMap<String, String>();
+        postFpsFields.put(PayflowConstants.XML_PARAM_MESSAGE, PayflowConstants.PARAM_POSTFPSMSG);
+        postFpsFields.put(PayflowConstants.XML_PARAM_XMLDATA, PayflowConstants.PARAM_FPS_POSTXMLDATA);
+        GROUP_FIELDS.put(PayflowConstants.XML_PARAM_FRAUDPOSTPROCESSRESULT, postFpsFields);
+    }
+
+    /**
+     * Private constructor for XmlPayResponseDecoder
+     */
+    private XmlPayResponseDecoder() {
+    }
+
+    /**
+     * Decodes an XMLPay response.
+     *
+     * @param xmlPayResponse String
+     * @return results ArrayList : one HashMap of parameters per TransactionResult, in
+     *         document order.
+     * @throws XMLStreamException if the response is not well formed.
+     */
+    protected static ArrayList<HashMap<String, String>> decode(String xmlPayResponse) throws XMLStreamException {
+        return decode(xmlPayResponse, null);
+    }
+
+    /**
+     * Decodes an XMLPay response, also reading the Id attribute of each TransactionResult.
+     *
+     * @param xmlPayResponse String
+     * @param resultIds      ArrayList : filled with the Id of each TransactionResult, in
+     *                       document order, null for a result without one. May be null.
+     * @return results ArrayList : one HashMap of parameters per TransactionResult, in
+     *         document order.
+     * @throws XMLStreamException if the response is not well formed.
+     */
+    protected static ArrayList<HashMap<String, String>> decode(String xmlPayResponse, ArrayList<String> resultIds) throws XMLStreamException {
+        ArrayList<HashMap<String, String>> results = new ArrayList<HashMap<String, String>>(1);
+        XMLStreamReader reader = XmlStreams.createReader(xmlPayResponse);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                        && PayflowConstants.XML_PARAM_TRANSACTIONRESULT.equals(reader.getLocalName())) {
+                    if (resultIds != null) {
+                        resultIds.add(reader.getAttributeValue(null, PayflowConstants.XML_PARAM_ID));
+                    }
+                    results.add(decodeTransactionResult(reader));
+                }
+            }
+        } finally {
+            XmlStreams.close(reader);
+        }
+        return results;
+    }
+
+    /**
+     * Decodes a TransactionResult element. The reader is on the start of the element and
+     * is left on its end.
+     *
+     * @param reader XMLStreamReader
+     * @return parameters HashMap
+     * @throws XMLStreamException if the response is not well formed.
+     */
+    private static HashMap<String, String> decodeTransactionResult(XMLStreamReader reader) throws XMLStreamException {
+        HashMap<String, String> parameters = new HashMap<String, String>();
+        // fields of the group element being read, null when reading the result itself
+        HashMap<String, String> groupFields = null;
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (groupFields != null) {
+                    putField(reader, groupFields.get(name), parameters);
+                } else if (PayflowConstants.XML_PARAM_EXTDATA.equals(name)) {
+                    String extDataName = reader.getAttributeValue(null, PayflowConstants.XML_PARAM_EXTDATA_NAME);
+                    if (extDataName != null && extDataName.trim().length() > 0) {
+                        String extDataValue = reader.getAttributeValue(null, PayflowConstants.XML_PARAM_EXTDATA_VALUE);
+                        parameters.put(extDataName.trim(), extDataValue == null ? PayflowConstants.EMPTY_STRING : extDataValue.trim());
+                    }
+                    XmlStreams.skipElement(reader);
+                } else if (GROUP_FIELDS.containsKey(name)) {
+                    groupFields = GROUP_FIELDS.get(name);
+                } else {
+                    putField(reader, RESULT_FIELDS.get(name), parameters);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (groupFields == null) {
+                    return parameters;
+                }
+                groupFields = null;
+            }
+        }
+    }
+
+    /**
+     * Reads an element into a parameter, or skips it if it does not map to one. The reader
+     * is on the start of the element and is left on its end.
+     *
+     * @param reader     XMLStreamReader
+     * @param field      String : parameter name, null to skip the element.
+     * @param parameters HashMap
+     * @throws XMLStreamException if the response is not well formed.
+     */
+    private static void putField(XMLStreamReader reader, String field, HashMap<String, String> parameters) throws XMLStreamException {
+        if (field == null) {
+            XmlStreams.skipElement(reader);
+        } else if (PayflowConstants.PARAM_FPS_PREXMLDATA.equals(field) || PayflowConstants.PARAM_FPS_POSTXMLDATA.equals(field)) {
+            parameters.put(field, readMarkup(reader));
+        } else {
+            String value = readText(reader).trim();
+            if (PayflowConstants.PARAM_AVSADDR.equals(field) || PayflowConstants.PARAM_AVSZIP.equals(field)
+                    || PayflowConstants.PARAM_CVV2MATCH.equals(field)) {
+                value = toMatchCode(value);
+            }
+            parameters.put(field, value);
+        }
+    }
+
+    /**
+     * Gives the name value pair code of an XMLPay match result: Y for Match, N for No Match
+     * and X for any other result. One letter codes are kept.
+     *
+     * @param value String
+     * @return code String
+     */
+    private static String toMatchCode(String value) {
+        if (value.length() <= 1) {
+            return value;
+        }
+        if (PayflowConstants.XML_PARAM_MATCH.equalsIgnoreCase(value)) {
+            return "Y";
+        }
+        if (PayflowConstants.XML_PARAM_NO_MATCH.equalsIgnoreCase(value)) {
+            return "N";
+        }
+        return "X";
+    }
+
+    /**
+     * Reads the text of an element, including the text of the elements in it. The reader
+     * is on the start of the element and is left on its end.
+     *
+     * @param reader XMLStreamReader
+     * @return text String
+     * @throws XMLStreamException if the response is not well formed.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        String text = null;
+        StringBuilder texts = null;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                // most elements hold one piece of text, which is taken as it is
+                if (text == null) {
+                    text = reader.getText();
+                } else {
+                    if (texts == null) {
+                        texts = new StringBuilder(text);
+                    }
+                    texts.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+            }
+        }
+        if (texts != null) {
+            return texts.toString();
+        }
+        return text == null ? PayflowConstants.EMPTY_STRING : text;
+    }
+
+    /**
+     * Reads the content of an element as markup, such as the fraud rules in an XMLData
+     * element. Elements and attributes are written by their local names. The reader is on
+     * the start of the element and is left on its end.
+     *
+     * @param reader XMLStreamReader
+     * @return markup String
+     * @throws XMLStreamException if the response is not well formed.
+     */
+    private static String readMarkup(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder markup = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                markup.append('<').append(reader.getLocalName());
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    markup.append(' ').append(reader.getAttributeLocalName(i)).append("=\"");
+                    escape(reader.getAttributeValue(i), markup);
+                    markup.append('"');
+                }
+                markup.append('>');
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                if (depth > 0) {
+                    markup.append("</").append(reader.getLocalName()).append('>');
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                escape(reader.getText(), markup);
+            }
+        }
+        return markup.toString().trim();
+    }
+
+    /**
+     * Writes text escaped for element content or a double quoted attribute value.
+     *
+     * @param text   String
+     * @param markup StringBuilder
+     */
+    private static void escape(String text, StringBuilder markup) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    markup.append("&amp;");
+                    break;
+                case '<':
+                    markup.append("&lt;");
+                    break;
+                case '>':
+                    markup.append("&gt;");
+                    break;
+                case '"':
+                    markup.append("&quot;");
+                    break;
+                default:
+                    markup.append(c);
+                    break;
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * This class is used to create and perform an
  * Authorization Transaction.
@@ -463,16 +465,36 @@ public class AuthorizationTransaction extends BaseTransaction {
     protected void generateRequest() {
         try {
             super.generateRequest();
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ORIGID, origId));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_PARTIALAUTH, partialAuth));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CREATESECURETOKEN, createSecureToken));
-            getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SECURETOKENID, secureTokenId));
+            appendToRequest(PayflowConstants.PARAM_ORIGID, origId);
+            appendToRequest(PayflowConstants.PARAM_PARTIALAUTH, partialAuth);
+            appendToRequest(PayflowConstants.PARAM_CREATESECURETOKEN, createSecureToken);
+            appendToRequest(PayflowConstants.PARAM_SECURETOKENID, secureTokenId);
         } catch (Exception ex) {
             ErrorObject error = PayflowUtility.populateCommError(PayflowConstants.E_UNKNOWN_STATE, ex, PayflowConstants.SEVERITY_FATAL, false, null);
             getContext().addError(error);
         }
     }
 
+    /**
+     * Gets the original transaction id written as the XMLPay PNRef.
+     *
+     * @return origId String
+     */
+    protected String getXmlPayOrigId() {
+        return origId;
+    }
+
+    /**
+     * Writes the XMLPay PartialAuth of the authorization.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the element can not be written.
+     */
+    protected void generateXmlPayElements(XmlPayWriter writer) throws XMLStreamException {
+        writer.writeElement(PayflowConstants.XML_PARAM_PARTIALAUTH, partialAuth);
+        writer.carry(PayflowConstants.PARAM_PARTIALAUTH);
+    }
+
 
 }
 
@@ -1,5 +1,9 @@
 package paypal.payflow;
 
+import javax.xml.stream.XMLStreamException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 
 
@@ -65,7 +69,7 @@ public class BaseTransaction {
      * ExtendData has a parameter name and value and is used for sending any additional parameter currently not
      * supported by the SDK.
      */
-    private ArrayList extData;
+    private ArrayList<ExtendData> extData;
 
     /**
      * Type of transaction to perform, indicated by a single character.
@@ -128,7 +132,13 @@ public class BaseTransaction {
     /**
      * Request Buffer. This is used to build the request string in Name-Value pair format from Data Objects.
      */
-    private StringBuffer requestBuffer;
+    private StringBuilder requestBuffer;
+
+    /**
+     * Initial capacity of the request buffer; large enough for a typical sale with
+     * billing and shipping details.
+     */
+    private static final int REQUEST_BUFFER_CAPACITY = 1024;
 
     /**
      * Client Header Information
@@ -140,6 +150,11 @@ public class BaseTransaction {
      */
     private BuyerAuthStatus buyerAuthStatus;
 
+    /**
+     * True if the transaction is sent as an XMLPay request instead of a Name-Value Pair request.
+     */
+    private boolean isXmlPayRequest;
+
     /**
      * @return Buyer auth status object
      */
@@ -175,7 +190,7 @@ public class BaseTransaction {
      * ............
      * ArrayList extDataList = trans.getExtendData();
      */
-    public ArrayList getExtData() {
+    public ArrayList<ExtendData> getExtData() {
         return extData;
     }
 
@@ -187,7 +202,7 @@ public class BaseTransaction {
     public void setExtData(ExtendData extData) {
 
         if (this.extData == null) {
-            this.extData = new ArrayList();
+            this.extData = new ArrayList<ExtendData>();
         }
         if (extData != null) {
             extData.setContext(context);
@@ -271,6 +286,15 @@ public class BaseTransaction {
         return response;
     }
 
+    /**
+     * Sets the response of the transaction, when it is submitted as part of an XMLPay batch.
+     *
+     * @param response Response
+     */
+    protected void setResponse(Response response) {
+        this.response = response;
+    }
+
     /**
      * gets the tender object
      *
@@ -361,6 +385,33 @@ public class BaseTransaction {
         this.verbosity = verbosity;
     }
 
+    /**
+     * Checks whether the transaction is sent as an XMLPay request.
+     *
+     * @return isXmlPayRequest boolean
+     */
+    public boolean getIsXmlPayRequest() {
+        return isXmlPayRequest;
+    }
+
+    /**
+     * Sets whether the transaction is sent as an XMLPay request instead of a Name-Value Pair
+     * request. The XMLPay request is written from the same data objects: the user, the
+     * invoice with its addresses and amounts, the card, ACH or check tender and the extend
+     * data. Sale, Authorization, Credit, Delayed Capture, Void and Inquiry transactions can
+     * be sent as XMLPay.
+     *
+     * @param isXmlPayRequest boolean
+     *  ............
+     * //Trans is the transaction object.
+     * ............
+     * trans.setIsXmlPayRequest(true);
+     * Response resp = trans.submitTransaction();
+     */
+    public void setIsXmlPayRequest(boolean isXmlPayRequest) {
+        this.isXmlPayRequest = isXmlPayRequest;
+    }
+
     /**
      * Gets the context object
      * of the current transaction.
@@ -377,20 +428,30 @@ public class BaseTransaction {
     }
 
     /**
-     * Gets the StringBuffer object for RequestBuffer.
+     * Gets the StringBuilder object for RequestBuffer.
      *
-     * @return requestBuffer StringBuffer
+     * @return requestBuffer StringBuilder
      */
-    protected StringBuffer getRequestBuffer() {
+    protected StringBuilder getRequestBuffer() {
         return requestBuffer;
     }
 
+    /**
+     * Appends a name value pair to the request buffer. Null values are skipped.
+     *
+     * @param name  String
+     * @param value Object
+     */
+    protected void appendToRequest(String name, Object value) {
+        PayflowUtility.appendToRequest(requestBuffer, name, value);
+    }
+
     /**
      * protected Constructor. This prevents
      * creation of an empty Transaction object.
      */
     protected BaseTransaction() {
-        requestBuffer = new StringBuffer();
+        requestBuffer = new StringBuilder();
         context = new Context();
         context.setLoadLoggerErrs(true);
     }
@@ -557,6 +618,8 @@ public class BaseTransaction {
     public Response submitTransaction() {
 
         PayflowAPI objPayflowApi = null;
+        String xmlPayRequest = null;
+        byte[] nvpRequest = null;
         String responseValue = null;
         boolean fatal = false;
         //Logger.getInstance().log("########### BEGIN TRANSACTION ###########", PayflowConstants.SEVERITY_INFO);
@@ -566,23 +629,32 @@ public class BaseTransaction {
                 clientInfo = new ClientInfo();
             }
             //Check for the errors in the context now.
-            ArrayList errors = PayflowUtility.alignContext(context, false);
+            ArrayList<ErrorObject> errors = PayflowUtility.alignContext(context, false);
             context.setLoadLoggerErrs(false);
             context.clearErrors();
             context.addErrors(errors);
-            generateRequest();
+            // Build the request once; the data objects report their validation errors
+            // to the context while they are encoded.
+            if (isXmlPayRequest) {
+                xmlPayRequest = generateXmlPayRequest();
+            } else {
+                generateRequest();
+            }
             if (context.getHighestErrorLvl()
                     == PayflowConstants.SEVERITY_FATAL) {
                 Logger.getInstance().log("paypal.payflow.BaseTransaction.SubmitTransaction(): Exiting", PayflowConstants.SEVERITY_DEBUG);
                 fatal = true;
             }
             if (!fatal) {
-                generateRequest();
-                request = requestBuffer.toString();
-                //Remove the trailing PayflowConstants.DELIMITER_NVP;
-                int parmListLen = request.length();
-                if (parmListLen > 0 && request.charAt(parmListLen - 1) == '&') {
-                    request = request.substring(0, parmListLen - 1);
+                if (!isXmlPayRequest) {
+                    // Encode the build buffer straight into the bytes sent, which are the copy
+                    // kept from here on, without a request string in between; then free the
+                    // build buffer, which the data objects still hold a reference to.
+                    ByteBuffer encoded = Charset.defaultCharset().encode(CharBuffer.wrap(requestBuffer));
+                    nvpRequest = new byte[encoded.remaining()];
+                    encoded.get(nvpRequest);
+                    requestBuffer.setLength(0);
+                    requestBuffer.trimToSize();
                 }
                 //Call the api from here and submit transaction
 
@@ -600,7 +672,11 @@ public class BaseTransaction {
 
                 objPayflowApi.isStrongAssemblyTransaction = true;
                 objPayflowApi.setClientInfo(clientInfo);
-                responseValue = objPayflowApi.submitTransaction(request, requestId);
+                if (nvpRequest != null) {
+                    responseValue = objPayflowApi.submitNvpTransaction(nvpRequest, requestId);
+                } else {
+                    responseValue = objPayflowApi.submitTransaction(xmlPayRequest, requestId);
+                }
 
                 Logger.getInstance().log("paypal.payflow.BaseTransaction.SubmitTransaction(): Exiting", PayflowConstants.SEVERITY_DEBUG);
             }
@@ -621,11 +697,9 @@ public class BaseTransaction {
                 //created.
                 //Check the first fatal error in context and
                 //put its response value to string.
-                if (request != null && request.length() > 0) {
-                    request = PayflowUtility.maskSensitiveFields(request);
-                }
-                ArrayList errorList = context.getErrors(PayflowConstants.SEVERITY_FATAL);
-                ErrorObject firstFatalError = (ErrorObject) errorList.get(0);
+                request = PayflowUtility.maskSensitiveFields(xmlPayRequest);
+                ArrayList<ErrorObject> errorList = context.getErrors(PayflowConstants.SEVERITY_FATAL);
+                ErrorObject firstFatalError = errorList.get(0);
                 responseValue = firstFatalError.toString();
             }
 
@@ -641,7 +715,11 @@ public class BaseTransaction {
             }
 
             response.setRequestString(request);
-            response.setParams(responseValue);
+            if (isXmlPayRequest && responseValue != null && responseValue.indexOf(PayflowConstants.XML_RESP_ID) >= 0) {
+                response.setXmlPayParams(responseValue);
+            } else {
+                response.setParams(responseValue);
+            }
 
             //Log the context
             if (context.isErrorContained()) {
@@ -658,15 +736,15 @@ public class BaseTransaction {
     protected void generateRequest() {
 
         Logger.getInstance().log("paypal.payflow.BaseTransaction.generateRequest(): Entered", PayflowConstants.SEVERITY_DEBUG);
-        requestBuffer = new StringBuffer();
-        requestBuffer.append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_TRXTYPE, trxType));
-        requestBuffer.append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_VERBOSITY, verbosity));
+        requestBuffer = new StringBuilder(REQUEST_BUFFER_CAPACITY);
+        appendToRequest(PayflowConstants.PARAM_TRXTYPE, trxType);
+        appendToRequest(PayflowConstants.PARAM_VERBOSITY, verbosity);
 
         if (extData != null && extData.size() > 0) {
             ExtendData objExtendData;
             for (int i = 0; i < extData.size(); i++) {
                 if (extData.get(i) != null) {
-                    objExtendData = (ExtendData) extData.get(i);
+                    objExtendData = extData.get(i);
                     objExtendData.setRequestBuffer(getRequestBuffer());
                     objExtendData.generateRequest();
                 }
@@ -682,8 +760,8 @@ public class BaseTransaction {
             invoice.generateRequest();
         }
         if (userInfo != null) {
-            userInfo.setRequestBuffer(requestBuffer);
-            userInfo.generateRequest();
+            // splice in the pre-encoded credentials
+            userInfo.compile().appendTo(requestBuffer);
         }
         if (buyerAuthStatus != null) {
             buyerAuthStatus.setRequestBuffer(requestBuffer);
@@ -692,6 +770,206 @@ public class BaseTransaction {
         Logger.getInstance().log("paypal.payflow.BaseTransaction.generateRequest(): Exiting", PayflowConstants.SEVERITY_DEBUG);
     }
 
+    /**
+     * Generates the transaction request as an XMLPay request.
+     *
+     * @return request String
+     * @throws XMLStreamException if the request can not be written.
+     */
+    protected String generateXmlPayRequest() throws XMLStreamException {
+
+        Logger.getInstance().log("paypal.payflow.BaseTransaction.generateXmlPayRequest(): Entered", PayflowConstants.SEVERITY_DEBUG);
+        XmlPayWriter writer = new XmlPayWriter();
+        writer.startDocument();
+        writer.startElement(PayflowConstants.XMLPAY_REQUEST_TAG);
+        writer.writeDefaultNamespace(PayflowConstants.XMLPAY_NAMESPACE);
+        writer.writeAttribute(PayflowConstants.XML_PARAM_VERSION, PayflowConstants.XMLPAY_VERSION);
+
+        writer.startElement(PayflowConstants.XML_PARAM_REQUESTDATA);
+        if (userInfo != null) {
+            userInfo.generateXmlPayRequest(writer);
+        }
+        writer.startElement(PayflowConstants.XML_PARAM_TRANSACTIONS);
+        generateXmlPayTransaction(writer, null);
+        writer.endElement();
+        writer.endElement();
+
+        if (userInfo != null) {
+            userInfo.generateXmlPayRequestAuth(writer);
+        }
+        String xmlPayRequest = writer.toXml();
+        Logger.getInstance().log("paypal.payflow.BaseTransaction.generateXmlPayRequest(): Exiting", PayflowConstants.SEVERITY_DEBUG);
+        return xmlPayRequest;
+    }
+
+    /**
+     * Writes the XMLPay Transaction element of the transaction.
+     * <p>
+     * The name value pairs of the transaction are generated as for a name value pair
+     * request, which also validates the data objects. The XMLPay elements carry what they
+     * can; every other name value pair is written as ExtData, which the server reads as
+     * the name value pair of the same name.
+     *
+     * @param writer        XmlPayWriter
+     * @param transactionId String : Id attribute of the Transaction element, null for none.
+     * @throws XMLStreamException if the elements can not be written.
+     */
+    protected void generateXmlPayTransaction(XmlPayWriter writer, String transactionId) throws XMLStreamException {
+        String operation = getXmlPayOperation();
+        if (operation == null) {
+            ErrorObject error = new ErrorObject(PayflowConstants.SEVERITY_FATAL, "",
+                    "Transaction type " + trxType + " can not be sent as XMLPay.");
+            context.addError(error);
+            return;
+        }
+        generateRequest();
+        NameValueList params = NameValueList.parse(requestBuffer.toString());
+        // The pairs are only read here; free the build buffer.
+        requestBuffer.setLength(0);
+        requestBuffer.trimToSize();
+        if (params == null) {
+            ErrorObject error = new ErrorObject(PayflowConstants.SEVERITY_FATAL, "",
+                    "Transaction can not be sent as XMLPay.");
+            context.addError(error);
+            return;
+        }
+        writer.startElement(PayflowConstants.XML_PARAM_TRANSACTION);
+        writer.writeAttribute(PayflowConstants.XML_PARAM_ID, transactionId);
+        writer.writeElement(PayflowConstants.XML_PARAM_VERBOSITY, verbosity);
+        writer.startElement(operation);
+        // The request data and request auth carry the user credentials.
+        writer.carry(PayflowConstants.PARAM_TRXTYPE, PayflowConstants.PARAM_VERBOSITY, PayflowConstants.PARAM_USER,
+                PayflowConstants.PARAM_VENDOR, PayflowConstants.PARAM_PARTNER, PayflowConstants.PARAM_PWD);
+        generateXmlPayReference(writer, operation);
+        if (tender != null) {
+            writer.startElement(PayflowConstants.XML_PARAM_PAYDATA);
+            if (invoice != null) {
+                invoice.generateXmlPayRequest(writer);
+            }
+            tender.generateXmlPayRequest(writer);
+            writer.endElement();
+        } else if (invoice != null) {
+            invoice.generateXmlPayRequest(writer);
+        }
+        generateXmlPayElements(writer);
+        for (int i = 0; i < params.size(); i++) {
+            String name = params.getName(i);
+            if (writer.isCarried(name)) {
+                continue;
+            }
+            if (NvpMasker.isSensitive(name)) {
+                // ExtData is not masked in the logged request.
+                ErrorObject error = new ErrorObject(PayflowConstants.SEVERITY_FATAL, "",
+                        "Parameter " + name + " can not be sent as XMLPay.");
+                context.addError(error);
+                continue;
+            }
+            new ExtendData(name, params.getValue(i)).generateXmlPayRequest(writer);
+        }
+        writer.endElement();
+        writer.endElement();
+    }
+
+    /**
+     * Writes the original transaction of the transaction: the PNRef, or else the PPRef, of
+     * a capture, credit or void; the PNRef of an inquiry; the ReferenceTransaction of a sale
+     * or authorization, which also needs the amount and tender type. An original
+     * transaction which can not be written this way is written as ExtData.
+     *
+     * @param writer    XmlPayWriter
+     * @param operation String : XMLPay element of the transaction type.
+     * @throws XMLStreamException if the elements can not be written.
+     */
+    private void generateXmlPayReference(XmlPayWriter writer, String operation) throws XMLStreamException {
+        String origId = getXmlPayOrigId();
+        String origPPRef = getXmlPayOrigPPRef();
+        if (origId == null && origPPRef == null) {
+            return;
+        }
+        if (PayflowConstants.XML_PARAM_GETSTATUS.equals(operation)) {
+            writer.writeElement(PayflowConstants.XML_PARAM_PNREF, origId);
+            writer.carry(PayflowConstants.PARAM_ORIGID);
+            return;
+        }
+        boolean isPayment = PayflowConstants.XML_PARAM_SALE.equals(operation)
+                || PayflowConstants.XML_PARAM_AUTHORIZATION.equals(operation);
+        Currency amt = invoice != null ? invoice.getAmt() : null;
+        String tenderType = tender != null ? tender.getXmlPayTenderElement() : null;
+        if (isPayment && (amt == null || tenderType == null)) {
+            return;
+        }
+        if (isPayment) {
+            writer.startElement(PayflowConstants.XML_PARAM_REFERENCETRANSACTION);
+        }
+        if (origId != null) {
+            writer.writeElement(PayflowConstants.XML_PARAM_PNREF, origId);
+            writer.carry(PayflowConstants.PARAM_ORIGID);
+        } else {
+            writer.writeElement(PayflowConstants.XML_PARAM_PPREF, origPPRef);
+            writer.carry(PayflowConstants.PARAM_ORIGPPREF);
+        }
+        if (isPayment) {
+            writer.startElement(PayflowConstants.XML_PARAM_TOTALAMT);
+            writer.writeAttribute(PayflowConstants.XML_PARAM_CURRENCY, amt.getCurrencyCode());
+            writer.writeCharacters(amt.toString());
+            writer.endElement();
+            writer.writeElement(PayflowConstants.XML_PARAM_TENDERTYPE, tenderType);
+            writer.endElement();
+        }
+    }
+
+    /**
+     * Writes the XMLPay elements which follow the payment data of the transaction type.
+     * Transactions which have such elements override this.
+     *
+     * @param writer XmlPayWriter
+     * @throws XMLStreamException if the elements can not be written.
+     */
+    protected void generateXmlPayElements(XmlPayWriter writer) throws XMLStreamException {
+    }
+
+    /**
+     * Gets the original transaction id written as the XMLPay PNRef. Transactions which
+     * refer to an earlier transaction override this.
+     *
+     * @return origId String, null if the transaction has no original transaction.
+     */
+    protected String getXmlPayOrigId() {
+        return null;
+    }
+
+    /**
+     * Gets the original PayPal transaction id written as the XMLPay PPRef. Transactions
+     * which can refer to an earlier PayPal transaction override this.
+     *
+     * @return origPPRef String, null if the transaction has no original PayPal transaction.
+     */
+    protected String getXmlPayOrigPPRef() {
+        return null;
+    }
+
+    /**
+     * Gets the XMLPay element of the transaction type.
+     *
+     * @return operation String, null if the transaction type has no XMLPay element.
+     */
+    private String getXmlPayOperation() {
+        if (PayflowConstants.TRXTYPE_SALE.equals(trxType)) {
+            return PayflowConstants.XML_PARAM_SALE;
+        } else if (PayflowConstants.TRXTYPE_AUTH.equals(trxType)) {
+            return PayflowConstants.XML_PARAM_AUTHORIZATION;
+        } else if (PayflowConstants.TRXTYPE_CREDIT.equals(trxType)) {
+            return PayflowConstants.XML_PARAM_CREDIT;
+        } else if (PayflowConstants.TRXTYPE_CAPTURE.equals(trxType)) {
+            return PayflowConstants.XML_PARAM_CAPTURE;
+        } else if (PayflowConstants.TRXTYPE_VOID.equals(trxType)) {
+            return PayflowConstants.XML_PARAM_VOID;
+        } else if (PayflowConstants.TRXTYPE_INQUIRY.equals(trxType)) {
+            return PayflowConstants.XML_PARAM_GETSTATUS;
+        }
+        return null;
+    }
+
     /**
      * Clears the Extend Data list held by
      * transaction object.
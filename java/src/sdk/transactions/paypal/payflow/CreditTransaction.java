@@ -505,8 +505,26 @@ public final class CreditTransaction extends BaseTransaction {
      */
     protected void generateRequest() {
         super.generateRequest();
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ORIGID, origId));
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ORIGPPREF, origPPRef));
+        appendToRequest(PayflowConstants.PARAM_ORIGID, origId);
+        appendToRequest(PayflowConstants.PARAM_ORIGPPREF, origPPRef);
+    }
+
+    /**
+     * Gets the original transaction id written as the XMLPay PNRef.
+     *
+     * @return origId String
+     */
+    protected String getXmlPayOrigId() {
+        return origId;
+    }
+
+    /**
+     * Gets the original PayPal transaction id written as the XMLPay PPRef.
+     *
+     * @return origPPRef String
+     */
+    protected String getXmlPayOrigPPRef() {
+        return origPPRef;
     }
 
 }
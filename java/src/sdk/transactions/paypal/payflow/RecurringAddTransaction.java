@@ -166,6 +166,6 @@ public class RecurringAddTransaction extends RecurringTransaction {
 
     protected void generateRequest() {
         super.generateRequest();
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ORIGID, origId));
+        appendToRequest(PayflowConstants.PARAM_ORIGID, origId);
     }
 }
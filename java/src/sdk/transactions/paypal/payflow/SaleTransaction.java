@@ -225,9 +225,18 @@ public final class SaleTransaction extends BaseTransaction {
 
     protected void generateRequest() {
         super.generateRequest();
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_ORIGID, origId));
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_CREATESECURETOKEN, createSecureToken));
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_SECURETOKENID, secureTokenId));
+        appendToRequest(PayflowConstants.PARAM_ORIGID, origId);
+        appendToRequest(PayflowConstants.PARAM_CREATESECURETOKEN, createSecureToken);
+        appendToRequest(PayflowConstants.PARAM_SECURETOKENID, secureTokenId);
+    }
+
+    /**
+     * Gets the original transaction id written as the XMLPay PNRef.
+     *
+     * @return origId String
+     */
+    protected String getXmlPayOrigId() {
+        return origId;
     }
 
 }
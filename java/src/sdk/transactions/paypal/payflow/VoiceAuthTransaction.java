@@ -131,8 +131,8 @@ public final class VoiceAuthTransaction extends BaseTransaction {
 
     protected void generateRequest() {
         super.generateRequest();
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_AUTHCODE, mAuthCode));
-        getRequestBuffer().append(PayflowUtility.appendToRequest(PayflowConstants.PARAM_AUTHDATE, mAuthDate));
+        appendToRequest(PayflowConstants.PARAM_AUTHCODE, mAuthCode);
+        appendToRequest(PayflowConstants.PARAM_AUTHDATE, mAuthDate);
     }
 
 }
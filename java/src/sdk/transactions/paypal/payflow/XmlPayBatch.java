@@ -0,0 +1,419 @@
+package paypal.payflow;
+
+import javax.xml.stream.XMLStreamException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+
+/**
+ * Submits several transactions in XMLPay requests which each hold a number of
+ * transactions, so that back office work such as captures, voids and credits takes one
+ * round trip to the PayPal Payment Server per batch of transactions instead of one per
+ * transaction.
+ * <p>
+ * The transactions are written from their data objects, as for a transaction sent with
+ * setIsXmlPayRequest(true), and grouped in order into requests of at most the batch size.
+ * The requests are sent with the user and connection of the batch. Each Transaction element
+ * of a request carries an Id attribute, and each TransactionResult of the XMLPay response is
+ * given back to the transaction with the same Id, each transaction getting its own Response,
+ * also available from its getResponse(). When the results carry no Id, they are given back
+ * in order, provided there is one result per transaction.
+ * </p>
+ * <p>
+ * A transaction which can not be written, for example because of a fatal error in its data
+ * objects, is left out of its request and gets a response holding that error. A transaction
+ * for which the response has no result gets an error response holding the whole XMLPay
+ * response. When a request fails as a whole, for example because the server can not be
+ * reached or rejects the request, every transaction of that request gets the response of
+ * the request, or its one result without an Id. The other requests of the batch are still
+ * sent.
+ * </p>
+ * <p>
+ * The request id of a request is generated the first time the batch sends its transactions,
+ * and kept by the batch for those transactions. When a batch whose outcome is unknown, for
+ * example after a timeout, is submitted again with the same transactions, request ids and
+ * batch size, each request is sent with the request id it had before, so that the PayPal
+ * Payment Server returns the response of a request it already processed instead of
+ * processing its transactions again. Give a transaction a new request id to have it
+ * processed again.
+ * </p>
+ * <p>
+ * This example shows how to capture several authorizations in batches.
+ * </p>
+ * ..........
+ * //Populate required data objects.
+ * ..........
+ * XmlPayBatch batch = new XmlPayBatch(user, connection);
+ * batch.setBatchSize(20);
+ * for (int i = 0; i &lt; origIds.length; i++)
+ * {
+ * batch.addTransaction(new CaptureTransaction(origIds[i], user, connection, PayflowUtility.getRequestId()));
+ * }
+ * ArrayList&lt;Response&gt; responses = batch.submitTransactions();
+ * for (int i = 0; i &lt; responses.size(); i++)
+ * {
+ * TransactionResponse trxnResponse = responses.get(i).getTransactionResponse();
+ * System.out.println("RESULT = " + trxnResponse.getResult());
+ * System.out.println("PNREF = " + trxnResponse.getPnref());
+ * }
+ */
+public final class XmlPayBatch {
+
+    /**
+     * Payflow user credentials written into each request of the batch.
+     */
+    private UserInfo userInfo;
+
+    /**
+     * Connection parameters to connect to the PayPal Payment Server.
+     */
+    private PayflowConnectionData payflowConnectionData;
+
+    /**
+     * Transactions of the batch, in the order they are submitted.
+     */
+    private ArrayList<BaseTransaction> transactions;
+
+    /**
+     * Largest number of transactions sent in one request.
+     */
+    private int batchSize = PayflowConstants.XMLPAY_BATCH_SIZE;
+
+    /**
+     * Request ids of the requests sent, by the request ids of the transactions sent in them.
+     */
+    private final HashMap<ArrayList<String>, String> requestIds = new HashMap<ArrayList<String>, String>();
+
+    /**
+     * Constructor
+     *
+     * @param userInfo              UserInfo : UserInfo object populated with user credentials
+     * @param payflowConnectionData PayflowConnectionData : Connection credentials object
+     */
+    public XmlPayBatch(UserInfo userInfo, PayflowConnectionData payflowConnectionData) {
+        this.userInfo = userInfo;
+        this.payflowConnectionData = payflowConnectionData;
+        transactions = new ArrayList<BaseTransaction>();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param userInfo UserInfo : UserInfo object populated with user credentials
+     */
+    public XmlPayBatch(UserInfo userInfo) {
+        this(userInfo, null);
+    }
+
+    /**
+     * Gets the largest number of transactions sent in one request.
+     *
+     * @return batchSize int
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the largest number of transactions sent in one request. The default is 10.
+     * Values less than 1 are ignored.
+     *
+     * @param batchSize int
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize > 0) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * Adds a transaction to the batch.
+     *
+     * @param transaction BaseTransaction
+     */
+    public void addTransaction(BaseTransaction transaction) {
+        if (transaction != null) {
+            transactions.add(transaction);
+        }
+    }
+
+    /**
+     * Gets the transactions of the batch.
+     *
+     * @return transactions ArrayList
+     */
+    public ArrayList<BaseTransaction> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Clears the transactions of the batch.
+     */
+    public void clearTransactions() {
+        transactions.clear();
+    }
+
+    /**
+     * Submits the transactions of the batch to the PayPal Payment Gateway, batch size
+     * transactions per request.
+     *
+     * @return responses ArrayList : the Response of each transaction, in the order the
+     *         transactions were added.
+     */
+    public ArrayList<Response> submitTransactions() {
+        Logger.getInstance().log("paypal.payflow.XmlPayBatch.submitTransactions(): Entered", PayflowConstants.SEVERITY_DEBUG);
+        ArrayList<Response> responses = new ArrayList<Response>(transactions.size());
+        for (int start = 0; start < transactions.size(); start += batchSize) {
+            int end = Math.min(start + batchSize, transactions.size());
+            submitRequest(new ArrayList<BaseTransaction>(transactions.subList(start, end)));
+        }
+        for (int i = 0; i < transactions.size(); i++) {
+            responses.add(transactions.get(i).getResponse());
+        }
+        Logger.getInstance().log("paypal.payflow.XmlPayBatch.submitTransactions(): Exiting", PayflowConstants.SEVERITY_DEBUG);
+        return responses;
+    }
+
+    /**
+     * Writes the transactions into one XMLPay request, submits it and sets the response of
+     * each transaction.
+     *
+     * @param requestTransactions ArrayList : the transactions of the request.
+     */
+    private void submitRequest(ArrayList<BaseTransaction> requestTransactions) {
+        Logger.getInstance().log("paypal.payflow.XmlPayBatch.submitRequest(ArrayList): Entered", PayflowConstants.SEVERITY_DEBUG);
+        // the transactions which were written into the request
+        ArrayList<BaseTransaction> sentTransactions = new ArrayList<BaseTransaction>(requestTransactions.size());
+        // the number of transactions either written into the request or given a response
+        int generated = 0;
+        PayflowAPI objPayflowApi = null;
+        String request = null;
+        String responseValue = null;
+        try {
+            XmlPayWriter writer = new XmlPayWriter();
+            writer.startDocument();
+            writer.startElement(PayflowConstants.XMLPAY_REQUEST_TAG);
+            writer.writeDefaultNamespace(PayflowConstants.XMLPAY_NAMESPACE);
+            writer.writeAttribute(PayflowConstants.XML_PARAM_VERSION, PayflowConstants.XMLPAY_VERSION);
+            writer.startElement(PayflowConstants.XML_PARAM_REQUESTDATA);
+            if (userInfo != null) {
+                userInfo.generateXmlPayRequest(writer);
+            }
+            writer.startElement(PayflowConstants.XML_PARAM_TRANSACTIONS);
+            for (; generated < requestTransactions.size(); generated++) {
+                BaseTransaction transaction = requestTransactions.get(generated);
+                String transactionXml = generateTransaction(transaction, getTransactionId(sentTransactions.size()));
+                if (transactionXml != null) {
+                    writer.writeFragment(transactionXml);
+                    sentTransactions.add(transaction);
+                }
+            }
+            writer.endElement();
+            writer.endElement();
+            if (userInfo != null) {
+                userInfo.generateXmlPayRequestAuth(writer);
+            }
+            request = writer.toXml();
+
+            if (!sentTransactions.isEmpty()) {
+                if (payflowConnectionData != null) {
+                    objPayflowApi = new PayflowAPI(payflowConnectionData.getHostAddress(),
+                            payflowConnectionData.getHostPort(),
+                            payflowConnectionData.getTimeOut(),
+                            payflowConnectionData.getProxyAddress(),
+                            payflowConnectionData.getProxyPort(),
+                            payflowConnectionData.getProxyLogon(),
+                            payflowConnectionData.getProxyPassword());
+                } else {
+                    objPayflowApi = new PayflowAPI();
+                }
+                objPayflowApi.isStrongAssemblyTransaction = true;
+                responseValue = objPayflowApi.submitTransaction(request, getRequestId(sentTransactions));
+            }
+        } catch (Exception ex) {
+            ErrorObject error = PayflowUtility.populateCommError(PayflowConstants.E_UNKNOWN_STATE, ex, PayflowConstants.SEVERITY_FATAL, false, null);
+            for (int i = 0; i < sentTransactions.size(); i++) {
+                sentTransactions.get(i).getContext().addError(error);
+            }
+            // the transactions not reached before the error get the error as their response
+            for (int i = generated; i < requestTransactions.size(); i++) {
+                requestTransactions.get(i).getContext().addError(error);
+                setErrorResponse(requestTransactions.get(i), error);
+            }
+            responseValue = error.toString();
+        }
+
+        String requestId = null;
+        if (objPayflowApi != null) {
+            request = objPayflowApi.getTransactionRequest();
+            requestId = objPayflowApi.getRequestId();
+            ArrayList<ErrorObject> apiErrors = objPayflowApi.getTransactionContext().getErrors();
+            for (int i = 0; i < sentTransactions.size(); i++) {
+                sentTransactions.get(i).getContext().addErrors(apiErrors);
+            }
+        } else if (request != null) {
+            request = PayflowUtility.maskSensitiveFields(request);
+        }
+        setResponses(sentTransactions, requestId, request, responseValue);
+        Logger.getInstance().log("paypal.payflow.XmlPayBatch.submitRequest(ArrayList): Exiting", PayflowConstants.SEVERITY_DEBUG);
+    }
+
+    /**
+     * Writes the XMLPay Transaction element of a transaction. A transaction which has a
+     * fatal error gets a response holding the error instead.
+     *
+     * @param transaction   BaseTransaction
+     * @param transactionId String : Id attribute of the Transaction element.
+     * @return transactionXml String, null if the transaction can not be sent.
+     */
+    private String generateTransaction(BaseTransaction transaction, String transactionId) {
+        Context context = transaction.getContext();
+        //Check for the errors in the context now.
+        ArrayList<ErrorObject> errors = PayflowUtility.alignContext(context, false);
+        context.setLoadLoggerErrs(false);
+        context.clearErrors();
+        context.addErrors(errors);
+        String transactionXml = null;
+        try {
+            XmlPayWriter writer = new XmlPayWriter();
+            transaction.generateXmlPayTransaction(writer, transactionId);
+            transactionXml = writer.toXml();
+        } catch (Exception ex) {
+            ErrorObject error = PayflowUtility.populateCommError(PayflowConstants.E_UNKNOWN_STATE, ex, PayflowConstants.SEVERITY_FATAL, false, null);
+            context.addError(error);
+        }
+        if (context.getHighestErrorLvl() == PayflowConstants.SEVERITY_FATAL) {
+            ErrorObject firstFatalError = context.getErrors(PayflowConstants.SEVERITY_FATAL).get(0);
+            setErrorResponse(transaction, firstFatalError);
+            return null;
+        }
+        return transactionXml;
+    }
+
+    /**
+     * Gives a transaction which is not sent a response holding an error.
+     *
+     * @param transaction BaseTransaction
+     * @param error       ErrorObject : an error already in the context of the transaction.
+     */
+    private void setErrorResponse(BaseTransaction transaction, ErrorObject error) {
+        Context context = transaction.getContext();
+        Response response = new Response(transaction.getRequestId(), context);
+        response.setParams(error.toString());
+        context.logErrors();
+        transaction.setResponse(response);
+    }
+
+    /**
+     * Gets the Id attribute of a Transaction element of a request.
+     *
+     * @param index int : position of the transaction among those written into the request.
+     * @return transactionId String
+     */
+    private static String getTransactionId(int index) {
+        // an XML ID can not start with a digit
+        return "T" + (index + 1);
+    }
+
+    /**
+     * Gets the request id of a request: the request id the batch sent the same transactions
+     * with before, or a newly generated one.
+     *
+     * @param sentTransactions ArrayList
+     * @return requestId String
+     */
+    private String getRequestId(ArrayList<BaseTransaction> sentTransactions) {
+        ArrayList<String> transactionRequestIds = new ArrayList<String>(sentTransactions.size());
+        for (int i = 0; i < sentTransactions.size(); i++) {
+            transactionRequestIds.add(sentTransactions.get(i).getRequestId());
+        }
+        String requestId = requestIds.get(transactionRequestIds);
+        if (requestId == null) {
+            requestId = PayflowUtility.getRequestId();
+            requestIds.put(transactionRequestIds, requestId);
+        }
+        return requestId;
+    }
+
+    /**
+     * Sets the response of each transaction sent in a request. When the response is an
+     * XMLPay response, each transaction gets the TransactionResult with its Id, or, when
+     * the results carry no Id and there is one per transaction, the result in its position.
+     * A single result without an Id, such as the error of a request which failed as a
+     * whole, goes to each transaction which has no result of its own; a transaction left
+     * without a result gets an error response. Otherwise the request failed as a whole and
+     * each transaction gets the response of the request.
+     *
+     * @param sentTransactions ArrayList
+     * @param requestId        String
+     * @param request          String : the masked request.
+     * @param responseValue    String
+     */
+    private void setResponses(ArrayList<BaseTransaction> sentTransactions, String requestId, String request, String responseValue) {
+        ArrayList<HashMap<String, String>> results = null;
+        // the results by transaction Id, null when the results carry no Id
+        HashMap<String, HashMap<String, String>> resultsById = null;
+        // the one result without an Id, null when there is none or more than one
+        HashMap<String, String> requestResult = null;
+        if (responseValue != null && responseValue.indexOf(PayflowConstants.XML_RESP_ID) >= 0) {
+            ArrayList<String> resultIds = new ArrayList<String>();
+            try {
+                results = XmlPayResponseDecoder.decode(responseValue, resultIds);
+            } catch (XMLStreamException ex) {
+                // each response reports the error when it reads the response itself
+                results = null;
+            }
+            if (results != null) {
+                int withoutId = 0;
+                for (int i = 0; i < results.size(); i++) {
+                    if (resultIds.get(i) != null) {
+                        if (resultsById == null) {
+                            resultsById = new HashMap<String, HashMap<String, String>>();
+                        }
+                        resultsById.put(resultIds.get(i), results.get(i));
+                    } else {
+                        withoutId++;
+                        requestResult = results.get(i);
+                    }
+                }
+                if (withoutId != 1) {
+                    requestResult = null;
+                }
+            }
+        }
+        for (int i = 0; i < sentTransactions.size(); i++) {
+            BaseTransaction transaction = sentTransactions.get(i);
+            Context context = transaction.getContext();
+            Response response = new Response(requestId, context);
+            response.setRequestString(request);
+            if (resultsById != null) {
+                HashMap<String, String> result = resultsById.get(getTransactionId(i));
+                response.setXmlPayResult(responseValue, result != null ? result : copyResult(requestResult));
+            } else if (results != null && results.size() == sentTransactions.size()) {
+                response.setXmlPayResult(responseValue, results.get(i));
+            } else if (results != null) {
+                // a missing result, or one too many, leaves no way to match the others
+                response.setXmlPayResult(responseValue, copyResult(requestResult));
+            } else if (responseValue != null && responseValue.indexOf(PayflowConstants.XML_RESP_ID) >= 0) {
+                response.setXmlPayParams(responseValue);
+            } else {
+                response.setParams(responseValue);
+            }
+            if (context.isErrorContained()) {
+                context.logErrors();
+            }
+            transaction.setResponse(response);
+        }
+    }
+
+    /**
+     * Copies a result given to several transactions, since each response takes the values
+     * it reads out of its result.
+     *
+     * @param result HashMap, may be null.
+     * @return copy HashMap, null if the result is null.
+     */
+    private static HashMap<String, String> copyResult(HashMap<String, String> result) {
+        return result == null ? null : new HashMap<String, String>(result);
+    }
+}